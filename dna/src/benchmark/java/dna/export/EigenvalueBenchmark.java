@@ -0,0 +1,94 @@
+package dna.export;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the back-ends of the {@link EigenvalueSolver} on Laplacian matrices of random one-mode networks of the
+ * sizes that occur in backbone and time window analyses. For each network size, the eigenvalues are computed with
+ * each back-end, and the run time and the difference to the spectrum computed by ojalgo are printed. The difference
+ * is the sum of the absolute differences between the normalized spectra, which is the spectral distance used in the
+ * backbone algorithms.
+ *
+ * <p>Usage: {@code ./gradlew :dna:benchmark} or {@code ./gradlew :dna:benchmark --args="500 1000"}
+ */
+class EigenvalueBenchmark {
+	/**
+	 * Network sizes used if no sizes are given on the command line.
+	 */
+	private static final int[] DEFAULT_SIZES = new int[] {50, 200, 500, 1000, 2500};
+	/**
+	 * Average number of ties per node in the random networks.
+	 */
+	private static final int DEGREE = 12;
+	/**
+	 * Number of repetitions per back-end and size. The median run time is reported.
+	 */
+	private static final int REPETITIONS = 3;
+
+	public static void main(String[] args) {
+		int[] sizes = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : DEFAULT_SIZES;
+		String[] libraries = new String[] {"ojalgo", "apache", "lanczos"};
+		System.out.println(String.format("%8s %10s %12s %16s", "rows", "library", "time (ms)", "distance"));
+		for (int n : sizes) {
+			double[][] laplacian = laplacian(n, new Random(n));
+			double[] reference = null;
+			for (String library : libraries) {
+				long[] times = new long[REPETITIONS];
+				double[] eigenvalues = null;
+				for (int r = 0; r < REPETITIONS; r++) {
+					EigenvalueSolver solver = new EigenvalueSolver(library); // new solver, so the cache is not used
+					long start = System.nanoTime();
+					eigenvalues = solver.eigenvalues(laplacian);
+					times[r] = System.nanoTime() - start;
+				}
+				Arrays.sort(times);
+				normalize(eigenvalues);
+				if (reference == null) {
+					reference = eigenvalues;
+				}
+				double distance = 0.0;
+				for (int i = 0; i < n; i++) {
+					distance = distance + Math.abs(reference[i] - eigenvalues[i]);
+				}
+				System.out.println(String.format("%8d %10s %12.1f %16.3e", n, library, times[REPETITIONS / 2] / 1000000.0, distance));
+			}
+		}
+	}
+
+	/**
+	 * Create the Laplacian matrix of a random weighted network. Like the one-mode networks in DNA, the network has a
+	 * few densely connected nodes and many sparsely connected nodes, and the edge weights are small counts.
+	 *
+	 * @param n The number of nodes.
+	 * @param random The random number generator.
+	 * @return The Laplacian matrix, i.e., the degree matrix minus the adjacency matrix.
+	 */
+	private static double[][] laplacian(int n, Random random) {
+		double[][] laplacian = new double[n][n];
+		for (int e = 0; e < n * DEGREE / 2; e++) {
+			int i = (int) (n * Math.pow(random.nextDouble(), 2.0)); // skewed towards low indices
+			int j = random.nextInt(n);
+			if (i != j) {
+				double weight = 1 + random.nextInt(5);
+				laplacian[i][j] = laplacian[i][j] - weight;
+				laplacian[j][i] = laplacian[j][i] - weight;
+				laplacian[i][i] = laplacian[i][i] + weight;
+				laplacian[j][j] = laplacian[j][j] + weight;
+			}
+		}
+		return laplacian;
+	}
+
+	/**
+	 * Scale eigenvalues to sum up to one, as in the spectral distances of the {@link Exporter}.
+	 */
+	private static void normalize(double[] eigenvalues) {
+		double sum = Arrays.stream(eigenvalues).sum();
+		if (sum > 0.0) {
+			for (int i = 0; i < eigenvalues.length; i++) {
+				eigenvalues[i] = eigenvalues[i] / sum;
+			}
+		}
+	}
+}
@@ -0,0 +1,355 @@
+package dna;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import logger.LogEvent;
+import logger.Logger;
+import model.Document;
+import model.Statement;
+import sql.Sql;
+
+/**
+ * Imports text files as documents, with metadata that are either fixed or
+ * parsed from the file names using regular expressions. Files are read and
+ * parsed in parallel by a pool of worker threads, while the calling thread
+ * writes the documents to the database in batches, each of which is committed
+ * separately. At most {@link #QUEUE_SIZE_PER_THREAD} files per thread are
+ * read ahead of the batch that is being written, so the corpus does not need
+ * to fit into memory. The documents are added in the order of the files.
+ */
+public class DocumentFileImporter {
+
+	/**
+	 * The number of files per worker thread that can be read and parsed
+	 * before they are added to a batch.
+	 */
+	public static final int QUEUE_SIZE_PER_THREAD = 4;
+
+	private final Sql sql;
+	private final int coderId;
+	private final Field date, title, author, source, section, type, notes;
+	private final String dateFormat;
+	private final DateTimeFormatter dateTimeFormatter;
+	private int threads = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+	private int batchSize = Sql.BATCH_SIZE;
+
+	/**
+	 * Create a new document file importer. For each metadata field, the
+	 * pattern is either a regular expression that is matched in the file name
+	 * or the fixed value of the field, depending on the respective parse
+	 * argument.
+	 *
+	 * @param sql             The database into which the documents are
+	 *   imported.
+	 * @param coderId         The ID of the coder of the documents.
+	 * @param parseDate       Should the date field be used for parsing?
+	 * @param parseTitle      Should the title field be used for parsing?
+	 * @param parseAuthor     Should the author field be used for parsing?
+	 * @param parseSource     Should the source field be used for parsing?
+	 * @param parseSection    Should the section field be used for parsing?
+	 * @param parseType       Should the type field be used for parsing?
+	 * @param parseNotes      Should the notes field be used for parsing?
+	 * @param datePattern     The pattern to identify/parse the date/time.
+	 * @param dateFormat      The format of the date/time for conversion.
+	 * @param titlePattern    The pattern to parse the title.
+	 * @param authorPattern   The pattern to parse the author.
+	 * @param sourcePattern   The pattern to parse the source.
+	 * @param sectionPattern  The pattern to parse the section.
+	 * @param typePattern     The pattern to parse the type.
+	 * @param notesPattern    The pattern to parse the notes.
+	 */
+	public DocumentFileImporter(
+			Sql sql,
+			int coderId,
+			boolean parseDate,
+			boolean parseTitle,
+			boolean parseAuthor,
+			boolean parseSource,
+			boolean parseSection,
+			boolean parseType,
+			boolean parseNotes,
+			String datePattern,
+			String dateFormat,
+			String titlePattern,
+			String authorPattern,
+			String sourcePattern,
+			String sectionPattern,
+			String typePattern,
+			String notesPattern) {
+		this.sql = sql;
+		this.coderId = coderId;
+		this.date = new Field(parseDate, datePattern);
+		this.title = new Field(parseTitle, titlePattern);
+		this.author = new Field(parseAuthor, authorPattern);
+		this.source = new Field(parseSource, sourcePattern);
+		this.section = new Field(parseSection, sectionPattern);
+		this.type = new Field(parseType, typePattern);
+		this.notes = new Field(parseNotes, notesPattern);
+		this.dateFormat = dateFormat;
+		DateTimeFormatter formatter = null;
+		try {
+			formatter = DateTimeFormatter.ofPattern(dateFormat);
+		} catch (IllegalArgumentException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"Date/time format is invalid.",
+					"The date/time format \"" + dateFormat + "\" is not a valid pattern. Using current date and time for all documents with a date/time.",
+					e);
+			Dna.logger.log(l);
+		}
+		this.dateTimeFormatter = formatter;
+	}
+
+	/**
+	 * Set the number of worker threads that read and parse the files. The
+	 * default is the number of processors, but at most eight.
+	 *
+	 * @param threads  The number of threads.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Set the number of documents that are written and committed together.
+	 * The default is {@link Sql#BATCH_SIZE}.
+	 *
+	 * @param batchSize  The number of documents per batch.
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Import text files as documents. Files that cannot be read are skipped.
+	 * If the import is cancelled, or a batch cannot be written, the documents
+	 * of the batches that have been committed remain in the database.
+	 *
+	 * @param files      The text files, encoded in UTF-8.
+	 * @param progress   Receives the number of files processed so far.
+	 * @param cancelled  Is checked regularly and stops the import when it
+	 *   returns {@code true}.
+	 * @return           An array with the number of imported documents and
+	 *   the number of skipped files.
+	 */
+	public int[] importFiles(File[] files, IntConsumer progress, BooleanSupplier cancelled) {
+		long time = System.nanoTime();
+		int imported = 0, skipped = 0, processed = 0;
+		Exception firstFailure = null;
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads, r -> {
+			Thread t = new Thread(r, "DNA document file importer");
+			t.setDaemon(true);
+			return t;
+		});
+		ArrayDeque<Future<Document>> queue = new ArrayDeque<Future<Document>>();
+		ArrayList<Document> batch = new ArrayList<Document>();
+		boolean failed = false;
+		try {
+			int next = 0;
+			while (!failed) {
+				while (next < files.length && queue.size() < this.threads * QUEUE_SIZE_PER_THREAD && !cancelled.getAsBoolean()) {
+					File file = files[next];
+					queue.add(pool.submit(() -> parse(file)));
+					next++;
+				}
+				if (queue.isEmpty() || cancelled.getAsBoolean()) {
+					break;
+				}
+				try {
+					batch.add(queue.poll().get());
+				} catch (ExecutionException e) {
+					skipped++;
+					if (firstFailure == null) {
+						firstFailure = e;
+					}
+				}
+				processed++;
+				progress.accept(processed);
+				if (batch.size() >= this.batchSize) {
+					int added = write(batch);
+					failed = added < batch.size();
+					imported = imported + added;
+					batch.clear();
+				}
+			}
+			if (!failed && batch.size() > 0) {
+				int added = write(batch);
+				failed = added < batch.size();
+				imported = imported + added;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt(); // treated like a cancellation; the current batch is not written
+		} finally {
+			pool.shutdownNow();
+		}
+
+		if (firstFailure != null) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"Batch import: " + skipped + " file(s) could not be read.",
+					skipped + " of the files selected for import could not be read and were skipped. The exception of the first of these files is attached.",
+					firstFailure);
+			Dna.logger.log(l);
+		}
+		LogEvent l = new LogEvent(failed ? Logger.ERROR : Logger.MESSAGE,
+				"Batch import: " + imported + " document(s) imported, " + skipped + " skipped" + (failed ? ", import stopped." : "."),
+				"Imported " + imported + " of " + files.length + " files as documents using " + this.threads + " threads and batches of up to " + this.batchSize
+				+ " documents in " + (System.nanoTime() - time) / 1000000 + " milliseconds. " + skipped + " files could not be read and were skipped."
+				+ (failed ? " The import stopped because a batch of documents could not be written to the database; the documents imported before remain in the database."
+						: (processed < files.length ? " The import was cancelled after " + processed + " files." : "")));
+		Dna.logger.log(l);
+		return new int[] { imported, skipped };
+	}
+
+	/**
+	 * Write a batch of documents to the database.
+	 *
+	 * @return The number of documents that were added.
+	 */
+	private int write(ArrayList<Document> batch) {
+		int[] ids = this.sql.addDocuments(batch);
+		int added = 0;
+		for (int id : ids) {
+			if (id > 0) {
+				added++;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Read a text file and create a document with the metadata of the file.
+	 *
+	 * @param file  The text file.
+	 * @return      The document.
+	 * @throws IOException  If the file could not be read.
+	 */
+	private Document parse(File file) throws IOException {
+		StringBuilder text = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, file.length() + 16));
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				text.append(line).append('\n');
+			}
+		}
+		String fileName = file.getName();
+		return new Document(
+				-1,
+				this.coderId,
+				this.title.get(fileName),
+				text.toString(),
+				this.author.get(fileName),
+				this.source.get(fileName),
+				this.section.get(fileName),
+				this.type.get(fileName),
+				this.notes.get(fileName),
+				toDateTime(this.date.get(fileName), this.dateTimeFormatter, this.dateFormat),
+				new ArrayList<Statement>());
+	}
+
+	/**
+	 * Find a regular expression in a text.
+	 *
+	 * @param text     The input text.
+	 * @param pattern  The compiled pattern, or {@code null} if the pattern is
+	 *   invalid.
+	 * @return         The first match, truncated to 190 characters, or an
+	 *   empty string if there is no match.
+	 */
+	public static String extract(String text, Pattern pattern) {
+		if (pattern == null) {
+			return "";
+		}
+		Matcher m = pattern.matcher(text);
+		if (m.find()) {
+			String string = m.group(0);
+			return string.substring(0, Math.min(190, string.length()));
+		} else {
+			return "";
+		}
+	}
+
+	/**
+	 * Compile a regular expression.
+	 *
+	 * @param pattern  The regular expression.
+	 * @return         The compiled pattern, or {@code null} if the regular
+	 *   expression is invalid.
+	 */
+	public static Pattern compile(String pattern) {
+		try {
+			return Pattern.compile(pattern);
+		} catch (PatternSyntaxException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Convert a string to a date/time. If the string contains only a date,
+	 * the time is set to 00:00.
+	 *
+	 * @param text       The date/time as a string.
+	 * @param formatter  The formatter of the date/time format, or {@code null}
+	 *   if the format is invalid.
+	 * @param format     The date/time format, for the log message.
+	 * @return           The date/time, or the current date and time if the
+	 *   string is empty or cannot be parsed.
+	 */
+	public static LocalDateTime toDateTime(String text, DateTimeFormatter formatter, String format) {
+		if (text.equals("")) {
+			return LocalDateTime.now();
+		}
+		if (formatter != null) {
+			try {
+				return LocalDateTime.parse(text, formatter);
+			} catch (DateTimeParseException e) {
+				try {
+					return LocalDate.parse(text, formatter).atStartOfDay();
+				} catch (DateTimeParseException e2) {
+					// log below
+				}
+			}
+		}
+		LogEvent l = new LogEvent(Logger.WARNING,
+				"Date/time could not be parsed.",
+				"The date/time \"" + text + "\" could not be parsed with the pattern \"" + format + "\". Using current date and time instead.");
+		Dna.logger.log(l);
+		return LocalDateTime.now();
+	}
+
+	/**
+	 * A metadata field, which is either parsed from the file name with a
+	 * compiled pattern or set to a fixed value.
+	 */
+	private static class Field {
+		private final Pattern pattern;
+		private final String value;
+
+		Field(boolean parse, String pattern) {
+			this.pattern = parse ? compile(pattern) : null;
+			this.value = parse ? null : pattern;
+		}
+
+		String get(String fileName) {
+			return this.value != null ? this.value : extract(fileName, this.pattern);
+		}
+	}
+}
@@ -5,8 +5,12 @@ import java.io.PrintStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,6 +34,20 @@ import sql.Sql;
 public class HeadlessDna implements Logger.LogListener {
 	private Exporter exporter;
 
+	/**
+	 * Default maximum memory size of the {@link #resultCache} in megabytes.
+	 */
+	private static final long DEFAULT_CACHE_SIZE = 512;
+	/**
+	 * Cache for exporters with computed results and for polarization results. Results are reused if a function is
+	 * called again with the same arguments and the database has not changed in the meantime.
+	 */
+	private final ResultCache resultCache = new ResultCache(DEFAULT_CACHE_SIZE * 1024 * 1024);
+	/**
+	 * Back-end for computing eigenvalues in the spectral distances of the backbone algorithms and the distance matrix.
+	 */
+	private String eigenvalueLibrary = "ojalgo";
+
 	/**
 	 * Constructor for creating an instance of the headless DNA class.
 	 */
@@ -100,6 +118,44 @@ public class HeadlessDna implements Logger.LogListener {
 	 * @return Indicator of successful coder authentication.
 	 */
 	public boolean openDatabase(int coderId, String coderPassword, String type, String databaseUrl, String databaseName, int databasePort, String databaseUser, String databasePassword) {
+		return openDatabase(coderId, coderPassword, type, databaseUrl, databaseName, databasePort, databaseUser, databasePassword, "off");
+	}
+
+	/**
+	 * Open a database connection and authenticate the coder, optionally
+	 * loading an SQLite database into memory for faster analysis.
+	 * 
+	 * @param coderId The coder ID. If smaller than {@code 1}, a coder password
+	 *   check dialog is shown.
+	 * @param coderPassword The coder password. If {@code null}, a coder
+	 *   password check dialog is shown.
+	 * @param type The database type. Can be {@code "sqlite"}, {@code "mysql"},
+	 *   or {@code "postgresql"}.
+	 * @param databaseUrl The database URL (for MySQL/MariaDB or PostgreSQL) or
+	 *   file name with full path (for SQLite).
+	 * @param databaseName The database name. Can be an empty string ({@code
+	 *   ""}) for SQLite.
+	 * @param databasePort The connection port for the database. Can be {@code
+	 *   -1} for SQLite.
+	 * @param databaseUser The user name to connect to the database. Can be an
+	 *   empty string ({@code ""}) for SQLite.
+	 * @param databasePassword The password to connect to the database. Can be
+	 *   an empty string ({@code ""}) for SQLite.
+	 * @param inMemory Load an SQLite database into memory? Can be {@code
+	 *   "off"}, {@code "read-only"} (changes are refused), or {@code
+	 *   "write-back"} (changes are written to the file periodically, with
+	 *   {@link #saveDatabase()}, and when the database is closed with {@link
+	 *   #closeDatabase()}). Ignored for MySQL and PostgreSQL.
+	 * @return Indicator of successful coder authentication.
+	 */
+	public boolean openDatabase(int coderId, String coderPassword, String type, String databaseUrl, String databaseName, int databasePort, String databaseUser, String databasePassword, String inMemory) {
+		if (!inMemory.equals("off") && !inMemory.equals("read-only") && !inMemory.equals("write-back")) {
+			LogEvent l = new LogEvent(Logger.ERROR,
+					"Invalid in-memory mode: " + inMemory + ".",
+					"The in-memory mode for opening the database was \"" + inMemory + "\", but only \"off\", \"read-only\", and \"write-back\" are valid.");
+			Dna.logger.log(l);
+			return false;
+		}
 		if (coderId < 1) {
 			LogEvent l = new LogEvent(Logger.ERROR,
 					"Failed to authenticate coder " + coderId + ".",
@@ -108,9 +164,11 @@ public class HeadlessDna implements Logger.LogListener {
 			return false;
 		}
 		ConnectionProfile cp = new ConnectionProfile(type, databaseUrl, databaseName, databasePort, databaseUser, databasePassword);
+		cp.setInMemory(inMemory);
 		Sql testSql = new Sql(cp, true);
 		boolean success = testSql.authenticate(coderId, coderPassword);
 		String version = testSql.getVersion();
+		testSql.close();
 		if (success) {
 			if (version.startsWith("3.0")) {
 				Dna.sql.setConnectionProfile(cp, false);
@@ -166,6 +224,7 @@ public class HeadlessDna implements Logger.LogListener {
 				Dna.logger.log(l);
 			} else {
 				boolean authenticated = sqlTemp.authenticate(-1, clearCoderPassword);
+				sqlTemp.close();
 				if (authenticated) {
 					Dna.sql.setConnectionProfile(sqlTemp.getConnectionProfile(), false);
 					LogEvent l = new LogEvent(Logger.MESSAGE,
@@ -250,6 +309,23 @@ public class HeadlessDna implements Logger.LogListener {
 		
 	}
 	
+	/**
+	 * Write the changes of an SQLite database that was opened in memory with
+	 * the {@code "write-back"} mode back to its file.
+	 * 
+	 * @return Was the database written back?
+	 */
+	public boolean saveDatabase() {
+		if (!Dna.sql.hasUnsavedChanges()) {
+			LogEvent l = new LogEvent(Logger.MESSAGE,
+					"No unsaved changes.",
+					"Tried to write the in-memory database back to its file, but there are no unsaved changes, or the database was not opened in memory with the write-back mode.");
+			Dna.logger.log(l);
+			return false;
+		}
+		return Dna.sql.writeBack();
+	}
+
 	/**
 	 * Return IDs, names, and colors of all coders found in a database.
 	 * 
@@ -273,6 +349,7 @@ public class HeadlessDna implements Logger.LogListener {
 		ConnectionProfile testCp = new ConnectionProfile(type, databaseUrl, databaseName, databasePort, databaseUser, databasePassword);
 		Sql testSql = new Sql(testCp, true);
 		ArrayList<Coder> coders = testSql.queryCoders();
+		testSql.close();
 		Object[] objects = new Object[3];
 		objects[0] = coders.stream().mapToInt(c -> c.getId()).toArray();
 		objects[1] = coders.stream().map(c -> c.getName()).toArray(String[]::new);
@@ -291,6 +368,148 @@ public class HeadlessDna implements Logger.LogListener {
 		return objects;
 	}
 
+	/**
+	 * Set the maximum memory size of the result cache. If the estimated size of the cached results exceeds this size,
+	 * the least recently used results are removed.
+	 *
+	 * @param megabytes The maximum size in megabytes. {@code 0} disables the cache.
+	 */
+	public void setResultCacheSize(double megabytes) {
+		this.resultCache.setMaximumSize((long) (Math.max(0.0, megabytes) * 1024 * 1024));
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				"Result cache size set to " + megabytes + " MB.",
+				"The maximum memory size of the cache for network, backbone, and polarization results was set to " + megabytes + " MB. " + this.resultCache.count() + " result(s) with an estimated size of " + (this.resultCache.size() / (1024 * 1024)) + " MB remain in the cache.");
+		Dna.logger.log(l);
+	}
+
+	/**
+	 * Set the back-end for computing eigenvalues in the spectral distances of the backbone algorithms and the distance
+	 * matrix of time window networks. The setting applies to all subsequent backbone and time window computations.
+	 * The default is {@code "ojalgo"}, which computes exact spectra. {@code "lanczos"} and {@code "auto"} are faster
+	 * on large networks but only approximate the spectrum of networks with more than 200 nodes.
+	 *
+	 * @param library The back-end: {@code "ojalgo"}, {@code "apache"}, {@code "lanczos"}, or {@code "auto"} (for
+	 *   ojalgo on small and Lanczos on large networks).
+	 */
+	public void setEigenvalueLibrary(String library) {
+		if (library == null || (!library.equals("ojalgo") && !library.equals("apache") && !library.equals("lanczos") && !library.equals("auto"))) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"Eigenvalue library setting invalid.",
+					"The eigenvalue library was set to \"" + library + "\", but the only valid options are \"ojalgo\", \"apache\", \"lanczos\", and \"auto\". The setting was not changed.");
+			Dna.logger.log(l);
+			return;
+		}
+		this.eigenvalueLibrary = library;
+		if (this.exporter != null) {
+			this.exporter.setEigenvalueLibrary(library);
+		}
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				"Eigenvalue library set to \"" + library + "\".",
+				"The back-end for computing eigenvalues in spectral distances was set to \"" + library + "\".");
+		Dna.logger.log(l);
+	}
+
+	/**
+	 * Enable or disable the in-memory snapshot of the database for network, backbone, and polarization exports. With
+	 * the snapshot, repeated exports only read the changes since the previous export from the database, but all
+	 * documents and the statements of the exported statement types are kept in memory. Without the snapshot, which is
+	 * the default, each export reads only the statements that pass the filters and their documents from the database.
+	 *
+	 * @param enabled Should exports use the snapshot?
+	 */
+	public void setDatabaseSnapshot(boolean enabled) {
+		Dna.sql.setSnapshotEnabled(enabled);
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				"Database snapshot " + (enabled ? "enabled" : "disabled") + ".",
+				"The in-memory snapshot of statements and documents for exports was " + (enabled ? "enabled. Repeated exports only read the changes since the previous export from the database." : "disabled. Exports read the filtered statements and their documents from the database."));
+		Dna.logger.log(l);
+	}
+
+	/**
+	 * Remove all results from the result cache.
+	 */
+	public void clearResultCache() {
+		this.resultCache.clear();
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				"Result cache cleared.",
+				"All cached network, backbone, and polarization results were removed from the result cache.");
+		Dna.logger.log(l);
+	}
+
+	/**
+	 * Create a fingerprint of the arguments of a computation for the result cache. The fingerprint also contains the
+	 * database connection. Each argument is encoded together with its length, so different arguments cannot produce
+	 * the same fingerprint.
+	 *
+	 * @param arguments The arguments. Can be {@link String}s, {@link String} arrays, maps, or other objects with a
+	 *   unique {@link Object#toString()} representation. Arrays and maps whose order does not matter should be sorted
+	 *   by the caller.
+	 * @return The fingerprint.
+	 */
+	private String createFingerprint(Object... arguments) {
+		StringBuilder sb = new StringBuilder();
+		ConnectionProfile cp = Dna.sql.getConnectionProfile();
+		appendFingerprint(sb, cp == null ? null : cp.getType() + "://" + cp.getUrl() + ":" + cp.getPort() + "/" + cp.getDatabaseName());
+		for (Object argument : arguments) {
+			appendFingerprint(sb, argument);
+		}
+		return sb.toString();
+	}
+
+	private static void appendFingerprint(StringBuilder sb, Object argument) {
+		if (argument == null) {
+			sb.append("n;");
+		} else if (argument instanceof String[]) {
+			String[] array = (String[]) argument;
+			sb.append("a").append(array.length).append("[");
+			for (String element : array) {
+				appendFingerprint(sb, element);
+			}
+			sb.append("]");
+		} else if (argument instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) argument;
+			sb.append("m").append(map.size()).append("{");
+			for (Map.Entry<?, ?> entry : new TreeMap<Object, Object>(map).entrySet()) {
+				appendFingerprint(sb, entry.getKey());
+				appendFingerprint(sb, entry.getValue() instanceof List ? ((List<?>) entry.getValue()).toArray(new String[0]) : entry.getValue());
+			}
+			sb.append("}");
+		} else {
+			String value = argument.toString();
+			sb.append(argument.getClass().getSimpleName().charAt(0)).append(value.length()).append(":").append(value).append(";");
+		}
+	}
+
+	/**
+	 * Create a sorted copy of a {@link String} array, for use in fingerprints of arguments whose order does not
+	 * matter.
+	 *
+	 * @param array The array.
+	 * @return The sorted copy.
+	 */
+	private static String[] sorted(String[] array) {
+		String[] copy = array.clone();
+		Arrays.sort(copy);
+		return copy;
+	}
+
+	/**
+	 * Roughly estimate the memory size of polarization results for the result cache.
+	 *
+	 * @param results The polarization results.
+	 * @return The estimated number of bytes.
+	 */
+	private static long estimateMemorySize(PolarizationResultTimeSeries results) {
+		long bytes = 0;
+		for (PolarizationResult r : results.getResults()) {
+			bytes = bytes + 200 + 8L * (r.getMaxQ().length + r.getAvgQ().length + r.getSdQ().length) + 4L * r.getMemberships().length;
+			for (String name : r.getNames()) {
+				bytes = bytes + 40 + 2L * name.length();
+			}
+		}
+		return bytes;
+	}
+
 	/**
 	 * Convert start and stop date and time strings into {@link LocalDateTime} objects.
 	 *
@@ -412,58 +631,80 @@ public class HeadlessDna implements Logger.LogListener {
 			}
 		}
 
-		// initialize Exporter class
-		this.exporter = new Exporter(
-				networkType,
-				st,
-				variable1,
-				variable1Document,
-				variable2,
-				variable2Document,
-				qualifier,
-				qualifierDocument,
-				qualifierAggregation,
-				normalization,
-				includeIsolates,
-				duplicates,
-				ldtStart,
-				ldtStop,
-				timeWindow,
-				windowSize,
-				map,
-				Stream.of(excludeAuthors).collect(Collectors.toCollection(ArrayList::new)),
-				Stream.of(excludeSources).collect(Collectors.toCollection(ArrayList::new)),
-				Stream.of(excludeSections).collect(Collectors.toCollection(ArrayList::new)),
-				Stream.of(excludeTypes).collect(Collectors.toCollection(ArrayList::new)),
-				invertValues,
-				invertAuthors,
-				invertSources,
-				invertSections,
-				invertTypes,
-				fileFormat,
-				outfile);
-		this.exporter.setKernelFunction(kernel);
-
-		// step 2: filter
-		this.exporter.loadData();
-		this.exporter.filterStatements();
-
-		// step 3: compute results
-		if (networkType.equals("eventlist")) {
-			// TODO
+		// step 2: reuse the exporter from the cache if the same network was computed from the same data before
+		String fingerprint = createFingerprint("network", networkType, st.getId(), variable1, variable1Document, variable2,
+				variable2Document, qualifier, qualifierDocument, qualifierAggregation, normalization, includeIsolates,
+				duplicates, ldtStart, ldtStop, timeWindow, windowSize, kernel, map, sorted(excludeAuthors),
+				sorted(excludeSources), sorted(excludeSections), sorted(excludeTypes), invertValues, invertAuthors,
+				invertSources, invertSections, invertTypes, outfile, fileFormat);
+		String dataVersion = Dna.sql.getDataVersion();
+		Exporter cachedExporter = (Exporter) this.resultCache.get(fingerprint, dataVersion);
+		if (cachedExporter != null) {
+			this.exporter = cachedExporter;
+			LogEvent le = new LogEvent(Logger.MESSAGE,
+					"Network retrieved from the result cache.",
+					"The network was computed before with the same arguments, and the database has not changed since. The cached result was used.");
+			Dna.logger.log(le);
 		} else {
-			try {
-				this.exporter.computeResults();
-			} catch (Exception e) {
-				LogEvent le = new LogEvent(Logger.ERROR,
-						"Error while exporting network.",
-						"An unexpected error occurred while exporting a network. See the stack trace for details. Consider reporting this error.",
-						e);
-				Dna.logger.log(le);
+			boolean success = true;
+
+			// initialize Exporter class
+			this.exporter = new Exporter(
+					networkType,
+					st,
+					variable1,
+					variable1Document,
+					variable2,
+					variable2Document,
+					qualifier,
+					qualifierDocument,
+					qualifierAggregation,
+					normalization,
+					includeIsolates,
+					duplicates,
+					ldtStart,
+					ldtStop,
+					timeWindow,
+					windowSize,
+					map,
+					Stream.of(excludeAuthors).collect(Collectors.toCollection(ArrayList::new)),
+					Stream.of(excludeSources).collect(Collectors.toCollection(ArrayList::new)),
+					Stream.of(excludeSections).collect(Collectors.toCollection(ArrayList::new)),
+					Stream.of(excludeTypes).collect(Collectors.toCollection(ArrayList::new)),
+					invertValues,
+					invertAuthors,
+					invertSources,
+					invertSections,
+					invertTypes,
+					fileFormat,
+					outfile);
+			this.exporter.setKernelFunction(kernel);
+
+			// filter
+			this.exporter.loadData();
+			this.exporter.filterStatements();
+
+			// compute results
+			if (networkType.equals("eventlist")) {
+				// TODO
+			} else {
+				try {
+					this.exporter.computeResults();
+				} catch (Exception e) {
+					success = false;
+					LogEvent le = new LogEvent(Logger.ERROR,
+							"Error while exporting network.",
+							"An unexpected error occurred while exporting a network. See the stack trace for details. Consider reporting this error.",
+							e);
+					Dna.logger.log(le);
+				}
+			}
+			if (success) {
+				this.resultCache.put(fingerprint, dataVersion, this.exporter, this.exporter.estimateMemorySize());
 			}
 		}
 
-		// step 4: save to file
+		// step 3: save to file
 		if (fileFormat != null && !fileFormat.equals("") && outfile != null && !outfile.equals("")) {
 			this.exporter.exportToFile();
 		}
@@ -538,60 +779,84 @@ public class HeadlessDna implements Logger.LogListener {
 			}
 		}
 
-		// initialize Exporter class
-		this.exporter = new Exporter(
-				networkType,
-				st,
-				variable1,
-				variable1Document,
-				variable2,
-				variable2Document,
-				qualifier,
-				qualifierDocument,
-				qualifierAggregation,
-				normalization,
-				includeIsolates,
-				duplicates,
-				ldtStart,
-				ldtStop,
-				timeWindow,
-				windowSize,
-				map,
-				Stream.of(excludeAuthors).collect(Collectors.toCollection(ArrayList::new)),
-				Stream.of(excludeSources).collect(Collectors.toCollection(ArrayList::new)),
-				Stream.of(excludeSections).collect(Collectors.toCollection(ArrayList::new)),
-				Stream.of(excludeTypes).collect(Collectors.toCollection(ArrayList::new)),
-				invertValues,
-				invertAuthors,
-				invertSources,
-				invertSections,
-				invertTypes,
-				null,
-				null);
-		this.exporter.setKernelFunction(kernel);
-		this.exporter.setIndentTime(indentTime);
-
-		// step 2: filter
-		this.exporter.loadData();
-		this.exporter.filterStatements();
-
-		// step 3: compute results
-		if (networkType.equals("eventlist")) {
-			// TODO
+		// step 2: reuse the exporter from the cache if the same networks were computed from the same data before
+		String fingerprint = createFingerprint("timeWindow", networkType, st.getId(), variable1, variable1Document,
+				variable2, variable2Document, qualifier, qualifierDocument, qualifierAggregation, normalization,
+				includeIsolates, duplicates, ldtStart, ldtStop, timeWindow, windowSize, kernel, normalizeToOne, indentTime,
+				map, sorted(excludeAuthors), sorted(excludeSources), sorted(excludeSections), sorted(excludeTypes),
+				invertValues, invertAuthors, invertSources, invertSections, invertTypes);
+		String dataVersion = Dna.sql.getDataVersion();
+		Exporter cachedExporter = (Exporter) this.resultCache.get(fingerprint, dataVersion);
+		if (cachedExporter != null) {
+			this.exporter = cachedExporter;
+			LogEvent le = new LogEvent(Logger.MESSAGE,
+					"Time window networks retrieved from the result cache.",
+					"The time window networks were computed before with the same arguments, and the database has not changed since. The cached result was used.");
+			Dna.logger.log(le);
+			this.exporter.setEigenvalueLibrary(this.eigenvalueLibrary); // the distance matrix is computed later
 		} else {
-			try {
-				this.exporter.computeResults();
+			boolean success = true;
+
+			// initialize Exporter class
+			this.exporter = new Exporter(
+					networkType,
+					st,
+					variable1,
+					variable1Document,
+					variable2,
+					variable2Document,
+					qualifier,
+					qualifierDocument,
+					qualifierAggregation,
+					normalization,
+					includeIsolates,
+					duplicates,
+					ldtStart,
+					ldtStop,
+					timeWindow,
+					windowSize,
+					map,
+					Stream.of(excludeAuthors).collect(Collectors.toCollection(ArrayList::new)),
+					Stream.of(excludeSources).collect(Collectors.toCollection(ArrayList::new)),
+					Stream.of(excludeSections).collect(Collectors.toCollection(ArrayList::new)),
+					Stream.of(excludeTypes).collect(Collectors.toCollection(ArrayList::new)),
+					invertValues,
+					invertAuthors,
+					invertSources,
+					invertSections,
+					invertTypes,
+					null,
+					null);
+			this.exporter.setKernelFunction(kernel);
+			this.exporter.setIndentTime(indentTime);
+			this.exporter.setEigenvalueLibrary(this.eigenvalueLibrary);
+
+			// filter
+			this.exporter.loadData();
+			this.exporter.filterStatements();
+
+			// compute results
+			if (networkType.equals("eventlist")) {
+				// TODO
+			} else {
+				try {
+					this.exporter.computeResults();
 
-				// step 4: normalize to one
-				if (normalizeToOne) {
-					this.exporter.normalizeMatrixResultsToOne();
+					// normalize to one
+					if (normalizeToOne) {
+						this.exporter.normalizeMatrixResultsToOne();
+					}
+				} catch (Exception e) {
+					success = false;
+					LogEvent le = new LogEvent(Logger.ERROR,
+							"Error while exporting network.",
+							"An unexpected error occurred while exporting a network. See the stack trace for details. Consider reporting this error.",
+							e);
+					Dna.logger.log(le);
 				}
-			} catch (Exception e) {
-				LogEvent le = new LogEvent(Logger.ERROR,
-						"Error while exporting network.",
-						"An unexpected error occurred while exporting a network. See the stack trace for details. Consider reporting this error.",
-						e);
-				Dna.logger.log(le);
+			}
+			if (success) {
+				this.resultCache.put(fingerprint, dataVersion, this.exporter, this.exporter.estimateMemorySize());
 			}
 		}
 	}
@@ -667,13 +932,35 @@ public class HeadlessDna implements Logger.LogListener {
 			}
 		}
 
+		// reuse cached results if the algorithm is reproducible, i.e., if a random seed was provided
+		String fingerprint = createFingerprint("polarization", st.getId(), variable1, variable1Document, variable2,
+				variable2Document, qualifier, duplicates, ldtStart, ldtStop, timeWindow, windowSize, kernel, indentTime,
+				map, sorted(excludeAuthors), sorted(excludeSources), sorted(excludeSections), sorted(excludeTypes),
+				invertValues, invertAuthors, invertSources, invertSections, invertTypes, algorithm, normaliseScores,
+				numClusters, numParents, numIterations, elitePercentage, mutationPercentage, randomSeed);
+		String dataVersion = Dna.sql.getDataVersion();
+		if (randomSeed != 0) {
+			PolarizationResultTimeSeries cachedResults = (PolarizationResultTimeSeries) this.resultCache.get(fingerprint, dataVersion);
+			if (cachedResults != null) {
+				LogEvent le = new LogEvent(Logger.MESSAGE,
+						"Polarization results retrieved from the result cache.",
+						"Polarization was computed before with the same arguments and random seed, and the database has not changed since. The cached result was used.");
+				Dna.logger.log(le);
+				return cachedResults;
+			}
+		}
+
 		Polarization polarization = new Polarization(st, variable1, variable1Document, variable2, variable2Document,
 				qualifier, false, duplicates, ldtStart, ldtStop, timeWindow, windowSize, kernel, indentTime,
 				map, excludeAuthors, excludeSources,	excludeSections, excludeTypes, invertValues, invertAuthors,
 				invertSources, invertSections, invertTypes, algorithm, normaliseScores, numClusters, numParents,
 				numIterations, elitePercentage, mutationPercentage, randomSeed);
 
-		return polarization.getResults();
+		PolarizationResultTimeSeries results = polarization.getResults();
+		if (randomSeed != 0 && results != null) {
+			this.resultCache.put(fingerprint, dataVersion, results, estimateMemorySize(results));
+		}
+		return results;
 	}
 
 	/**
@@ -794,6 +1081,7 @@ public class HeadlessDna implements Logger.LogListener {
 	 * @param invertTypes            boolean indicating whether the document-level type values should be included (= {@code true}) rather than excluded.
 	 * @param outfile                {@link String} with a file name under which the resulting network should be saved.
 	 * @param fileFormat             {@link String} with the file format. Valid values are {@code "xml"}, {@code "json"}, and {@code null} (for no file export).
+	 * @param chains                 Number of independent simulated annealing chains, which are run in parallel. The best solution is reported. Only used when {@code method = "fixed"} or {@code method = "penalty"}.
 	 * @return                       A {@link SimulatedAnnealingBackboneResult} object containing the results.
 	 */
 	public void rBackbone(String method, int backboneSize, double p, int T, String statementType, String variable1, boolean variable1Document, String variable2,
@@ -801,7 +1089,7 @@ public class HeadlessDna implements Logger.LogListener {
 						  String duplicates, String startDate, String stopDate, String startTime, String stopTime,
 						  String[] excludeVariables, String[] excludeValues, String[] excludeAuthors, String[] excludeSources, String[] excludeSections,
 						  String[] excludeTypes, boolean invertValues, boolean invertAuthors, boolean invertSources, boolean invertSections,
-						  boolean invertTypes, String outfile, String fileFormat) {
+						  boolean invertTypes, String outfile, String fileFormat, int chains) {
 
 		// step 1: preprocess arguments
 		StatementType st = Dna.sql.getStatementType(statementType); // format statement type
@@ -859,6 +1147,25 @@ public class HeadlessDna implements Logger.LogListener {
 			}
 		}
 
+		// the nested backbone is deterministic, so the exporter with its result can be reused from the cache
+		String fingerprint = createFingerprint("nestedBackbone", this.eigenvalueLibrary, st.getId(), variable1, variable1Document, variable2,
+				variable2Document, qualifier, qualifierDocument, qualifierAggregation, normalization, duplicates, ldtStart,
+				ldtStop, map, sorted(excludeAuthors), sorted(excludeSources), sorted(excludeSections),
+				sorted(excludeTypes), invertValues, invertAuthors, invertSources, invertSections, invertTypes);
+		String dataVersion = Dna.sql.getDataVersion();
+		if (method.equals("nested")) {
+			Exporter cachedExporter = (Exporter) this.resultCache.get(fingerprint, dataVersion);
+			if (cachedExporter != null) {
+				this.exporter = cachedExporter;
+				LogEvent le = new LogEvent(Logger.MESSAGE,
+						"Nested backbone retrieved from the result cache.",
+						"The nested backbone was computed before with the same arguments, and the database has not changed since. The cached result was used.");
+				Dna.logger.log(le);
+				saveJsonXml(fileFormat, outfile);
+				return;
+			}
+		}
+
 		// initialize Exporter class
 		this.exporter = new Exporter(
 				"onemode",
@@ -889,6 +1196,7 @@ public class HeadlessDna implements Logger.LogListener {
 				invertTypes,
 				null,
 				null);
+		this.exporter.setEigenvalueLibrary(this.eigenvalueLibrary);
 
 		// step 2: filter
 		this.exporter.loadData();
@@ -917,13 +1225,14 @@ public class HeadlessDna implements Logger.LogListener {
 					exporter.iterateNestedBackbone();
 				}
 				exporter.saveNestedBackboneResult();
+				this.resultCache.put(fingerprint, dataVersion, this.exporter, this.exporter.estimateMemorySize());
 
 				// step 4: save to file
 				saveJsonXml(fileFormat, outfile);
 				pb.stepTo(iterations);
 			}
 		} else if (method.equals("fixed") || method.equals("penalty")) {
-			this.exporter.initializeSimulatedAnnealingBackbone(method.equals("penalty"), p, T, backboneSize); // initialize algorithm
+			this.exporter.initializeSimulatedAnnealingBackbone(method.equals("penalty"), p, T, backboneSize, chains); // initialize algorithm
 			try (ProgressBar pb = new ProgressBar("Simulated annealing...", T)) {
 				while (exporter.getCurrentT() <= T) { // run up to upper bound of iterations T, provided by the user
 					pb.stepTo(exporter.getCurrentT());
@@ -1063,6 +1372,7 @@ public class HeadlessDna implements Logger.LogListener {
 				invertTypes,
 				null,
 				null);
+		this.exporter.setEigenvalueLibrary(this.eigenvalueLibrary);
 
 		// step 2: filter
 		this.exporter.loadData();
@@ -1106,6 +1416,66 @@ public class HeadlessDna implements Logger.LogListener {
 		}
 	}
 
+	/* =================================================================================================================
+	 * Functions for importing documents
+	 * =================================================================================================================
+	 */
+
+	/**
+	 * Import text files as documents into the current database, with the metadata either parsed from the file names
+	 * using regular expressions or set to fixed values, as in the batch import dialog of the GUI. The files are read in
+	 * parallel and committed in batches (see {@link DocumentFileImporter}).
+	 *
+	 * @param fileNames       The names of the text files with absolute paths. The files must be encoded in UTF-8.
+	 * @param parseDate       Should the date field be used for parsing?
+	 * @param parseTitle      Should the title field be used for parsing?
+	 * @param parseAuthor     Should the author field be used for parsing?
+	 * @param parseSource     Should the source field be used for parsing?
+	 * @param parseSection    Should the section field be used for parsing?
+	 * @param parseType       Should the type field be used for parsing?
+	 * @param parseNotes      Should the notes field be used for parsing?
+	 * @param datePattern     The pattern to identify/parse the date/time, or the date/time itself.
+	 * @param dateFormat      The format of the date/time for conversion, for example {@code "dd.MM.yyyy"}.
+	 * @param titlePattern    The pattern to parse the title, or the title itself.
+	 * @param authorPattern   The pattern to parse the author, or the author itself.
+	 * @param sourcePattern   The pattern to parse the source, or the source itself.
+	 * @param sectionPattern  The pattern to parse the section, or the section itself.
+	 * @param typePattern     The pattern to parse the type, or the type itself.
+	 * @param notesPattern    The pattern to parse the notes, or the notes themselves.
+	 * @param threads         The number of threads for reading the files, or {@code 0} for the default.
+	 * @return                An array with the number of imported documents and the number of skipped files, or
+	 *   {@code null} if no database is open.
+	 */
+	public int[] importDocumentFiles(String[] fileNames, boolean parseDate, boolean parseTitle, boolean parseAuthor,
+			boolean parseSource, boolean parseSection, boolean parseType, boolean parseNotes, String datePattern,
+			String dateFormat, String titlePattern, String authorPattern, String sourcePattern, String sectionPattern,
+			String typePattern, String notesPattern, int threads) {
+		if (Dna.sql == null || Dna.sql.getConnectionProfile() == null || Dna.sql.getActiveCoder() == null) {
+			LogEvent l = new LogEvent(Logger.ERROR,
+					"No database open. Could not import documents.",
+					"Tried to import text files as documents, but no database connection was open or no coder was active.");
+			Dna.logger.log(l);
+			return null;
+		}
+		if (!Dna.sql.getActiveCoder().isPermissionAddDocuments()) {
+			LogEvent l = new LogEvent(Logger.ERROR,
+					"The active coder is not permitted to add documents.",
+					"Tried to import text files as documents, but the active coder does not have the permission to add documents.");
+			Dna.logger.log(l);
+			return null;
+		}
+		File[] files = Stream.of(fileNames).map(File::new).toArray(File[]::new);
+		DocumentFileImporter importer = new DocumentFileImporter(Dna.sql, Dna.sql.getActiveCoder().getId(), parseDate,
+				parseTitle, parseAuthor, parseSource, parseSection, parseType, parseNotes, datePattern, dateFormat,
+				titlePattern, authorPattern, sourcePattern, sectionPattern, typePattern, notesPattern);
+		if (threads > 0) {
+			importer.setThreads(threads);
+		}
+		try (ProgressBar pb = new ProgressBar("Importing documents...", files.length)) {
+			return importer.importFiles(files, pb::stepTo, () -> false);
+		}
+	}
+
 	/* =================================================================================================================
 	 * Functions for managing variables
 	 * =================================================================================================================
@@ -0,0 +1,128 @@
+package dna;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache for the results of headless computations, such as {@link dna.export.Exporter} objects with computed
+ * networks. Results are stored under a fingerprint of the arguments that produced them. All results are discarded
+ * when the version of the data in the database changes. If the estimated memory size of all results exceeds the
+ * maximum size, the least recently used results are removed.
+ */
+class ResultCache {
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long maximumSize;
+	private long size = 0;
+	private String dataVersion = null;
+
+	/**
+	 * A cached result with its estimated memory size.
+	 */
+	private static class Entry {
+		private final Object result;
+		private final long size;
+
+		Entry(Object result, long size) {
+			this.result = result;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Create a new result cache.
+	 *
+	 * @param maximumSize The maximum estimated memory size of all cached results in bytes. {@code 0} disables the
+	 *   cache.
+	 */
+	ResultCache(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Retrieve a cached result. If the data version differs from the version of the cached results, the cache is
+	 * cleared first.
+	 *
+	 * @param fingerprint The fingerprint of the arguments.
+	 * @param dataVersion The current version of the data in the database.
+	 * @return The cached result, or {@code null} if there is none.
+	 */
+	synchronized Object get(String fingerprint, String dataVersion) {
+		checkDataVersion(dataVersion);
+		Entry entry = this.entries.get(fingerprint);
+		return entry == null ? null : entry.result;
+	}
+
+	/**
+	 * Store a result. Results larger than the maximum size are not stored.
+	 *
+	 * @param fingerprint The fingerprint of the arguments.
+	 * @param dataVersion The version of the data in the database from which the result was computed.
+	 * @param result The result.
+	 * @param size The estimated memory size of the result in bytes.
+	 */
+	synchronized void put(String fingerprint, String dataVersion, Object result, long size) {
+		checkDataVersion(dataVersion);
+		Entry previous = this.entries.remove(fingerprint);
+		if (previous != null) {
+			this.size = this.size - previous.size;
+		}
+		if (size <= this.maximumSize) {
+			this.entries.put(fingerprint, new Entry(result, size));
+			this.size = this.size + size;
+			evict();
+		}
+	}
+
+	/**
+	 * Set the maximum size and remove least recently used results if necessary.
+	 *
+	 * @param maximumSize The maximum estimated memory size of all cached results in bytes. {@code 0} disables the
+	 *   cache.
+	 */
+	synchronized void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+		evict();
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	synchronized void clear() {
+		this.entries.clear();
+		this.size = 0;
+	}
+
+	/**
+	 * Get the number of cached results.
+	 *
+	 * @return The number of results.
+	 */
+	synchronized int count() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Get the estimated memory size of all cached results.
+	 *
+	 * @return The size in bytes.
+	 */
+	synchronized long size() {
+		return this.size;
+	}
+
+	private void checkDataVersion(String dataVersion) {
+		if (this.dataVersion == null || !this.dataVersion.equals(dataVersion)) {
+			clear();
+			this.dataVersion = dataVersion;
+		}
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+		while (this.size > this.maximumSize && iterator.hasNext()) {
+			this.size = this.size - iterator.next().getValue().size;
+			iterator.remove();
+		}
+	}
+}
@@ -0,0 +1,421 @@
+package dna.export;
+
+import java.util.Arrays;
+
+/**
+ * Per-concept contributions to a one-mode network for the backbone algorithms. A one-mode network over a subset of
+ * the second-mode entities (e.g., concepts) is a sum of contributions of the individual columns of the incidence
+ * structure (variable 1 x variable 2 x qualifier level). This class stores the non-zero cells of each column and a
+ * {@link Subset} keeps the pairwise sums for a set of columns, which can be updated by adding or removing single
+ * columns. The one-mode matrix of the set without one column can then be derived by subtracting the contribution of
+ * that column from the sums instead of recomputing the network from the statements.
+ *
+ * <p>All sums are integer counts, so they are exact, and the matrices are identical to those of
+ * {@link Exporter#computeOneModeMatrix}. This holds for the {@code "ignore"} qualifier aggregation and for all
+ * aggregations with a boolean, short text, or document-level qualifier. Integer qualifiers with a larger range yield
+ * fractional distances, which would not sum up to exactly the same values in a different order, and are not supported.
+ */
+class BackboneIncidence {
+	private final int numRows, numColumns;
+	private final boolean ignore, congruence, conflict, subtract;
+	private final boolean textQualifier;
+	private final String normalization;
+
+	/**
+	 * Start index of the cells of each column in {@link #cellRow}; length {@code numColumns + 1}.
+	 */
+	private final int[] columnPointer;
+	/**
+	 * Row index of each column-row cell, in ascending order within each column.
+	 */
+	private final int[] cellRow;
+	/**
+	 * Start index of the qualifier levels of each cell in {@link #entryLevel}; length {@code number of cells + 1}.
+	 */
+	private final int[] cellPointer;
+	/**
+	 * Qualifier level index of each non-zero entry, in ascending order within each cell.
+	 */
+	private final int[] entryLevel;
+	/**
+	 * Count of each non-zero entry.
+	 */
+	private final int[] entryCount;
+	/**
+	 * Sum of the counts across qualifier levels for each cell.
+	 */
+	private final int[] cellTotal;
+	/**
+	 * Number of statements per column, including statements without a valid row.
+	 */
+	private final int[] columnStatements;
+
+	/**
+	 * Create a backbone incidence structure from one (row, column, level) triplet per statement. Statements with a
+	 * negative column are ignored, and statements with a negative row are only counted in the number of statements.
+	 *
+	 * @param numRows The number of rows (i.e., the number of variable 1 labels).
+	 * @param numColumns The number of columns (i.e., the number of variable 2 labels).
+	 * @param numLevels The number of qualifier levels (at least 1).
+	 * @param rows The row index of each statement.
+	 * @param columns The column index of each statement.
+	 * @param levels The qualifier level index of each statement.
+	 * @param aggregation The qualifier aggregation: {@code "ignore"}, {@code "congruence"}, {@code "conflict"}, or
+	 *   {@code "subtract"}.
+	 * @param normalization The normalization: {@code "no"}, {@code "average"}, {@code "jaccard"}, or {@code "cosine"}.
+	 * @param textQualifier Is the qualifier absent or a short text or document-level variable? If so, levels are
+	 *   compared for identity. Otherwise, the qualifier is boolean, or it is an integer qualifier and the aggregation is
+	 *   {@code "ignore"}.
+	 */
+	BackboneIncidence(int numRows, int numColumns, int numLevels, int[] rows, int[] columns, int[] levels, String aggregation, String normalization, boolean textQualifier) {
+		this.numRows = numRows;
+		this.numColumns = numColumns;
+		this.ignore = aggregation.equals("ignore");
+		this.congruence = aggregation.equals("congruence");
+		this.conflict = aggregation.equals("conflict");
+		this.subtract = aggregation.equals("subtract");
+		this.textQualifier = textQualifier;
+		this.normalization = normalization;
+
+		// sort composite keys to group identical triplets and order them by column, row, and level
+		this.columnStatements = new int[numColumns];
+		long[] keys = new long[rows.length];
+		int n = 0;
+		for (int s = 0; s < rows.length; s++) {
+			if (columns[s] < 0) {
+				continue;
+			}
+			columnStatements[columns[s]]++;
+			if (rows[s] >= 0) {
+				keys[n] = ((long) columns[s] * numRows + rows[s]) * numLevels + levels[s];
+				n++;
+			}
+		}
+		keys = Arrays.copyOf(keys, n);
+		Arrays.sort(keys);
+
+		int numEntries = 0;
+		int numCells = 0;
+		for (int s = 0; s < keys.length; s++) {
+			if (s == 0 || keys[s] != keys[s - 1]) {
+				numEntries++;
+				if (s == 0 || keys[s] / numLevels != keys[s - 1] / numLevels) {
+					numCells++;
+				}
+			}
+		}
+		this.columnPointer = new int[numColumns + 1];
+		this.cellRow = new int[numCells];
+		this.cellPointer = new int[numCells + 1];
+		this.cellTotal = new int[numCells];
+		this.entryLevel = new int[numEntries];
+		this.entryCount = new int[numEntries];
+		int entry = -1;
+		int cell = -1;
+		for (int s = 0; s < keys.length; s++) {
+			if (s == 0 || keys[s] != keys[s - 1]) {
+				entry++;
+				if (s == 0 || keys[s] / numLevels != keys[s - 1] / numLevels) {
+					cell++;
+					long columnRow = keys[s] / numLevels;
+					cellRow[cell] = (int) (columnRow % numRows);
+					cellPointer[cell] = entry;
+					columnPointer[(int) (columnRow / numRows) + 1]++;
+				}
+				entryLevel[entry] = (int) (keys[s] % numLevels);
+			}
+			entryCount[entry]++;
+			cellTotal[cell]++;
+		}
+		cellPointer[numCells] = numEntries;
+		for (int j = 0; j < numColumns; j++) {
+			columnPointer[j + 1] = columnPointer[j + 1] + columnPointer[j];
+		}
+	}
+
+	/**
+	 * Are the sums of same-level products required by the aggregation or normalization?
+	 */
+	private boolean needsProduct() {
+		return !ignore || normalization.equals("jaccard");
+	}
+
+	/**
+	 * Are the sums of products of cell totals required by the aggregation?
+	 */
+	private boolean needsIgnore() {
+		return ignore || (!textQualifier && (conflict || subtract));
+	}
+
+	/**
+	 * Are the shared counts required by the aggregation or normalization?
+	 */
+	private boolean needsShared() {
+		return (textQualifier && (conflict || subtract)) || normalization.equals("jaccard");
+	}
+
+	/**
+	 * Compute the normalized tie weight of a pair of rows from the pairwise sums, using the same rules as the one-mode
+	 * network functions in the {@link Exporter} class.
+	 *
+	 * @param ignoreSum Sum of the products of the cell totals of both rows.
+	 * @param product Sum of the products of the counts at identical qualifier levels.
+	 * @param shared1 Counts of the first row in entries that are non-zero in both rows.
+	 * @param shared2 Counts of the second row in entries that are non-zero in both rows.
+	 * @param total1 Sum of all counts of the first row.
+	 * @param total2 Sum of all counts of the second row.
+	 * @return The tie weight.
+	 */
+	private double value(long ignoreSum, long product, long shared1, long shared2, long total1, long total2) {
+		double value = 0.0;
+		if (ignore) {
+			value = ignoreSum;
+		} else if (textQualifier) {
+			double exclusive = (total1 - shared1) + (total2 - shared2); // counts where only one of the rows is active
+			if (congruence) {
+				value = product;
+			} else if (conflict) {
+				value = exclusive;
+			} else if (subtract) {
+				value = product - exclusive;
+			}
+		} else { // boolean qualifier: identical levels have distance 0 and different levels have distance 1
+			if (congruence) {
+				value = product;
+			} else if (conflict) {
+				value = ignoreSum - product;
+			} else if (subtract) {
+				value = product - (ignoreSum - product);
+			}
+		}
+
+		double t1 = total1;
+		double t2 = total2;
+		double norm = 1.0;
+		if (normalization.equals("average")) {
+			norm = (t1 + t2) / 2;
+		} else if (normalization.equals("jaccard")) {
+			norm = (t2 - shared2) + (t1 - shared1) + product;
+		} else if (normalization.equals("cosine")) {
+			norm = Math.sqrt(t1 * t1) * Math.sqrt(t2 * t2);
+		}
+		if (norm == 0) {
+			return 0;
+		} else {
+			return value / norm;
+		}
+	}
+
+	/**
+	 * Create a subset with all columns.
+	 *
+	 * @return A new subset.
+	 */
+	Subset full() {
+		Subset subset = new Subset();
+		for (int j = 0; j < numColumns; j++) {
+			subset.add(j);
+		}
+		return subset;
+	}
+
+	/**
+	 * Create a subset without any columns.
+	 *
+	 * @return A new subset.
+	 */
+	Subset empty() {
+		return new Subset();
+	}
+
+	/**
+	 * A set of columns with the pairwise sums of their contributions. The sums can be read by several threads at the
+	 * same time as long as the subset is not modified.
+	 */
+	class Subset {
+		private final boolean[] member = new boolean[numColumns];
+		private final long[] rowTotal = new long[numRows];
+		private final long[][] ignoreSum = needsIgnore() ? new long[numRows][numRows] : null;
+		private final long[][] product = needsProduct() ? new long[numRows][numRows] : null;
+		private final long[][] shared = needsShared() ? new long[numRows][numRows] : null;
+		private int numStatements = 0;
+
+		private Subset() {
+		}
+
+		/**
+		 * Is the column part of the subset?
+		 *
+		 * @param column The column index.
+		 * @return True if the column is in the subset.
+		 */
+		boolean contains(int column) {
+			return this.member[column];
+		}
+
+		/**
+		 * Get the number of statements in the columns of the subset.
+		 *
+		 * @return The number of statements.
+		 */
+		int getNumStatements() {
+			return this.numStatements;
+		}
+
+		/**
+		 * Get the number of statements in the columns of the subset without one of its columns.
+		 *
+		 * @param column The index of the column to leave out. It must be part of the subset.
+		 * @return The number of statements.
+		 */
+		int getNumStatementsWithout(int column) {
+			return this.numStatements - columnStatements[column];
+		}
+
+		/**
+		 * Add a column to the subset.
+		 *
+		 * @param column The column index.
+		 */
+		void add(int column) {
+			if (!member[column]) {
+				update(column, 1);
+				member[column] = true;
+			}
+		}
+
+		/**
+		 * Remove a column from the subset.
+		 *
+		 * @param column The column index.
+		 */
+		void remove(int column) {
+			if (member[column]) {
+				update(column, -1);
+				member[column] = false;
+			}
+		}
+
+		/**
+		 * Add or subtract the contribution of a column to or from the sums.
+		 */
+		private void update(int column, int sign) {
+			numStatements = numStatements + sign * columnStatements[column];
+			for (int c1 = columnPointer[column]; c1 < columnPointer[column + 1]; c1++) {
+				int i1 = cellRow[c1];
+				rowTotal[i1] = rowTotal[i1] + sign * cellTotal[c1];
+				for (int c2 = columnPointer[column]; c2 < columnPointer[column + 1]; c2++) {
+					int i2 = cellRow[c2];
+					if (i1 == i2) {
+						continue;
+					}
+					if (ignoreSum != null) {
+						ignoreSum[i1][i2] = ignoreSum[i1][i2] + sign * (long) cellTotal[c1] * cellTotal[c2];
+					}
+					if (product != null || shared != null) {
+						long[] pair = pairSums(c1, c2);
+						if (product != null) {
+							product[i1][i2] = product[i1][i2] + sign * pair[0];
+						}
+						if (shared != null) {
+							shared[i1][i2] = shared[i1][i2] + sign * pair[1];
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Compute the one-mode matrix of the subset.
+		 *
+		 * @return A square matrix with the tie weights and zeros on the diagonal.
+		 */
+		double[][] matrix() {
+			return matrix(rowTotal);
+		}
+
+		/**
+		 * Compute the one-mode matrix of the subset without one of its columns. The subset is not modified.
+		 *
+		 * @param column The index of the column to leave out. It must be part of the subset.
+		 * @return A square matrix with the tie weights and zeros on the diagonal.
+		 */
+		double[][] matrixWithout(int column) {
+			long[] total = rowTotal.clone();
+			for (int c = columnPointer[column]; c < columnPointer[column + 1]; c++) {
+				total[cellRow[c]] = total[cellRow[c]] - cellTotal[c];
+			}
+			double[][] m = matrix(total);
+
+			// only the pairs of rows that are both active in the column have different pairwise sums
+			for (int c1 = columnPointer[column]; c1 < columnPointer[column + 1]; c1++) {
+				int i1 = cellRow[c1];
+				for (int c2 = columnPointer[column]; c2 < columnPointer[column + 1]; c2++) {
+					int i2 = cellRow[c2];
+					if (i1 == i2) {
+						continue;
+					}
+					long[] pair = pairSums(c1, c2);
+					long[] reverse = pairSums(c2, c1);
+					m[i1][i2] = value(
+							ignoreSum == null ? 0 : ignoreSum[i1][i2] - (long) cellTotal[c1] * cellTotal[c2],
+							product == null ? 0 : product[i1][i2] - pair[0],
+							shared == null ? 0 : shared[i1][i2] - pair[1],
+							shared == null ? 0 : shared[i2][i1] - reverse[1],
+							total[i1],
+							total[i2]);
+				}
+			}
+			return m;
+		}
+
+		/**
+		 * Compute the one-mode matrix from the pairwise sums and given row totals.
+		 */
+		private double[][] matrix(long[] total) {
+			double[][] m = new double[numRows][numRows];
+			for (int i1 = 0; i1 < numRows; i1++) {
+				for (int i2 = 0; i2 < numRows; i2++) {
+					if (i1 != i2) {
+						m[i1][i2] = value(
+								ignoreSum == null ? 0 : ignoreSum[i1][i2],
+								product == null ? 0 : product[i1][i2],
+								shared == null ? 0 : shared[i1][i2],
+								shared == null ? 0 : shared[i2][i1],
+								total[i1],
+								total[i2]);
+					}
+				}
+			}
+			return m;
+		}
+	}
+
+	/**
+	 * Merge the sorted level lists of two cells in the same column.
+	 *
+	 * @param c1 The first cell.
+	 * @param c2 The second cell.
+	 * @return The sum of the products of the counts at identical levels and the sum of the counts of the first cell at
+	 *   the levels that are non-zero in both cells.
+	 */
+	private long[] pairSums(int c1, int c2) {
+		long product = 0;
+		long shared = 0;
+		int e1 = cellPointer[c1];
+		int e2 = cellPointer[c2];
+		while (e1 < cellPointer[c1 + 1] && e2 < cellPointer[c2 + 1]) {
+			if (entryLevel[e1] < entryLevel[e2]) {
+				e1++;
+			} else if (entryLevel[e1] > entryLevel[e2]) {
+				e2++;
+			} else {
+				product = product + (long) entryCount[e1] * entryCount[e2];
+				shared = shared + entryCount[e1];
+				e1++;
+				e2++;
+			}
+		}
+		return new long[] { product, shared };
+	}
+}
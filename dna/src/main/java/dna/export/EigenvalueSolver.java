@@ -0,0 +1,372 @@
+package dna.export;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.ojalgo.matrix.Primitive64Matrix;
+import org.ojalgo.matrix.decomposition.Eigenvalue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Eigenvalues of real symmetric matrices for the spectral distances in the backbone algorithms and in the distance
+ * matrix of time window networks. Several back-ends are available:
+ *
+ * <ul>
+ *   <li>{@code "ojalgo"}: full dense decomposition using the ojalgo library. This is the default back-end.</li>
+ *   <li>{@code "apache"}: full dense decomposition using the Apache Commons Math library.</li>
+ *   <li>{@code "lanczos"}: Lanczos iteration with full reorthogonalization for the largest {@link #NUM_LANCZOS}
+ *     eigenvalues. Only the non-zero entries are visited in the matrix-vector products, which makes this back-end
+ *     suitable for large sparse matrices. The remaining eigenvalues are not computed; each of them is set to their
+ *     mean, which is known from the trace of the matrix. Hence the spectrum sums up to the same value, but spectral
+ *     distances are approximate. They are exact for matrices with up to {@link #NUM_LANCZOS} rows; for larger
+ *     matrices, the sum of the absolute differences to the exact normalized spectrum can exceed 0.2.</li>
+ *   <li>{@code "auto"}: {@code "ojalgo"} for matrices with up to {@link #LANCZOS_THRESHOLD} rows and
+ *     {@code "lanczos"} for larger matrices, i.e., approximate spectral distances for large networks.</li>
+ * </ul>
+ *
+ * <p>The {@code "lanczos"} and {@code "auto"} back-ends trade accuracy for speed and must be chosen explicitly.
+ *
+ * <p>Diagonal matrices are not decomposed with any of the back-ends because their eigenvalues are the diagonal
+ * elements. The eigenvalues of other matrices are kept in a cache of bounded size, so that matrices that are evaluated
+ * repeatedly (e.g., when a simulated annealing chain returns to a previous solution) are only decomposed once. The
+ * cache is keyed by the matrix content and can be used by several threads at the same time.
+ *
+ * <p>The eigenvalues are returned in descending order.
+ */
+class EigenvalueSolver {
+	/**
+	 * Number of rows above which the {@code "auto"} back-end switches from the dense ojalgo decomposition to the
+	 * Lanczos solver.
+	 */
+	static final int LANCZOS_THRESHOLD = 2000;
+	/**
+	 * Number of largest eigenvalues computed by the Lanczos solver.
+	 */
+	static final int NUM_LANCZOS = 200;
+	/**
+	 * Maximal number of matrix cells held in the cache across all cached matrices.
+	 */
+	private static final long CACHE_CELLS = 8000000;
+
+	private final String library;
+	private final LinkedHashMap<Key, double[]> cache = new LinkedHashMap<>(16, 0.75f, true); // access order for LRU eviction
+	private long cacheCells = 0;
+
+	/**
+	 * Create a new eigenvalue solver.
+	 *
+	 * @param library The back-end: {@code "ojalgo"}, {@code "apache"}, {@code "lanczos"}, or {@code "auto"}.
+	 */
+	EigenvalueSolver(String library) {
+		this.library = library;
+	}
+
+	/**
+	 * Get the back-end of the solver.
+	 *
+	 * @return The back-end: {@code "ojalgo"}, {@code "apache"}, {@code "lanczos"}, or {@code "auto"}.
+	 */
+	String getLibrary() {
+		return this.library;
+	}
+
+	/**
+	 * Compute the eigenvalues of a symmetric matrix.
+	 *
+	 * @param matrix A square symmetric matrix. It is not modified.
+	 * @return The eigenvalues in descending order.
+	 */
+	double[] eigenvalues(double[][] matrix) {
+		int n = matrix.length;
+		if (isDiagonal(matrix)) {
+			double[] eigenvalues = new double[n];
+			for (int i = 0; i < n; i++) {
+				eigenvalues[i] = matrix[i][i];
+			}
+			return descending(eigenvalues);
+		}
+
+		Key key = new Key(matrix);
+		synchronized (this.cache) {
+			double[] cached = this.cache.get(key);
+			if (cached != null) {
+				return cached.clone();
+			}
+		}
+
+		double[] eigenvalues;
+		if (library.equals("apache")) {
+			eigenvalues = new EigenDecomposition(new Array2DRowRealMatrix(matrix)).getRealEigenvalues();
+		} else if (library.equals("lanczos") || (library.equals("auto") && n > LANCZOS_THRESHOLD)) {
+			eigenvalues = lanczos(matrix, NUM_LANCZOS);
+		} else {
+			Primitive64Matrix matrixPrimitive = Primitive64Matrix.FACTORY.rows(matrix);
+			Eigenvalue<Double> eig = Eigenvalue.PRIMITIVE.make(matrixPrimitive);
+			eig.decompose(matrixPrimitive);
+			eigenvalues = eig.getEigenvalues().toRawCopy1D();
+		}
+		eigenvalues = descending(eigenvalues);
+
+		synchronized (this.cache) {
+			if (this.cache.put(key, eigenvalues) == null) {
+				this.cacheCells = this.cacheCells + (long) n * n;
+			}
+			Iterator<Map.Entry<Key, double[]>> iterator = this.cache.entrySet().iterator();
+			while (this.cacheCells > CACHE_CELLS && iterator.hasNext()) { // evict least recently used matrices
+				Key evicted = iterator.next().getKey();
+				this.cacheCells = this.cacheCells - (long) evicted.matrix.length * evicted.matrix.length;
+				iterator.remove();
+			}
+		}
+		return eigenvalues.clone();
+	}
+
+	/**
+	 * Is the matrix diagonal?
+	 */
+	private static boolean isDiagonal(double[][] matrix) {
+		for (int i = 0; i < matrix.length; i++) {
+			for (int j = 0; j < matrix[i].length; j++) {
+				if (i != j && matrix[i][j] != 0.0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sort an array in descending order in place.
+	 */
+	private static double[] descending(double[] values) {
+		Arrays.sort(values);
+		for (int i = 0; i < values.length / 2; i++) {
+			double temp = values[i];
+			values[i] = values[values.length - 1 - i];
+			values[values.length - 1 - i] = temp;
+		}
+		return values;
+	}
+
+	/**
+	 * Approximate the spectrum of a symmetric matrix by its largest eigenvalues using the Lanczos algorithm with full
+	 * reorthogonalization. Only Ritz values that have converged are used. The remaining eigenvalues are set to their
+	 * mean, which is derived from the trace.
+	 *
+	 * @param matrix A square symmetric matrix.
+	 * @param k The number of largest eigenvalues to compute.
+	 * @return An array with all {@code n} eigenvalues, of which up to {@code k} of the largest are Ritz values.
+	 */
+	private static double[] lanczos(double[][] matrix, int k) {
+		int n = matrix.length;
+
+		// compressed sparse row representation for the matrix-vector products
+		int nonZero = 0;
+		double trace = 0.0;
+		for (int i = 0; i < n; i++) {
+			trace = trace + matrix[i][i];
+			for (int j = 0; j < n; j++) {
+				if (matrix[i][j] != 0.0) {
+					nonZero++;
+				}
+			}
+		}
+		int[] rowPointer = new int[n + 1];
+		int[] column = new int[nonZero];
+		double[] value = new double[nonZero];
+		int c = 0;
+		for (int i = 0; i < n; i++) {
+			rowPointer[i] = c;
+			for (int j = 0; j < n; j++) {
+				if (matrix[i][j] != 0.0) {
+					column[c] = j;
+					value[c] = matrix[i][j];
+					c++;
+				}
+			}
+		}
+		rowPointer[n] = c;
+
+		// Lanczos iteration: T = Q^T A Q with an orthonormal Krylov basis Q and a symmetric tridiagonal matrix T
+		int m = Math.min(n, 3 * k); // dimension of the Krylov subspace; the largest Ritz values converge first
+		double[][] basis = new double[m][];
+		double[] alpha = new double[m];
+		double[] beta = new double[m];
+		double[] q = new double[n];
+		for (int i = 0; i < n; i++) {
+			q[i] = 1.0 + (i % 10) / 10.0; // deterministic start vector for reproducible results
+		}
+		scale(q, 1.0 / Math.sqrt(dot(q, q)));
+		int steps = 0;
+		double residual = 0.0; // norm of the part of A q_m outside the Krylov subspace
+		for (int j = 0; j < m; j++) {
+			basis[j] = q;
+			double[] w = new double[n];
+			for (int i = 0; i < n; i++) {
+				double sum = 0.0;
+				for (int e = rowPointer[i]; e < rowPointer[i + 1]; e++) {
+					sum = sum + value[e] * q[column[e]];
+				}
+				w[i] = sum;
+			}
+			alpha[j] = dot(w, q);
+			steps = j + 1;
+			for (int pass = 0; pass < 2; pass++) { // orthogonalize twice against the whole basis for numerical stability
+				for (int i = 0; i <= j; i++) {
+					double projection = dot(w, basis[i]);
+					for (int l = 0; l < n; l++) {
+						w[l] = w[l] - projection * basis[i][l];
+					}
+				}
+			}
+			double norm = Math.sqrt(dot(w, w));
+			residual = norm;
+			if (j == m - 1 || norm <= 1e-12 * Math.max(1.0, Math.abs(alpha[j]))) { // end of subspace or invariant subspace
+				break;
+			}
+			beta[j] = norm;
+			scale(w, 1.0 / norm);
+			q = w;
+		}
+
+		// Ritz values: eigenvalues of the tridiagonal matrix, with the last components of their eigenvectors
+		double[] lastRow = new double[steps];
+		lastRow[steps - 1] = 1.0;
+		double[] theta = tridiagonalEigenvalues(Arrays.copyOf(alpha, steps), Arrays.copyOf(beta, steps), lastRow);
+		Integer[] order = new Integer[steps];
+		for (int i = 0; i < steps; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i1, i2) -> Double.compare(theta[i2], theta[i1]));
+
+		// keep the largest Ritz values as long as they have converged, i.e., as long as the residual norm
+		// |A y - theta y| = residual * |last component of the eigenvector of T| is small
+		double tolerance = 1e-8 * Math.max(1.0, Math.abs(theta[order[0]]));
+		int numComputed = 0;
+		while (numComputed < steps && (steps == n || (numComputed < k && residual * Math.abs(lastRow[order[numComputed]]) <= tolerance))) {
+			numComputed++;
+		}
+		double[] eigenvalues = new double[n];
+		double remainder = trace;
+		for (int i = 0; i < numComputed; i++) {
+			eigenvalues[i] = theta[order[i]];
+			remainder = remainder - eigenvalues[i];
+		}
+		for (int i = numComputed; i < n; i++) {
+			eigenvalues[i] = remainder / (n - numComputed);
+		}
+		return eigenvalues;
+	}
+
+	/**
+	 * Compute the eigenvalues of a symmetric tridiagonal matrix using the QL algorithm with implicit shifts.
+	 *
+	 * @param d The diagonal elements. The array is overwritten with the eigenvalues.
+	 * @param e The sub-diagonal elements, where {@code e[i]} connects rows {@code i} and {@code i + 1}. The last element
+	 *   is ignored. The array is overwritten.
+	 * @param z A row of the identity matrix, which is overwritten with the same row of the eigenvector matrix. Element
+	 *   {@code i} then belongs to the eigenvector of the {@code i}-th eigenvalue.
+	 * @return The eigenvalues (i.e., the array {@code d}) in no particular order.
+	 */
+	private static double[] tridiagonalEigenvalues(double[] d, double[] e, double[] z) {
+		int n = d.length;
+		if (n > 0) {
+			e[n - 1] = 0.0;
+		}
+		for (int l = 0; l < n; l++) {
+			int iteration = 0;
+			int m;
+			do {
+				for (m = l; m < n - 1; m++) {
+					double dd = Math.abs(d[m]) + Math.abs(d[m + 1]);
+					if (Math.abs(e[m]) <= Math.ulp(1.0) * dd) {
+						break;
+					}
+				}
+				if (m != l) {
+					if (iteration++ == 60) { // no convergence; keep the current approximation
+						break;
+					}
+					double g = (d[l + 1] - d[l]) / (2.0 * e[l]);
+					double r = Math.hypot(g, 1.0);
+					g = d[m] - d[l] + e[l] / (g + Math.copySign(r, g));
+					double s = 1.0;
+					double c = 1.0;
+					double p = 0.0;
+					int i;
+					for (i = m - 1; i >= l; i--) {
+						double f = s * e[i];
+						double b = c * e[i];
+						r = Math.hypot(f, g);
+						e[i + 1] = r;
+						if (r == 0.0) { // recover from underflow
+							d[i + 1] = d[i + 1] - p;
+							e[m] = 0.0;
+							break;
+						}
+						s = f / r;
+						c = g / r;
+						g = d[i + 1] - p;
+						r = (d[i] - g) * s + 2.0 * c * b;
+						p = s * r;
+						d[i + 1] = g + p;
+						g = c * r - b;
+						f = z[i + 1]; // apply the rotation to the eigenvector row
+						z[i + 1] = s * z[i] + c * f;
+						z[i] = c * z[i] - s * f;
+					}
+					if (r == 0.0 && i >= l) {
+						continue;
+					}
+					d[l] = d[l] - p;
+					e[l] = g;
+					e[m] = 0.0;
+				}
+			} while (m != l);
+		}
+		return d;
+	}
+
+	private static double dot(double[] x, double[] y) {
+		double sum = 0.0;
+		for (int i = 0; i < x.length; i++) {
+			sum = sum + x[i] * y[i];
+		}
+		return sum;
+	}
+
+	private static void scale(double[] x, double factor) {
+		for (int i = 0; i < x.length; i++) {
+			x[i] = x[i] * factor;
+		}
+	}
+
+	/**
+	 * Cache key holding a copy of a matrix with a hash code of its content.
+	 */
+	private static final class Key {
+		private final double[][] matrix;
+		private final int hash;
+
+		private Key(double[][] matrix) {
+			this.matrix = new double[matrix.length][];
+			for (int i = 0; i < matrix.length; i++) {
+				this.matrix[i] = matrix[i].clone();
+			}
+			this.hash = Arrays.deepHashCode(this.matrix);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).hash == this.hash && Arrays.deepEquals(((Key) o).matrix, this.matrix);
+		}
+	}
+}
@@ -1,25 +1,44 @@
 package dna.export;
 
 
+import model.Color;
 import model.Statement;
 import model.Value;
 
-import java.time.ZoneOffset;
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 
 /**
- * An extension of the Statement class, which also holds some document meta-
- * data and a hash map of the values (in addition to the array list of
- * values).
+ * A read-only view on a single row of a {@link StatementTable}. It extends the
+ * Statement class for the GUI and the rDNA R package, which need statement
+ * objects, and it also provides access to the document meta-data and to the
+ * values by variable name. The data are not copied into the object; the
+ * values are only assembled when {@link #getValues()} is called. All setters
+ * inherited from {@link Statement} throw an {@link
+ * UnsupportedOperationException}.
  */
 public class ExportStatement extends Statement {
-    private HashMap<String, Object> map;
-    private String title, author, source, section, type;
+    private final StatementTable table;
+    private final int row;
 
     /**
-     * Create an export statement.
+     * Create an export statement view.
      *
-     * @param statement The statement to be converted.
+     * @param table The statement table holding the data.
+     * @param row The row index of the statement in the table.
+     */
+    ExportStatement(StatementTable table, int row) {
+        super(table.getStart(row), table.getStop(row), table.getStatementTypeId(), table.getCoderId(row), new ArrayList<Value>(0));
+        this.table = table;
+        this.row = row;
+    }
+
+    /**
+     * Create an export statement from a statement and the meta-data of its
+     * document. The statement is stored in a statement table of its own.
+     *
+     * @param statement The statement to be converted. Its date/time must be
+     *   set.
      * @param title The document title.
      * @param author The author.
      * @param source The source.
@@ -28,62 +47,196 @@ public class ExportStatement extends Statement {
      */
     public ExportStatement(Statement statement, String title, String author,
                            String source, String section, String type) {
-        super(statement);
-        this.title = title;
-        this.author = author;
-        this.source = source;
-        this.section = section;
-        this.type = type;
-        this.map = new HashMap<String, Object>();
-        for (Value value : ExportStatement.this.getValues()) {
-            map.put(value.getKey(), value.getValue());
-        }
+        this(StatementTable.of(statement, title, author, source, section, type), 0);
     }
 
     /**
-     * Copy constructor to create a deep copy of an export statement.
+     * Copy constructor. Export statements are read-only, so the copy is a
+     * view on the same row of the same statement table.
      *
      * @param exportStatement An existing export statement.
      */
     public ExportStatement(ExportStatement exportStatement) {
-        super(exportStatement);
-        this.title = exportStatement.getTitle();
-        this.author = exportStatement.getAuthor();
-        this.source = exportStatement.getSource();
-        this.section = exportStatement.getSection();
-        this.type = exportStatement.getType();
-        this.map = new HashMap<String, Object>();
-        for (Value value : exportStatement.getValues()) {
-            map.put(value.getKey(), value.getValue());
-        }
+        this(exportStatement.table, exportStatement.row);
+    }
+
+    /**
+     * Get the row index of the statement in the statement table.
+     *
+     * @return The row index.
+     */
+    int getRow() {
+        return this.row;
     }
 
     public Object get(String key) {
-        return this.map.get(key);
+        return this.table.getValue(this.row, key);
     }
 
     public String getTitle() {
-        return this.title;
+        return this.table.getDocumentField(this.row, "title");
     }
 
     public String getAuthor() {
-        return this.author;
+        return this.table.getDocumentField(this.row, "author");
     }
 
     public String getSource() {
-        return this.source;
+        return this.table.getDocumentField(this.row, "source");
     }
 
     public String getSection() {
-        return this.section;
+        return this.table.getDocumentField(this.row, "section");
     }
 
     public String getType() {
-        return this.type;
+        return this.table.getDocumentField(this.row, "type");
     }
 
     public String getDocumentIdAsString() {
-        return String.valueOf(this.getDocumentId());
+        return this.table.getDocumentField(this.row, "id");
+    }
+
+    @Override
+    public int getId() {
+        return this.table.getId(this.row);
+    }
+
+    @Override
+    public int getDocumentId() {
+        return this.table.getDocumentId(this.row);
+    }
+
+    @Override
+    public String getText() {
+        return this.table.getText(this.row);
+    }
+
+    @Override
+    public LocalDateTime getDateTime() {
+        return this.table.getDateTime(this.row);
+    }
+
+    @Override
+    public String getStatementTypeLabel() {
+        return this.table.getStatementTypeLabel();
+    }
+
+    @Override
+    public Color getStatementTypeColor() {
+        return this.table.getStatementTypeColor();
+    }
+
+    @Override
+    public String getCoderName() {
+        return this.table.getCoderName(this.row);
+    }
+
+    @Override
+    public Color getCoderColor() {
+        return this.table.getCoderColor(this.row);
+    }
+
+    /**
+     * Assemble the values of the statement. A new list is created at every
+     * call, so changes to the list are not reflected in the statement.
+     *
+     * @return An array list of {@link model.Value Value} objects.
+     */
+    @Override
+    public ArrayList<Value> getValues() {
+        return this.table.getValues(this.row);
+    }
+
+    @Override
+    public Value getValueByKey(String key) {
+        return this.getValues().stream().filter(v -> v.getKey().equals(key)).findFirst().get();
+    }
+
+    @Override
+    public Value getValueByVariableId(int variableId) {
+        return this.getValues().stream().filter(v -> v.getVariableId() == variableId).findFirst().get();
+    }
+
+    /**
+     * Compare to another statement by date/time, document ID, start and stop
+     * position, and statement ID. Views on the same table are compared
+     * directly on the table columns.
+     */
+    @Override
+    public int compareTo(Statement s) {
+        if (s instanceof ExportStatement && ((ExportStatement) s).table == this.table) {
+            return this.table.compare(this.row, ((ExportStatement) s).row);
+        }
+        int c = this.getDateTime().compareTo(s.getDateTime());
+        if (c != 0) {
+            return c;
+        }
+        if (this.getDocumentId() != s.getDocumentId()) {
+            return this.getDocumentId() < s.getDocumentId() ? -1 : 1;
+        }
+        if (this.getStart() != s.getStart()) {
+            return this.getStart() < s.getStart() ? -1 : 1;
+        }
+        if (this.getStop() != s.getStop()) {
+            return this.getStop() < s.getStop() ? -1 : 1;
+        }
+        return Integer.compare(this.getId(), s.getId());
+    }
+
+    @Override
+    public void setCoderName(String coderName) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setCoderColor(Color coderColor) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setDocumentId(int documentId) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setText(String text) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setStatementTypeLabel(String statementTypeLabel) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setStatementTypeColor(Color statementTypeColor) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setId(int id) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setCoderId(int coderId) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setDateTime(LocalDateTime dateTime) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setValues(ArrayList<Value> values) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
+    }
+
+    @Override
+    public void setValue(Value value) {
+        throw new UnsupportedOperationException("Export statements are read-only.");
     }
 
     /**
@@ -94,6 +247,6 @@ public class ExportStatement extends Statement {
      * @return Date/time in seconds since 1 January 1970.
      */
     public long getDateTimeLong() {
-        return this.getDateTime().toEpochSecond(ZoneOffset.UTC);
+        return this.table.getTime(this.row);
     }
-}
\ No newline at end of file
+}
@@ -10,32 +10,23 @@ import logger.LogEvent;
 import logger.Logger;
 import me.tongfei.progressbar.ProgressBar;
 import model.*;
-import org.apache.commons.math3.linear.EigenDecomposition;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.jdom.Attribute;
 import org.jdom.Comment;
 import org.jdom.Element;
 import org.jdom.Namespace;
 import org.jdom.output.Format;
 import org.jdom.output.XMLOutputter;
-import org.ojalgo.array.DenseArray;
-import org.ojalgo.array.Primitive64Array;
-import org.ojalgo.function.aggregator.Aggregator;
-import org.ojalgo.matrix.Primitive64Matrix;
-import org.ojalgo.matrix.decomposition.Eigenvalue;
+import sql.DatabaseSnapshot;
 
 import java.io.*;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.Period;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -68,7 +59,11 @@ public class Exporter {
 	 */
 	private HashMap<String, String> dataTypes;
 	/**
-	 * Holds all statements.
+	 * Holds the data of all statements in a column-oriented, dictionary-encoded format.
+	 */
+	private StatementTable statementTable;
+	/**
+	 * Holds all statements as views on the rows of the {@link #statementTable}.
 	 */
 	private ArrayList<ExportStatement> originalStatements;
 	/**
@@ -94,19 +89,16 @@ public class Exporter {
 	ArrayList<Matrix> backboneMatrices = new ArrayList<>();
 	ArrayList<Matrix> redundantMatrices = new ArrayList<>();
 	private NestedBackboneResult nestedBackboneResult = null;
+	private HashMap<String, Integer> conceptIndex; // column of each concept in the backbone incidence structure
+	private BackboneIncidence.Subset backboneSubset, redundantSubset; // null if the aggregation is not supported by BackboneIncidence
 
 	// objects for simulated annealing backbone algorithm
-	private ArrayList<Double> temperatureLog, acceptanceProbabilityLog, penalizedBackboneLossLog, acceptanceRatioLastHundredIterationsLog;
-	private ArrayList<Integer> acceptedLog, proposedBackboneSizeLog, acceptedBackboneSizeLog, finalBackboneSizeLog;
-	private String selectedAction;
-	private ArrayList<String> actionList, candidateBackboneList, candidateRedundantList, finalBackboneList, finalRedundantList;
-	private ArrayList<ExportStatement> currentStatementList, candidateStatementList, finalStatementList; // declare candidate statement list at t
-	private Matrix currentMatrix, candidateMatrix, finalMatrix; // candidate matrix at the respective t, Y^{B^*_t}
-	private boolean accept;
-	private double p, temperature, acceptance, r, oldLoss, newLoss, finalLoss, log;
-	private double[] eigenvaluesCurrent, eigenvaluesCandidate, eigenvaluesFinal;
-	private int T, t, backboneSize;
+	private SimulatedAnnealingChain[] chains; // independent Markov chains, which are iterated in parallel
+	private BackboneIncidence backboneIncidence; // null if the aggregation is not supported by BackboneIncidence
+	private double p;
+	private int T, backboneSize;
 	private SimulatedAnnealingBackboneResult simulatedAnnealingBackboneResult = null;
+	private SimulatedAnnealingBackboneResult[] simulatedAnnealingChainResults = null;
 
 	// time smoothing
 	/**
@@ -138,6 +130,67 @@ public class Exporter {
 		this.indentTime = indentTime;
 	}
 
+	// one-mode network engine
+	/**
+	 * Engine used for computing one-mode network matrices. Can be {@code "dense"} (for the three-dimensional array of
+	 * variable 1 x variable 2 x qualifier levels), {@code "sparse"} (for a sparse incidence structure, see
+	 * {@link SparseIncidence}), or {@code "auto"} (for using the sparse engine if the dense array would have more than
+	 * {@link #SPARSE_THRESHOLD} cells). Both engines produce identical results.
+	 */
+	private String oneModeEngine = "auto";
+	/**
+	 * Number of cells in the dense variable 1 x variable 2 x qualifier array above which the {@code "auto"} one-mode
+	 * engine switches to the sparse engine.
+	 */
+	private static final long SPARSE_THRESHOLD = 250000;
+	/**
+	 * Number of statements per chunk when checking statements in parallel in {@link #filterStatements()}.
+	 */
+	private static final int FILTER_CHUNK_SIZE = 10000;
+
+	/**
+	 * Solver for the eigenvalues in the spectral distances of the backbone algorithms and the distance matrix. The
+	 * solver caches the eigenvalues of recently decomposed matrices.
+	 */
+	private EigenvalueSolver eigenvalueSolver = new EigenvalueSolver("ojalgo");
+
+	/**
+	 * Set the back-end used for computing eigenvalues in spectral distances.
+	 *
+	 * @param library The back-end: {@code "ojalgo"}, {@code "apache"}, {@code "lanczos"}, or {@code "auto"} (see
+	 *   {@link EigenvalueSolver}). Invalid values are replaced by the exact default {@code "ojalgo"}.
+	 */
+	public void setEigenvalueLibrary(String library) {
+		if (library == null || (!library.equals("ojalgo") && !library.equals("apache") && !library.equals("lanczos") && !library.equals("auto"))) {
+			LogEvent le = new LogEvent(Logger.WARNING,
+					"Exporter: Eigenvalue library setting invalid.",
+					"When computing spectral distances, the eigenvalue library was set to \"" + library + "\", but the only valid options are \"ojalgo\", \"apache\", \"lanczos\", and \"auto\". Using the default value \"ojalgo\" in this case.");
+			Dna.logger.log(le);
+			library = "ojalgo";
+		}
+		if (!library.equals(this.eigenvalueSolver.getLibrary())) {
+			this.eigenvalueSolver = new EigenvalueSolver(library);
+		}
+	}
+
+	/**
+	 * Set the engine used for computing one-mode network matrices.
+	 *
+	 * @param oneModeEngine The engine: {@code "dense"}, {@code "sparse"}, or {@code "auto"}. Invalid values are
+	 *   replaced by {@code "auto"}.
+	 */
+	public void setOneModeEngine(String oneModeEngine) {
+		if (oneModeEngine == null || (!oneModeEngine.equals("dense") && !oneModeEngine.equals("sparse") && !oneModeEngine.equals("auto"))) {
+			LogEvent le = new LogEvent(Logger.WARNING,
+					"Exporter: One-mode engine setting invalid.",
+					"When exporting a network, the one-mode engine was set to \"" + oneModeEngine + "\", but the only valid options are \"dense\", \"sparse\", and \"auto\". Using the default value \"auto\" in this case.");
+			Dna.logger.log(le);
+			this.oneModeEngine = "auto";
+		} else {
+			this.oneModeEngine = oneModeEngine;
+		}
+	}
+
 	/**
 	 * <p>Create a new Exporter class instance, holding an array list of export
 	 * statements (i.e., statements with added document information and a hash
@@ -795,38 +848,72 @@ public class Exporter {
 			this.dataTypes.put(this.statementType.getVariables().get(i).getKey(), this.statementType.getVariables().get(i).getDataType());
 		}
 
-		// get documents and create document hash map for quick lookup
-		this.documents = Dna.sql.getTableDocuments(new int[0]);
+		// value exclusions can only be evaluated by the database if the excluded statements are not needed later for
+		// isolates or for the levels of a text or integer qualifier, which are taken from the unfiltered statements
+		boolean pushDownValues = !this.isolates && (this.qualifier == null
+				|| this.qualifierDocument
+				|| (dataTypes.get(this.qualifier) != null && dataTypes.get(this.qualifier).equals("boolean")));
+
+		// stream the statements that pass the date, document, and value filters from the database into a
+		// column-oriented table; if the snapshot of the database is enabled and available, take the statements from
+		// the snapshot instead, which only reads the changes since the last export, and apply the date and document
+		// filters in memory; the remaining value filters are applied in memory by filterStatements()
+		StatementTable.Builder builder = new StatementTable.Builder(this.statementType);
+		DatabaseSnapshot snapshot = Dna.sql.getSnapshot();
+		ArrayList<Statement> snapshotStatements = snapshot == null ? null : snapshot.getStatements(this.statementType.getId());
+		boolean success;
+		if (snapshotStatements != null) {
+			int[] ids = snapshotStatements.stream().mapToInt(Statement::getDocumentId).distinct().toArray();
+			HashMap<Integer, TableDocument> snapshotDocuments = new HashMap<Integer, TableDocument>();
+			for (TableDocument d : snapshot.getDocuments(ids)) {
+				snapshotDocuments.put(d.getId(), d);
+			}
+			for (Statement s : snapshotStatements) {
+				TableDocument d = snapshotDocuments.get(s.getDocumentId());
+				if (d != null && isIncluded(s, d)) {
+					builder.add(s);
+				}
+			}
+			success = true;
+		} else {
+			success = Dna.sql.streamStatements(new int[0],
+					this.statementType.getId(),
+					this.startDateTime,
+					this.stopDateTime,
+					this.excludeAuthors,
+					this.invertAuthors,
+					this.excludeSources,
+					this.invertSources,
+					this.excludeSections,
+					this.invertSections,
+					this.excludeTypes,
+					this.invertTypes,
+					pushDownValues ? this.excludeValues : null,
+					this.invertValues,
+					builder::add);
+		}
+		if (!success) {
+			builder = new StatementTable.Builder(this.statementType);
+		}
+
+		// get only the documents that contain the statements and create document hash map for quick lookup
+		int[] documentIds = builder.getDocumentIds();
+		if (documentIds.length == 0) {
+			this.documents = new ArrayList<TableDocument>();
+		} else if (snapshotStatements != null) {
+			this.documents = snapshot.getDocuments(documentIds);
+		} else {
+			this.documents = Dna.sql.getTableDocuments(documentIds);
+		}
 		Collections.sort(documents);
 		this.docMap = new HashMap<Integer, Integer>();
 		for (int i = 0; i < documents.size(); i++) {
 			docMap.put(documents.get(i).getId(), i);
 		}
 
-		// get statements and convert to {@link ExportStatement} objects with additional information
-		this.originalStatements = Dna.sql.getStatements(new int[0],
-				this.statementType.getId(),
-				this.startDateTime,
-				this.stopDateTime,
-				this.excludeAuthors,
-				this.invertAuthors,
-				this.excludeSources,
-				this.invertSources,
-				this.excludeSections,
-				this.invertSections,
-				this.excludeTypes,
-				this.invertTypes)
-		.stream()
-		.map(s -> {
-			int docIndex = docMap.get(s.getDocumentId());
-			return new ExportStatement(s,
-					documents.get(docIndex).getTitle(),
-					documents.get(docIndex).getAuthor(),
-					documents.get(docIndex).getSource(),
-					documents.get(docIndex).getSection(),
-					documents.get(docIndex).getType());
-		})
-		.collect(Collectors.toCollection(ArrayList::new));
+		// create {@link ExportStatement} views on the rows of the statement table
+		this.statementTable = builder.build(documents, docMap);
+		this.originalStatements = this.statementTable.createViews();
 		if (this.originalStatements.size() == 0) {
 			Dna.logger.log(
 					new LogEvent(Logger.WARNING,
@@ -836,6 +923,45 @@ public class Exporter {
 		}
 	}
 	
+	/**
+	 * Check if a statement from the database snapshot passes the date and
+	 * document filters, with the same semantics as the filters in {@link
+	 * sql.Sql#streamStatements}.
+	 *
+	 * @param s  The statement.
+	 * @param d  The document of the statement.
+	 * @return   Is the statement included?
+	 */
+	private boolean isIncluded(Statement s, TableDocument d) {
+		long date = s.getDateTime().toEpochSecond(ZoneOffset.UTC);
+		if (this.startDateTime != null && date < this.startDateTime.toEpochSecond(ZoneOffset.UTC)) {
+			return false;
+		}
+		if (this.stopDateTime != null && date > this.stopDateTime.toEpochSecond(ZoneOffset.UTC)) {
+			return false;
+		}
+		return isIncluded(d.getAuthor(), this.excludeAuthors, this.invertAuthors)
+				&& isIncluded(d.getSource(), this.excludeSources, this.invertSources)
+				&& isIncluded(d.getSection(), this.excludeSections, this.invertSections)
+				&& isIncluded(d.getType(), this.excludeTypes, this.invertTypes);
+	}
+
+	/**
+	 * Check if a document field passes a document filter. Without labels, all
+	 * documents pass; otherwise, documents without a value do not pass.
+	 *
+	 * @param value    The value of the document field.
+	 * @param labels   The labels to exclude, or to include if inverted.
+	 * @param include  Are the labels included instead of excluded?
+	 * @return         Does the value pass the filter?
+	 */
+	private static boolean isIncluded(String value, ArrayList<String> labels, boolean include) {
+		if (labels == null || labels.size() == 0) {
+			return true;
+		}
+		return value != null && labels.contains(value) == include;
+	}
+
 	/**
 	 * Extract the labels for all nodes for a variable from the statements,
 	 * conditional on isolates settings.
@@ -861,46 +987,68 @@ public class Exporter {
 			finalStatements = processedStatements;
 		}
 		
-		// go through statements and extract names
-		ArrayList<String> names = new ArrayList<String>();
-		String n = null;
-		ExportStatement es;
-		for (int i = 0; i < finalStatements.size(); i++) {
-			es = finalStatements.get(i);
-			if (variableDocument) {
-				if (variable.equals("author")) {
-					n = es.getAuthor();
-				} else if (variable.equals("source")) {
-					n = es.getSource();
-				} else if (variable.equals("section")) {
-					n = es.getSection();
-				} else if (variable.equals("type")) {
-					n = es.getType();
-				} else if (variable.equals("id")) {
-					n = es.getDocumentIdAsString();
-				} else if (variable.equals("title")) {
-					n = es.getTitle();
-				}
-			} else {
-				n = (String) es.get(variable).toString();
-			}
-			if (!names.contains(n)) {
-				names.add(n);
-			}
+		// collect the distinct labels, sort them, and remove the empty label
+		String[] names = retrieveDistinctValues(finalStatements, variable, variableDocument);
+		if (names.length > 0 && names[0].equals("")) { // remove empty field
+			names = Arrays.copyOfRange(names, 1, names.length);
 		}
-		
-		// sort and convert to array, then return
-		Collections.sort(names);
-		if (names.size() > 0 && names.get(0).equals("")) { // remove empty field
-			names.remove(0);
+		return names;
+	}
+
+	/**
+	 * Retrieve the sorted distinct values of a variable across statements.
+	 * The values are collected via their dictionary codes in the {@link
+	 * #statementTable}, so every distinct value is compared only once.
+	 *
+	 * @param statements Original or filtered array list of statements.
+	 * @param variable The variable name, for example {@code "organization"}.
+	 * @param documentLevel Is the variable a document-level variable?
+	 * @return Sorted String array of distinct values, including the empty
+	 *   value if present.
+	 */
+	private String[] retrieveDistinctValues(ArrayList<ExportStatement> statements, String variable, boolean documentLevel) {
+		StatementTable.LabelColumn column = this.statementTable.getLabelColumn(variable, documentLevel);
+		boolean[] used = new boolean[column.size()];
+		int numUsed = 0;
+		for (int i = 0; i < statements.size(); i++) {
+			int code = column.code(statements.get(i).getRow());
+			if (!used[code]) {
+				used[code] = true;
+				numUsed++;
+			}
 		}
-		String[] nameArray = new String[names.size()];
-		if (names.size() > 0) {
-			for (int i = 0; i < names.size(); i++) {
-				nameArray[i] = names.get(i);
+		String[] values = new String[numUsed];
+		int j = 0;
+		for (int code = 0; code < used.length; code++) {
+			if (used[code]) {
+				values[j] = column.getLabel(code);
+				j++;
 			}
 		}
-		return nameArray;
+		Arrays.sort(values);
+		return values;
+	}
+
+	/**
+	 * Retrieve the sorted distinct values of an integer or boolean variable
+	 * across statements.
+	 *
+	 * @param statements Original or filtered array list of statements.
+	 * @param variable The variable name.
+	 * @return Sorted int array of distinct values.
+	 */
+	private int[] retrieveDistinctIntegers(ArrayList<ExportStatement> statements, String variable) {
+		StatementTable.LabelColumn column = this.statementTable.getLabelColumn(variable, false);
+		boolean[] used = new boolean[column.size()];
+		for (int i = 0; i < statements.size(); i++) {
+			used[column.code(statements.get(i).getRow())] = true;
+		}
+		return IntStream.range(0, used.length)
+				.filter(code -> used[code])
+				.map(code -> column.getInteger(code))
+				.distinct()
+				.sorted()
+				.toArray();
 	}
 
 	/**
@@ -912,161 +1060,135 @@ public class Exporter {
 		try (ProgressBar pb = new ProgressBar("Filtering statements", this.originalStatements.size())) {
 			pb.stepTo(0);
 
-			// create a deep copy of the original statements
-			this.filteredStatements = new ArrayList<ExportStatement>();
-			for (int i = 0; i < this.originalStatements.size(); i++) {
-				this.filteredStatements.add(new ExportStatement(this.originalStatements.get(i)));
-			}
-
-			// sort statements by date and time
-			Collections.sort(this.filteredStatements);
+			// sort the statement views by date and time; the views are read-only, so no copy of the data is needed
+			ArrayList<ExportStatement> sorted = new ArrayList<ExportStatement>(this.originalStatements);
+			sorted.sort((s1, s2) -> this.statementTable.compare(s1.getRow(), s2.getRow()));
 
-			// Create arrays with variable values
-			String[] values1 = retrieveValues(this.filteredStatements, this.variable1, this.variable1Document);
-			String[] values2 = new String[0];
+			// look up the dictionary-encoded columns of the variables
+			StatementTable.LabelColumn column1 = this.statementTable.getLabelColumn(this.variable1, this.variable1Document);
+			StatementTable.LabelColumn column2 = null;
 			if (this.variable2 != null) {
-				values2 = retrieveValues(this.filteredStatements, this.variable2, this.variable2Document);
+				column2 = this.statementTable.getLabelColumn(this.variable2, this.variable2Document);
 			}
-			String[] qualifierValues = new String[0];
-			if (this.qualifierDocument || (!this.qualifierAggregation.equals("ignore") && dataTypes.get(this.qualifier).equals("short text"))) {
-				qualifierValues = retrieveValues(this.filteredStatements, this.qualifier, this.qualifierDocument);
+			boolean textQualifier = !this.qualifierAggregation.equals("ignore") && (this.qualifierDocument || dataTypes.get(this.qualifier).equals("short text"));
+			StatementTable.LabelColumn qualifierColumn = null;
+			if (!this.qualifierAggregation.equals("ignore")) {
+				qualifierColumn = this.statementTable.getLabelColumn(this.qualifier, this.qualifierDocument);
 			}
 
-			// process and exclude statements
-			ExportStatement s;
-			ArrayList<ExportStatement> al = new ArrayList<ExportStatement>();
-			String previousVar1 = null;
-			String previousVar2 = null;
-			String previousQualifier = null;
-			LocalDateTime cal, calPrevious;
-			int year, month, week, yearPrevious, monthPrevious, weekPrevious;
-			for (int i = 0; i < this.filteredStatements.size(); i++) {
-				boolean select = true;
-				s = this.filteredStatements.get(i);
-
-				// check against excluded values
-				Iterator<String> keyIterator = this.excludeValues.keySet().iterator();
-				while (keyIterator.hasNext()) {
-					String key = keyIterator.next();
-					String string = "";
-					if (dataTypes.get(key) == null) {
-						throw new NullPointerException("'" + key + "' is not a statement-level variable and cannot be excluded.");
-					} else if (dataTypes.get(key).equals("boolean") || dataTypes.get(key).equals("integer")) {
-						string = String.valueOf(s.get(key));
-					} else if (dataTypes.get(key).equals("short text")) {
-						string = ((Entity) s.get(key)).getValue();
-					} else if (dataTypes.get(key).equals("long text")) {
-						string = (String) s.get(key);
-					}
-					if ((this.excludeValues.get(key).contains(string) && !this.invertValues) ||
-							(!this.excludeValues.get(key).contains(string) && this.invertValues)) {
-						select = false;
-					}
+			// determine for each code of each variable with excluded values whether statements with the code are excluded
+			ArrayList<StatementTable.LabelColumn> excludeColumns = new ArrayList<StatementTable.LabelColumn>();
+			ArrayList<boolean[]> excludeCodes = new ArrayList<boolean[]>();
+			Iterator<String> keyIterator = this.excludeValues.keySet().iterator();
+			while (keyIterator.hasNext()) {
+				String key = keyIterator.next();
+				if (dataTypes.get(key) == null) {
+					throw new NullPointerException("'" + key + "' is not a statement-level variable and cannot be excluded.");
 				}
-
-				// check against empty fields
-				if (select &&
-						this.networkType != null &&
-						!this.networkType.equals("eventlist") &&
-						(values1[i].equals("") || values2[i].equals("") || (!this.qualifierAggregation.equals("ignore") && (qualifierDocument || dataTypes.get(qualifier).equals("short text")) && qualifierValues[i].equals("")))) {
-					select = false;
-				} else if (select && this.networkType == null && values1[i].equals("")) { // barplot data because no network type defined
-					select = false;
+				StatementTable.LabelColumn column = this.statementTable.getLabelColumn(key, false);
+				boolean[] exclude = new boolean[column.size()];
+				for (int code = 0; code < column.size(); code++) {
+					boolean contains = this.excludeValues.get(key).contains(column.getLabel(code));
+					exclude[code] = (contains && !this.invertValues) || (!contains && this.invertValues);
 				}
+				excludeColumns.add(column);
+				excludeCodes.add(exclude);
+			}
 
-				// check for duplicates
-				cal = s.getDateTime();
-				year = cal.getYear();
-				month = cal.getMonthValue();
-				@SuppressWarnings("static-access")
-				WeekFields weekFields = WeekFields.of(Locale.UK.getDefault()); // use UK definition of calendar weeks
-				week = cal.get(weekFields.weekOfWeekBasedYear());
-				if (!this.duplicates.equals("include")) {
-					for (int j = al.size() - 1; j >= 0; j--) {
-						if (!this.variable1Document) {
-							previousVar1 = ((Entity) al.get(j).get(this.variable1)).getValue();
-						} else if (this.variable1.equals("author")) {
-							previousVar1 = al.get(j).getAuthor();
-						} else if (this.variable1.equals("source")) {
-							previousVar1 = al.get(j).getSource();
-						} else if (this.variable1.equals("section")) {
-							previousVar1 = al.get(j).getSection();
-						} else if (this.variable1.equals("type")) {
-							previousVar1 = al.get(j).getType();
-						} else if (this.variable1.equals("id")) {
-							previousVar1 = al.get(j).getDocumentIdAsString();
-						} else if (this.variable1.equals("title")) {
-							previousVar1 = al.get(j).getTitle();
-						}
-						if (this.variable2 != null) {
-							if (!this.variable2Document) {
-								previousVar2 = ((Entity) al.get(j).get(this.variable2)).getValue();
-							} else if (this.variable2.equals("author")) {
-								previousVar2 = al.get(j).getAuthor();
-							} else if (this.variable2.equals("source")) {
-								previousVar2 = al.get(j).getSource();
-							} else if (this.variable2.equals("section")) {
-								previousVar2 = al.get(j).getSection();
-							} else if (this.variable2.equals("type")) {
-								previousVar2 = al.get(j).getType();
-							} else if (this.variable2.equals("id")) {
-								previousVar2 = al.get(j).getDocumentIdAsString();
-							} else if (this.variable2.equals("title")) {
-								previousVar2 = al.get(j).getTitle();
-							}
-						}
-						if (!this.qualifierAggregation.equals("ignore") && (qualifierDocument || dataTypes.get(this.qualifier).equals("short text"))) {
-							if (!this.qualifierDocument) {
-								previousQualifier = ((Entity) al.get(j).get(this.qualifier)).getValue();
-							} else if (this.qualifier.equals("author")) {
-								previousQualifier = al.get(j).getAuthor();
-							} else if (this.qualifier.equals("source")) {
-								previousQualifier = al.get(j).getSource();
-							} else if (this.qualifier.equals("section")) {
-								previousQualifier = al.get(j).getSection();
-							} else if (this.qualifier.equals("type")) {
-								previousQualifier = al.get(j).getType();
-							} else if (this.qualifier.equals("id")) {
-								previousQualifier = al.get(j).getDocumentIdAsString();
-							} else if (this.qualifier.equals("title")) {
-								previousQualifier = al.get(j).getTitle();
-							}
-						}
-						calPrevious = al.get(j).getDateTime();
-						yearPrevious = calPrevious.getYear();
-						monthPrevious = calPrevious.getMonthValue();
-						@SuppressWarnings("static-access")
-						WeekFields weekFieldsPrevious = WeekFields.of(Locale.UK.getDefault()); // use UK definition of calendar weeks
-						weekPrevious = calPrevious.get(weekFieldsPrevious.weekOfWeekBasedYear());
-						if (s.getStatementTypeId() == al.get(j).getStatementTypeId()
-								&& ( (al.get(j).getDocumentId() == s.getDocumentId() && duplicates.equals("document"))
-								|| duplicates.equals("acrossrange")
-								|| (duplicates.equals("year") && year == yearPrevious)
-								|| (duplicates.equals("month") && month == monthPrevious)
-								|| (duplicates.equals("week") && week == weekPrevious) )
-								&& values1[i].equals(previousVar1)
-								&& (values2.length == 0 /* for barplot data */ || values2[i].equals(previousVar2))
-								&& (this.qualifierAggregation.equals("ignore")
-									|| (dataTypes.get(this.qualifier).equals("short text") && qualifierValues[i].equals(previousQualifier))
-									|| (!dataTypes.get(this.qualifier).equals("short text") && (Integer) s.get(this.qualifier) == (Integer) al.get(j).get(this.qualifier)))) {
-							select = false;
+			// process and exclude statements in parallel chunks; exclusion and empty fields only depend on the row itself
+			int n = sorted.size();
+			boolean[] select = new boolean[n];
+			final StatementTable.LabelColumn finalColumn2 = column2;
+			final StatementTable.LabelColumn finalQualifierColumn = qualifierColumn;
+			IntStream.range(0, (n + FILTER_CHUNK_SIZE - 1) / FILTER_CHUNK_SIZE).parallel().forEach(chunk -> {
+				int end = Math.min(n, (chunk + 1) * FILTER_CHUNK_SIZE);
+				for (int i = chunk * FILTER_CHUNK_SIZE; i < end; i++) {
+					int row = sorted.get(i).getRow();
+					boolean selected = true;
+
+					// check against excluded values
+					for (int k = 0; k < excludeColumns.size(); k++) {
+						if (excludeCodes.get(k)[excludeColumns.get(k).code(row)]) {
+							selected = false;
 							break;
 						}
 					}
-				}
 
-				// add only if the statement passed all checks
-				if (select) {
-					al.add(s);
+					// check against empty fields
+					if (selected &&
+							this.networkType != null &&
+							!this.networkType.equals("eventlist") &&
+							(column1.label(row).equals("") || finalColumn2.label(row).equals("") || (textQualifier && finalQualifierColumn.label(row).equals("")))) {
+						selected = false;
+					} else if (selected && this.networkType == null && column1.label(row).equals("")) { // barplot data because no network type defined
+						selected = false;
+					}
+					select[i] = selected;
 				}
+				pb.stepBy(end - chunk * FILTER_CHUNK_SIZE);
+			});
+
+			// check for duplicates: the first selected statement (in time order) with a given combination of variable 1,
+			// variable 2, qualifier, and time bucket is kept; later statements with the same combination are dropped
+			if (!this.duplicates.equals("include")) {
+				int[] bucket = createDuplicateBuckets();
+				ConcurrentHashMap<DuplicateKey, Integer> firstOccurrence = new ConcurrentHashMap<DuplicateKey, Integer>();
+				DuplicateKey[] keys = new DuplicateKey[n];
+				IntStream.range(0, n).parallel().filter(i -> select[i]).forEach(i -> {
+					int row = sorted.get(i).getRow();
+					keys[i] = new DuplicateKey(
+							column1.code(row),
+							finalColumn2 == null ? -1 : finalColumn2.code(row), // barplot data have no second variable
+							finalQualifierColumn == null ? -1 : finalQualifierColumn.code(row),
+							bucket[this.statementTable.getDocumentIndex(row)]);
+					firstOccurrence.merge(keys[i], i, Math::min);
+				});
+				IntStream.range(0, n).parallel().filter(i -> select[i]).forEach(i -> select[i] = firstOccurrence.get(keys[i]) == i);
+			}
 
-				pb.stepTo(i + 1);
+			// add only the statements that passed all checks
+			ArrayList<ExportStatement> al = new ArrayList<ExportStatement>();
+			for (int i = 0; i < n; i++) {
+				if (select[i]) {
+					al.add(sorted.get(i));
+				}
 			}
 			this.filteredStatements = al;
 			pb.stepTo(this.originalStatements.size());
 		}
 	}
 
+	/**
+	 * Assign each document of the statement table to a time bucket for the
+	 * duplicate check in {@link #filterStatements()}. Statements are only
+	 * duplicates of each other if their documents are in the same bucket.
+	 * Depending on the {@link #duplicates} setting, the bucket is the
+	 * document itself, the calendar week, the month, the year, or the whole
+	 * time range. Weeks and months are compared by their number only.
+	 *
+	 * @return An array with the bucket of each document index.
+	 */
+	private int[] createDuplicateBuckets() {
+		@SuppressWarnings("static-access")
+		WeekFields weekFields = WeekFields.of(Locale.UK.getDefault()); // use UK definition of calendar weeks
+		int[] bucket = new int[this.statementTable.getNumDocuments()];
+		for (int d = 0; d < bucket.length; d++) {
+			LocalDateTime cal = this.statementTable.getDocumentDateTime(d);
+			if (this.duplicates.equals("document")) {
+				bucket[d] = d;
+			} else if (this.duplicates.equals("week")) {
+				bucket[d] = cal.get(weekFields.weekOfWeekBasedYear());
+			} else if (this.duplicates.equals("month")) {
+				bucket[d] = cal.getMonthValue();
+			} else if (this.duplicates.equals("year")) {
+				bucket[d] = cal.getYear();
+			} else { // acrossrange
+				bucket[d] = 0;
+			}
+		}
+		return bucket;
+	}
+
 	/**
 	 * Retrieve the values across statements/documents given the name of the
 	 * variable. E.g., provide a variable name and information on whether the
@@ -1083,27 +1205,10 @@ public class Exporter {
 	 * @return String array of values.
 	 */
 	private String[] retrieveValues(ArrayList<ExportStatement> statements, String variable, boolean documentLevel) {
-		ExportStatement s;
+		StatementTable.LabelColumn column = this.statementTable.getLabelColumn(variable, documentLevel);
 		String[] values = new String[statements.size()];
 		for (int i = 0; i < statements.size(); i++) {
-			s = statements.get(i);
-			if (documentLevel) {
-				if (variable.equals("author")) {
-					values[i] = s.getAuthor();
-				} else if (variable.equals("source")) {
-					values[i] = s.getSource();
-				} else if (variable.equals("section")) {
-					values[i] = s.getSection();
-				} else if (variable.equals("type")) {
-					values[i] = s.getType();
-				} else if (variable.equals("id")) {
-					values[i] = s.getDocumentIdAsString();
-				} else if (variable.equals("title")) {
-					values[i] = s.getTitle();
-				}
-			} else {
-				values[i] = ((Entity) s.get(variable)).getValue();
-			}
+			values[i] = column.label(statements.get(i).getRow());
 		}
 		return values;
 	}
@@ -1180,95 +1285,37 @@ public class Exporter {
 			qualifierInteger = new int[] {0, 1};
 			qualifierLength = 2;
 		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("integer")) {
-			qualifierInteger = this.originalStatements
-					.stream()
-					.mapToInt(s -> (int) s.get(qualifier))
-					.distinct()
-					.sorted()
-					.toArray();
+			qualifierInteger = retrieveDistinctIntegers(this.originalStatements, qualifier);
 			qualifierLength = qualifierInteger.length;
 		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("short text")) {
-			qualifierString = this.originalStatements
-					.stream()
-					.map(s -> (String) ((Entity) s.get(qualifier)).getValue())
-					.distinct()
-					.sorted()
-					.toArray(String[]::new);
+			qualifierString = retrieveDistinctValues(this.originalStatements, qualifier, false);
 			qualifierLength = qualifierString.length;
 		} else if (qualifierDocument) {
-			qualifierString = Arrays.stream(retrieveValues(processedStatements, this.qualifier, this.qualifierDocument))
-					.distinct()
-					.sorted()
-					.toArray(String[]::new);
+			qualifierString = retrieveDistinctValues(processedStatements, this.qualifier, true);
 			qualifierLength = qualifierString.length;
 		}
 
-		// Create arrays with variable values
-		String[] values1 = retrieveValues(processedStatements, variable1, variable1Document);
-		String[] values2 = retrieveValues(processedStatements, variable2, variable2Document);
-		
+		// map the dictionary codes of the variables and the qualifier onto matrix rows, columns, and qualifier levels
+		StatementTable.LabelColumn column1 = this.statementTable.getLabelColumn(variable1, variable1Document);
+		StatementTable.LabelColumn column2 = this.statementTable.getLabelColumn(variable2, variable2Document);
+		int[] rowIndex = indexCodes(column1, names1);
+		int[] columnIndex = indexCodes(column2, names2);
+		StatementTable.LabelColumn qualifierColumn = null;
+		int[] levelIndex = null;
+		if (qualifierLength > 1) {
+			qualifierColumn = this.statementTable.getLabelColumn(qualifier, qualifierDocument);
+			levelIndex = qualifierString != null ? indexCodes(qualifierColumn, qualifierString) : indexIntegerCodes(qualifierColumn, qualifierInteger);
+		}
+
 		// create and populate array
 		double[][][] array = new double[names1.length][names2.length][qualifierLength]; // 3D array: rows x cols x qualifier value
 		for (int i = 0; i < processedStatements.size(); i++) {
-			String n1 = values1[i]; // retrieve first value from statement
-			String n2 = values2[i]; // retrieve second value from statement
-			String qString = null;
-			int qInteger = -1;
-			if (qualifier != null) {
-				if (this.qualifierDocument) {
-					TableDocument d = documents.get(docMap.get(processedStatements.get(i).getDocumentId()));
-					if (qualifier.equals("id")) {
-						qString = String.valueOf(d.getId());
-					} else if (qualifier.equals("title")) {
-						qString = d.getTitle();
-					} else if (qualifier.equals("author")) {
-						qString = d.getAuthor();
-					} else if (qualifier.equals("source")) {
-						qString = d.getSource();
-					} else if (qualifier.equals("section")) {
-						qString = d.getSection();
-					} else if (qualifier.equals("type")) {
-						qString = d.getType();
-					}
-					qInteger = -1;
-				} else if (dataTypes.get(qualifier).equals("short text")) {
-					qString = ((Entity) processedStatements.get(i).get(qualifier)).getValue(); // retrieve short text qualifier value from statement (via Entity)
-					qInteger = -1;
-				} else {
-					qInteger = (int) processedStatements.get(i).get(qualifier); // retrieve integer or boolean qualifier value from statement
-					qString = null;
-				}
-			}
-			
-			// find out which matrix row corresponds to the first value
-			int row = -1;
-			for (int j = 0; j < names1.length; j++) {
-				if (names1[j].equals(n1)) {
-					row = j;
-					break;
-				}
-			}
-			
-			// find out which matrix column corresponds to the second value
-			int col = -1;
-			for (int j = 0; j < names2.length; j++) {
-				if (names2[j].equals(n2)) {
-					col = j;
-					break;
-				}
-			}
-			
-			// find out which qualifier level corresponds to the qualifier value
-			int qual = 0;
-			if (qualifierLength > 1) {
-				for (int j = 0; j < qualifierLength; j++) {
-					if (qualifierDocument && qualifierString[j].equals(qString) ||
-							(dataTypes.containsKey(qualifier) && dataTypes.get(qualifier).equals("short text") && qualifierString[j].equals(qString)) ||
-							(!qualifierDocument && !dataTypes.get(qualifier).equals("short text") && qualifierInteger[j] == qInteger)) {
-						qual = j;
-						break;
-					}
-				}
+			int r = processedStatements.get(i).getRow();
+			int row = rowIndex[column1.code(r)]; // matrix row corresponding to the first value
+			int col = columnIndex[column2.code(r)]; // matrix column corresponding to the second value
+			int qual = 0; // qualifier level corresponding to the qualifier value; unknown values are added to the first level
+			if (levelIndex != null && levelIndex[qualifierColumn.code(r)] >= 0) {
+				qual = levelIndex[qualifierColumn.code(r)];
 			}
 
 			// add match to matrix (note that duplicates were dealt with at the statement filter stage)
@@ -1277,6 +1324,51 @@ public class Exporter {
 		
 		return array;
 	}
+
+	/**
+	 * Map the dictionary codes of a label column onto the positions of their
+	 * labels in a label array, for example the row labels of a matrix.
+	 *
+	 * @param column The label column of a variable.
+	 * @param labels The labels. If a label occurs more than once, the first
+	 *   position is used.
+	 * @return An int array with the position of each code in the label array,
+	 *   or {@code -1} if the label of the code is not in the array.
+	 */
+	private int[] indexCodes(StatementTable.LabelColumn column, String[] labels) {
+		HashMap<String, Integer> positions = new HashMap<String, Integer>();
+		for (int i = labels.length - 1; i >= 0; i--) {
+			positions.put(labels[i], i);
+		}
+		int[] index = new int[column.size()];
+		for (int code = 0; code < index.length; code++) {
+			Integer position = positions.get(column.getLabel(code));
+			index[code] = position == null ? -1 : position;
+		}
+		return index;
+	}
+
+	/**
+	 * Map the dictionary codes of an integer or boolean label column onto the
+	 * positions of their values in an int array of qualifier levels.
+	 *
+	 * @param column The label column of an integer or boolean variable.
+	 * @param levels The integer levels.
+	 * @return An int array with the position of each code in the levels
+	 *   array, or {@code -1} if the value of the code is not in the array.
+	 */
+	private int[] indexIntegerCodes(StatementTable.LabelColumn column, int[] levels) {
+		HashMap<Integer, Integer> positions = new HashMap<Integer, Integer>();
+		for (int i = levels.length - 1; i >= 0; i--) {
+			positions.put(levels[i], i);
+		}
+		int[] index = new int[column.size()];
+		for (int code = 0; code < index.length; code++) {
+			Integer position = positions.get(column.getInteger(code));
+			index[code] = position == null ? -1 : position;
+		}
+		return index;
+	}
 	
 	/**
 	 * Compute the results. Choose the right method based on the settings.
@@ -1330,7 +1422,7 @@ public class Exporter {
 			return mt;
 		}
 
-		String[] qualifierString;
+		String[] qualifierString = null;
 		int[] qualifierInteger = new int[] { 0 };
 		int qualifierLength = 1;
 		if (qualifier == null) {
@@ -1339,29 +1431,108 @@ public class Exporter {
 			qualifierInteger = new int[] {0, 1};
 			qualifierLength = 2;
 		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("integer")) {
-			qualifierInteger = this.originalStatements
-					.stream()
-					.mapToInt(s -> (int) s.get(qualifier))
-					.distinct()
-					.sorted()
-					.toArray();
+			qualifierInteger = retrieveDistinctIntegers(this.originalStatements, qualifier);
 			qualifierLength = qualifierInteger.length;
 		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("short text")) {
-			qualifierString = this.originalStatements
-					.stream()
-					.map(s -> (String) ((Entity) s.get(qualifier)).getValue())
-					.distinct()
-					.sorted()
-					.toArray(String[]::new);
+			qualifierString = retrieveDistinctValues(this.originalStatements, qualifier, false);
 			qualifierLength = qualifierString.length;
 		} else if (qualifierDocument) {
-			qualifierString = Arrays.stream(retrieveValues(processedStatements, this.qualifier, this.qualifierDocument))
-					.distinct()
-					.sorted()
-					.toArray(String[]::new);
+			qualifierString = retrieveDistinctValues(processedStatements, this.qualifier, true);
 			qualifierLength = qualifierString.length;
 		}
 
+		boolean sparse = this.oneModeEngine.equals("sparse") || (this.oneModeEngine.equals("auto") && (long) names1.length * names2.length * qualifierLength > SPARSE_THRESHOLD);
+		double[][] mat1;
+		if (sparse) {
+			SparseIncidence incidence = createSparseIncidence(processedStatements, names1, names2, qualifierString, qualifierInteger, qualifierLength);
+			mat1 = incidence.oneModeProjection(aggregation, this.normalization, qualifier == null || qualifierDocument || dataTypes.get(qualifier).equals("short text"), qualifierInteger);
+		} else {
+			mat1 = computeOneModeArray(processedStatements, aggregation, names1, names2, qualifierInteger, qualifierLength);
+		}
+
+		// does the matrix contain only integer values? (i.e., no normalization and boolean or short text qualifier)
+		boolean integerBoolean;
+		if (this.normalization.equals("no") && (aggregation.equals("ignore") || qualifierDocument || dataTypes.get(qualifier).equals("boolean") || dataTypes.get(qualifier).equals("short text"))) {
+			integerBoolean = true;
+		} else {
+			integerBoolean = false;
+		}
+
+		Matrix matrix = new Matrix(mat1, names1, names1, integerBoolean, start, stop);
+		matrix.setNumStatements(this.filteredStatements.size());
+		return matrix;
+	}
+
+	/**
+	 * Create a sparse incidence structure (variable 1 x variable 2 x qualifier) from a list of statements. This is the
+	 * sparse equivalent of {@link #createArray(ArrayList, String[], String[])}.
+	 *
+	 * @param processedStatements The statements.
+	 * @param names1 {@link String} array containing the row labels.
+	 * @param names2 {@link String} array containing the column labels.
+	 * @param qualifierString Qualifier levels of a short text or document-level qualifier (or {@code null}).
+	 * @param qualifierInteger Qualifier levels of an integer or boolean qualifier.
+	 * @param qualifierLength The number of qualifier levels.
+	 * @return The sparse incidence structure.
+	 */
+	private SparseIncidence createSparseIncidence(ArrayList<ExportStatement> processedStatements, String[] names1, String[] names2, String[] qualifierString, int[] qualifierInteger, int qualifierLength) {
+		int[][] indices = indexStatements(processedStatements, names1, names2, qualifierString, qualifierInteger, qualifierLength);
+		return new SparseIncidence(names1.length, names2.length, qualifierLength, indices[0], indices[1], indices[2]);
+	}
+
+	/**
+	 * Map each statement onto its row, column, and qualifier level index. Unknown qualifier levels are mapped onto the
+	 * first level, as in {@link #createArray(ArrayList, String[], String[])}, and unknown row or column labels yield
+	 * an index of {@code -1}.
+	 *
+	 * @param processedStatements The statements.
+	 * @param names1 {@link String} array containing the row labels.
+	 * @param names2 {@link String} array containing the column labels.
+	 * @param qualifierString Qualifier levels of a short text or document-level qualifier (or {@code null}).
+	 * @param qualifierInteger Qualifier levels of an integer or boolean qualifier.
+	 * @param qualifierLength The number of qualifier levels.
+	 * @return Three arrays with the row, column, and level index of each statement.
+	 */
+	private int[][] indexStatements(ArrayList<ExportStatement> processedStatements, String[] names1, String[] names2, String[] qualifierString, int[] qualifierInteger, int qualifierLength) {
+		StatementTable.LabelColumn column1 = this.statementTable.getLabelColumn(variable1, variable1Document);
+		StatementTable.LabelColumn column2 = this.statementTable.getLabelColumn(variable2, variable2Document);
+		int[] rowIndex = indexCodes(column1, names1);
+		int[] columnIndex = indexCodes(column2, names2);
+		StatementTable.LabelColumn qualifierColumn = null;
+		int[] levelIndex = null;
+		if (qualifierLength > 1) {
+			qualifierColumn = this.statementTable.getLabelColumn(qualifier, qualifierDocument);
+			levelIndex = qualifierString != null ? indexCodes(qualifierColumn, qualifierString) : indexIntegerCodes(qualifierColumn, qualifierInteger);
+		}
+
+		int[] rows = new int[processedStatements.size()];
+		int[] columns = new int[processedStatements.size()];
+		int[] levels = new int[processedStatements.size()];
+		for (int i = 0; i < processedStatements.size(); i++) {
+			int r = processedStatements.get(i).getRow();
+			rows[i] = rowIndex[column1.code(r)];
+			columns[i] = columnIndex[column2.code(r)];
+			if (levelIndex != null) {
+				int level = levelIndex[qualifierColumn.code(r)];
+				levels[i] = level < 0 ? 0 : level; // unknown levels are added to the first level, as in createArray
+			}
+		}
+		return new int[][] { rows, columns, levels };
+	}
+
+	/**
+	 * Compute the normalized one-mode tie weights from a dense three-dimensional array (variable 1 x variable 2 x
+	 * qualifier) as created by {@link #createArray(ArrayList, String[], String[])}.
+	 *
+	 * @param processedStatements The statements.
+	 * @param aggregation The qualifier aggregation.
+	 * @param names1 {@link String} array containing the row labels.
+	 * @param names2 {@link String} array containing the column labels.
+	 * @param qualifierInteger Qualifier levels of an integer or boolean qualifier.
+	 * @param qualifierLength The number of qualifier levels.
+	 * @return A square matrix with the tie weights.
+	 */
+	private double[][] computeOneModeArray(ArrayList<ExportStatement> processedStatements, String aggregation, String[] names1, String[] names2, int[] qualifierInteger, int qualifierLength) {
 		double[][][] array = createArray(processedStatements, names1, names2);
 		double[][] mat1 = new double[names1.length][names1.length];  // square matrix for results
 		double range = Math.abs(qualifierInteger[qualifierInteger.length - 1] - qualifierInteger[0]);
@@ -1474,18 +1645,7 @@ public class Exporter {
 				}
 			}
 		}
-
-		// does the matrix contain only integer values? (i.e., no normalization and boolean or short text qualifier)
-		boolean integerBoolean;
-		if (this.normalization.equals("no") && (aggregation.equals("ignore") || qualifierDocument || dataTypes.get(qualifier).equals("boolean") || dataTypes.get(qualifier).equals("short text"))) {
-			integerBoolean = true;
-		} else {
-			integerBoolean = false;
-		}
-
-		Matrix matrix = new Matrix(mat1, names1, names1, integerBoolean, start, stop);
-		matrix.setNumStatements(this.filteredStatements.size());
-		return matrix;
+		return mat1;
 	}
 
 	/**
@@ -1526,31 +1686,38 @@ public class Exporter {
 			qualifierInteger = new int[] {0, 1};
 			qualifierLength = 2;
 		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("integer")) {
-			qualifierInteger = this.originalStatements
-					.stream()
-					.mapToInt(s -> (int) s.get(qualifier))
-					.distinct()
-					.sorted()
-					.toArray();
+			qualifierInteger = retrieveDistinctIntegers(this.originalStatements, qualifier);
 			qualifierLength = qualifierInteger.length;
 		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("short text")) {
-			qualifierString = this.originalStatements
-					.stream()
-					.map(s -> (String) ((Entity) s.get(qualifier)).getValue())
-					.distinct()
-					.sorted()
-					.toArray(String[]::new);
+			qualifierString = retrieveDistinctValues(this.originalStatements, qualifier, false);
 			qualifierLength = qualifierString.length;
 		} else if (qualifierDocument) {
-			qualifierString = Arrays.stream(retrieveValues(processedStatements, this.qualifier, this.qualifierDocument))
-					.distinct()
-					.sorted()
-					.toArray(String[]::new);
+			qualifierString = retrieveDistinctValues(processedStatements, this.qualifier, true);
 			qualifierLength = qualifierString.length;
 		}
 
 		double[][][] array = createArray(processedStatements, names1, names2);
+		return computeTwoModeMatrix(array, names1, names2, qualifierString, qualifierInteger, qualifierLength, start, stop);
+	}
 
+	/**
+	 * Create a two-mode network {@link Matrix} from a three-dimensional array
+	 * (variable 1 x variable 2 x qualifier) by combining the qualifier levels
+	 * and applying the normalization.
+	 *
+	 * @param array The 3D array with statement counts.
+	 * @param names1 {@link String} array containing the row labels.
+	 * @param names2 {@link String} array containing the column labels.
+	 * @param qualifierString Qualifier levels of a short text or
+	 *   document-level qualifier (or {@code null}).
+	 * @param qualifierInteger Qualifier levels of an integer or boolean
+	 *   qualifier.
+	 * @param qualifierLength The number of qualifier levels.
+	 * @param start Start date/time.
+	 * @param stop End date/time.
+	 * @return {@link Matrix Matrix} object containing a two-mode network matrix.
+	 */
+	private Matrix computeTwoModeMatrix(double[][][] array, String[] names1, String[] names2, String[] qualifierString, int[] qualifierInteger, int qualifierLength, LocalDateTime start, LocalDateTime stop) {
 		// combine levels of the qualifier variable conditional on qualifier aggregation option
 		double[][] mat = new double[names1.length][names2.length];  // initialized with zeros
 		HashMap<Integer, ArrayList> combinations = new HashMap<Integer, ArrayList>();
@@ -1775,7 +1942,7 @@ public class Exporter {
 			 qualValues = extractLabels(Exporter.this.filteredStatements, Exporter.this.qualifier, Exporter.this.qualifierDocument);
 		}
 		if (Exporter.this.qualifier != null && dataTypes.get(Exporter.this.qualifier).equals("integer")) {
-			int[] qual = Exporter.this.originalStatements.stream().mapToInt(s -> (int) s.get(Exporter.this.qualifier)).distinct().sorted().toArray();
+			int[] qual = retrieveDistinctIntegers(Exporter.this.originalStatements, Exporter.this.qualifier);
 			if (qual.length < qualValues.length) {
 				qualValues = IntStream.rangeClosed(qual[0], qual[qual.length - 1])
 						.mapToObj(String::valueOf)
@@ -1865,88 +2032,30 @@ public class Exporter {
 			}
 		}
 
-		// create a 3D array, go through the statements, and populate the array
-		@SuppressWarnings("unchecked")
-		ArrayList<ExportStatement>[][][] X = (ArrayList<ExportStatement>[][][]) new ArrayList<?>[var1Values.length][var2Values.length][qualValues.length];
-		for (int i = 0; i < var1Values.length; i++) {
-			for (int j = 0; j < var2Values.length; j++) {
-				if (Exporter.this.qualifier == null) {
-					X[i][j][0] = new ArrayList<ExportStatement>();
-				} else {
-					for (int k = 0; k < qualValues.length; k++) {
-						X[i][j][k] = new ArrayList<ExportStatement>();
-					}
-				}
-			}
+		// map each statement to its row, column, and qualifier level and store the statements by cell with their time stamps
+		StatementTable.LabelColumn column1 = this.statementTable.getLabelColumn(Exporter.this.variable1, Exporter.this.variable1Document);
+		StatementTable.LabelColumn column2 = this.statementTable.getLabelColumn(Exporter.this.variable2, Exporter.this.variable2Document);
+		StatementTable.LabelColumn qualifierColumn = null;
+		if (Exporter.this.qualifier != null) {
+			qualifierColumn = this.statementTable.getLabelColumn(Exporter.this.qualifier, Exporter.this.qualifierDocument);
 		}
-
-		Exporter.this.filteredStatements.stream().forEach(s -> {
-			int var1Index = -1;
-			if (Exporter.this.variable1Document) {
-				if (Exporter.this.variable1.equals("author")) {
-					var1Index = var1Map.get(s.getAuthor());
-				} else if (Exporter.this.variable1.equals("source")) {
-					var1Index = var1Map.get(s.getSource());
-				} else if (Exporter.this.variable1.equals("section")) {
-					var1Index = var1Map.get(s.getSection());
-				} else if (Exporter.this.variable1.equals("type")) {
-					var1Index = var1Map.get(s.getType());
-				} else if (Exporter.this.variable1.equals("id")) {
-					var1Index = var1Map.get(s.getDocumentIdAsString());
-				} else if (Exporter.this.variable1.equals("title")) {
-					var1Index = var1Map.get(s.getTitle());
-				}
-			} else {
-				var1Index = var1Map.get(((Entity) s.get(Exporter.this.variable1)).getValue());
-			}
-			int var2Index = -1;
-			if (Exporter.this.variable2Document) {
-				if (Exporter.this.variable2.equals("author")) {
-					var2Index = var2Map.get(s.getAuthor());
-				} else if (Exporter.this.variable2.equals("source")) {
-					var2Index = var2Map.get(s.getSource());
-				} else if (Exporter.this.variable2.equals("section")) {
-					var2Index = var2Map.get(s.getSection());
-				} else if (Exporter.this.variable2.equals("type")) {
-					var2Index = var2Map.get(s.getType());
-				} else if (Exporter.this.variable2.equals("id")) {
-					var2Index = var2Map.get(s.getDocumentIdAsString());
-				} else if (Exporter.this.variable2.equals("title")) {
-					var2Index = var2Map.get(s.getTitle());
-				}
-			} else {
-				var2Index = var2Map.get(((Entity) s.get(Exporter.this.variable2)).getValue());
-			}
-			int qualIndex = -1;
-			if (Exporter.this.qualifierDocument && Exporter.this.qualifier != null) {
-				if (Exporter.this.qualifier.equals("author")) {
-					qualIndex = qualMap.get(s.getAuthor());
-				} else if (Exporter.this.qualifier.equals("source")) {
-					qualIndex = qualMap.get(s.getSource());
-				} else if (Exporter.this.qualifier.equals("section")) {
-					qualIndex = qualMap.get(s.getSection());
-				} else if (Exporter.this.qualifier.equals("type")) {
-					qualIndex = qualMap.get(s.getType());
-				} else if (Exporter.this.qualifier.equals("id")) {
-					qualIndex = qualMap.get(s.getDocumentIdAsString());
-				} else if (Exporter.this.qualifier.equals("title")) {
-					qualIndex = qualMap.get(s.getTitle());
-				}
-			} else {
-				if (Exporter.this.qualifier == null) {
-					qualIndex = 0;
-				} else if (dataTypes.get(Exporter.this.qualifier).equals("integer") || dataTypes.get(Exporter.this.qualifier).equals("boolean")) {
-					qualIndex = qualMap.get(String.valueOf((int) s.get(Exporter.this.qualifier)));
-				} else {
-					qualIndex = qualMap.get(((Entity) s.get(Exporter.this.qualifier)).getValue());
-				}
-			}
-			X[var1Index][var2Index][qualIndex].add(s);
-		});
+		int n = Exporter.this.filteredStatements.size();
+		int[] rows = new int[n];
+		int[] columns = new int[n];
+		int[] levels = new int[n];
+		LocalDateTime[] dateTimes = new LocalDateTime[n];
+		for (int s = 0; s < n; s++) {
+			int row = Exporter.this.filteredStatements.get(s).getRow();
+			rows[s] = var1Map.get(column1.label(row));
+			columns[s] = var2Map.get(column2.label(row));
+			levels[s] = qualifierColumn == null ? 0 : qualMap.get(qualifierColumn.label(row)); // integer and boolean labels are the numbers as strings
+			dateTimes[s] = this.statementTable.getDateTime(row);
+		}
+		KernelIncidence incidence = new KernelIncidence(var1Values.length, var2Values.length, qualValues.length, rows, columns, levels, dateTimes, Exporter.this.kernel, Exporter.this.windowSize, Exporter.this.timeWindow);
 
 		// process each matrix result in a parallel stream instead of for-loop and add calculation results
 		ArrayList<Matrix> processedResults = ProgressBar.wrap(Exporter.this.matrixResults.parallelStream(), "Kernel smoothing")
-				.map(matrixResult -> processTimeSlice(matrixResult, X))
+				.map(matrixResult -> processTimeSlice(matrixResult, incidence))
 				.collect(Collectors.toCollection(ArrayList::new));
 		Exporter.this.matrixResults = processedResults;
 	}
@@ -1963,151 +2072,29 @@ public class Exporter {
 	 * @return The matrix result after inserting the network matrix.
 	 */
 	public Matrix processTimeSlice(Matrix matrixResult, ArrayList<ExportStatement>[][][] X) {
+		return processTimeSlice(matrixResult, KernelIncidence.fromArray(X, Exporter.this.kernel, Exporter.this.windowSize, Exporter.this.timeWindow));
+	}
+
+	/**
+	 * Compute a one-mode or two-mode network matrix with kernel-weighting from a kernel incidence structure and inject
+	 * it into a {@link Matrix} object. The incidence structure can be shared across time slices, which are processed
+	 * independently of each other.
+	 *
+	 * @param matrixResult The matrix result into which the network matrix will be inserted.
+	 * @param incidence The statements by cell with their time stamps.
+	 * @return The matrix result after inserting the network matrix.
+	 */
+	private Matrix processTimeSlice(Matrix matrixResult, KernelIncidence incidence) {
 		if (this.networkType.equals("twomode")) {
-			double[][] m = new double[X.length][X[0].length];
-			for (int i = 0; i < X.length; i++) {
-				for (int j = 0; j < X[0].length; j++) {
-					for (int k = 0; k < X[0][0].length; k++) {
-						for (int t = 0; t < X[i][j][k].size(); t++) {
-							if (Exporter.this.kernel.equals("gaussian") || (!X[i][j][k].get(t).getDateTime().isBefore(matrixResult.getStart()) && !X[i][j][k].get(t).getDateTime().isAfter(matrixResult.getStop()))) { // for computational efficiency, don't include statements outside of temporal bandwidth in computations if not necessary
-								if (Exporter.this.qualifierAggregation.equals("ignore")) {
-									m[i][j] = m[i][j] + zeta(X[i][j][k].get(t).getDateTime(), matrixResult.getDateTime(), Exporter.this.windowSize, Exporter.this.timeWindow, Exporter.this.kernel);
-								} else if (Exporter.this.qualifierAggregation.equals("subtract")) {
-									if (Exporter.this.dataTypes.get(Exporter.this.qualifier).equals("boolean")) {
-										m[i][j] = m[i][j] + (((double) k) - 0.5) * 2 * zeta(X[i][j][k].get(t).getDateTime(), matrixResult.getDateTime(), Exporter.this.windowSize, Exporter.this.timeWindow, Exporter.this.kernel);
-									} else if (Exporter.this.dataTypes.get(Exporter.this.qualifier).equals("integer")) {
-										m[i][j] = m[i][j] + k * zeta(X[i][j][k].get(t).getDateTime(), matrixResult.getDateTime(), Exporter.this.windowSize, Exporter.this.timeWindow, Exporter.this.kernel);
-									} else if (Exporter.this.dataTypes.get(Exporter.this.qualifier).equals("short text")) {
-										m[i][j] = m[i][j] + zeta(X[i][j][k].get(t).getDateTime(), matrixResult.getDateTime(), Exporter.this.windowSize, Exporter.this.timeWindow, Exporter.this.kernel);
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-			matrixResult.setMatrix(m);
+			String qualifierType = Exporter.this.qualifier == null ? null : Exporter.this.dataTypes.get(Exporter.this.qualifier);
+			matrixResult.setMatrix(incidence.twoMode(matrixResult.getDateTime(), matrixResult.getStart(), matrixResult.getStop(), Exporter.this.qualifierAggregation, qualifierType));
 		} else if (this.networkType.equals("onemode")) {
-			double[][] m = new double[X.length][X.length];
-			double[][] norm = new double[X.length][X.length];
-			for (int i = 0; i < X.length; i++) {
-				for (int i2 = 0; i2 < X.length; i2++) {
-					for (int j = 0; j < X[0].length; j++) {
-						for (int k = 0; k < X[0][0].length; k++) {
-							if (Exporter.this.normalization.equals("average") && X[i][j][k].size() + X[i2][j][k].size() != 0.0) {
-								norm[i][i2] = norm[i][i2] + 2.0 / (X[i][j][k].size() + X[i2][j][k].size());
-							}
-							for (int k2 = 0; k2 < X[0][0].length; k2++) {
-								double qsim = 1.0;
-								if (Exporter.this.qualifier != null && !dataTypes.get(Exporter.this.qualifier).equals("short text") && !Exporter.this.qualifierDocument) {
-									qsim = Math.abs(1.0 - ((double) Math.abs(k - k2) / (double) Math.abs(X[0][0].length - 1)));
-								}
-								double qdiff = 1.0 - qsim;
-								for (int t = 0; t < X[i][j][k].size(); t++) {
-									if (Exporter.this.kernel.equals("gaussian") || (!X[i][j][k].get(t).getDateTime().isBefore(matrixResult.getStart()) && !X[i][j][k].get(t).getDateTime().isAfter(matrixResult.getStop()))) { // for computational efficiency, don't include statements outside of temporal bandwidth in computations if not necessary
-										double z1 = zeta(X[i][j][k].get(t).getDateTime(), matrixResult.getDateTime(), Exporter.this.windowSize, Exporter.this.timeWindow, Exporter.this.kernel);
-										for (int t2 = 0; t2 < X[i2][j][k2].size(); t2++) {
-											if (Exporter.this.kernel.equals("gaussian") || (!X[i2][j][k2].get(t2).getDateTime().isBefore(matrixResult.getStart()) && !X[i2][j][k2].get(t2).getDateTime().isAfter(matrixResult.getStop()))) { // for computational efficiency, don't include statements outside of temporal bandwidth in computations if not necessary
-												double z2 = zeta(X[i2][j][k2].get(t2).getDateTime(), matrixResult.getDateTime(), Exporter.this.windowSize, Exporter.this.timeWindow, Exporter.this.kernel);
-												double z = Math.sqrt(z1 * z2);
-												if (Exporter.this.qualifierAggregation.equals("congruence")) {
-													m[i][i2] = m[i][i2] + qsim * z;
-												} else if (Exporter.this.qualifierAggregation.equals("conflict")) {
-													m[i][i2] = m[i][i2] + qdiff * z;
-												} else if (Exporter.this.qualifierAggregation.equals("subtract")) {
-													m[i][i2] = m[i][i2] + qsim * z - qdiff * z;
-												} else if (Exporter.this.qualifierAggregation.equals("ignore")) {
-													m[i][i2] = m[i][i2] + z;
-												}
-											}
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-			if (Exporter.this.normalization.equals("average")) {
-				for (int i = 0; i < X.length; i++) {
-					for (int i2 = 0; i2 < X.length; i2++) {
-						if (m[i][i2] != 0.0 && norm[i][i2] != 0.0) {
-							m[i][i2] = m[i][i2] * norm[i][i2];
-						}
-					}
-				}
-			}
-			matrixResult.setMatrix(m);
+			boolean qualifierDistance = Exporter.this.qualifier != null && !dataTypes.get(Exporter.this.qualifier).equals("short text") && !Exporter.this.qualifierDocument;
+			matrixResult.setMatrix(incidence.oneMode(matrixResult.getDateTime(), matrixResult.getStart(), matrixResult.getStop(), Exporter.this.qualifierAggregation, qualifierDistance, Exporter.this.normalization.equals("average")));
 		}
 		return matrixResult;
 	}
 
-    /**
-     * Return a standardized time weight after applying a kernel function to a time difference.
-     *
-     * @param t The current time in the time window.
-     * @param gamma The mid-point of the time window.
-     * @param w The width of the time window, which defines the beginning and end of the time window.
-     * @param timeWindow The time unit. Valid values are {@code "seconds"}, {@code "minutes"}, {@code "hours"}, {@code "days"}, {@code "weeks"}, {@code "months"}, and {@code "years"}.
-     * @param kernel The kernel function ({@code "uniform"}, {@code "epanechnikov"}, {@code "triangular"}, or {@code "gaussian"}).
-     * @return Kernel-weighted time difference between time points t and gamma.
-     */
-	private double zeta(LocalDateTime t, LocalDateTime gamma, int w, String timeWindow, String kernel) {
-		Duration duration = Duration.between(t, gamma);
-		Period period;
-		long diff = 0;
-        switch (timeWindow) {
-            case "seconds":
-                diff = duration.toSeconds();
-                break;
-            case "minutes":
-                diff = duration.toMinutes();
-                break;
-            case "hours":
-                diff = duration.toHours();
-                break;
-			case "days":
-				diff = duration.toDays();
-				break;
-			case "weeks":
-				diff = duration.toDays() / 7;
-				break;
-			case "months":
-				period = Period.between(t.toLocalDate(), gamma.toLocalDate());
-				diff = period.getMonths() + (long) period.getYears() * (long) 12;
-				break;
-			case "years":
-				period = Period.between(t.toLocalDate(), gamma.toLocalDate());
-				diff = period.getYears();
-				break;
-        }
-
-		double diff_std = 2 * (double) diff / (double) w; // standardised time difference between -1 and 1
-
-		if (kernel.equals("uniform")) {
-			if (diff_std >= -1 && diff_std <= 1) {
-				return 0.5;
-			} else {
-				return 0.0;
-			}
-		} else if (kernel.equals("epanechnikov")) {
-			if (diff_std >= -1 && diff_std <= 1) {
-				return 0.75 * (1.0 - diff_std) * (1.0 - diff_std);
-			} else {
-				return 0.0;
-			}
-		} else if (kernel.equals("triangular")) {
-			if (diff_std >= -1 && diff_std <= 1) {
-				return Math.abs(1.0 - diff_std);
-			} else {
-				return 0.0;
-			}
-		} else if (kernel.equals("gaussian")) {
-			return (1.0 / Math.sqrt(2.0 * Math.PI)) * Math.exp(-0.5 * diff_std * diff_std);
-		}
-		return 0.0;
-	}
-
 	/**
 	 * Normalize all values in each results matrix to make them sum to 1.0. Useful for phase transition methods.
 	 */
@@ -2148,7 +2135,7 @@ public class Exporter {
 		// precompute eigenvalues to avoid race conditions
 		if (distanceMethod.equals("spectral")) {
 			ProgressBar.wrap(IntStream.range(0, Exporter.this.matrixResults.size()).parallel(), "Normalized eigenvalues").forEach(i -> {
-				eigenvalues[i] = computeNormalizedEigenvalues(Exporter.this.matrixResults.get(i).getMatrix(), "ojalgo"); // TODO: try out "apache", debug, and compare speed
+				eigenvalues[i] = computeNormalizedEigenvalues(Exporter.this.matrixResults.get(i).getMatrix());
 			});
 		}
 
@@ -2173,15 +2160,69 @@ public class Exporter {
 
 	/**
 	 * Create a series of one-mode or two-mode networks using a moving time window.
+	 *
+	 * <p>The window slides over the sorted statements. Statements entering or
+	 * leaving the window are added to or removed from a running {@link
+	 * WindowIncidence} structure, from which the network of each window is
+	 * derived, instead of recomputing every window from its statements.
 	 */
 	public void computeTimeWindowMatrices() {
 		ArrayList<Matrix> timeWindowMatrices = new ArrayList<Matrix>();
 		Collections.sort(this.filteredStatements); // probably not necessary, but can't hurt to have it
-		ArrayList<ExportStatement> currentWindowStatements = new ArrayList<ExportStatement>(); // holds all statements in the current time window
-		ArrayList<ExportStatement> startStatements = new ArrayList<ExportStatement>(); // holds all statements corresponding to the time stamp of the first statement in the window
-		ArrayList<ExportStatement> stopStatements = new ArrayList<ExportStatement>(); // holds all statements corresponding to the time stamp of the last statement in the window
-		ArrayList<ExportStatement> beforeStatements = new ArrayList<ExportStatement>(); // holds all statements between (and excluding) the time stamp of the first statement in the window and the focal statement
-		ArrayList<ExportStatement> afterStatements = new ArrayList<ExportStatement>(); // holds all statements between (and excluding) the focal statement and the time stamp of the last statement in the window
+		int n = this.filteredStatements.size();
+
+		// labels and qualifier levels across all windows
+		String[] names1 = this.extractLabels(this.filteredStatements, this.variable1, this.variable1Document);
+		String[] names2 = this.extractLabels(this.filteredStatements, this.variable2, this.variable2Document);
+		String[] qualifierString = null;
+		int[] qualifierInteger = new int[] { 0 };
+		int qualifierLength = 1;
+		if (qualifier == null) {
+			// do nothing, go with qualifierLength = 1
+		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("boolean")) {
+			qualifierInteger = new int[] {0, 1};
+			qualifierLength = 2;
+		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("integer")) {
+			qualifierInteger = retrieveDistinctIntegers(this.originalStatements, qualifier);
+			qualifierLength = qualifierInteger.length;
+		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("short text")) {
+			qualifierString = retrieveDistinctValues(this.originalStatements, qualifier, false);
+			qualifierLength = qualifierString.length;
+		} else if (qualifierDocument) {
+			qualifierString = retrieveDistinctValues(this.filteredStatements, this.qualifier, true);
+			qualifierLength = qualifierString.length;
+		}
+
+		// map each statement onto its row, column, and qualifier level in the running incidence structure
+		StatementTable.LabelColumn column1 = this.statementTable.getLabelColumn(this.variable1, this.variable1Document);
+		StatementTable.LabelColumn column2 = this.statementTable.getLabelColumn(this.variable2, this.variable2Document);
+		int[] rowIndex = indexCodes(column1, names1);
+		int[] columnIndex = indexCodes(column2, names2);
+		StatementTable.LabelColumn qualifierColumn = null;
+		int[] levelIndex = null;
+		if (qualifierLength > 1) {
+			qualifierColumn = this.statementTable.getLabelColumn(qualifier, qualifierDocument);
+			levelIndex = qualifierString != null ? indexCodes(qualifierColumn, qualifierString) : indexIntegerCodes(qualifierColumn, qualifierInteger);
+		}
+		int[] rows = new int[n];
+		int[] columns = new int[n];
+		int[] levels = new int[n];
+		for (int i = 0; i < n; i++) {
+			int r = this.filteredStatements.get(i).getRow();
+			rows[i] = rowIndex[column1.code(r)];
+			columns[i] = columnIndex[column2.code(r)];
+			if (levelIndex != null) {
+				levels[i] = Math.max(levelIndex[qualifierColumn.code(r)], 0);
+			}
+		}
+		boolean textQualifier = qualifier == null || qualifierDocument || dataTypes.get(qualifier).equals("short text");
+		String[] aggregations = new String[] { this.qualifierAggregation };
+		if (this.timeWindow.equals("events") && !this.networkType.equals("twomode") && this.qualifierAggregation.equals("congruence & conflict")) {
+			aggregations = new String[] { "congruence", "conflict" };
+		}
+		WindowIncidence incidence = new WindowIncidence(names1.length, names2.length, qualifierLength, textQualifier,
+				qualifierInteger, !this.networkType.equals("twomode"), aggregations, this.normalization);
+
 		if (this.timeWindow.equals("events")) {
 			try (ProgressBar pb = new ProgressBar("Time window matrices", this.filteredStatements.size())) {
 				pb.stepTo(0);
@@ -2191,97 +2232,94 @@ public class Exporter {
 							"When exporting a network, the time window size must be at least two events. With one statement event, there can be no ties in the network.");
 					Dna.logger.log(l);
 				}
-				int iteratorStart, iteratorStop, i, j;
-				int samples;
-				for (int t = 0; t < this.filteredStatements.size(); t++) {
+
+				// the statements are sorted, so statements with identical time stamps form contiguous runs
+				int[] runStart = new int[n];
+				int[] runStop = new int[n];
+				for (int i = 0; i < n; i++) {
+					runStart[i] = i > 0 && this.filteredStatements.get(i).getDateTimeLong() == this.filteredStatements.get(i - 1).getDateTimeLong() ? runStart[i - 1] : i;
+				}
+				for (int i = n - 1; i >= 0; i--) {
+					runStop[i] = i < n - 1 && this.filteredStatements.get(i).getDateTimeLong() == this.filteredStatements.get(i + 1).getDateTimeLong() ? runStop[i + 1] : i;
+				}
+
+				ArrayList<Integer> startStatements = new ArrayList<Integer>(); // holds all statements corresponding to the time stamp of the first statement in the window
+				ArrayList<Integer> stopStatements = new ArrayList<Integer>(); // holds all statements corresponding to the time stamp of the last statement in the window
+				ArrayList<Integer> currentWindowStatements = new ArrayList<Integer>(); // holds all statements in the current time window
+				ArrayList<Integer> previousWindowStatements = new ArrayList<Integer>(); // holds all statements in the previous time window
+				int[] current = new int[n]; // how often each statement is contained in the running incidence structure
+				int[] target = new int[n]; // how often each statement is contained in the current time window
+				int iteratorStart, iteratorStop, i;
+				for (int t = 0; t < n; t++) {
 					int halfDuration = (int) Math.floor(this.windowSize / 2);
 					iteratorStart = t - halfDuration;
 					iteratorStop = t + halfDuration;
-
-					startStatements.clear();
-					stopStatements.clear();
-					beforeStatements.clear();
-					afterStatements.clear();
-					if (iteratorStart >= 0 && iteratorStop < this.filteredStatements.size()) {
-						for (i = 0; i < this.filteredStatements.size(); i++) {
-							if (this.filteredStatements.get(i).getDateTime().equals(this.filteredStatements.get(iteratorStart).getDateTime())) {
-								startStatements.add(this.filteredStatements.get(i));
-							}
-							if (this.filteredStatements.get(i).getDateTime().equals(this.filteredStatements.get(iteratorStop).getDateTime())) {
-								stopStatements.add(this.filteredStatements.get(i));
-							}
-							if (this.filteredStatements.get(i).getDateTime().isAfter(this.filteredStatements.get(iteratorStart).getDateTime()) && i < t) {
-								beforeStatements.add(this.filteredStatements.get(i));
-							}
-							if (this.filteredStatements.get(i).getDateTime().isBefore(this.filteredStatements.get(iteratorStop).getDateTime()) && i > t) {
-								afterStatements.add(this.filteredStatements.get(i));
-							}
+					if (iteratorStart >= 0 && iteratorStop < n) {
+						// statements strictly after the first time stamp and before the focal statement, and statements
+						// strictly after the focal statement and before the last time stamp
+						int beforeFirst = runStop[iteratorStart] + 1;
+						int numBefore = Math.max(0, t - beforeFirst);
+						int afterLast = runStart[iteratorStop] - 1;
+						int numAfter = Math.max(0, afterLast - t);
+
+						// add statements from start, before, after, and stop set to current window
+						currentWindowStatements.clear();
+						startStatements.clear();
+						for (i = runStart[iteratorStart]; i <= runStop[iteratorStart]; i++) {
+							startStatements.add(i);
 						}
-						if (startStatements.size() + beforeStatements.size() > halfDuration || stopStatements.size() + afterStatements.size() > halfDuration) {
-							samples = 1; // this number should be larger than the one below, for example 10 (for 10 random combinations of start and stop statements)
-						} else {
-							samples = 1;
+						Collections.shuffle(startStatements);
+						for (i = 0; i < halfDuration - numBefore; i++) {
+							currentWindowStatements.add(startStatements.get(i));
+						}
+						for (i = beforeFirst; i < t; i++) {
+							currentWindowStatements.add(i);
+						}
+						currentWindowStatements.add(t);
+						for (i = t + 1; i <= afterLast; i++) {
+							currentWindowStatements.add(i);
+						}
+						stopStatements.clear();
+						for (i = runStart[iteratorStop]; i <= runStop[iteratorStop]; i++) {
+							stopStatements.add(i);
+						}
+						Collections.shuffle(stopStatements);
+						for (i = 0; i < halfDuration - numAfter; i++) {
+							currentWindowStatements.add(stopStatements.get(i));
 						}
 
-						for (j = 0; j < samples; j++) {
-							// add statements from start, before, after, and stop set to current window
-							currentWindowStatements.clear();
-							Collections.shuffle(startStatements);
-							for (i = 0; i < halfDuration - beforeStatements.size(); i++) {
-								currentWindowStatements.add(startStatements.get(i));
-							}
-							currentWindowStatements.addAll(beforeStatements);
-							currentWindowStatements.add(this.filteredStatements.get(t));
-							currentWindowStatements.addAll(afterStatements);
-							Collections.shuffle(stopStatements);
-							for (i = 0; i < halfDuration - afterStatements.size(); i++) {
-								currentWindowStatements.add(stopStatements.get(i));
+						// apply the difference between the previous and the current window to the incidence structure
+						for (int s : currentWindowStatements) {
+							target[s]++;
+						}
+						for (int s : previousWindowStatements) {
+							while (current[s] > target[s]) {
+								incidence.remove(rows[s], columns[s], levels[s]);
+								current[s]--;
 							}
-
-							// convert time window to network and add to list
-							if (currentWindowStatements.size() > 0) {
-								int firstDocId = currentWindowStatements.get(0).getDocumentId();
-								LocalDateTime first = null;
-								for (i = 0; i < this.documents.size(); i++) {
-									if (firstDocId == this.documents.get(i).getId()) {
-										first = documents.get(i).getDateTime();
-										break;
-									}
-								}
-								int lastDocId = currentWindowStatements.get(currentWindowStatements.size() - 1).getDocumentId();
-								LocalDateTime last = null;
-								for (i = this.documents.size() - 1; i > -1; i--) {
-									if (lastDocId == this.documents.get(i).getId()) {
-										last = this.documents.get(i).getDateTime();
-										break;
-									}
-								}
-								Matrix m;
-								if (this.networkType.equals("twomode")) {
-									m = computeTwoModeMatrix(currentWindowStatements, first, last);
-									m.setDateTime(this.filteredStatements.get(t).getDateTime());
-									m.setNumStatements(currentWindowStatements.size());
-									timeWindowMatrices.add(m);
-								} else {
-									if (qualifierAggregation.equals("congruence & conflict")) { // note: the networks are saved in alternating order and need to be disentangled
-										m = computeOneModeMatrix(currentWindowStatements, "congruence", first, last);
-										m.setDateTime(this.filteredStatements.get(t).getDateTime());
-										m.setNumStatements(currentWindowStatements.size());
-										timeWindowMatrices.add(m);
-										m = computeOneModeMatrix(currentWindowStatements, "conflict", first, last);
-										m.setDateTime(this.filteredStatements.get(t).getDateTime());
-										m.setNumStatements(currentWindowStatements.size());
-										timeWindowMatrices.add(m);
-									} else {
-										m = computeOneModeMatrix(currentWindowStatements, this.qualifierAggregation, first, last);
-										m.setDateTime(this.filteredStatements.get(t).getDateTime());
-										m.setNumStatements(currentWindowStatements.size());
-										timeWindowMatrices.add(m);
-									}
-
-								}
+						}
+						for (int s : currentWindowStatements) {
+							while (current[s] < target[s]) {
+								incidence.add(rows[s], columns[s], levels[s]);
+								current[s]++;
 							}
 						}
+						for (int s : currentWindowStatements) {
+							target[s] = 0;
+						}
+						ArrayList<Integer> swap = previousWindowStatements;
+						previousWindowStatements = currentWindowStatements;
+						currentWindowStatements = swap;
+
+						// convert time window to network and add to list
+						LocalDateTime first = this.filteredStatements.get(previousWindowStatements.get(0)).getDateTime();
+						LocalDateTime last = this.filteredStatements.get(previousWindowStatements.get(previousWindowStatements.size() - 1)).getDateTime();
+						for (String aggregation : aggregations) { // with "congruence & conflict", the networks are saved in alternating order and need to be disentangled
+							Matrix m = deriveTimeWindowMatrix(incidence, aggregation, names1, names2, qualifierString, qualifierInteger, first, last);
+							m.setDateTime(this.filteredStatements.get(t).getDateTime());
+							m.setNumStatements(incidence.getNumStatements());
+							timeWindowMatrices.add(m);
+						}
 					}
 					pb.stepTo(t + 1);
 				}
@@ -2295,13 +2333,13 @@ public class Exporter {
 				LocalDateTime currentTime = this.startDateTime; // current time while progressing through list of statements
 				LocalDateTime windowStart; // start of the time window
 				LocalDateTime windowStop; // end of the time window
-				LocalDateTime iTime; // time of the statement to be potentially added to the time slice
+				int lo = 0; // index of the first statement in the running incidence structure
+				int hi = 0; // index after the last statement in the running incidence structure
 				int addition = 0;
 				while (!currentTime.isAfter(stopCalendar)) {
 					LocalDateTime matrixTime = currentTime;
 					windowStart = matrixTime;
 					windowStop = matrixTime;
-					currentWindowStatements.clear();
 					addition = (int) Math.round(((double) windowSize - 1) / 2);
 					if (timeWindow.equals("seconds")) {
 						windowStart = windowStart.minusSeconds(addition);
@@ -2333,23 +2371,22 @@ public class Exporter {
 						currentTime = currentTime.plusYears(1);
 					}
 					if (!windowStart.isBefore(startCalendar) && !windowStop.isAfter(stopCalendar)) {
-						for (int i = 0; i < this.filteredStatements.size(); i++) {
-							iTime = this.filteredStatements.get(i).getDateTime();
-							if (!iTime.isBefore(windowStart) && !iTime.isAfter(windowStop)) {
-								currentWindowStatements.add(this.filteredStatements.get(i));
+						// both window boundaries only move forward, so remove statements that fell out at the start and add new ones at the end
+						while (lo < n && this.filteredStatements.get(lo).getDateTime().isBefore(windowStart)) {
+							if (lo < hi) {
+								incidence.remove(rows[lo], columns[lo], levels[lo]);
 							}
+							lo++;
 						}
-						// if (currentWindowStatements.size() > 0) {
-							Matrix m;
-							if (this.networkType.equals("twomode")) {
-								m = computeTwoModeMatrix(currentWindowStatements, windowStart, windowStop);
-							} else {
-								m = computeOneModeMatrix(currentWindowStatements, this.qualifierAggregation, windowStart, windowStop);
-							}
-							m.setDateTime(matrixTime);
-							m.setNumStatements(currentWindowStatements.size());
-							timeWindowMatrices.add(m);
-						// }
+						hi = Math.max(hi, lo);
+						while (hi < n && !this.filteredStatements.get(hi).getDateTime().isAfter(windowStop)) {
+							incidence.add(rows[hi], columns[hi], levels[hi]);
+							hi++;
+						}
+						Matrix m = deriveTimeWindowMatrix(incidence, this.qualifierAggregation, names1, names2, qualifierString, qualifierInteger, windowStart, windowStop);
+						m.setDateTime(matrixTime);
+						m.setNumStatements(incidence.getNumStatements());
+						timeWindowMatrices.add(m);
 					}
 					percent = 100 * (currentTime.toEpochSecond(ZoneOffset.UTC) - startCalendar.toEpochSecond(ZoneOffset.UTC)) / (stopCalendar.toEpochSecond(ZoneOffset.UTC) - startCalendar.toEpochSecond(ZoneOffset.UTC));
 					pb.stepTo(percent);
@@ -2358,7 +2395,63 @@ public class Exporter {
 		}
 		this.matrixResults = timeWindowMatrices;
 	}
-	
+
+	/**
+	 * Derive the network {@link Matrix} of the current time window from a
+	 * running incidence structure. The result is the same as computing the
+	 * network from the statements in the window with {@link
+	 * #computeOneModeMatrix(ArrayList, String, LocalDateTime, LocalDateTime)}
+	 * or {@link #computeTwoModeMatrix(ArrayList, LocalDateTime, LocalDateTime)}.
+	 *
+	 * @param incidence The incidence structure holding the statements of the
+	 *   current window.
+	 * @param aggregation The qualifier aggregation for one-mode networks.
+	 * @param names1 All row labels of the incidence structure.
+	 * @param names2 All column labels of the incidence structure.
+	 * @param qualifierString All qualifier levels of a short text or
+	 *   document-level qualifier (or {@code null}).
+	 * @param qualifierInteger All qualifier levels of an integer or boolean
+	 *   qualifier.
+	 * @param start Start date/time of the window.
+	 * @param stop End date/time of the window.
+	 * @return The network matrix of the window.
+	 */
+	private Matrix deriveTimeWindowMatrix(WindowIncidence incidence, String aggregation, String[] names1, String[] names2, String[] qualifierString, int[] qualifierInteger, LocalDateTime start, LocalDateTime stop) {
+		// without isolates, only nodes with statements in the current window are included
+		int[] rows = this.isolates ? IntStream.range(0, names1.length).toArray() : incidence.getActiveRows();
+		String[] rowNames = Arrays.stream(rows).mapToObj(i -> names1[i]).toArray(String[]::new);
+		if (this.networkType.equals("twomode")) {
+			int[] columns = this.isolates ? IntStream.range(0, names2.length).toArray() : incidence.getActiveColumns();
+			String[] columnNames = Arrays.stream(columns).mapToObj(j -> names2[j]).toArray(String[]::new);
+			if (incidence.getNumStatements() == 0) {
+				return new Matrix(new double[rows.length][columns.length], rowNames, columnNames, true, start, stop);
+			}
+			// document-level qualifier levels are only those present in the window
+			int[] levels = IntStream.range(0, qualifierString == null ? qualifierInteger.length : qualifierString.length).toArray();
+			String[] levelNames = qualifierString;
+			if (qualifierDocument) {
+				levels = incidence.getActiveLevels();
+				levelNames = Arrays.stream(levels).mapToObj(k -> qualifierString[k]).toArray(String[]::new);
+			}
+			double[][][] array = incidence.toArray(rows, columns, levels);
+			return computeTwoModeMatrix(array, rowNames, columnNames, levelNames, qualifierInteger, levels.length, start, stop);
+		} else {
+			if (incidence.getNumStatements() == 0) {
+				return new Matrix(new double[rows.length][rows.length], rowNames, rowNames, true, start, stop);
+			}
+			double[][] mat = incidence.oneModeProjection(rows, aggregation, this.normalization);
+
+			// does the matrix contain only integer values? (i.e., no normalization and boolean or short text qualifier)
+			boolean integerBoolean;
+			if (this.normalization.equals("no") && (aggregation.equals("ignore") || qualifierDocument || dataTypes.get(qualifier).equals("boolean") || dataTypes.get(qualifier).equals("short text"))) {
+				integerBoolean = true;
+			} else {
+				integerBoolean = false;
+			}
+			return new Matrix(mat, rowNames, rowNames, integerBoolean, start, stop);
+		}
+	}
+
 	/**
 	 * Sets the qualifier aggregation value.
 	 *
@@ -3042,6 +3135,46 @@ public class Exporter {
 		return this.filteredStatements;
 	}
 
+	/**
+	 * Roughly estimate the memory held by the exporter, including the statement data and the results. The estimate
+	 * is used for limiting the size of the result cache in {@link dna.HeadlessDna}.
+	 *
+	 * @return The estimated number of bytes.
+	 */
+	public long estimateMemorySize() {
+		long bytes = 0;
+		if (this.statementTable != null) {
+			bytes = bytes + this.statementTable.estimateMemorySize();
+		}
+		if (this.originalStatements != null) {
+			bytes = bytes + 24L * this.originalStatements.size(); // views and their references
+		}
+		if (this.filteredStatements != null) {
+			bytes = bytes + 4L * this.filteredStatements.size(); // references to the same views
+		}
+		if (this.documents != null) {
+			for (TableDocument d : this.documents) {
+				bytes = bytes + 96 + StatementTable.estimateMemorySize(d.getTitle()) + StatementTable.estimateMemorySize(d.getNotes());
+			}
+		}
+		ArrayList<Matrix> matrices = new ArrayList<Matrix>();
+		if (this.matrixResults != null) {
+			matrices.addAll(this.matrixResults);
+		}
+		matrices.addAll(this.backboneMatrices);
+		matrices.addAll(this.redundantMatrices);
+		for (Matrix m : matrices) {
+			bytes = bytes + 64 + 8L * m.getMatrix().length * (m.getMatrix().length == 0 ? 0 : m.getMatrix()[0].length);
+			for (String name : m.getRowNames()) {
+				bytes = bytes + StatementTable.estimateMemorySize(name);
+			}
+			for (String name : m.getColumnNames()) {
+				bytes = bytes + StatementTable.estimateMemorySize(name);
+			}
+		}
+		return bytes;
+	}
+
 	/**
 	 * Compute data for creating a barplot with value frequencies by qualifier value.
 	 *
@@ -3129,16 +3262,18 @@ public class Exporter {
 	 * @return Current iteration {@code t}.
 	 */
 	public int getCurrentT() {
-		return this.t;
+		return this.chains[0].t;
 	}
 
 	/**
-	 * Set the current iteration {@code t} of the simulated annealing algorithm.
+	 * Set the current iteration {@code t} of the simulated annealing algorithm in all chains.
 	 *
 	 * @return Current iteration {@code t}.
 	 */
 	public void setCurrentT(int t) {
-		this.t = t;
+		for (SimulatedAnnealingChain chain : this.chains) {
+			chain.t = t;
+		}
 	}
 
 	/**
@@ -3174,46 +3309,39 @@ public class Exporter {
 	 * Compute matrix after final backbone iteration, collect results, and save in class.
 	 */
 	public void saveSimulatedAnnealingBackboneResult(boolean penalty) {
-		Collections.sort(finalBackboneList);
-		Collections.sort(finalRedundantList);
-
-		// create redundant matrix
-		ArrayList<ExportStatement> redundantStatementList = this.filteredStatements
-				.stream()
-				.filter(s -> currentRedundantList.contains(((Entity) s.get(this.variable2)).getValue()))
-				.collect(Collectors.toCollection(ArrayList::new));
-		Matrix redundantMatrix = this.computeOneModeMatrix(redundantStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime);
-
 		String method = "penalty";
 		if (!penalty) {
 			method = "fixed";
 			p = 0;
 		}
-		this.simulatedAnnealingBackboneResult = new SimulatedAnnealingBackboneResult(method,
-				finalBackboneList.toArray(String[]::new),
-				finalRedundantList.toArray(String[]::new),
-				spectralLoss(eigenvaluesFull, eigenvaluesCurrent),
-				spectralLoss(eigenvaluesFull, computeNormalizedEigenvalues(redundantMatrix.getMatrix(), "ojalgo")),
-				p,
-				T,
-				temperatureLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
-				acceptanceProbabilityLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
-				acceptedLog.stream().mapToInt(v -> v.intValue()).toArray(),
-				penalizedBackboneLossLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
-				proposedBackboneSizeLog.stream().mapToInt(v -> v.intValue()).toArray(),
-				acceptedBackboneSizeLog.stream().mapToInt(v -> v.intValue()).toArray(),
-				finalBackboneSizeLog.stream().mapToInt(v -> v.intValue()).toArray(),
-				acceptanceRatioLastHundredIterationsLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
-				fullMatrix.getMatrix(),
-				currentMatrix.getMatrix(),
-				redundantMatrix.getMatrix(),
-				fullMatrix.getRowNames(),
-				fullMatrix.getStart().toEpochSecond(ZoneOffset.UTC),
-				fullMatrix.getStop().toEpochSecond(ZoneOffset.UTC),
-				fullMatrix.getNumStatements());
+		final String m = method;
+		this.simulatedAnnealingChainResults = Arrays.stream(this.chains)
+				.parallel()
+				.map(chain -> chain.createResult(m))
+				.toArray(SimulatedAnnealingBackboneResult[]::new);
+
+		// report the chain with the lowest loss of its final solution; ties go to the first chain
+		int best = 0;
+		for (int i = 1; i < this.chains.length; i++) {
+			if (this.chains[i].finalLoss < this.chains[best].finalLoss) {
+				best = i;
+			}
+		}
+		this.simulatedAnnealingBackboneResult = this.simulatedAnnealingChainResults[best];
 		this.nestedBackboneResult = null;
 	}
 
+	/**
+	 * Get the results of all simulated annealing chains, including the chain that yielded the result returned by
+	 * {@link #getSimulatedAnnealingBackboneResult()}. Each result contains the traces of its own chain.
+	 *
+	 * @return The results of the chains in the order of the chains (can be null if backbone function has not been
+	 *   executed).
+	 */
+	public SimulatedAnnealingBackboneResult[] getSimulatedAnnealingChainResults() {
+		return this.simulatedAnnealingChainResults;
+	}
+
 	/**
 	 * Get the penalty backbone result that is saved in the class.
 	 *
@@ -3224,13 +3352,14 @@ public class Exporter {
 	}
 
 	/**
-	 * Use tools from the {@code ojalgo} library to compute eigenvalues of a symmetric matrix.
+	 * Compute the normalized eigenvalues of the Laplacian matrix of a network, using the eigenvalue solver of the class.
+	 * Negative edge weights are set to zero in the matrix before the Laplacian matrix is computed as the degree matrix
+	 * minus the adjacency matrix. The eigenvalues are scaled to sum up to one unless they are all zero.
 	 *
 	 * @param matrix The matrix as a two-dimensional double array.
-	 * @param library The linear algebra Java library to use as a back-end: {@code "ojalgo"} or {@code "apache"}.
-	 * @return One-dimensional double array of eigenvalues.
+	 * @return One-dimensional double array of eigenvalues in descending order.
 	 */
-	private double[] computeNormalizedEigenvalues(double[][] matrix, String library) {
+	private double[] computeNormalizedEigenvalues(double[][] matrix) {
 		for (int i = 0; i < matrix.length; i++) {
 			for (int j = 0; j < matrix[0].length; j++) {
 				if (matrix[i][j] < 0) {
@@ -3238,35 +3367,19 @@ public class Exporter {
 				}
 			}
 		}
-		double[] eigenvalues;
-		if (library.equals("apache")) {
-			RealMatrix realMatrix = new Array2DRowRealMatrix(matrix); // create a real matrix from the 2D array
-			EigenDecomposition decomposition = new EigenDecomposition(realMatrix); // perform eigen decomposition
-			eigenvalues = decomposition.getRealEigenvalues(); // get the real parts of the eigenvalues
-			// normalize the eigenvalues
-			double eigenvaluesSum = Arrays.stream(eigenvalues).sum();
-			if (eigenvaluesSum > 0.0) {
-				for (int i = 0; i < eigenvalues.length; i++) {
-					eigenvalues[i] /= eigenvaluesSum;
-				}
+		double[][] laplacian = new double[matrix.length][matrix.length]; // degree matrix minus adjacency matrix
+		for (int i = 0; i < matrix.length; i++) {
+			for (int j = 0; j < matrix[i].length; j++) {
+				laplacian[i][i] = laplacian[i][i] + matrix[i][j];
+				laplacian[i][j] = laplacian[i][j] - matrix[i][j];
 			}
-		} else if (library.equals("ojalgo")) {
-			Primitive64Matrix matrixPrimitive = Primitive64Matrix.FACTORY.rows(matrix); // create matrix
-			DenseArray<Double> rowSums = Primitive64Array.FACTORY.make(matrix.length); // container for row sums
-			matrixPrimitive.reduceRows(Aggregator.SUM, rowSums); // populate row sums into rowSums
-			Primitive64Matrix.SparseReceiver sr = Primitive64Matrix.FACTORY.makeSparse(matrix.length, matrix.length); // container for degree matrix
-			sr.fillDiagonal(rowSums); // put row sums onto diagonal
-			Primitive64Matrix laplacian = sr.get(); // put row sum container into a new degree matrix (the future Laplacian matrix)
-			laplacian.subtract(matrixPrimitive); // subtract adjacency matrix from degree matrix to create Laplacian matrix
-			Eigenvalue<Double> eig = Eigenvalue.PRIMITIVE.make(laplacian); // eigenvalues
-			eig.decompose(laplacian); // decomposition
-			eigenvalues = eig.getEigenvalues().toRawCopy1D(); // extract eigenvalues and convert to double[]
-			double eigenvaluesSum = Arrays.stream(eigenvalues).sum(); // compute sum of eigenvalues
-			if (eigenvaluesSum > 0.0) {
-				eigenvalues = DoubleStream.of(eigenvalues).map(v -> v / eigenvaluesSum).toArray(); // normalize/scale to one
+		}
+		double[] eigenvalues = this.eigenvalueSolver.eigenvalues(laplacian);
+		double eigenvaluesSum = Arrays.stream(eigenvalues).sum(); // compute sum of eigenvalues
+		if (eigenvaluesSum > 0.0) {
+			for (int i = 0; i < eigenvalues.length; i++) {
+				eigenvalues[i] = eigenvalues[i] / eigenvaluesSum; // normalize/scale to one
 			}
-		} else {
-			eigenvalues = new double[matrix.length]; // return zeroes if library not recognized; don't log error because it would be very slow
 		}
 		return eigenvalues;
 	}
@@ -3386,7 +3499,7 @@ public class Exporter {
 		this.isolates = true; // include isolates in the iterations but not in the full matrix; will be adjusted to smaller full matrix dimensions without isolates manually each time in the iterations; necessary because some actors may be deleted in the backbone matrix otherwise after deleting their concepts
 
 		// compute normalized eigenvalues for the full matrix; no need to recompute every time as they do not change
-		eigenvaluesFull = computeNormalizedEigenvalues(fullMatrix.getMatrix(), "ojalgo");
+		eigenvaluesFull = computeNormalizedEigenvalues(fullMatrix.getMatrix());
 		iteration = new int[fullConcepts.length];
 		backboneLoss = new double[fullConcepts.length];
 		redundantLoss = new double[fullConcepts.length];
@@ -3401,30 +3514,116 @@ public class Exporter {
 		redundantMatrices = new ArrayList<>();
 		numStatements = new int[fullConcepts.length];
 		counter = 0;
+
+		// per-concept contributions for deriving the candidate matrices without recomputing them from the statements
+		conceptIndex = new HashMap<>();
+		for (int i = 0; i < fullConcepts.length; i++) {
+			conceptIndex.put(fullConcepts[i], i);
+		}
+		BackboneIncidence incidence = createBackboneIncidence(fullMatrix.getRowNames(), fullConcepts);
+		backboneSubset = incidence == null ? null : incidence.full();
+		redundantSubset = incidence == null ? null : incidence.empty();
+	}
+
+	/**
+	 * Create a backbone incidence structure with per-concept contributions from the filtered statements, or return
+	 * {@code null} if the network cannot be derived exactly from integer counts (integer qualifiers with a qualifier
+	 * aggregation other than {@code "ignore"}).
+	 *
+	 * @param names1 {@link String} array containing the row labels of the full matrix.
+	 * @param names2 {@link String} array containing the concepts.
+	 * @return The backbone incidence structure or {@code null}.
+	 */
+	private BackboneIncidence createBackboneIncidence(String[] names1, String[] names2) {
+		String[] qualifierString = null;
+		int[] qualifierInteger = new int[] { 0 };
+		int qualifierLength = 1;
+		boolean textQualifier = true;
+		if (qualifier == null) {
+			// do nothing, go with qualifierLength = 1
+		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("boolean")) {
+			qualifierInteger = new int[] {0, 1};
+			qualifierLength = 2;
+			textQualifier = false;
+		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("integer")) {
+			if (!this.qualifierAggregation.equals("ignore")) {
+				return null;
+			}
+			qualifierInteger = retrieveDistinctIntegers(this.originalStatements, qualifier);
+			qualifierLength = qualifierInteger.length;
+			textQualifier = false;
+		} else if (!qualifierDocument && dataTypes.get(qualifier).equals("short text")) {
+			qualifierString = retrieveDistinctValues(this.originalStatements, qualifier, false);
+			qualifierLength = qualifierString.length;
+		} else if (qualifierDocument) {
+			qualifierString = retrieveDistinctValues(this.filteredStatements, this.qualifier, true);
+			qualifierLength = qualifierString.length;
+		}
+		int[][] indices = indexStatements(this.filteredStatements, names1, names2, qualifierString, qualifierInteger, qualifierLength);
+		return new BackboneIncidence(names1.length, names2.length, qualifierLength, indices[0], indices[1], indices[2], this.qualifierAggregation, this.normalization, textQualifier);
+	}
+
+	/**
+	 * Compute a candidate or redundant matrix for the backbone algorithms from the statements with a given set of
+	 * concepts. The matrix has the dimensions and row order of the full matrix.
+	 *
+	 * @param concepts The concepts whose statements are included.
+	 * @param statementCount An array of length one, into which the number of statements with these concepts is saved.
+	 * @return The one-mode matrix, reduced to the rows of the full matrix.
+	 */
+	private Matrix computeBackboneMatrix(ArrayList<String> concepts, int[] statementCount) {
+		final HashSet<String> conceptSet = new HashSet<>(concepts);
+		ArrayList<ExportStatement> statements = this.filteredStatements
+				.stream()
+				.filter(s -> conceptSet.contains(((Entity) s.get(this.variable2)).getValue()))
+				.collect(Collectors.toCollection(ArrayList::new));
+		statementCount[0] = statements.size();
+		Matrix matrix = this.computeOneModeMatrix(statements, this.qualifierAggregation, this.startDateTime, this.stopDateTime);
+		return this.reduceCandidateMatrix(matrix, fullMatrix.getRowNames()); // ensure it has the right dimensions by purging isolates relative to the full matrix
+	}
+
+	/**
+	 * Wrap a matrix derived from a backbone incidence structure in a {@link Matrix} object with the same properties as
+	 * the result of {@link #computeBackboneMatrix(ArrayList, int[])}.
+	 *
+	 * @param mat The one-mode matrix.
+	 * @param statementCount The number of statements with the concepts in the matrix.
+	 * @return The matrix object.
+	 */
+	private Matrix createBackboneMatrix(double[][] mat, int statementCount) {
+		boolean integerBoolean = statementCount == 0 || (this.normalization.equals("no") && (this.qualifierAggregation.equals("ignore") || qualifier == null || qualifierDocument || dataTypes.get(qualifier).equals("boolean") || dataTypes.get(qualifier).equals("short text")));
+		Matrix matrix = new Matrix(mat, fullMatrix.getRowNames(), fullMatrix.getRowNames(), integerBoolean, this.startDateTime, this.stopDateTime);
+		if (statementCount > 0) {
+			matrix.setNumStatements(this.filteredStatements.size());
+		}
+		return matrix;
 	}
 
 	/**
 	 * One iteration in the nested backbone algorithm. Needs to be called in a while loop until the backbone set is empty ({@code while (currentBackboneSet.size() > 0)}).
 	 */
 	public void iterateNestedBackbone() {
-		ArrayList<Matrix> candidateMatrices = new ArrayList<>();
+		// evaluate the removal of each concept in the current backbone set in parallel
+		Matrix[] candidateMatrices = new Matrix[currentBackboneList.size()];
 		double[] currentLosses = new double[currentBackboneList.size()];
 		int[] numStatementsCandidates = new int[currentBackboneList.size()];
-		for (int i = 0; i < currentBackboneList.size(); i++) {
-			ArrayList<String> candidate = new ArrayList<>(currentBackboneList);
-			candidate.remove(i);
-			final ArrayList<String> finalCandidate = new ArrayList<String>(candidate); // make it final, so it can be used in a stream
-			candidateStatementList = this.filteredStatements
-					.stream()
-					.filter(s -> finalCandidate.contains(((Entity) s.get(this.variable2)).getValue()))
-					.collect(Collectors.toCollection(ArrayList::new));
-			numStatementsCandidates[i] = candidateStatementList.size();
-			candidateMatrix = this.computeOneModeMatrix(candidateStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime);
-			candidateMatrix = this.reduceCandidateMatrix(candidateMatrix, fullMatrix.getRowNames()); // ensure it has the right dimensions by purging isolates relative to the full matrix
-			candidateMatrices.add(candidateMatrix);
-			eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix(), "ojalgo"); // normalized eigenvalues for the candidate matrix
-			currentLosses[i] = spectralLoss(eigenvaluesFull, eigenvaluesCandidate);
-		}
+		IntStream.range(0, currentBackboneList.size()).parallel().forEach(i -> {
+			Matrix candidate;
+			if (backboneSubset != null) { // subtract the contribution of the concept from the current backbone network
+				int column = conceptIndex.get(currentBackboneList.get(i));
+				numStatementsCandidates[i] = backboneSubset.getNumStatementsWithout(column);
+				candidate = createBackboneMatrix(backboneSubset.matrixWithout(column), numStatementsCandidates[i]);
+			} else { // recompute the network from the statements
+				ArrayList<String> concepts = new ArrayList<>(currentBackboneList);
+				concepts.remove(i);
+				int[] statementCount = new int[1];
+				candidate = computeBackboneMatrix(concepts, statementCount);
+				numStatementsCandidates[i] = statementCount[0];
+			}
+			candidateMatrices[i] = candidate;
+			double[] eigenvalues = computeNormalizedEigenvalues(candidate.getMatrix()); // normalized eigenvalues for the candidate matrix
+			currentLosses[i] = spectralLoss(eigenvaluesFull, eigenvalues);
+		});
 		double smallestLoss = 0.0;
 		if (currentBackboneList.size() > 0) {
 			smallestLoss = Arrays.stream(currentLosses).min().getAsDouble();
@@ -3436,18 +3635,20 @@ public class Exporter {
 				backboneLoss[counter] = smallestLoss;
 				currentRedundantList.add(currentBackboneList.get(i));
 				currentBackboneList.remove(i);
-				backboneMatrices.add(candidateMatrices.get(i));
+				backboneMatrices.add(candidateMatrices[i]);
 
 				// compute redundant matrix and loss at this level
-				final ArrayList<String> finalRedundantCandidate = new ArrayList<String>(currentRedundantList);
-				candidateStatementList = this.filteredStatements
-						.stream()
-						.filter(s -> finalRedundantCandidate.contains(((Entity) s.get(this.variable2)).getValue()))
-						.collect(Collectors.toCollection(ArrayList::new));
-				Matrix redundantMatrix = this.computeOneModeMatrix(candidateStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime);
-				redundantMatrix = this.reduceCandidateMatrix(redundantMatrix, fullMatrix.getRowNames());
+				Matrix redundantMatrix;
+				if (backboneSubset != null) {
+					int column = conceptIndex.get(entity[counter]);
+					backboneSubset.remove(column);
+					redundantSubset.add(column);
+					redundantMatrix = createBackboneMatrix(redundantSubset.matrix(), redundantSubset.getNumStatements());
+				} else {
+					redundantMatrix = computeBackboneMatrix(currentRedundantList, new int[1]);
+				}
 				redundantMatrices.add(redundantMatrix);
-				eigenvaluesCandidate = computeNormalizedEigenvalues(redundantMatrix.getMatrix(), "ojalgo");
+				double[] eigenvaluesCandidate = computeNormalizedEigenvalues(redundantMatrix.getMatrix());
 				redundantLoss[counter] = spectralLoss(eigenvaluesFull, eigenvaluesCandidate);
 				numStatements[counter] = numStatementsCandidates[i];
 				counter++;
@@ -3490,6 +3691,22 @@ public class Exporter {
 	 * @param size The (fixed) size of the backbone set. Only used if no penalty.
 	 */
 	public void initializeSimulatedAnnealingBackbone(boolean penalty, double p, int T, int size) {
+		this.initializeSimulatedAnnealingBackbone(penalty, p, T, size, 1);
+	}
+
+	/**
+	 * Partition the discourse network into a backbone and redundant set of second-mode entities using penalised
+	 * spectral distances and simulated annealing with multiple independent chains. The chains start from different
+	 * random solutions and are iterated in parallel, and the result of the chain with the best final solution is
+	 * reported. This method prepares the data before the algorithm starts.
+	 *
+	 * @param penalty Use penalty parameter? False if fixed backbone set.
+	 * @param p Penalty parameter. Only used if penalty parameter is true.
+	 * @param T Number of iterations.
+	 * @param size The (fixed) size of the backbone set. Only used if no penalty.
+	 * @param numChains The number of independent chains (at least 1).
+	 */
+	public void initializeSimulatedAnnealingBackbone(boolean penalty, double p, int T, int size, int numChains) {
 		this.p = p;
 		this.T = T;
 		this.backboneSize = size;
@@ -3506,225 +3723,54 @@ public class Exporter {
 		this.isolates = true; // include isolates in the iterations; will be adjusted to full matrix without isolates manually each time
 
 		// compute normalized eigenvalues for the full matrix; no need to recompute every time as they do not change
-		eigenvaluesFull = computeNormalizedEigenvalues(fullMatrix.getMatrix(), "ojalgo");
+		eigenvaluesFull = computeNormalizedEigenvalues(fullMatrix.getMatrix());
 
-		if (penalty) { // simulated annealing with penalty: initially one randomly chosen entity in the backbone set
-			// pick a random concept c_j from C and save its index
-			int randomConceptIndex = ThreadLocalRandom.current().nextInt(0, fullConcepts.length);
-
-			// final backbone list B, which contains only one random concept initially but will contain the final backbone set in the end
-			finalBackboneList = new ArrayList<String>();
-
-			// add the one uniformly sampled concept c_j to the backbone as the initial solution at t = 0: B <- {c_j}
-			finalBackboneList.add(fullConcepts[randomConceptIndex]);
-
-			// final redundant set R, which is initially C without c_j
-			finalRedundantList = Arrays
-					.stream(fullConcepts)
-					.filter(c -> !c.equals(fullConcepts[randomConceptIndex]))
-					.collect(Collectors.toCollection(ArrayList::new));
-		} else { // simulated annealing without penalty and fixed backbone set size: randomly sample as many initial entities as needed
-			// sample initial backbone set randomly
-			if (this.backboneSize > fullConcepts.length) {
-				LogEvent l = new LogEvent(Logger.ERROR,
-						"Backbone size parameter too large",
-						"The backbone size parameter of " + this.backboneSize + " is larger than the number of entities on the second mode, " + fullConcepts.length + ". It is impossible to choose a backbone set of that size. Please choose a smaller backbone size.");
-				Dna.logger.log(l);
-			} else if (this.backboneSize < 1) {
-				LogEvent l = new LogEvent(Logger.ERROR,
-						"Backbone size parameter too small",
-						"The backbone size parameter of " + size + " is smaller than 1. It is impossible to choose a backbone set of that size. Please choose a larger backbone size.");
-				Dna.logger.log(l);
-			}
-			finalBackboneList = new ArrayList<>();
-			while (finalBackboneList.size() < this.backboneSize) {
-				int randomConceptIndex = ThreadLocalRandom.current().nextInt(0, fullConcepts.length);
-				String entity = fullConcepts[randomConceptIndex];
-				if (!finalBackboneList.contains(entity)) {
-					finalBackboneList.add(entity);
-				}
-			}
-			finalRedundantList = Stream.of(fullConcepts).filter(c -> !finalBackboneList.contains(c)).collect(Collectors.toCollection(ArrayList::new));
+		if (!penalty && this.backboneSize > fullConcepts.length) {
+			LogEvent l = new LogEvent(Logger.ERROR,
+					"Backbone size parameter too large",
+					"The backbone size parameter of " + this.backboneSize + " is larger than the number of entities on the second mode, " + fullConcepts.length + ". It is impossible to choose a backbone set of that size. Please choose a smaller backbone size.");
+			Dna.logger.log(l);
+		} else if (!penalty && this.backboneSize < 1) {
+			LogEvent l = new LogEvent(Logger.ERROR,
+					"Backbone size parameter too small",
+					"The backbone size parameter of " + size + " is smaller than 1. It is impossible to choose a backbone set of that size. Please choose a larger backbone size.");
+			Dna.logger.log(l);
 		}
-
-		// final statement list: filter the statement list by only retaining those statements that are in the final backbone set B
-		finalStatementList = this.filteredStatements
-				.stream()
-				.filter(s -> finalBackboneList.contains(((Entity) s.get(this.variable2)).getValue()))
-				.collect(Collectors.toCollection(ArrayList::new));
-
-		// final matrix based on the initial final backbone set, Y^B, which is initially identical to the previous matrix
-		finalMatrix = this.computeOneModeMatrix(finalStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime);
-		finalMatrix = this.reduceCandidateMatrix(finalMatrix, fullMatrix.getRowNames()); // ensure it has the right dimensions by purging isolates relative to the full matrix
-
-		// eigenvalues for final matrix
-		eigenvaluesFinal = computeNormalizedEigenvalues(finalMatrix.getMatrix(), "ojalgo"); // normalized eigenvalues for the candidate matrix
-
-		// create an initial current backbone set B_0, also with the one c_j concept like in B: B_0 <- {c_j}
-		currentBackboneList = new ArrayList<String>(finalBackboneList);
-
-		// create an initial current redundant set R_t, which is C without c_j
-		currentRedundantList = new ArrayList<String>(finalRedundantList);
-
-		// filter the statement list by only retaining those statements that are in the initial current backbone set B_0
-		currentStatementList = this.filteredStatements
-				.stream()
-				.filter(s -> currentBackboneList.contains(((Entity) s.get(this.variable2)).getValue()))
-				.collect(Collectors.toCollection(ArrayList::new));
-
-		// create initial current matrix at t = 0
-		currentMatrix = new Matrix(finalMatrix);
-
-		// initial current eigenvalues
-		eigenvaluesCurrent = eigenvaluesFinal;
-
-		// initialise (empty) action set S
-		this.actionList = new ArrayList<String>();
-
-		// initialise selected action s
-		selectedAction = "";
-
-		// initialise the candidate backbone set at t, B^*_t
-		candidateBackboneList = new ArrayList<String>();
-
-		// initialise the candidate redundant set at t, R^*_t
-		candidateRedundantList = new ArrayList<String>();
-
-		// declare loss comparison result variables
-		if (penalty) {
-			finalLoss = penalizedLoss(eigenvaluesFull, eigenvaluesFinal, p, currentBackboneList.size(), fullConcepts.length); // spectral distance between full and initial matrix
-		} else {
-			finalLoss = spectralLoss(eigenvaluesFull, eigenvaluesFinal); // spectral distance between full and initial matrix
+		if (numChains < 1) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"Number of chains too small",
+					"The number of simulated annealing chains was " + numChains + ". Using one chain instead.");
+			Dna.logger.log(l);
+			numChains = 1;
 		}
-		oldLoss = finalLoss;
-		newLoss = 0.0;
-		accept = false;
 
-		// reporting
-		temperatureLog = new ArrayList<Double>();
-		acceptanceProbabilityLog = new ArrayList<Double>();
-		acceptedLog = new ArrayList<Integer>();
-		penalizedBackboneLossLog = new ArrayList<Double>(); // penalised or not penalised, depending on algorithm
-		proposedBackboneSizeLog = new ArrayList<Integer>();
-		acceptedBackboneSizeLog = new ArrayList<Integer>();
-		finalBackboneSizeLog = new ArrayList<Integer>();
-		acceptanceRatioLastHundredIterationsLog = new ArrayList<Double>();
-
-		// matrix algebra declarations
-		eigenvaluesCurrent = new double[0];
+		// per-concept contributions for updating the candidate matrices incrementally after each move
+		conceptIndex = new HashMap<>();
+		for (int i = 0; i < fullConcepts.length; i++) {
+			conceptIndex.put(fullConcepts[i], i);
+		}
+		backboneIncidence = createBackboneIncidence(fullMatrix.getRowNames(), fullConcepts);
 
-		// set to first iteration before starting simulated annealing
-		t = 1;
+		// create the chains, each with its own random initial solution and random number generator
+		long[] seeds = new long[numChains];
+		for (int i = 0; i < numChains; i++) {
+			seeds[i] = ThreadLocalRandom.current().nextLong();
+		}
+		this.chains = IntStream.range(0, numChains)
+				.parallel()
+				.mapToObj(i -> new SimulatedAnnealingChain(penalty, new Random(seeds[i])))
+				.toArray(SimulatedAnnealingChain[]::new);
 	}
 
 	/**
-	 * Execute the next iteration of the simulated annealing backbone algorithm.
+	 * Execute the next iteration of the simulated annealing backbone algorithm in all chains.
 	 */
 	public void iterateSimulatedAnnealingBackbone(boolean penalty) {
-		// calculate temperature
-		temperature = 1 - (1 / (1 + Math.exp(-(-5 + (12.0 / T) * t)))); // temperature
-		temperatureLog.add(temperature);
-
-		// make a random move by adding, removing, or swapping a concept and computing a new candidate
-		actionList.clear(); // clear the set of possible actions and repopulate, depending on solution size
-		if (currentBackboneList.size() < 2 && penalty) { // if there is only one concept, don't remove it because empty backbones do not work
-			actionList.add("add");
-			actionList.add("swap");
-		} else if (currentBackboneList.size() > fullConcepts.length - 2 && penalty) { // do not create a backbone with all concepts because it would be useless
-			actionList.add("remove");
-			actionList.add("swap");
-		} else if (penalty) { // everything in between one and |C| - 1 concepts: add all three possible moves to the action set
-			actionList.add("add");
-			actionList.add("remove");
-			actionList.add("swap");
-		} else { // with fixed backbone set (i.e., no penalty), only allow horizontal swaps
-			actionList.add("swap");
-		}
-		Collections.shuffle(actionList); // randomly re-order the action set...
-		selectedAction = actionList.get(0); // and draw the first action (i.e., pick a random action)
-		candidateBackboneList.clear(); // create a candidate copy of the current backbone list, to be modified
-		candidateBackboneList.addAll(currentBackboneList);
-		candidateRedundantList.clear(); // create a candidate copy of the current redundant list, to be modified
-		candidateRedundantList.addAll(currentRedundantList);
-		if (selectedAction.equals("add")) { // if we add a concept...
-			Collections.shuffle(candidateRedundantList); // randomly re-order the current redundant list...
-			candidateBackboneList.add(candidateRedundantList.get(0)); // add the first concept from the redundant list to the backbone...
-			candidateRedundantList.remove(0); // and delete it in turn from the redundant list
-		} else if (selectedAction.equals("remove")) { // if we remove a concept...
-			Collections.shuffle(candidateBackboneList); // randomly re-order the backbone list to pick a random concept for removal as the first element...
-			candidateRedundantList.add(candidateBackboneList.get(0)); // add the selected concept to the redundant list...
-			candidateBackboneList.remove(0); // and remove it from the backbone list
-		} else if (selectedAction.equals("swap")) { //if we swap out a concept...
-			Collections.shuffle(candidateBackboneList); // re-order the backbone list...
-			Collections.shuffle(candidateRedundantList); // re-order the redundant list...
-			candidateBackboneList.add(candidateRedundantList.get(0)); // add the first (random) redundant concept to the backbone list...
-			candidateRedundantList.remove(0); // then remove it from the redundant list...
-			candidateRedundantList.add(candidateBackboneList.get(0)); // add the first (random) backbone concept to the redundant list...
-			candidateBackboneList.remove(0); // then remove it from the backbone list
-		}
-		proposedBackboneSizeLog.add(candidateBackboneList.size()); // log number of concepts in candidate backbone in the current iteration
-
-		// after executing the action, filter the statement list based on the candidate backbone set B^*_t in order to create the candidate matrix, then compute eigenvalues and loss for the candidate
-		candidateStatementList = this.filteredStatements
-				.stream()
-				.filter(s -> candidateBackboneList.contains(((Entity) s.get(this.variable2)).getValue()))
-				.collect(Collectors.toCollection(ArrayList::new));
-		candidateMatrix = this.computeOneModeMatrix(candidateStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime); // create candidate matrix after filtering the statements based on the action that was executed
-		candidateMatrix = this.reduceCandidateMatrix(candidateMatrix, fullMatrix.getRowNames()); // ensure it has the right dimensions by purging isolates relative to the full matrix
-		eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix(), "ojalgo"); // normalized eigenvalues for the candidate matrix
-		if (penalty) {
-			newLoss = penalizedLoss(eigenvaluesFull, eigenvaluesCandidate, p, candidateBackboneList.size(), fullConcepts.length); // spectral distance between full and candidate matrix
-		} else {
-			newLoss = spectralLoss(eigenvaluesFull, eigenvaluesCandidate); // spectral distance between full and candidate matrix
-		}
-		penalizedBackboneLossLog.add(newLoss); // log the penalised spectral distance between full and candidate solution
-
-		// compare loss between full and previous (current) matrix to loss between full and candidate matrix and accept or reject candidate
-		accept = false;
-		if (newLoss < oldLoss) { // if candidate is better than previous matrix, adopt it as current solution
-			accept = true; // flag this solution for acceptance
-			acceptanceProbabilityLog.add(-1.0); // log the acceptance probability as -1.0; technically it should be 1.0 because the solution was better and hence accepted, but it would be useless for plotting the acceptance probabilities as a diagnostic tool
-			if (newLoss <= finalLoss) { // if better than the best solution, adopt candidate as new final backbone solution
-				finalBackboneList.clear(); // clear the best solution list
-				finalBackboneList.addAll(candidateBackboneList); // and populate it with the concepts from the candidate solution instead
-				finalRedundantList.clear(); // same with the redundant list
-				finalRedundantList.addAll(candidateRedundantList);
-				finalStatementList.clear(); // same with the final list of statements
-				finalStatementList.addAll(candidateStatementList);
-				finalMatrix = new Matrix(candidateMatrix); // save the candidate matrix as best solution matrix
-				eigenvaluesFinal = eigenvaluesCandidate;
-				finalLoss = newLoss; // save the candidate loss as the globally optimal loss so far
-			}
-		} else { // if the solution is worse than the previous one, apply Hastings ratio and temperature and compare with random number
-			r = Math.random(); // random double between 0 and 1
-			acceptance = Math.exp(-(newLoss - oldLoss)) * temperature; // acceptance probability
-			acceptanceProbabilityLog.add(acceptance); // log the acceptance probability
-			if (r < acceptance) { // apply probability rule
-				accept = true;
-			}
-		}
-		if (accept) { // if candidate is better than previous matrix...
-			currentBackboneList.clear(); // create candidate copy and save as new current matrix
-			currentBackboneList.addAll(candidateBackboneList);
-			currentRedundantList.clear(); // also save the redundant candidate as new current redundant list
-			currentRedundantList.addAll(candidateRedundantList);
-			currentStatementList.clear(); // save candidate statement list as new current statement list
-			currentStatementList.addAll(candidateStatementList);
-			currentMatrix = new Matrix(candidateMatrix); // save candidate matrix as new current matrix
-			eigenvaluesCurrent = eigenvaluesCandidate;
-			oldLoss = newLoss; // save the corresponding candidate loss as the current/old loss
-			acceptedLog.add(1); // log the acceptance of the proposed candidate
+		if (this.chains.length == 1) {
+			this.chains[0].iterate(penalty);
 		} else {
-			acceptedLog.add(0); // log the non-acceptance of the proposed candidate
+			Arrays.stream(this.chains).parallel().forEach(chain -> chain.iterate(penalty));
 		}
-		acceptedBackboneSizeLog.add(currentBackboneList.size()); // log how many concepts are in the current iteration after the decision
-		finalBackboneSizeLog.add(finalBackboneList.size()); // log how many concepts are in the final backbone solution in the current iteration
-		log = 0.0; // compute ratio of acceptances in last up to 100 iterations
-		for (int i = t - 1; i >= t - Math.min(100, t); i--) {
-			log = log + acceptedLog.get(i);
-		}
-		acceptanceRatioLastHundredIterationsLog.add(log / Math.min(100, t)); // log ratio of accepted candidates in the last 100 iterations
-		t = t + 1; // go to next iteration
 	}
 
 	/**
@@ -3750,7 +3796,7 @@ public class Exporter {
 		this.isolates = true; // include isolates in the iterations; will be adjusted to full matrix without isolates manually each time
 
 		// compute normalized eigenvalues for the full matrix; no need to recompute every time as they do not change
-		eigenvaluesFull = computeNormalizedEigenvalues(fullMatrix.getMatrix(), "ojalgo");
+		eigenvaluesFull = computeNormalizedEigenvalues(fullMatrix.getMatrix());
 
 		// create copy of filtered statements and remove redundant entities
 		ArrayList<String> entityList = Stream.of(backboneEntities).collect(Collectors.toCollection(ArrayList<String>::new));
@@ -3765,13 +3811,13 @@ public class Exporter {
 		}
 
 		// spectral distance between full and backbone set
-		candidateStatementList = this.filteredStatements
+		ArrayList<ExportStatement> candidateStatementList = this.filteredStatements
 				.stream()
 				.filter(s -> backboneSet.contains(((Entity) s.get(this.variable2)).getValue()))
 				.collect(Collectors.toCollection(ArrayList::new));
-		candidateMatrix = this.computeOneModeMatrix(candidateStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime); // create candidate matrix after filtering the statements based on the action that was executed
+		Matrix candidateMatrix = this.computeOneModeMatrix(candidateStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime); // create candidate matrix after filtering the statements based on the action that was executed
 		candidateMatrix = this.reduceCandidateMatrix(candidateMatrix, fullMatrix.getRowNames()); // ensure it has the right dimensions by purging isolates relative to the full matrix
-		eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix(), "ojalgo"); // normalized eigenvalues for the candidate matrix
+		double[] eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix()); // normalized eigenvalues for the candidate matrix
 		results[0] = penalizedLoss(eigenvaluesFull, eigenvaluesCandidate, p, backboneSet.size(), fullConcepts.length); // spectral distance between full and candidate matrix
 
 		// spectral distance between full and redundant set
@@ -3781,9 +3827,270 @@ public class Exporter {
 				.collect(Collectors.toCollection(ArrayList::new));
 		candidateMatrix = this.computeOneModeMatrix(candidateStatementList, this.qualifierAggregation, this.startDateTime, this.stopDateTime); // create candidate matrix after filtering the statements based on the action that was executed
 		candidateMatrix = this.reduceCandidateMatrix(candidateMatrix, fullMatrix.getRowNames()); // ensure it has the right dimensions by purging isolates relative to the full matrix
-		eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix(), "ojalgo"); // normalized eigenvalues for the candidate matrix
+		eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix()); // normalized eigenvalues for the candidate matrix
 		results[1] = penalizedLoss(eigenvaluesFull, eigenvaluesCandidate, p, redundantSet.size(), fullConcepts.length); // spectral distance between full and candidate matrix
 
 		return results;
 	}
+
+	/**
+	 * A single Markov chain of the simulated annealing backbone algorithm. Each chain has its own random number
+	 * generator and its own current and best solution, so several chains can be iterated on separate threads. If the
+	 * backbone incidence structure is available, the chain keeps the pairwise sums of its current backbone set and
+	 * derives the candidate matrix after each move by adding or subtracting the contribution of the moved concepts,
+	 * which is undone if the candidate is rejected. Otherwise, the candidate matrix is recomputed from the statements.
+	 */
+	private class SimulatedAnnealingChain {
+		private final Random random;
+		private final BackboneIncidence.Subset subset; // pairwise sums of the current backbone set, or null
+		private final ArrayList<String> currentBackboneList, currentRedundantList, finalBackboneList, finalRedundantList;
+		private Matrix currentMatrix;
+		private double[] eigenvaluesCurrent;
+		private double oldLoss, finalLoss;
+		private int t = 1;
+
+		// reporting
+		private final ArrayList<Double> temperatureLog = new ArrayList<>();
+		private final ArrayList<Double> acceptanceProbabilityLog = new ArrayList<>();
+		private final ArrayList<Integer> acceptedLog = new ArrayList<>();
+		private final ArrayList<Double> penalizedBackboneLossLog = new ArrayList<>(); // penalised or not penalised, depending on algorithm
+		private final ArrayList<Integer> proposedBackboneSizeLog = new ArrayList<>();
+		private final ArrayList<Integer> acceptedBackboneSizeLog = new ArrayList<>();
+		private final ArrayList<Integer> finalBackboneSizeLog = new ArrayList<>();
+		private final ArrayList<Double> acceptanceRatioLastHundredIterationsLog = new ArrayList<>();
+
+		/**
+		 * Create a chain with a random initial solution.
+		 *
+		 * @param penalty Use penalty parameter? If true, the initial backbone set contains one random concept.
+		 *   Otherwise, it contains as many random concepts as the fixed backbone size.
+		 * @param random The random number generator of the chain.
+		 */
+		private SimulatedAnnealingChain(boolean penalty, Random random) {
+			this.random = random;
+
+			// sample the initial backbone set B_0 and the redundant set R_0 = C \ B_0
+			ArrayList<String> shuffledConcepts = new ArrayList<>(Arrays.asList(fullConcepts));
+			Collections.shuffle(shuffledConcepts, random);
+			int initialSize = penalty ? 1 : Math.max(1, Math.min(backboneSize, fullConcepts.length));
+			currentBackboneList = new ArrayList<>(shuffledConcepts.subList(0, initialSize));
+			currentRedundantList = new ArrayList<>(shuffledConcepts.subList(initialSize, shuffledConcepts.size()));
+			finalBackboneList = new ArrayList<>(currentBackboneList);
+			finalRedundantList = new ArrayList<>(currentRedundantList);
+
+			// initial matrix, eigenvalues, and loss, which are also the best solution so far
+			if (backboneIncidence != null) {
+				subset = backboneIncidence.empty();
+				for (String concept : currentBackboneList) {
+					subset.add(conceptIndex.get(concept));
+				}
+				currentMatrix = createBackboneMatrix(subset.matrix(), subset.getNumStatements());
+			} else {
+				subset = null;
+				currentMatrix = computeBackboneMatrix(currentBackboneList, new int[1]);
+			}
+			eigenvaluesCurrent = computeNormalizedEigenvalues(currentMatrix.getMatrix());
+			if (penalty) {
+				finalLoss = penalizedLoss(eigenvaluesFull, eigenvaluesCurrent, p, currentBackboneList.size(), fullConcepts.length); // spectral distance between full and initial matrix
+			} else {
+				finalLoss = spectralLoss(eigenvaluesFull, eigenvaluesCurrent); // spectral distance between full and initial matrix
+			}
+			oldLoss = finalLoss;
+		}
+
+		/**
+		 * Execute the next iteration of the chain.
+		 *
+		 * @param penalty Use penalty parameter? False if fixed backbone set.
+		 */
+		private void iterate(boolean penalty) {
+			// calculate temperature
+			double temperature = 1 - (1 / (1 + Math.exp(-(-5 + (12.0 / T) * t)))); // temperature
+			temperatureLog.add(temperature);
+
+			// make a random move by adding, removing, or swapping a concept
+			ArrayList<String> actionList = new ArrayList<>(); // the set of possible actions, depending on solution size
+			if (currentBackboneList.size() < 2 && penalty) { // if there is only one concept, don't remove it because empty backbones do not work
+				actionList.add("add");
+				actionList.add("swap");
+			} else if (currentBackboneList.size() > fullConcepts.length - 2 && penalty) { // do not create a backbone with all concepts because it would be useless
+				actionList.add("remove");
+				actionList.add("swap");
+			} else if (penalty) { // everything in between one and |C| - 1 concepts: add all three possible moves to the action set
+				actionList.add("add");
+				actionList.add("remove");
+				actionList.add("swap");
+			} else { // with fixed backbone set (i.e., no penalty), only allow horizontal swaps
+				actionList.add("swap");
+			}
+			String selectedAction = actionList.get(random.nextInt(actionList.size())); // pick a random action
+			String added = null; // the concept moved from the redundant set to the backbone set, if any
+			String removed = null; // the concept moved from the backbone set to the redundant set, if any
+			if ((selectedAction.equals("add") || selectedAction.equals("swap")) && currentRedundantList.size() > 0) {
+				added = currentRedundantList.get(random.nextInt(currentRedundantList.size()));
+			}
+			if (selectedAction.equals("remove") || (selectedAction.equals("swap") && added != null)) {
+				removed = currentBackboneList.get(random.nextInt(currentBackboneList.size()));
+			}
+			ArrayList<String> candidateBackboneList = new ArrayList<>(currentBackboneList); // candidate backbone set B^*_t
+			ArrayList<String> candidateRedundantList = new ArrayList<>(currentRedundantList); // candidate redundant set R^*_t
+			if (added != null) {
+				candidateRedundantList.remove(added);
+				candidateBackboneList.add(added);
+			}
+			if (removed != null) {
+				candidateBackboneList.remove(removed);
+				candidateRedundantList.add(removed);
+			}
+			proposedBackboneSizeLog.add(candidateBackboneList.size()); // log number of concepts in candidate backbone in the current iteration
+
+			// create the candidate matrix after the move, then compute eigenvalues and loss for the candidate
+			Matrix candidateMatrix;
+			if (subset != null) { // add and subtract the contributions of the moved concepts to and from the current sums
+				move(added, removed);
+				candidateMatrix = createBackboneMatrix(subset.matrix(), subset.getNumStatements());
+			} else { // recompute the network from the statements
+				candidateMatrix = computeBackboneMatrix(candidateBackboneList, new int[1]);
+			}
+			double[] eigenvaluesCandidate = computeNormalizedEigenvalues(candidateMatrix.getMatrix()); // normalized eigenvalues for the candidate matrix
+			double newLoss;
+			if (penalty) {
+				newLoss = penalizedLoss(eigenvaluesFull, eigenvaluesCandidate, p, candidateBackboneList.size(), fullConcepts.length); // spectral distance between full and candidate matrix
+			} else {
+				newLoss = spectralLoss(eigenvaluesFull, eigenvaluesCandidate); // spectral distance between full and candidate matrix
+			}
+			penalizedBackboneLossLog.add(newLoss); // log the penalised spectral distance between full and candidate solution
+
+			// compare loss between full and previous (current) matrix to loss between full and candidate matrix and accept or reject candidate
+			boolean accept = false;
+			if (newLoss < oldLoss) { // if candidate is better than previous matrix, adopt it as current solution
+				accept = true; // flag this solution for acceptance
+				acceptanceProbabilityLog.add(-1.0); // log the acceptance probability as -1.0; technically it should be 1.0 because the solution was better and hence accepted, but it would be useless for plotting the acceptance probabilities as a diagnostic tool
+				if (newLoss <= finalLoss) { // if better than the best solution, adopt candidate as new final backbone solution
+					finalBackboneList.clear(); // clear the best solution list
+					finalBackboneList.addAll(candidateBackboneList); // and populate it with the concepts from the candidate solution instead
+					finalRedundantList.clear(); // same with the redundant list
+					finalRedundantList.addAll(candidateRedundantList);
+					finalLoss = newLoss; // save the candidate loss as the optimal loss of this chain so far
+				}
+			} else { // if the solution is worse than the previous one, apply Hastings ratio and temperature and compare with random number
+				double r = random.nextDouble(); // random double between 0 and 1
+				double acceptance = Math.exp(-(newLoss - oldLoss)) * temperature; // acceptance probability
+				acceptanceProbabilityLog.add(acceptance); // log the acceptance probability
+				if (r < acceptance) { // apply probability rule
+					accept = true;
+				}
+			}
+			if (accept) { // if candidate is better than previous matrix...
+				currentBackboneList.clear(); // save the candidate as new current backbone list
+				currentBackboneList.addAll(candidateBackboneList);
+				currentRedundantList.clear(); // also save the redundant candidate as new current redundant list
+				currentRedundantList.addAll(candidateRedundantList);
+				currentMatrix = candidateMatrix; // save candidate matrix as new current matrix
+				eigenvaluesCurrent = eigenvaluesCandidate;
+				oldLoss = newLoss; // save the corresponding candidate loss as the current/old loss
+				acceptedLog.add(1); // log the acceptance of the proposed candidate
+			} else {
+				if (subset != null) {
+					move(removed, added); // undo the move in the current sums
+				}
+				acceptedLog.add(0); // log the non-acceptance of the proposed candidate
+			}
+			acceptedBackboneSizeLog.add(currentBackboneList.size()); // log how many concepts are in the current iteration after the decision
+			finalBackboneSizeLog.add(finalBackboneList.size()); // log how many concepts are in the final backbone solution in the current iteration
+			double log = 0.0; // compute ratio of acceptances in last up to 100 iterations
+			for (int i = t - 1; i >= t - Math.min(100, t); i--) {
+				log = log + acceptedLog.get(i);
+			}
+			acceptanceRatioLastHundredIterationsLog.add(log / Math.min(100, t)); // log ratio of accepted candidates in the last 100 iterations
+			t = t + 1; // go to next iteration
+		}
+
+		/**
+		 * Move concepts between the backbone and redundant set in the pairwise sums of the current backbone set.
+		 *
+		 * @param added The concept to add to the backbone set, or {@code null}.
+		 * @param removed The concept to remove from the backbone set, or {@code null}.
+		 */
+		private void move(String added, String removed) {
+			if (added != null) {
+				subset.add(conceptIndex.get(added));
+			}
+			if (removed != null) {
+				subset.remove(conceptIndex.get(removed));
+			}
+		}
+
+		/**
+		 * Compute the redundant matrix of the current solution and collect the results and traces of the chain.
+		 *
+		 * @param method The algorithm: {@code "penalty"} or {@code "fixed"}.
+		 * @return The result of the chain.
+		 */
+		private SimulatedAnnealingBackboneResult createResult(String method) {
+			Collections.sort(finalBackboneList);
+			Collections.sort(finalRedundantList);
+
+			// create redundant matrix
+			HashSet<String> redundantSet = new HashSet<>(currentRedundantList);
+			ArrayList<ExportStatement> redundantStatementList = filteredStatements
+					.stream()
+					.filter(s -> redundantSet.contains(((Entity) s.get(variable2)).getValue()))
+					.collect(Collectors.toCollection(ArrayList::new));
+			Matrix redundantMatrix = computeOneModeMatrix(redundantStatementList, qualifierAggregation, startDateTime, stopDateTime);
+
+			return new SimulatedAnnealingBackboneResult(method,
+					finalBackboneList.toArray(String[]::new),
+					finalRedundantList.toArray(String[]::new),
+					spectralLoss(eigenvaluesFull, eigenvaluesCurrent),
+					spectralLoss(eigenvaluesFull, computeNormalizedEigenvalues(redundantMatrix.getMatrix())),
+					p,
+					T,
+					temperatureLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
+					acceptanceProbabilityLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
+					acceptedLog.stream().mapToInt(v -> v.intValue()).toArray(),
+					penalizedBackboneLossLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
+					proposedBackboneSizeLog.stream().mapToInt(v -> v.intValue()).toArray(),
+					acceptedBackboneSizeLog.stream().mapToInt(v -> v.intValue()).toArray(),
+					finalBackboneSizeLog.stream().mapToInt(v -> v.intValue()).toArray(),
+					acceptanceRatioLastHundredIterationsLog.stream().mapToDouble(v -> v.doubleValue()).toArray(),
+					fullMatrix.getMatrix(),
+					currentMatrix.getMatrix(),
+					redundantMatrix.getMatrix(),
+					fullMatrix.getRowNames(),
+					fullMatrix.getStart().toEpochSecond(ZoneOffset.UTC),
+					fullMatrix.getStop().toEpochSecond(ZoneOffset.UTC),
+					fullMatrix.getNumStatements());
+		}
+	}
+
+	/**
+	 * Key of the duplicate index in {@link #filterStatements()}: the codes of
+	 * variable 1, variable 2, and the qualifier, and the time bucket of a
+	 * statement.
+	 */
+	private static class DuplicateKey {
+		private final int value1, value2, qualifier, bucket;
+
+		DuplicateKey(int value1, int value2, int qualifier, int bucket) {
+			this.value1 = value1;
+			this.value2 = value2;
+			this.qualifier = qualifier;
+			this.bucket = bucket;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof DuplicateKey)) {
+				return false;
+			}
+			DuplicateKey k = (DuplicateKey) o;
+			return value1 == k.value1 && value2 == k.value2 && qualifier == k.qualifier && bucket == k.bucket;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((value1 * 31 + value2) * 31 + qualifier) * 31 + bucket;
+		}
+	}
 }
\ No newline at end of file
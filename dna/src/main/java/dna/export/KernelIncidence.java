@@ -0,0 +1,490 @@
+package dna.export;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+
+/**
+ * The statement data for kernel-smoothed time slices (variable 1 x variable 2 x qualifier level). This replaces the
+ * {@code ArrayList<ExportStatement>[][][]} array in the inner loops of the kernel smoothing functions. The statements
+ * of all cells are stored contiguously in cell order, and the date-time stamp of each statement is stored as a
+ * {@code long} offset in seconds and in months, such that the kernel weights can be computed without
+ * {@link java.time.LocalDateTime} arithmetic. If the statements of each cell are in chronological order, only the
+ * statements inside the support of the kernel are visited, and they are found by binary search.
+ *
+ * <p>The weights and sums are computed with the same expressions and in the same order as in the nested loop over the
+ * three-dimensional array, so the resulting matrices are bit-for-bit identical.
+ */
+class KernelIncidence {
+	private static final int UNIFORM = 0, EPANECHNIKOV = 1, TRIANGULAR = 2, GAUSSIAN = 3, OTHER = 4;
+
+	private final int numRows, numColumns, numLevels;
+	private final int kernel;
+	private final int windowSize;
+	private final String timeWindow;
+
+	/**
+	 * Start index of the statements of each cell in the statement arrays; length {@code number of cells + 1}. The
+	 * cell index of row {@code i}, column {@code j}, and level {@code k} is {@code (i * numColumns + j) * numLevels + k}.
+	 */
+	private final int[] cellPointer;
+	/**
+	 * Date-time of each statement as seconds since 1 January 1970.
+	 */
+	private final long[] second;
+	/**
+	 * Date of each statement as months since year zero (the proleptic month).
+	 */
+	private final long[] month;
+	/**
+	 * Day of the month of each statement.
+	 */
+	private final int[] day;
+	/**
+	 * Are the statements in each cell in chronological order?
+	 */
+	private final boolean chronological;
+	/**
+	 * Average normalization denominators, computed on first use because they do not depend on the time slice.
+	 */
+	private double[][] averageNorm = null;
+
+	/**
+	 * Create a kernel incidence structure from one (row, column, level) triplet and date-time stamp per statement. The
+	 * statements keep their relative order within each cell.
+	 *
+	 * @param numRows The number of rows (i.e., the number of variable 1 labels).
+	 * @param numColumns The number of columns (i.e., the number of variable 2 labels).
+	 * @param numLevels The number of qualifier levels (at least 1).
+	 * @param rows The row index of each statement.
+	 * @param columns The column index of each statement.
+	 * @param levels The qualifier level index of each statement.
+	 * @param dateTimes The date-time stamp of each statement.
+	 * @param kernel The kernel function ({@code "uniform"}, {@code "epanechnikov"}, {@code "triangular"}, or
+	 *   {@code "gaussian"}).
+	 * @param windowSize The width of the kernel, {@code w}.
+	 * @param timeWindow The time unit. Valid values are {@code "seconds"}, {@code "minutes"}, {@code "hours"},
+	 *   {@code "days"}, {@code "weeks"}, {@code "months"}, and {@code "years"}.
+	 */
+	KernelIncidence(int numRows, int numColumns, int numLevels, int[] rows, int[] columns, int[] levels, LocalDateTime[] dateTimes, String kernel, int windowSize, String timeWindow) {
+		this.numRows = numRows;
+		this.numColumns = numColumns;
+		this.numLevels = numLevels;
+		this.windowSize = windowSize;
+		this.timeWindow = timeWindow;
+		switch (kernel) {
+			case "uniform":
+				this.kernel = UNIFORM;
+				break;
+			case "epanechnikov":
+				this.kernel = EPANECHNIKOV;
+				break;
+			case "triangular":
+				this.kernel = TRIANGULAR;
+				break;
+			case "gaussian":
+				this.kernel = GAUSSIAN;
+				break;
+			default:
+				this.kernel = OTHER;
+		}
+
+		// stable counting sort of the statements by cell
+		int numCells = numRows * numColumns * numLevels;
+		this.cellPointer = new int[numCells + 1];
+		int[] cell = new int[rows.length];
+		for (int s = 0; s < rows.length; s++) {
+			cell[s] = (rows[s] * numColumns + columns[s]) * numLevels + levels[s];
+			cellPointer[cell[s] + 1]++;
+		}
+		for (int c = 0; c < numCells; c++) {
+			cellPointer[c + 1] = cellPointer[c + 1] + cellPointer[c];
+		}
+		this.second = new long[rows.length];
+		this.month = new long[rows.length];
+		this.day = new int[rows.length];
+		int[] fill = new int[numCells];
+		boolean chronological = true;
+		for (int s = 0; s < rows.length; s++) {
+			int position = cellPointer[cell[s]] + fill[cell[s]];
+			second[position] = dateTimes[s].toEpochSecond(ZoneOffset.UTC);
+			month[position] = dateTimes[s].getYear() * 12L + dateTimes[s].getMonthValue() - 1;
+			day[position] = dateTimes[s].getDayOfMonth();
+			if (fill[cell[s]] > 0 && second[position - 1] > second[position]) {
+				chronological = false;
+			}
+			fill[cell[s]]++;
+		}
+		this.chronological = chronological;
+	}
+
+	/**
+	 * Create a kernel incidence structure from a three-dimensional array with the statements of each cell.
+	 *
+	 * @param X The 3D array of statement array lists (variable 1 x variable 2 x qualifier level).
+	 * @param kernel The kernel function.
+	 * @param windowSize The width of the kernel, {@code w}.
+	 * @param timeWindow The time unit.
+	 * @return A new kernel incidence structure.
+	 */
+	static KernelIncidence fromArray(ArrayList<ExportStatement>[][][] X, String kernel, int windowSize, String timeWindow) {
+		int numRows = X.length;
+		int numColumns = numRows == 0 ? 0 : X[0].length;
+		int numLevels = numColumns == 0 ? 1 : X[0][0].length;
+		int n = 0;
+		for (int i = 0; i < numRows; i++) {
+			for (int j = 0; j < numColumns; j++) {
+				for (int k = 0; k < numLevels; k++) {
+					n = n + X[i][j][k].size();
+				}
+			}
+		}
+		int[] rows = new int[n];
+		int[] columns = new int[n];
+		int[] levels = new int[n];
+		LocalDateTime[] dateTimes = new LocalDateTime[n];
+		int s = 0;
+		for (int i = 0; i < numRows; i++) {
+			for (int j = 0; j < numColumns; j++) {
+				for (int k = 0; k < numLevels; k++) {
+					for (ExportStatement statement : X[i][j][k]) {
+						rows[s] = i;
+						columns[s] = j;
+						levels[s] = k;
+						dateTimes[s] = statement.getDateTime();
+						s++;
+					}
+				}
+			}
+		}
+		return new KernelIncidence(numRows, numColumns, numLevels, rows, columns, levels, dateTimes, kernel, windowSize, timeWindow);
+	}
+
+	/**
+	 * The statements of each cell that are inside the support of the kernel for a given mid-point, along with their
+	 * kernel weights.
+	 */
+	private class Slice {
+		/**
+		 * First statement of each cell in the support.
+		 */
+		final int[] from;
+		/**
+		 * Statement after the last statement of each cell in the support.
+		 */
+		final int[] to;
+		/**
+		 * Kernel weight of each statement; only defined for statements inside the support.
+		 */
+		final double[] weight;
+		/**
+		 * Is the statement inside the support? Only used if the cells are not in chronological order.
+		 */
+		final boolean[] inside;
+
+		Slice(LocalDateTime gamma, LocalDateTime start, LocalDateTime stop) {
+			int numCells = cellPointer.length - 1;
+			this.from = new int[numCells];
+			this.to = new int[numCells];
+			this.weight = new double[second.length];
+			this.inside = chronological || kernel == GAUSSIAN ? null : new boolean[second.length];
+			long gammaSecond = gamma.toEpochSecond(ZoneOffset.UTC);
+			long gammaMonth = gamma.getYear() * 12L + gamma.getMonthValue() - 1;
+			int gammaDay = gamma.getDayOfMonth();
+			long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+			long stopSecond = stop.toEpochSecond(ZoneOffset.UTC);
+			for (int c = 0; c < numCells; c++) {
+				if (kernel == GAUSSIAN || !chronological) { // the Gaussian kernel has unbounded support
+					from[c] = cellPointer[c];
+					to[c] = cellPointer[c + 1];
+				} else {
+					from[c] = search(cellPointer[c], cellPointer[c + 1], startSecond);
+					to[c] = search(from[c], cellPointer[c + 1], stopSecond + 1);
+				}
+				for (int s = from[c]; s < to[c]; s++) {
+					if (inside != null) {
+						inside[s] = second[s] >= startSecond && second[s] <= stopSecond;
+						if (!inside[s]) {
+							continue;
+						}
+					}
+					weight[s] = zeta(s, gammaSecond, gammaMonth, gammaDay);
+				}
+			}
+		}
+
+		/**
+		 * Should statement {@code s} from the cell range be included?
+		 */
+		boolean includes(int s) {
+			return inside == null || inside[s];
+		}
+	}
+
+	/**
+	 * Find the first statement in a chronological range that is not before a given time.
+	 *
+	 * @param low The first statement of the range.
+	 * @param high The statement after the last statement of the range.
+	 * @param time The time in seconds since 1 January 1970.
+	 * @return The index of the first statement at or after {@code time}, or {@code high} if there is none.
+	 */
+	private int search(int low, int high, long time) {
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (second[mid] < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Return a standardized time weight after applying the kernel function to the difference between the time of a
+	 * statement and the mid-point gamma. The differences are computed in the same way as {@link java.time.Duration}
+	 * (truncated towards zero) and {@link java.time.Period} (for months and years) would compute them.
+	 *
+	 * @param s The index of the statement.
+	 * @param gammaSecond The mid-point in seconds since 1 January 1970.
+	 * @param gammaMonth The mid-point as a proleptic month.
+	 * @param gammaDay The day of the month of the mid-point.
+	 * @return Kernel-weighted time difference between the statement and gamma.
+	 */
+	private double zeta(int s, long gammaSecond, long gammaMonth, int gammaDay) {
+		long diff = 0;
+		long seconds = gammaSecond - second[s];
+		long months;
+		switch (timeWindow) {
+			case "seconds":
+				diff = seconds;
+				break;
+			case "minutes":
+				diff = seconds / 60;
+				break;
+			case "hours":
+				diff = seconds / 3600;
+				break;
+			case "days":
+				diff = seconds / 86400;
+				break;
+			case "weeks":
+				diff = (seconds / 86400) / 7;
+				break;
+			case "months":
+				months = periodMonths(s, gammaMonth, gammaDay);
+				diff = months;
+				break;
+			case "years":
+				months = periodMonths(s, gammaMonth, gammaDay);
+				diff = months / 12;
+				break;
+		}
+
+		double diff_std = 2 * (double) diff / (double) windowSize; // standardised time difference between -1 and 1
+
+		if (kernel == UNIFORM) {
+			if (diff_std >= -1 && diff_std <= 1) {
+				return 0.5;
+			} else {
+				return 0.0;
+			}
+		} else if (kernel == EPANECHNIKOV) {
+			if (diff_std >= -1 && diff_std <= 1) {
+				return 0.75 * (1.0 - diff_std) * (1.0 - diff_std);
+			} else {
+				return 0.0;
+			}
+		} else if (kernel == TRIANGULAR) {
+			if (diff_std >= -1 && diff_std <= 1) {
+				return Math.abs(1.0 - diff_std);
+			} else {
+				return 0.0;
+			}
+		} else if (kernel == GAUSSIAN) {
+			return (1.0 / Math.sqrt(2.0 * Math.PI)) * Math.exp(-0.5 * diff_std * diff_std);
+		}
+		return 0.0;
+	}
+
+	/**
+	 * Number of complete months between the date of a statement and gamma, as in {@link java.time.Period#between}.
+	 */
+	private long periodMonths(int s, long gammaMonth, int gammaDay) {
+		long totalMonths = gammaMonth - month[s];
+		int days = gammaDay - day[s];
+		if (totalMonths > 0 && days < 0) {
+			totalMonths--;
+		} else if (totalMonths < 0 && days > 0) {
+			totalMonths++;
+		}
+		return totalMonths;
+	}
+
+	/**
+	 * Compute a kernel-weighted two-mode network matrix for a time slice.
+	 *
+	 * @param gamma The mid-point of the time slice.
+	 * @param start The start of the support of the kernel (ignored for the Gaussian kernel).
+	 * @param stop The end of the support of the kernel (ignored for the Gaussian kernel).
+	 * @param aggregation The qualifier aggregation: {@code "ignore"} or {@code "subtract"}.
+	 * @param qualifierType The data type of the qualifier variable (only used with {@code "subtract"}).
+	 * @return A rectangular matrix with the kernel-weighted tie weights.
+	 */
+	double[][] twoMode(LocalDateTime gamma, LocalDateTime start, LocalDateTime stop, String aggregation, String qualifierType) {
+		final boolean ignore = aggregation.equals("ignore");
+		final boolean subtract = aggregation.equals("subtract");
+		final boolean booleanQualifier = "boolean".equals(qualifierType);
+		final boolean integerQualifier = "integer".equals(qualifierType);
+		final boolean textQualifier = "short text".equals(qualifierType);
+		Slice slice = new Slice(gamma, start, stop);
+		double[][] m = new double[numRows][numColumns];
+		for (int i = 0; i < numRows; i++) {
+			for (int j = 0; j < numColumns; j++) {
+				for (int k = 0; k < numLevels; k++) {
+					int c = (i * numColumns + j) * numLevels + k;
+					for (int t = slice.from[c]; t < slice.to[c]; t++) {
+						if (!slice.includes(t)) {
+							continue;
+						}
+						if (ignore) {
+							m[i][j] = m[i][j] + slice.weight[t];
+						} else if (subtract) {
+							if (booleanQualifier) {
+								m[i][j] = m[i][j] + (((double) k) - 0.5) * 2 * slice.weight[t];
+							} else if (integerQualifier) {
+								m[i][j] = m[i][j] + k * slice.weight[t];
+							} else if (textQualifier) {
+								m[i][j] = m[i][j] + slice.weight[t];
+							}
+						}
+					}
+				}
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Compute a kernel-weighted one-mode network matrix for a time slice. The matrix is accumulated column by column,
+	 * and only pairs of rows that have statements inside the support in the current column are visited. Each cell of
+	 * the matrix still receives its terms in the order of the nested loop over columns, levels, and statements.
+	 *
+	 * @param gamma The mid-point of the time slice.
+	 * @param start The start of the support of the kernel (ignored for the Gaussian kernel).
+	 * @param stop The end of the support of the kernel (ignored for the Gaussian kernel).
+	 * @param aggregation The qualifier aggregation: {@code "ignore"}, {@code "congruence"}, {@code "conflict"}, or
+	 *   {@code "subtract"}.
+	 * @param qualifierDistance Are qualifier levels compared by their distance (integer and boolean qualifiers) rather
+	 *   than treated as equally similar (no qualifier, short text, or document-level qualifiers)?
+	 * @param average Apply average normalization?
+	 * @return A square matrix with the kernel-weighted tie weights.
+	 */
+	double[][] oneMode(LocalDateTime gamma, LocalDateTime start, LocalDateTime stop, String aggregation, boolean qualifierDistance, boolean average) {
+		final boolean ignore = aggregation.equals("ignore");
+		final boolean congruence = aggregation.equals("congruence");
+		final boolean conflict = aggregation.equals("conflict");
+		final boolean subtract = aggregation.equals("subtract");
+		double[][] qsim = new double[numLevels][numLevels];
+		for (int k = 0; k < numLevels; k++) {
+			for (int k2 = 0; k2 < numLevels; k2++) {
+				qsim[k][k2] = 1.0;
+				if (qualifierDistance) {
+					qsim[k][k2] = Math.abs(1.0 - ((double) Math.abs(k - k2) / (double) Math.abs(numLevels - 1)));
+				}
+			}
+		}
+
+		Slice slice = new Slice(gamma, start, stop);
+		double[][] m = new double[numRows][numRows];
+		int[] active = new int[numRows];
+		for (int j = 0; j < numColumns; j++) {
+			// rows with at least one statement inside the support in column j
+			int numActive = 0;
+			for (int i = 0; i < numRows; i++) {
+				for (int k = 0; k < numLevels; k++) {
+					int c = (i * numColumns + j) * numLevels + k;
+					if (slice.from[c] < slice.to[c]) {
+						active[numActive] = i;
+						numActive++;
+						break;
+					}
+				}
+			}
+			for (int a1 = 0; a1 < numActive; a1++) {
+				int i = active[a1];
+				for (int a2 = 0; a2 < numActive; a2++) {
+					int i2 = active[a2];
+					for (int k = 0; k < numLevels; k++) {
+						int c1 = (i * numColumns + j) * numLevels + k;
+						for (int k2 = 0; k2 < numLevels; k2++) {
+							int c2 = (i2 * numColumns + j) * numLevels + k2;
+							double qdiff = 1.0 - qsim[k][k2];
+							for (int t = slice.from[c1]; t < slice.to[c1]; t++) {
+								if (!slice.includes(t)) {
+									continue;
+								}
+								double z1 = slice.weight[t];
+								for (int t2 = slice.from[c2]; t2 < slice.to[c2]; t2++) {
+									if (!slice.includes(t2)) {
+										continue;
+									}
+									double z = Math.sqrt(z1 * slice.weight[t2]);
+									if (congruence) {
+										m[i][i2] = m[i][i2] + qsim[k][k2] * z;
+									} else if (conflict) {
+										m[i][i2] = m[i][i2] + qdiff * z;
+									} else if (subtract) {
+										m[i][i2] = m[i][i2] + qsim[k][k2] * z - qdiff * z;
+									} else if (ignore) {
+										m[i][i2] = m[i][i2] + z;
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		if (average) {
+			double[][] norm = getAverageNorm();
+			for (int i = 0; i < numRows; i++) {
+				for (int i2 = 0; i2 < numRows; i2++) {
+					if (m[i][i2] != 0.0 && norm[i][i2] != 0.0) {
+						m[i][i2] = m[i][i2] * norm[i][i2];
+					}
+				}
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Get the denominators for average normalization. They are computed from the total number of statements per cell
+	 * and are therefore the same for all time slices.
+	 *
+	 * @return A square matrix with the normalization factor for each pair of rows.
+	 */
+	private synchronized double[][] getAverageNorm() {
+		if (this.averageNorm == null) {
+			double[][] norm = new double[numRows][numRows];
+			for (int i = 0; i < numRows; i++) {
+				for (int i2 = 0; i2 < numRows; i2++) {
+					for (int j = 0; j < numColumns; j++) {
+						for (int k = 0; k < numLevels; k++) {
+							int size1 = cellPointer[(i * numColumns + j) * numLevels + k + 1] - cellPointer[(i * numColumns + j) * numLevels + k];
+							int size2 = cellPointer[(i2 * numColumns + j) * numLevels + k + 1] - cellPointer[(i2 * numColumns + j) * numLevels + k];
+							if (size1 + size2 != 0.0) {
+								norm[i][i2] = norm[i][i2] + 2.0 / (size1 + size2);
+							}
+						}
+					}
+				}
+			}
+			this.averageNorm = norm;
+		}
+		return this.averageNorm;
+	}
+}
@@ -0,0 +1,297 @@
+package dna.export;
+
+import java.util.Arrays;
+
+/**
+ * A sparse three-dimensional incidence structure (variable 1 x variable 2 x qualifier level) holding statement counts.
+ * This is the sparse counterpart of the dense {@code double[][][]} array used in the {@link Exporter} class. Each row
+ * (e.g., an organization) stores its non-zero columns (e.g., concepts) in ascending order in compressed sparse row
+ * (CSR) format, and each row-column cell in turn stores its non-zero qualifier levels and counts in ascending order.
+ * A compressed sparse column (CSC) index over the same cells is kept to find all rows that share a column.
+ *
+ * <p>The one-mode projection is computed as a sparse product: only pairs of rows that share at least one column are
+ * visited, and the qualifier aggregation rule is applied per non-zero pair. For the {@code "conflict"} and
+ * {@code "subtract"} rules with a short text or document-level qualifier, which also yield ties between rows without
+ * any shared column, the row totals are combined with the shared-cell sums in closed form. Terms are added in the same
+ * order as in the dense loop, so the results are identical to the dense computation.
+ */
+class SparseIncidence {
+	private final int numRows, numColumns, numLevels;
+
+	/**
+	 * Start index of the cells of each row in {@link #cellColumn}; length {@code numRows + 1}.
+	 */
+	private final int[] rowPointer;
+	/**
+	 * Column index of each row-column cell, in ascending order within each row.
+	 */
+	private final int[] cellColumn;
+	/**
+	 * Start index of the qualifier levels of each cell in {@link #entryLevel}; length {@code number of cells + 1}.
+	 */
+	private final int[] cellPointer;
+	/**
+	 * Qualifier level index of each non-zero entry, in ascending order within each cell.
+	 */
+	private final int[] entryLevel;
+	/**
+	 * Count of each non-zero entry.
+	 */
+	private final double[] entryCount;
+	/**
+	 * Sum of the counts across qualifier levels for each cell.
+	 */
+	private final double[] cellTotal;
+	/**
+	 * Sum of all counts in each row.
+	 */
+	private final double[] rowTotal;
+
+	/**
+	 * Start index of the cells of each column in {@link #columnCell}; length {@code numColumns + 1}.
+	 */
+	private final int[] columnPointer;
+	/**
+	 * Cell indices sorted by column and then by row.
+	 */
+	private final int[] columnCell;
+	/**
+	 * Row index of each cell.
+	 */
+	private final int[] cellRow;
+
+	/**
+	 * Create a sparse incidence structure from one (row, column, level) triplet per statement. Every statement adds a
+	 * count of one to its cell, analogous to the dense array.
+	 *
+	 * @param numRows The number of rows (i.e., the number of variable 1 labels).
+	 * @param numColumns The number of columns (i.e., the number of variable 2 labels).
+	 * @param numLevels The number of qualifier levels (at least 1).
+	 * @param rows The row index of each statement.
+	 * @param columns The column index of each statement.
+	 * @param levels The qualifier level index of each statement.
+	 */
+	SparseIncidence(int numRows, int numColumns, int numLevels, int[] rows, int[] columns, int[] levels) {
+		this.numRows = numRows;
+		this.numColumns = numColumns;
+		this.numLevels = numLevels;
+
+		// sort composite keys to group identical triplets and order them by row, column, and level
+		long[] keys = new long[rows.length];
+		for (int s = 0; s < rows.length; s++) {
+			keys[s] = ((long) rows[s] * numColumns + columns[s]) * numLevels + levels[s];
+		}
+		Arrays.sort(keys);
+
+		// count distinct entries and distinct cells
+		int numEntries = 0;
+		int numCells = 0;
+		for (int s = 0; s < keys.length; s++) {
+			if (s == 0 || keys[s] != keys[s - 1]) {
+				numEntries++;
+				if (s == 0 || keys[s] / numLevels != keys[s - 1] / numLevels) {
+					numCells++;
+				}
+			}
+		}
+
+		// populate CSR arrays
+		this.rowPointer = new int[numRows + 1];
+		this.cellColumn = new int[numCells];
+		this.cellRow = new int[numCells];
+		this.cellPointer = new int[numCells + 1];
+		this.cellTotal = new double[numCells];
+		this.entryLevel = new int[numEntries];
+		this.entryCount = new double[numEntries];
+		this.rowTotal = new double[numRows];
+		int entry = -1;
+		int cell = -1;
+		for (int s = 0; s < keys.length; s++) {
+			if (s == 0 || keys[s] != keys[s - 1]) {
+				entry++;
+				if (s == 0 || keys[s] / numLevels != keys[s - 1] / numLevels) {
+					cell++;
+					long rowColumn = keys[s] / numLevels;
+					cellRow[cell] = (int) (rowColumn / numColumns);
+					cellColumn[cell] = (int) (rowColumn % numColumns);
+					cellPointer[cell] = entry;
+					rowPointer[cellRow[cell] + 1]++;
+				}
+				entryLevel[entry] = (int) (keys[s] % numLevels);
+			}
+			entryCount[entry] = entryCount[entry] + 1.0;
+			cellTotal[cell] = cellTotal[cell] + 1.0;
+			rowTotal[cellRow[cell]] = rowTotal[cellRow[cell]] + 1.0;
+		}
+		cellPointer[numCells] = numEntries;
+		for (int i = 0; i < numRows; i++) {
+			rowPointer[i + 1] = rowPointer[i + 1] + rowPointer[i];
+		}
+
+		// populate CSC index; cells are already sorted by row, so rows remain sorted within each column
+		this.columnPointer = new int[numColumns + 1];
+		for (int c = 0; c < numCells; c++) {
+			columnPointer[cellColumn[c] + 1]++;
+		}
+		for (int j = 0; j < numColumns; j++) {
+			columnPointer[j + 1] = columnPointer[j + 1] + columnPointer[j];
+		}
+		this.columnCell = new int[numCells];
+		int[] fill = Arrays.copyOf(columnPointer, numColumns);
+		for (int c = 0; c < numCells; c++) {
+			columnCell[fill[cellColumn[c]]++] = c;
+		}
+	}
+
+	/**
+	 * Get the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	int getNumRows() {
+		return this.numRows;
+	}
+
+	/**
+	 * Get the number of stored row-column cells with at least one statement.
+	 *
+	 * @return The number of non-zero cells.
+	 */
+	int getNumCells() {
+		return this.cellColumn.length;
+	}
+
+	/**
+	 * Compute a one-mode projection of the incidence structure onto its rows.
+	 *
+	 * @param aggregation The qualifier aggregation: {@code "ignore"}, {@code "congruence"}, {@code "conflict"}, or
+	 *   {@code "subtract"}.
+	 * @param normalization The normalization: {@code "no"}, {@code "average"}, {@code "jaccard"}, or {@code "cosine"}.
+	 * @param textQualifier Is the qualifier a short text or document-level variable? If so, levels are compared for
+	 *   identity. Otherwise, levels are compared by their distance on the integer scale in {@code qualifierInteger}.
+	 * @param qualifierInteger The integer value of each qualifier level (only used if {@code textQualifier} is false).
+	 * @return A square matrix with the normalized tie weights and zeros on the diagonal.
+	 */
+	double[][] oneModeProjection(String aggregation, String normalization, boolean textQualifier, int[] qualifierInteger) {
+		final boolean ignore = aggregation.equals("ignore");
+		final boolean congruence = aggregation.equals("congruence");
+		final boolean conflict = aggregation.equals("conflict");
+		final boolean subtract = aggregation.equals("subtract");
+		final boolean weighted = !ignore && !textQualifier && (congruence || conflict || subtract);
+		final boolean jaccard = normalization.equals("jaccard");
+		final boolean overlap = jaccard || (textQualifier && !ignore); // are shared-entry sums required?
+
+		// qualifier distances between levels for integer and boolean qualifiers
+		double range = Math.abs(qualifierInteger[qualifierInteger.length - 1] - qualifierInteger[0]);
+		double[][] distance = null;
+		if (weighted) {
+			distance = new double[numLevels][numLevels];
+			for (int k1 = 0; k1 < numLevels; k1++) {
+				for (int k2 = 0; k2 < numLevels; k2++) {
+					distance[k1][k2] = Math.abs(qualifierInteger[k1] - qualifierInteger[k2]) / range;
+				}
+			}
+		}
+
+		double[][] mat = new double[numRows][numRows];
+		double[] raw = new double[numRows]; // aggregated tie weight before normalization
+		double[] shared1 = new double[numRows]; // counts of the focal row in entries that are non-zero in both rows
+		double[] shared2 = new double[numRows]; // counts of the other row in entries that are non-zero in both rows
+		double[] product = new double[numRows]; // sum of products of counts in entries that are non-zero in both rows
+		for (int i1 = 0; i1 < numRows; i1++) {
+			Arrays.fill(raw, 0.0);
+			if (overlap) {
+				Arrays.fill(shared1, 0.0);
+				Arrays.fill(shared2, 0.0);
+				Arrays.fill(product, 0.0);
+			}
+
+			// visit all rows that share a column with i1, in ascending column order
+			for (int c1 = rowPointer[i1]; c1 < rowPointer[i1 + 1]; c1++) {
+				int j = cellColumn[c1];
+				for (int p = columnPointer[j]; p < columnPointer[j + 1]; p++) {
+					int c2 = columnCell[p];
+					int i2 = cellRow[c2];
+					if (i2 == i1) {
+						continue;
+					}
+					if (ignore) {
+						raw[i2] = raw[i2] + cellTotal[c1] * cellTotal[c2];
+					} else if (weighted) {
+						for (int e1 = cellPointer[c1]; e1 < cellPointer[c1 + 1]; e1++) {
+							for (int e2 = cellPointer[c2]; e2 < cellPointer[c2 + 1]; e2++) {
+								double d = distance[entryLevel[e1]][entryLevel[e2]];
+								double w = entryCount[e1] * entryCount[e2];
+								if (congruence) {
+									raw[i2] = raw[i2] + (w * (1.0 - d));
+								} else if (conflict) {
+									raw[i2] = raw[i2] + (w * d);
+								} else {
+									raw[i2] = raw[i2] + (w * (1.0 - d));
+									raw[i2] = raw[i2] - (w * d);
+								}
+							}
+						}
+					}
+					if (overlap) {
+						// merge the sorted level lists of both cells to find entries that are non-zero in both rows
+						int e1 = cellPointer[c1];
+						int e2 = cellPointer[c2];
+						while (e1 < cellPointer[c1 + 1] && e2 < cellPointer[c2 + 1]) {
+							if (entryLevel[e1] < entryLevel[e2]) {
+								e1++;
+							} else if (entryLevel[e1] > entryLevel[e2]) {
+								e2++;
+							} else {
+								product[i2] = product[i2] + entryCount[e1] * entryCount[e2];
+								shared1[i2] = shared1[i2] + entryCount[e1];
+								shared2[i2] = shared2[i2] + entryCount[e2];
+								e1++;
+								e2++;
+							}
+						}
+					}
+				}
+			}
+
+			// apply the remaining aggregation rules and the normalization to all pairs involving i1
+			for (int i2 = 0; i2 < numRows; i2++) {
+				if (i1 == i2) {
+					continue;
+				}
+				double t1 = rowTotal[i1];
+				double t2 = rowTotal[i2];
+				double value = 0.0;
+				if (ignore) {
+					value = raw[i2];
+				} else if (weighted) {
+					value = range == 0 && numColumns > 0 ? Double.NaN : raw[i2]; // the dense loop divides by a zero range
+				} else if (textQualifier) {
+					double exclusive = (t1 - shared1[i2]) + (t2 - shared2[i2]); // counts where only one of the rows is active
+					if (congruence) {
+						value = product[i2];
+					} else if (conflict) {
+						value = exclusive;
+					} else if (subtract) {
+						value = product[i2] - exclusive;
+					}
+				}
+
+				double norm = 1.0;
+				if (normalization.equals("average")) {
+					norm = (t1 + t2) / 2;
+				} else if (jaccard) {
+					norm = (t2 - shared2[i2]) + (t1 - shared1[i2]) + product[i2];
+				} else if (normalization.equals("cosine")) {
+					norm = Math.sqrt(t1 * t1) * Math.sqrt(t2 * t2);
+				}
+				if (norm == 0) {
+					mat[i1][i2] = 0;
+				} else {
+					mat[i1][i2] = value / norm;
+				}
+			}
+		}
+		return mat;
+	}
+}
@@ -0,0 +1,677 @@
+package dna.export;
+
+import model.Color;
+import model.Entity;
+import model.Statement;
+import model.StatementType;
+import model.TableDocument;
+import model.Value;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A column-oriented store of the statements of one statement type, as loaded by the {@link Exporter}. Instead of one
+ * object with its own value map and copies of the document meta-data per statement, each statement is a row index into
+ * a set of primitive arrays. Variable values and document fields are dictionary-encoded: every row holds an
+ * {@code int} code, and each distinct value or label is stored only once per variable. Codes are assigned by label, so
+ * two rows have the same code for a variable if and only if they have the same label. Dates are stored as seconds
+ * since 1 January 1970 (UTC), as in the database.
+ *
+ * <p>{@link ExportStatement} objects are lightweight views on single rows of this table.
+ */
+class StatementTable {
+	/**
+	 * The document-level variables that can be used instead of statement-level variables.
+	 */
+	static final String[] DOCUMENT_FIELDS = new String[] {"id", "title", "author", "source", "section", "type"};
+
+	private final int size;
+	private final int[] id, start, stop, coderIndex, documentIndex;
+	private final long[] time;
+	private final String[] text;
+
+	private final int statementTypeId;
+	private final String statementTypeLabel;
+	private final Color statementTypeColor;
+
+	// coder dictionary
+	private final int[] coderId;
+	private final String[] coderName;
+	private final Color[] coderColor;
+
+	// document dictionary; each document field is dictionary-encoded again across documents
+	private final int[] documentId;
+	private final LocalDateTime[] documentDateTime;
+	private final LabelColumn[] documentFields;
+
+	// statement-level variables in the order of the statement type
+	private final HashMap<String, Integer> variableMap;
+	private final Value[] variables;
+	private final LabelColumn[] variableColumns;
+
+	/**
+	 * A dictionary-encoded column of labels, either for a statement-level variable or for a document field. For
+	 * integer and boolean variables, the label is the number as a string.
+	 */
+	static class LabelColumn {
+		private final int[] codes;
+		private final int[] index;
+		private final String[] labels;
+		private final Object[] values;
+		private final int[] integers;
+
+		/**
+		 * Create a label column.
+		 *
+		 * @param codes The code of each row (or of each document if {@code index} is not {@code null}).
+		 * @param index The document index of each row, or {@code null} if the codes are indexed by row.
+		 * @param labels The label of each code.
+		 * @param values The value object of each code, i.e., an {@link Entity}, {@link String}, or {@link Integer}.
+		 * @param integers The integer value of each code for integer and boolean variables, or {@code null}.
+		 */
+		private LabelColumn(int[] codes, int[] index, String[] labels, Object[] values, int[] integers) {
+			this.codes = codes;
+			this.index = index;
+			this.labels = labels;
+			this.values = values;
+			this.integers = integers;
+		}
+
+		/**
+		 * Get the code of a row.
+		 *
+		 * @param row The row index.
+		 * @return The code, between 0 and {@link #size()} - 1.
+		 */
+		int code(int row) {
+			return this.index == null ? this.codes[row] : this.codes[this.index[row]];
+		}
+
+		/**
+		 * Get the number of distinct codes.
+		 *
+		 * @return The dictionary size.
+		 */
+		int size() {
+			return this.labels.length;
+		}
+
+		/**
+		 * Get the label of a code.
+		 *
+		 * @param code The code.
+		 * @return The label.
+		 */
+		String getLabel(int code) {
+			return this.labels[code];
+		}
+
+		/**
+		 * Get the label of a row.
+		 *
+		 * @param row The row index.
+		 * @return The label.
+		 */
+		String label(int row) {
+			return this.labels[code(row)];
+		}
+
+		/**
+		 * Get the integer value of a code. Only defined for integer and boolean variables.
+		 *
+		 * @param code The code.
+		 * @return The integer value, or 0 if the value is missing.
+		 */
+		int getInteger(int code) {
+			return this.integers[code];
+		}
+
+		/**
+		 * Get the value object of a row.
+		 *
+		 * @param row The row index.
+		 * @return The {@link Entity}, {@link String}, or {@link Integer} value, or {@code null} if missing.
+		 */
+		Object value(int row) {
+			return this.values[code(row)];
+		}
+
+		/**
+		 * Roughly estimate the memory used by the column.
+		 *
+		 * @return The estimated number of bytes.
+		 */
+		long estimateMemorySize() {
+			long bytes = 4L * this.codes.length + 12L * this.labels.length; // codes, label and value references
+			for (String label : this.labels) {
+				bytes = bytes + StatementTable.estimateMemorySize(label);
+			}
+			if (this.integers != null) {
+				bytes = bytes + 4L * this.integers.length;
+			}
+			return bytes;
+		}
+	}
+
+	/**
+	 * Roughly estimate the memory used by a string, including the object header.
+	 *
+	 * @param s The string. Can be {@code null}.
+	 * @return The estimated number of bytes.
+	 */
+	static long estimateMemorySize(String s) {
+		return s == null ? 0 : 40 + 2L * s.length();
+	}
+
+	/**
+	 * Accumulates a dictionary while codes are assigned to labels.
+	 */
+	private static class Dictionary {
+		private final HashMap<String, Integer> map = new HashMap<String, Integer>();
+		private final ArrayList<String> labels = new ArrayList<String>();
+		private final ArrayList<Object> values = new ArrayList<Object>();
+
+		/**
+		 * Get the code of a label, adding it to the dictionary if necessary.
+		 *
+		 * @param label The label.
+		 * @param value The value object belonging to the label, or {@code null} if the value is missing.
+		 * @return The code.
+		 */
+		int encode(String label, Object value) {
+			Integer code = this.map.get(label);
+			if (code == null) {
+				code = this.labels.size();
+				this.map.put(label, code);
+				this.labels.add(label);
+				this.values.add(value);
+			} else if (this.values.get(code) == null && value != null) {
+				this.values.set(code, value); // a missing value and an empty entity share the empty label
+			}
+			return code;
+		}
+
+		/**
+		 * Convert the dictionary into a label column.
+		 *
+		 * @param codes The codes.
+		 * @param index The document index of each row, or {@code null} if the codes are indexed by row.
+		 * @param integer Are the values integers?
+		 * @return The label column.
+		 */
+		LabelColumn toColumn(int[] codes, int[] index, boolean integer) {
+			int[] integers = null;
+			if (integer) {
+				integers = new int[this.values.size()];
+				for (int i = 0; i < integers.length; i++) {
+					integers[i] = this.values.get(i) == null ? 0 : (Integer) this.values.get(i);
+				}
+			}
+			return new LabelColumn(codes, index, this.labels.toArray(new String[0]), this.values.toArray(), integers);
+		}
+	}
+
+	/**
+	 * Accumulates the rows of a statement table while statements are streamed from the database, so the statements do
+	 * not have to be kept in memory as objects. The documents are only needed when the table is built, so they can be
+	 * loaded after all statements have been added.
+	 */
+	static class Builder {
+		private final StatementType statementType;
+		private final Value[] variables;
+		private final HashMap<String, Integer> variableMap = new HashMap<String, Integer>();
+		private final Dictionary[] variableDictionaries;
+		private final boolean[] found;
+
+		private int size = 0;
+		private int[] id, start, stop, coderIndex, documentIndex;
+		private long[] time;
+		private String[] text;
+		private int[][] variableCodes;
+
+		// documents and coders are indexed in the order of their first occurrence
+		private final HashMap<Integer, Integer> coderMap = new HashMap<Integer, Integer>();
+		private final ArrayList<Integer> coderIds = new ArrayList<Integer>();
+		private final ArrayList<String> coderNames = new ArrayList<String>();
+		private final ArrayList<Color> coderColors = new ArrayList<Color>();
+		private final HashMap<Integer, Integer> documentMap = new HashMap<Integer, Integer>();
+		private final ArrayList<Integer> documentIds = new ArrayList<Integer>();
+		private final ArrayList<LocalDateTime> dateTimes = new ArrayList<LocalDateTime>();
+
+		/**
+		 * Create an empty builder.
+		 *
+		 * @param statementType The statement type of the statements.
+		 */
+		Builder(StatementType statementType) {
+			this.statementType = statementType;
+			this.variables = statementType.getVariables().toArray(new Value[0]);
+			this.variableDictionaries = new Dictionary[variables.length];
+			this.found = new boolean[variables.length];
+			for (int v = 0; v < variables.length; v++) {
+				this.variableMap.put(variables[v].getKey(), v);
+				this.variableDictionaries[v] = new Dictionary();
+			}
+			allocate(1024);
+		}
+
+		/**
+		 * Resize the row arrays.
+		 *
+		 * @param capacity The new number of rows that fit into the arrays.
+		 */
+		private void allocate(int capacity) {
+			this.id = this.id == null ? new int[capacity] : Arrays.copyOf(this.id, capacity);
+			this.start = this.start == null ? new int[capacity] : Arrays.copyOf(this.start, capacity);
+			this.stop = this.stop == null ? new int[capacity] : Arrays.copyOf(this.stop, capacity);
+			this.coderIndex = this.coderIndex == null ? new int[capacity] : Arrays.copyOf(this.coderIndex, capacity);
+			this.documentIndex = this.documentIndex == null ? new int[capacity] : Arrays.copyOf(this.documentIndex, capacity);
+			this.time = this.time == null ? new long[capacity] : Arrays.copyOf(this.time, capacity);
+			this.text = this.text == null ? new String[capacity] : Arrays.copyOf(this.text, capacity);
+			if (this.variableCodes == null) {
+				this.variableCodes = new int[variables.length][capacity];
+			} else {
+				for (int v = 0; v < variables.length; v++) {
+					this.variableCodes[v] = Arrays.copyOf(this.variableCodes[v], capacity);
+				}
+			}
+		}
+
+		/**
+		 * Add a statement as the next row. Statements must be added in the order of {@link
+		 * Statement#compareTo(Statement)}.
+		 *
+		 * @param s The statement.
+		 */
+		void add(Statement s) {
+			if (this.size == this.id.length) {
+				allocate(2 * this.size);
+			}
+			int i = this.size;
+			this.id[i] = s.getId();
+			this.start[i] = s.getStart();
+			this.stop[i] = s.getStop();
+			this.text[i] = s.getText();
+			this.time[i] = s.getDateTime().toEpochSecond(ZoneOffset.UTC);
+
+			Integer c = this.coderMap.get(s.getCoderId());
+			if (c == null) {
+				c = this.coderIds.size();
+				this.coderMap.put(s.getCoderId(), c);
+				this.coderIds.add(s.getCoderId());
+				this.coderNames.add(s.getCoderName());
+				this.coderColors.add(s.getCoderColor());
+			}
+			this.coderIndex[i] = c;
+
+			Integer d = this.documentMap.get(s.getDocumentId());
+			if (d == null) {
+				d = this.documentIds.size();
+				this.documentMap.put(s.getDocumentId(), d);
+				this.documentIds.add(s.getDocumentId());
+				this.dateTimes.add(s.getDateTime());
+			}
+			this.documentIndex[i] = d;
+
+			// encode values; variables without a value in the statement are coded as empty
+			for (int v = 0; v < variables.length; v++) {
+				this.found[v] = false;
+			}
+			for (Value value : s.getValues()) {
+				Integer v = this.variableMap.get(value.getKey());
+				if (v == null) {
+					continue;
+				}
+				Object object = value.getValue();
+				String label;
+				if (object == null) {
+					label = "";
+				} else if (value.getDataType().equals("short text")) {
+					label = ((Entity) object).getValue();
+				} else {
+					label = object.toString();
+				}
+				this.variableCodes[v][i] = this.variableDictionaries[v].encode(label, object);
+				this.found[v] = true;
+			}
+			for (int v = 0; v < variables.length; v++) {
+				if (!this.found[v]) {
+					this.variableCodes[v][i] = this.variableDictionaries[v].encode("", null);
+				}
+			}
+			this.size++;
+		}
+
+		/**
+		 * Get the IDs of the documents that contain the statements added so far.
+		 *
+		 * @return The distinct document IDs in the order of their first occurrence.
+		 */
+		int[] getDocumentIds() {
+			return this.documentIds.stream().mapToInt(d -> d).toArray();
+		}
+
+		/**
+		 * Create the statement table from the rows added so far.
+		 *
+		 * @param documents The documents containing the statements.
+		 * @param docMap A map from document IDs to indices in the {@code documents} list.
+		 * @return The statement table.
+		 */
+		StatementTable build(ArrayList<TableDocument> documents, HashMap<Integer, Integer> docMap) {
+			return new StatementTable(this, documents, docMap);
+		}
+	}
+
+	/**
+	 * Create a statement table with a single statement and the meta-data of its document, for example for creating an
+	 * {@link ExportStatement} from a statement that was not loaded by the {@link Exporter}. The variables are taken
+	 * from the values of the statement.
+	 *
+	 * @param statement The statement. Its date/time must be set.
+	 * @param title The document title.
+	 * @param author The author.
+	 * @param source The source.
+	 * @param section The section.
+	 * @param type The type.
+	 * @return The statement table with one row.
+	 */
+	static StatementTable of(Statement statement, String title, String author, String source, String section, String type) {
+		StatementType statementType = new StatementType(statement.getStatementTypeId(), statement.getStatementTypeLabel(),
+				statement.getStatementTypeColor(), statement.getValues());
+		Builder builder = new Builder(statementType);
+		builder.add(statement);
+		ArrayList<TableDocument> documents = new ArrayList<TableDocument>();
+		documents.add(new TableDocument(statement.getDocumentId(), title, 0, null, author, source, section, type, null,
+				statement.getDateTime()));
+		HashMap<Integer, Integer> docMap = new HashMap<Integer, Integer>();
+		docMap.put(statement.getDocumentId(), 0);
+		return builder.build(documents, docMap);
+	}
+
+	/**
+	 * Create a statement table from the rows of a builder.
+	 *
+	 * @param builder The builder.
+	 * @param documents The documents containing the statements.
+	 * @param docMap A map from document IDs to indices in the {@code documents} list.
+	 */
+	private StatementTable(Builder builder, ArrayList<TableDocument> documents, HashMap<Integer, Integer> docMap) {
+		this.size = builder.size;
+		this.id = Arrays.copyOf(builder.id, size);
+		this.start = Arrays.copyOf(builder.start, size);
+		this.stop = Arrays.copyOf(builder.stop, size);
+		this.coderIndex = Arrays.copyOf(builder.coderIndex, size);
+		this.documentIndex = Arrays.copyOf(builder.documentIndex, size);
+		this.time = Arrays.copyOf(builder.time, size);
+		this.text = Arrays.copyOf(builder.text, size);
+		this.statementTypeId = builder.statementType.getId();
+		this.statementTypeLabel = builder.statementType.getLabel();
+		this.statementTypeColor = builder.statementType.getColor();
+
+		this.variables = builder.variables;
+		this.variableMap = builder.variableMap;
+		this.variableColumns = new LabelColumn[variables.length];
+		for (int v = 0; v < variables.length; v++) {
+			boolean integer = variables[v].getDataType().equals("integer") || variables[v].getDataType().equals("boolean");
+			this.variableColumns[v] = builder.variableDictionaries[v].toColumn(Arrays.copyOf(builder.variableCodes[v], size), null, integer);
+		}
+
+		this.coderId = builder.coderIds.stream().mapToInt(c -> c).toArray();
+		this.coderName = builder.coderNames.toArray(new String[0]);
+		this.coderColor = builder.coderColors.toArray(new Color[0]);
+
+		ArrayList<TableDocument> tableDocuments = new ArrayList<TableDocument>();
+		for (Integer d : builder.documentIds) {
+			tableDocuments.add(documents.get(docMap.get(d)));
+		}
+		this.documentId = new int[tableDocuments.size()];
+		this.documentDateTime = builder.dateTimes.toArray(new LocalDateTime[0]);
+		this.documentFields = new LabelColumn[DOCUMENT_FIELDS.length];
+		for (int f = 0; f < DOCUMENT_FIELDS.length; f++) {
+			Dictionary dictionary = new Dictionary();
+			int[] codes = new int[tableDocuments.size()];
+			for (int d = 0; d < tableDocuments.size(); d++) {
+				TableDocument document = tableDocuments.get(d);
+				this.documentId[d] = document.getId();
+				String label;
+				if (DOCUMENT_FIELDS[f].equals("id")) {
+					label = String.valueOf(document.getId());
+				} else if (DOCUMENT_FIELDS[f].equals("title")) {
+					label = document.getTitle();
+				} else if (DOCUMENT_FIELDS[f].equals("author")) {
+					label = document.getAuthor();
+				} else if (DOCUMENT_FIELDS[f].equals("source")) {
+					label = document.getSource();
+				} else if (DOCUMENT_FIELDS[f].equals("section")) {
+					label = document.getSection();
+				} else {
+					label = document.getType();
+				}
+				codes[d] = dictionary.encode(label, label);
+			}
+			this.documentFields[f] = dictionary.toColumn(codes, this.documentIndex, false);
+		}
+	}
+
+	/**
+	 * Get the number of statements.
+	 *
+	 * @return The number of rows.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Roughly estimate the memory used by the table, for example for caching it.
+	 *
+	 * @return The estimated number of bytes.
+	 */
+	long estimateMemorySize() {
+		long bytes = 36L * this.size; // ID, start, stop, coder and document index, time, and text reference of each row
+		for (String t : this.text) {
+			bytes = bytes + estimateMemorySize(t);
+		}
+		bytes = bytes + 40L * this.documentId.length; // document ID and date/time object
+		for (LabelColumn column : this.variableColumns) {
+			bytes = bytes + column.estimateMemorySize();
+		}
+		for (LabelColumn column : this.documentFields) {
+			bytes = bytes + column.estimateMemorySize();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Create a list of {@link ExportStatement} views, one for each row, in row order.
+	 *
+	 * @return The list of views.
+	 */
+	ArrayList<ExportStatement> createViews() {
+		ArrayList<ExportStatement> views = new ArrayList<ExportStatement>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			views.add(new ExportStatement(this, i));
+		}
+		return views;
+	}
+
+	/**
+	 * Compare two rows in the same order as {@link Statement#compareTo(Statement)}: by date/time, document ID, start
+	 * position, stop position, and statement ID.
+	 *
+	 * @param row1 The first row index.
+	 * @param row2 The second row index.
+	 * @return A negative number, zero, or a positive number if the first row comes before, at, or after the second row.
+	 */
+	int compare(int row1, int row2) {
+		if (this.time[row1] != this.time[row2]) {
+			return this.time[row1] < this.time[row2] ? -1 : 1;
+		}
+		if (getDocumentId(row1) != getDocumentId(row2)) {
+			return getDocumentId(row1) < getDocumentId(row2) ? -1 : 1;
+		}
+		if (this.start[row1] != this.start[row2]) {
+			return this.start[row1] < this.start[row2] ? -1 : 1;
+		}
+		if (this.stop[row1] != this.stop[row2]) {
+			return this.stop[row1] < this.stop[row2] ? -1 : 1;
+		}
+		return Integer.compare(this.id[row1], this.id[row2]);
+	}
+
+	/**
+	 * Get the label column of a variable.
+	 *
+	 * @param variable The variable name, for example {@code "organization"}, or a document field, for example
+	 *   {@code "author"}.
+	 * @param documentLevel Is the variable a document-level variable?
+	 * @return The label column, or {@code null} if the variable does not exist.
+	 */
+	LabelColumn getLabelColumn(String variable, boolean documentLevel) {
+		if (documentLevel) {
+			for (int f = 0; f < DOCUMENT_FIELDS.length; f++) {
+				if (DOCUMENT_FIELDS[f].equals(variable)) {
+					return this.documentFields[f];
+				}
+			}
+			return null;
+		}
+		Integer v = this.variableMap.get(variable);
+		return v == null ? null : this.variableColumns[v];
+	}
+
+	/**
+	 * Get the value of a statement-level variable in a row.
+	 *
+	 * @param row The row index.
+	 * @param key The variable name.
+	 * @return The {@link Entity}, {@link String}, or {@link Integer} value, or {@code null} if the variable does not
+	 *   exist or the value is missing.
+	 */
+	Object getValue(int row, String key) {
+		Integer v = this.variableMap.get(key);
+		return v == null ? null : this.variableColumns[v].value(row);
+	}
+
+	/**
+	 * Assemble the values of a row as a new list of {@link Value} objects in the order of the statement type.
+	 *
+	 * @param row The row index.
+	 * @return The values. Entities are shared between rows and should not be modified.
+	 */
+	ArrayList<Value> getValues(int row) {
+		ArrayList<Value> values = new ArrayList<Value>(this.variables.length);
+		for (int v = 0; v < this.variables.length; v++) {
+			Object value = this.variableColumns[v].value(row);
+			if (value != null) {
+				values.add(new Value(this.variables[v].getVariableId(), this.variables[v].getKey(), this.variables[v].getDataType(), value));
+			}
+		}
+		return values;
+	}
+
+	int getId(int row) {
+		return this.id[row];
+	}
+
+	int getStart(int row) {
+		return this.start[row];
+	}
+
+	int getStop(int row) {
+		return this.stop[row];
+	}
+
+	String getText(int row) {
+		return this.text[row];
+	}
+
+	/**
+	 * Get the date/time of a row as seconds since 1 January 1970 (UTC).
+	 *
+	 * @param row The row index.
+	 * @return The date/time in seconds.
+	 */
+	long getTime(int row) {
+		return this.time[row];
+	}
+
+	/**
+	 * Get the date/time of a row. The object is shared between all rows in the same document.
+	 *
+	 * @param row The row index.
+	 * @return The date/time.
+	 */
+	LocalDateTime getDateTime(int row) {
+		return this.documentDateTime[this.documentIndex[row]];
+	}
+
+	int getDocumentId(int row) {
+		return this.documentId[this.documentIndex[row]];
+	}
+
+	/**
+	 * Get the index of the document of a row. Documents are indexed in the order of their first occurrence.
+	 *
+	 * @param row The row index.
+	 * @return The document index, between {@code 0} and {@link #getNumDocuments()} - 1.
+	 */
+	int getDocumentIndex(int row) {
+		return this.documentIndex[row];
+	}
+
+	int getNumDocuments() {
+		return this.documentId.length;
+	}
+
+	/**
+	 * Get the date/time of a document.
+	 *
+	 * @param document The document index, as returned by {@link #getDocumentIndex(int)}.
+	 * @return The date/time.
+	 */
+	LocalDateTime getDocumentDateTime(int document) {
+		return this.documentDateTime[document];
+	}
+
+	/**
+	 * Get a document field of a row.
+	 *
+	 * @param row The row index.
+	 * @param field The field name: {@code "id"}, {@code "title"}, {@code "author"}, {@code "source"},
+	 *   {@code "section"}, or {@code "type"}.
+	 * @return The label of the document field.
+	 */
+	String getDocumentField(int row, String field) {
+		return getLabelColumn(field, true).label(row);
+	}
+
+	int getStatementTypeId() {
+		return this.statementTypeId;
+	}
+
+	String getStatementTypeLabel() {
+		return this.statementTypeLabel;
+	}
+
+	Color getStatementTypeColor() {
+		return this.statementTypeColor;
+	}
+
+	int getCoderId(int row) {
+		return this.coderId[this.coderIndex[row]];
+	}
+
+	String getCoderName(int row) {
+		return this.coderName[this.coderIndex[row]];
+	}
+
+	Color getCoderColor(int row) {
+		return this.coderColor[this.coderIndex[row]];
+	}
+}
@@ -0,0 +1,398 @@
+package dna.export;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A running incidence structure (variable 1 x variable 2 x qualifier level) for a moving time window. Statements are
+ * added when they enter the window and removed when they leave it. Each update also adjusts the pair-wise sums from
+ * which the one-mode projection of the current window is derived, so a window's network can be read off without
+ * recomputing it from the statements. The pair-wise sums are kept in a map that only holds pairs of rows that currently
+ * share a column, so memory grows with the number of co-occurring pairs rather than with the square of the number of
+ * rows; only the projection of a window is a dense matrix.
+ *
+ * <p>All pair-wise sums are integers and are updated exactly. For the aggregation rules and normalizations that only
+ * involve integer sums, the derived matrices are identical to the matrices computed from the statements in the window.
+ * For integer qualifiers with a range larger than one, the qualifier distances are divided by the range at the end, so
+ * the results can differ from the per-window computation in the last bits.
+ */
+class WindowIncidence {
+	private final int numRows, numColumns, numLevels;
+	private final int[] levelDistance; // |q_k1 - q_k2| for all pairs of qualifier levels
+	private final double range;
+	private final boolean textQualifier;
+
+	/**
+	 * For each column, a map from row index to the counts per qualifier level; the last element holds the cell total.
+	 */
+	private final ArrayList<HashMap<Integer, int[]>> cells;
+	private final int[] rowTotal, columnTotal, levelTotal;
+	private int numStatements = 0;
+
+	// indices of the pair-wise sums over all columns in the arrays of {@link #pairs}; only maintained if required
+	private static final int PRODUCT = 0; // sum of products of cell totals
+	private static final int LEVEL_PRODUCT = 1; // sum of products of counts at identical qualifier levels
+	private static final int SHARED = 2; // sum of the counts of row 1 in entries that are non-zero in both rows
+	private static final int DISTANCE = 3; // sum of products of counts weighted by the absolute qualifier difference
+	private final boolean needProduct, needLevelProduct, needShared, needDistance;
+
+	/**
+	 * The pair-wise sums of each ordered pair of rows with at least one non-zero sum, keyed by
+	 * {@code row 1 * numRows + row 2}.
+	 */
+	private final HashMap<Long, long[]> pairs = new HashMap<Long, long[]>();
+
+	/**
+	 * Create an empty incidence structure.
+	 *
+	 * @param numRows The number of rows, i.e., all labels of variable 1 that can occur in any window.
+	 * @param numColumns The number of columns, i.e., all labels of variable 2 that can occur in any window.
+	 * @param numLevels The number of qualifier levels (at least 1).
+	 * @param textQualifier Is the qualifier a short text or document-level variable (or absent)? If so, levels are
+	 *   compared for identity. Otherwise, levels are compared by their distance on the integer scale.
+	 * @param qualifierInteger The integer value of each qualifier level (only used if {@code textQualifier} is false).
+	 * @param oneMode Should the pair-wise sums for one-mode projections be maintained?
+	 * @param aggregations The qualifier aggregations for which one-mode projections will be requested.
+	 * @param normalization The normalization of the one-mode projections.
+	 */
+	WindowIncidence(int numRows, int numColumns, int numLevels, boolean textQualifier, int[] qualifierInteger,
+			boolean oneMode, String[] aggregations, String normalization) {
+		this.numRows = numRows;
+		this.numColumns = numColumns;
+		this.numLevels = numLevels;
+		this.textQualifier = textQualifier;
+		this.range = Math.abs(qualifierInteger[qualifierInteger.length - 1] - qualifierInteger[0]);
+		this.levelDistance = new int[numLevels * numLevels];
+		if (!textQualifier) {
+			for (int k1 = 0; k1 < numLevels; k1++) {
+				for (int k2 = 0; k2 < numLevels; k2++) {
+					this.levelDistance[k1 * numLevels + k2] = Math.abs(qualifierInteger[k1] - qualifierInteger[k2]);
+				}
+			}
+		}
+		this.cells = new ArrayList<HashMap<Integer, int[]>>(numColumns);
+		for (int j = 0; j < numColumns; j++) {
+			this.cells.add(new HashMap<Integer, int[]>());
+		}
+		this.rowTotal = new int[numRows];
+		this.columnTotal = new int[numColumns];
+		this.levelTotal = new int[numLevels];
+
+		// decide which pair-wise sums are needed for the requested projections
+		boolean needProduct = false, needLevelProduct = false, needShared = false, needDistance = false;
+		if (oneMode) {
+			for (String aggregation : aggregations) {
+				if (aggregation.equals("ignore")) {
+					needProduct = true;
+				} else if (!textQualifier) {
+					needProduct = true;
+					needDistance = true;
+				} else {
+					needLevelProduct = true;
+					needShared = true;
+				}
+			}
+			if (normalization.equals("jaccard")) {
+				needLevelProduct = true;
+				needShared = true;
+			}
+		}
+		this.needProduct = needProduct;
+		this.needLevelProduct = needLevelProduct;
+		this.needShared = needShared;
+		this.needDistance = needDistance;
+	}
+
+	/**
+	 * Get the pair-wise sums of an ordered pair of rows for updating them.
+	 *
+	 * @param a The first row index.
+	 * @param b The second row index.
+	 * @return The sums, indexed by {@link #PRODUCT}, {@link #LEVEL_PRODUCT}, {@link #SHARED}, and {@link #DISTANCE}.
+	 */
+	private long[] pair(int a, int b) {
+		long key = (long) a * this.numRows + b;
+		long[] sums = this.pairs.get(key);
+		if (sums == null) {
+			sums = new long[4];
+			this.pairs.put(key, sums);
+		}
+		return sums;
+	}
+
+	/**
+	 * Remove the pair-wise sums of an ordered pair of rows if they are all zero after an update.
+	 *
+	 * @param a The first row index.
+	 * @param b The second row index.
+	 * @param sums The sums of the pair.
+	 */
+	private void release(int a, int b, long[] sums) {
+		if (sums[PRODUCT] == 0 && sums[LEVEL_PRODUCT] == 0 && sums[SHARED] == 0 && sums[DISTANCE] == 0) {
+			this.pairs.remove((long) a * this.numRows + b);
+		}
+	}
+
+	/**
+	 * Add a statement to the window.
+	 *
+	 * @param row The row index of the statement.
+	 * @param column The column index of the statement.
+	 * @param level The qualifier level index of the statement.
+	 */
+	void add(int row, int column, int level) {
+		update(row, column, level, 1);
+	}
+
+	/**
+	 * Remove a statement from the window. The statement must have been added before.
+	 *
+	 * @param row The row index of the statement.
+	 * @param column The column index of the statement.
+	 * @param level The qualifier level index of the statement.
+	 */
+	void remove(int row, int column, int level) {
+		update(row, column, level, -1);
+	}
+
+	/**
+	 * Add or remove a statement and update the pair-wise sums with all other rows in the same column.
+	 *
+	 * @param row The row index.
+	 * @param column The column index.
+	 * @param level The qualifier level index.
+	 * @param delta {@code 1} for adding and {@code -1} for removing the statement.
+	 */
+	private void update(int row, int column, int level, int delta) {
+		HashMap<Integer, int[]> columnCells = this.cells.get(column);
+		int[] cell = columnCells.get(row);
+		if (cell == null) {
+			cell = new int[numLevels + 1];
+			columnCells.put(row, cell);
+		}
+		int before = cell[level];
+		int after = before + delta;
+		for (Map.Entry<Integer, int[]> entry : columnCells.entrySet()) {
+			int other = entry.getKey();
+			if (other == row) {
+				continue;
+			}
+			int[] otherCell = entry.getValue();
+			long[] forward = pair(row, other);
+			long[] backward = pair(other, row);
+			if (this.needProduct) {
+				forward[PRODUCT] += delta * otherCell[numLevels];
+				backward[PRODUCT] += delta * otherCell[numLevels];
+			}
+			if (this.needLevelProduct) {
+				forward[LEVEL_PRODUCT] += delta * otherCell[level];
+				backward[LEVEL_PRODUCT] += delta * otherCell[level];
+			}
+			if (this.needShared && otherCell[level] > 0) {
+				forward[SHARED] += delta; // the entry is or was shared, so the row's count in it changes
+				if (before == 0 || after == 0) {
+					backward[SHARED] += delta * otherCell[level]; // the entry becomes or stops being shared
+				}
+			}
+			if (this.needDistance) {
+				long d = 0;
+				for (int k = 0; k < numLevels; k++) {
+					d += (long) otherCell[k] * this.levelDistance[level * numLevels + k];
+				}
+				forward[DISTANCE] += delta * d;
+				backward[DISTANCE] += delta * d;
+			}
+			release(row, other, forward);
+			release(other, row, backward);
+		}
+		cell[level] = after;
+		cell[numLevels] += delta;
+		if (cell[numLevels] == 0) {
+			columnCells.remove(row);
+		}
+		this.rowTotal[row] += delta;
+		this.columnTotal[column] += delta;
+		this.levelTotal[level] += delta;
+		this.numStatements += delta;
+	}
+
+	/**
+	 * Get the number of statements currently in the window.
+	 *
+	 * @return The number of statements.
+	 */
+	int getNumStatements() {
+		return this.numStatements;
+	}
+
+	/**
+	 * Get the indices of the rows with at least one statement in the window.
+	 *
+	 * @return The row indices in ascending order.
+	 */
+	int[] getActiveRows() {
+		return active(this.rowTotal);
+	}
+
+	/**
+	 * Get the indices of the columns with at least one statement in the window.
+	 *
+	 * @return The column indices in ascending order.
+	 */
+	int[] getActiveColumns() {
+		return active(this.columnTotal);
+	}
+
+	/**
+	 * Get the indices of the qualifier levels with at least one statement in the window.
+	 *
+	 * @return The level indices in ascending order.
+	 */
+	int[] getActiveLevels() {
+		return active(this.levelTotal);
+	}
+
+	/**
+	 * Get all indices with a positive total.
+	 *
+	 * @param totals The totals.
+	 * @return The indices in ascending order.
+	 */
+	private static int[] active(int[] totals) {
+		int n = 0;
+		for (int i = 0; i < totals.length; i++) {
+			if (totals[i] > 0) {
+				n++;
+			}
+		}
+		int[] indices = new int[n];
+		n = 0;
+		for (int i = 0; i < totals.length; i++) {
+			if (totals[i] > 0) {
+				indices[n] = i;
+				n++;
+			}
+		}
+		return indices;
+	}
+
+	/**
+	 * Create a dense three-dimensional array of the current window for a subset of rows, columns, and levels, as used
+	 * for two-mode networks.
+	 *
+	 * @param rows The row indices to include, in the order of the array.
+	 * @param columns The column indices to include, in the order of the array.
+	 * @param levels The level indices to include, in the order of the array. Counts at other levels are added to the
+	 *   first level.
+	 * @return The 3D array (rows x columns x levels).
+	 */
+	double[][][] toArray(int[] rows, int[] columns, int[] levels) {
+		int[] rowPosition = position(rows, this.numRows);
+		int[] levelPosition = position(levels, this.numLevels);
+		double[][][] array = new double[rows.length][columns.length][levels.length];
+		for (int j = 0; j < columns.length; j++) {
+			for (Map.Entry<Integer, int[]> entry : this.cells.get(columns[j]).entrySet()) {
+				int i = rowPosition[entry.getKey()];
+				if (i < 0) {
+					continue;
+				}
+				int[] cell = entry.getValue();
+				for (int k = 0; k < this.numLevels; k++) {
+					if (cell[k] > 0) {
+						int l = levelPosition[k] < 0 ? 0 : levelPosition[k];
+						array[i][j][l] = array[i][j][l] + cell[k];
+					}
+				}
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * Map indices onto their positions in an index array.
+	 *
+	 * @param indices The index array.
+	 * @param n The number of possible indices.
+	 * @return The position of each index, or {@code -1} if the index is not in the array.
+	 */
+	private static int[] position(int[] indices, int n) {
+		int[] position = new int[n];
+		Arrays.fill(position, -1);
+		for (int i = 0; i < indices.length; i++) {
+			position[indices[i]] = i;
+		}
+		return position;
+	}
+
+	/**
+	 * Derive the one-mode projection of the current window for a subset of rows from the pair-wise sums.
+	 *
+	 * @param rows The row indices to include, in the order of the matrix.
+	 * @param aggregation The qualifier aggregation: {@code "ignore"}, {@code "congruence"}, {@code "conflict"}, or
+	 *   {@code "subtract"}.
+	 * @param normalization The normalization: {@code "no"}, {@code "average"}, {@code "jaccard"}, or {@code "cosine"}.
+	 * @return A square matrix with the normalized tie weights and zeros on the diagonal.
+	 */
+	double[][] oneModeProjection(int[] rows, String aggregation, String normalization) {
+		final boolean ignore = aggregation.equals("ignore");
+		final boolean congruence = aggregation.equals("congruence");
+		final boolean conflict = aggregation.equals("conflict");
+		final boolean subtract = aggregation.equals("subtract");
+		final boolean weighted = !ignore && !textQualifier && (congruence || conflict || subtract);
+		final long[] none = new long[4]; // sums of pairs without a shared column
+		double[][] mat = new double[rows.length][rows.length];
+		for (int i1 = 0; i1 < rows.length; i1++) {
+			int a = rows[i1];
+			for (int i2 = 0; i2 < rows.length; i2++) {
+				if (i1 == i2) {
+					continue;
+				}
+				int b = rows[i2];
+				long[] ab = this.pairs.getOrDefault((long) a * this.numRows + b, none);
+				long[] ba = this.pairs.getOrDefault((long) b * this.numRows + a, none);
+				double t1 = this.rowTotal[a];
+				double t2 = this.rowTotal[b];
+				double value = 0.0;
+				if (ignore) {
+					value = ab[PRODUCT];
+				} else if (weighted) {
+					if (range == 0) {
+						value = Double.NaN; // the per-window computation divides by a zero range
+					} else if (congruence) {
+						value = (ab[PRODUCT] * range - ab[DISTANCE]) / range;
+					} else if (conflict) {
+						value = ab[DISTANCE] / range;
+					} else {
+						value = (ab[PRODUCT] * range - 2.0 * ab[DISTANCE]) / range;
+					}
+				} else if (textQualifier) {
+					double exclusive = (t1 - ab[SHARED]) + (t2 - ba[SHARED]); // counts where only one of the rows is active
+					if (congruence) {
+						value = ab[LEVEL_PRODUCT];
+					} else if (conflict) {
+						value = exclusive;
+					} else if (subtract) {
+						value = ab[LEVEL_PRODUCT] - exclusive;
+					}
+				}
+
+				double norm = 1.0;
+				if (normalization.equals("average")) {
+					norm = (t1 + t2) / 2;
+				} else if (normalization.equals("jaccard")) {
+					norm = (t2 - ba[SHARED]) + (t1 - ab[SHARED]) + ab[LEVEL_PRODUCT];
+				} else if (normalization.equals("cosine")) {
+					norm = Math.sqrt(t1 * t1) * Math.sqrt(t2 * t2);
+				}
+				if (norm == 0) {
+					mat[i1][i2] = 0;
+				} else {
+					mat[i1][i2] = value / norm;
+				}
+			}
+		}
+		return mat;
+	}
+}
@@ -460,7 +460,7 @@ public class AttributeManager extends JDialog {
 					+ "INNER JOIN ATTRIBUTEVARIABLES AS AVAR ON AVAL.AttributeVariableId = AVAR.ID "
 					+ "WHERE VariableId = ?;";
 			
-			try (Connection conn = Dna.sql.getDataSource().getConnection();
+			try (Connection conn = Dna.sql.getReadDataSource().getConnection();
 					PreparedStatement s1 = conn.prepareStatement(q1);
 					PreparedStatement s2 = conn.prepareStatement(q2)) {
 				ArrayList<Entity> l = new ArrayList<Entity>();
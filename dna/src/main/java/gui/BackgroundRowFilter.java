@@ -0,0 +1,273 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import javax.swing.RowFilter;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+
+import dna.Dna;
+import logger.LogEvent;
+import logger.Logger;
+
+/**
+ * A row filter for the document and statement tables that matches rows
+ * against text patterns without blocking the user interface. Each row is
+ * converted once into a searchable representation, for example its formatted
+ * fields, which is cached by the ID of the row. When the matcher changes, for
+ * example while a pattern is typed into a filter field, the new matcher is
+ * applied after a short delay, so only the last of several quick changes is
+ * evaluated. It is evaluated for all rows in parallel chunks in a background
+ * thread, and the table shows the rows of the previous matcher until the
+ * results are available. The row sorter is then notified once.
+ *
+ * Besides the matcher, a visibility check, for example for permissions, is
+ * evaluated for each row whenever the sorter filters the rows. It should be
+ * cheap. Changes of the table model invalidate the cached representations and
+ * results of the affected rows, which are then evaluated again when the sorter
+ * filters the rows.
+ *
+ * @param <M>  The table model.
+ * @param <R>  The searchable representation of a row. It must not change after
+ *   it has been created, as it is read in a background thread.
+ */
+class BackgroundRowFilter<M extends AbstractTableModel, R> extends RowFilter<M, Integer> {
+
+	/**
+	 * The delay in milliseconds after the last change of the matcher before it
+	 * is applied.
+	 */
+	static final int DELAY = 250;
+
+	/**
+	 * The number of rows that are evaluated together in a background thread.
+	 */
+	private static final int CHUNK_SIZE = 2048;
+
+	private final M model;
+	private final TableRowSorter<M> sorter;
+	private final IntUnaryOperator idFunction;
+	private final IntFunction<R> searchableFunction;
+	private final IntPredicate visibility;
+	private final Timer timer;
+	private final HashMap<Integer, R> searchable = new HashMap<Integer, R>();
+	private HashMap<Integer, Boolean> matches = new HashMap<Integer, Boolean>();
+	private Predicate<R> matcher = null;
+	private Predicate<R> pendingMatcher = null;
+
+	/**
+	 * Counts the changes of the matcher, so results of a background thread
+	 * that has been superseded by a newer matcher are discarded.
+	 */
+	private volatile int generation = 0;
+
+	/**
+	 * IDs of rows that changed while the matcher was evaluated in the
+	 * background. Their results are discarded.
+	 */
+	private final HashSet<Integer> changedIds = new HashSet<Integer>();
+	private boolean changedAll = false;
+
+	/**
+	 * Create a new background row filter and register it with the row sorter
+	 * and the table model.
+	 *
+	 * @param model               The table model.
+	 * @param sorter              The row sorter of the table.
+	 * @param idFunction          Returns the ID of a model row.
+	 * @param searchableFunction  Returns the searchable representation of a
+	 *   model row, or {@code null} if it is not available yet. In this case,
+	 *   the row is included, and the representation is requested again when
+	 *   the sorter filters the rows the next time.
+	 * @param visibility          Is a model row visible, regardless of the
+	 *   matcher?
+	 */
+	BackgroundRowFilter(M model, TableRowSorter<M> sorter, IntUnaryOperator idFunction, IntFunction<R> searchableFunction, IntPredicate visibility) {
+		this.model = model;
+		this.sorter = sorter;
+		this.idFunction = idFunction;
+		this.searchableFunction = searchableFunction;
+		this.visibility = visibility;
+		this.timer = new Timer(DELAY, e -> apply());
+		this.timer.setRepeats(false);
+
+		// table model listeners are notified in reverse order, so this runs before the table filters the rows again
+		model.addTableModelListener(e -> {
+			if (e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE) {
+				searchable.clear();
+				matches.clear();
+				changedAll = true;
+			} else if (e.getType() == TableModelEvent.UPDATE || e.getType() == TableModelEvent.INSERT) {
+				for (int row = e.getFirstRow(); row <= Math.min(e.getLastRow(), model.getRowCount() - 1); row++) {
+					int id = idFunction.applyAsInt(row);
+					searchable.remove(id);
+					matches.remove(id);
+					changedIds.add(id);
+				}
+			}
+		});
+		sorter.setRowFilter(this);
+	}
+
+	/**
+	 * Set a new matcher and apply it after a delay of {@link #DELAY}
+	 * milliseconds, unless it is replaced by another matcher before.
+	 *
+	 * @param matcher  The matcher, or {@code null} to include all visible rows.
+	 */
+	void setMatcher(Predicate<R> matcher) {
+		this.pendingMatcher = matcher;
+		this.timer.restart();
+	}
+
+	/**
+	 * Set a new matcher and filter the rows immediately. Use this if the
+	 * matcher is cheap or does not apply to most rows.
+	 *
+	 * @param matcher  The matcher, or {@code null} to include all visible rows.
+	 */
+	void setMatcherNow(Predicate<R> matcher) {
+		this.timer.stop();
+		this.generation++;
+		this.pendingMatcher = matcher;
+		this.matcher = matcher;
+		this.matches = new HashMap<Integer, Boolean>();
+		this.sorter.allRowsChanged();
+	}
+
+	/**
+	 * Filter the rows again with the current matcher, for example after the
+	 * visibility of rows has changed. Cached results are reused.
+	 */
+	void refilter() {
+		this.sorter.allRowsChanged();
+	}
+
+	/**
+	 * Evaluate the pending matcher for all rows in a background thread.
+	 */
+	private void apply() {
+		Predicate<R> m = this.pendingMatcher;
+		int g = ++this.generation;
+		if (m == null) {
+			setMatcherNow(null);
+			return;
+		}
+
+		// take a snapshot of the rows on the event dispatch thread
+		int n = model.getRowCount();
+		int[] ids = new int[n];
+		ArrayList<R> items = new ArrayList<R>(n);
+		for (int row = 0; row < n; row++) {
+			ids[row] = idFunction.applyAsInt(row);
+			items.add(visibility.test(row) ? getSearchable(row, ids[row]) : null); // invisible rows are evaluated when they become visible
+		}
+		changedIds.clear();
+		changedAll = false;
+
+		long time = System.nanoTime();
+		new SwingWorker<HashMap<Integer, Boolean>, Void>() {
+			@Override
+			protected HashMap<Integer, Boolean> doInBackground() {
+				Boolean[] results = new Boolean[n];
+				IntStream.range(0, (n + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+					for (int i = chunk * CHUNK_SIZE; i < Math.min(n, (chunk + 1) * CHUNK_SIZE) && g == generation; i++) {
+						if (items.get(i) != null) {
+							results[i] = m.test(items.get(i));
+						}
+					}
+				});
+				HashMap<Integer, Boolean> map = new HashMap<Integer, Boolean>(2 * n);
+				for (int i = 0; i < n && g == generation; i++) {
+					if (results[i] != null) {
+						map.put(ids[i], results[i]);
+					}
+				}
+				return map;
+			}
+
+			@Override
+			protected void done() {
+				if (g != generation) {
+					return; // superseded by a newer matcher
+				}
+				try {
+					HashMap<Integer, Boolean> map = get();
+					if (changedAll) {
+						map.clear();
+					} else {
+						map.keySet().removeAll(changedIds);
+					}
+					matches = map;
+					matcher = m;
+				} catch (InterruptedException | ExecutionException e) {
+					matches = new HashMap<Integer, Boolean>();
+					matcher = m;
+					LogEvent l = new LogEvent(Logger.WARNING,
+							"[GUI] Table filter could not be evaluated in the background.",
+							"The table filter could not be evaluated in a background thread and is applied on the event dispatch thread instead.",
+							e);
+					Dna.logger.log(l);
+				}
+				sorter.allRowsChanged();
+				LogEvent l = new LogEvent(Logger.MESSAGE,
+						"[GUI] Table filter applied to " + n + " rows in " + (System.nanoTime() - time) / 1000000 + " milliseconds.",
+						"The table filter was evaluated for " + n + " rows in parallel in the background, which took " + (System.nanoTime() - time) / 1000000 + " milliseconds.");
+				Dna.logger.log(l);
+			}
+		}.execute();
+	}
+
+	/**
+	 * Get the searchable representation of a row from the cache, or create
+	 * it.
+	 *
+	 * @param row  The model row.
+	 * @param id   The ID of the row.
+	 * @return     The searchable representation, or {@code null} if it is not
+	 *   available yet.
+	 */
+	private R getSearchable(int row, int id) {
+		R r = searchable.get(id);
+		if (r == null) {
+			r = searchableFunction.apply(row);
+			if (r != null) {
+				searchable.put(id, r);
+			}
+		}
+		return r;
+	}
+
+	@Override
+	public boolean include(Entry<? extends M, ? extends Integer> entry) {
+		int row = entry.getIdentifier();
+		if (!visibility.test(row)) {
+			return false;
+		}
+		if (matcher == null) {
+			return true;
+		}
+		int id = idFunction.applyAsInt(row);
+		Boolean match = matches.get(id);
+		if (match == null) {
+			R r = getSearchable(row, id);
+			if (r == null) {
+				return true; // not available yet; the row is filtered again when the model changes
+			}
+			match = matcher.test(r);
+			matches.put(id, match);
+		}
+		return match;
+	}
+}
@@ -15,17 +15,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.DefaultListModel;
 import javax.swing.DefaultListSelectionModel;
@@ -50,10 +45,9 @@ import javax.swing.border.TitledBorder;
 import javax.swing.text.DateFormatter;
 
 import dna.Dna;
+import dna.DocumentFileImporter;
 import logger.LogEvent;
 import logger.Logger;
-import model.Document;
-import model.Statement;
 
 /**
  * Represents a dialog window that can batch-import documents from a folder.
@@ -645,23 +639,7 @@ public class DocumentBatchImporter extends JDialog {
 	 * @return         The substring that matches the pattern.
 	 */
 	private static String patternToString(String text, String pattern) {
-		Pattern p;
-		try {
-			p = Pattern.compile(pattern);
-		} catch (PatternSyntaxException e) {
-			return("");
-		}
-		Matcher m = p.matcher(text);
-		if (m.find()) {
-			try {
-				String string = m.group(0);
-			    return string.substring(0, Math.min(190, string.length()));
-			} catch (IndexOutOfBoundsException e) {
-				return("");
-			}
-		} else {
-			return "";
-		}
+		return DocumentFileImporter.extract(text, DocumentFileImporter.compile(pattern));
 	}
 
 	/**
@@ -672,214 +650,126 @@ public class DocumentBatchImporter extends JDialog {
 	 * @return                The converted local date-time object.
 	 */
 	private static LocalDateTime stringToDateTime(String text, String dateTimeFormat) {
-		if (text.equals("")) {
-			return LocalDateTime.now();
-		} else {
-			DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormat);
-			try {
-				LocalDateTime dateTime = LocalDateTime.parse(text, dateTimeFormatter);
-				return dateTime;
-			} catch (DateTimeParseException e) {
-				try {
-					LocalDate date = LocalDate.parse(text, dateTimeFormatter);
-					LocalDateTime dateTime = date.atStartOfDay();
-					return dateTime;
-				} catch (DateTimeParseException e2) {
-					LogEvent l = new LogEvent(Logger.WARNING,
-							"Date/time could not be parsed.",
-							"The date/time \"" + text + "\" could not be parsed with the pattern \"" + dateTimeFormat + "\". Using current date and time instead.",
-							e);
-					Dna.logger.log(l);
-					return LocalDateTime.now();
-				}
-			}
+		DateTimeFormatter dateTimeFormatter;
+		try {
+			dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormat);
+		} catch (IllegalArgumentException e) {
+			dateTimeFormatter = null;
 		}
+		return DocumentFileImporter.toDateTime(text, dateTimeFormatter, dateTimeFormat);
 	}
 	
 	/**
 	 * Represents a Swing worker for batch-importing documents into the DNA
-	 * database.
+	 * database. The files are read, parsed, and written by a
+	 * {@link DocumentFileImporter}.
 	 */
-	private static class ImportWorker extends SwingWorker<Void, Document> {
+	private static class ImportWorker extends SwingWorker<int[], Integer> {
 		JDialog dialog;
 		File[] files;
-		boolean parseDate, parseTitle, parseAuthor, parseSource, parseSection, parseType, parseNotes;
-		String datePattern, dateFormat, titlePattern, authorPattern, sourcePattern, sectionPattern, typePattern, notesPattern;
-		String fn, sCurrentLine, document, title, dateString, author, source, section, notes, type;
-		FileInputStream is = null;
-		InputStreamReader isr = null;
-		BufferedReader br = null;
-		LocalDateTime date;
-		Document article;
-		ArrayList<Document> documents;
-		int coderId;
-        int good, bad, numDocumentsBefore;
-        ProgressMonitor progressMonitor;
-        
-        /**
-         * Create a new batch document importer Swing worker.
-         * 
-         * @param dialog          A reference to the enclosing dialog in order
-         *   to be able to dispose of the dialog from within this thread.
-         * @param files           An array of files to be imported.
-         * @param parseDate       Should the date field be used for parsing?
-         * @param parseTitle      Should the title field be used for parsing?
-         * @param parseAuthor     Should the author field be used for parsing?
-         * @param parseSource     Should the source field be used for parsing?
-         * @param parseSection    Should the section field be used for parsing?
-         * @param parseType       Should the type field be used for parsing?
-         * @param parseNotes      Should the notes field be used for parsing?
-         * @param datePattern     The pattern to identify/parse the date/time.
-         * @param dateFormat      The format of the date/time for conversion.
-         * @param titlePattern    The pattern to parse the title.
-         * @param authorPattern   The pattern to parse the author.
-         * @param sourcePattern   The pattern to parse the source.
-         * @param sectionPattern  The pattern to parse the section.
-         * @param typePattern     The pattern to parse the type.
-         * @param notesPattern    The pattern to parse the notes.
-         */
-        ImportWorker(
-        		JDialog dialog,
-        		File[] files,
-        		boolean parseDate,
-        		boolean parseTitle,
-        		boolean parseAuthor,
-        		boolean parseSource,
-        		boolean parseSection,
-        		boolean parseType,
-        		boolean parseNotes,
-        		String datePattern,
-        		String dateFormat,
-        		String titlePattern,
-        		String authorPattern,
-        		String sourcePattern,
-        		String sectionPattern,
-        		String typePattern,
-        		String notesPattern) {
+		DocumentFileImporter importer;
+		int numDocumentsBefore;
+		volatile boolean cancelled = false;
+		ProgressMonitor progressMonitor;
+		
+		/**
+		 * Create a new batch document importer Swing worker.
+		 * 
+		 * @param dialog          A reference to the enclosing dialog in order
+		 *   to be able to dispose of the dialog from within this thread.
+		 * @param files           An array of files to be imported.
+		 * @param parseDate       Should the date field be used for parsing?
+		 * @param parseTitle      Should the title field be used for parsing?
+		 * @param parseAuthor     Should the author field be used for parsing?
+		 * @param parseSource     Should the source field be used for parsing?
+		 * @param parseSection    Should the section field be used for parsing?
+		 * @param parseType       Should the type field be used for parsing?
+		 * @param parseNotes      Should the notes field be used for parsing?
+		 * @param datePattern     The pattern to identify/parse the date/time.
+		 * @param dateFormat      The format of the date/time for conversion.
+		 * @param titlePattern    The pattern to parse the title.
+		 * @param authorPattern   The pattern to parse the author.
+		 * @param sourcePattern   The pattern to parse the source.
+		 * @param sectionPattern  The pattern to parse the section.
+		 * @param typePattern     The pattern to parse the type.
+		 * @param notesPattern    The pattern to parse the notes.
+		 */
+		ImportWorker(
+				JDialog dialog,
+				File[] files,
+				boolean parseDate,
+				boolean parseTitle,
+				boolean parseAuthor,
+				boolean parseSource,
+				boolean parseSection,
+				boolean parseType,
+				boolean parseNotes,
+				String datePattern,
+				String dateFormat,
+				String titlePattern,
+				String authorPattern,
+				String sourcePattern,
+				String sectionPattern,
+				String typePattern,
+				String notesPattern) {
 			LogEvent l = new LogEvent(Logger.MESSAGE,
 					"[GUI] Initializing import document thread: " + Thread.currentThread().getName() + " (" + Thread.currentThread().getId() + ").",
 					"Initializing import document thread: " + Thread.currentThread().getName() + " (" + Thread.currentThread().getId() + ").");
 			Dna.logger.log(l);
 			
-        	this.dialog = dialog;
-            this.files = files;
-        	progressMonitor = new ProgressMonitor(null, "Importing text files...", "", 0, this.files.length - 1);
+			this.dialog = dialog;
+			this.files = files;
+			progressMonitor = new ProgressMonitor(null, "Importing text files...", "", 0, this.files.length);
 			progressMonitor.setMillisToDecideToPopup(1);
 			numDocumentsBefore = Dna.sql.countDocuments();
-            this.parseDate = parseDate;
-            this.parseTitle = parseTitle;
-            this.parseAuthor = parseAuthor;
-            this.parseSource = parseSource;
-            this.parseSection = parseSection;
-            this.parseType = parseType;
-            this.parseNotes = parseNotes;
-            this.documents = new ArrayList<Document>();
-            this.datePattern = datePattern;
-            this.dateFormat = dateFormat;
-            this.titlePattern = titlePattern;
-            this.authorPattern = authorPattern;
-            this.sourcePattern = sourcePattern;
-            this.sectionPattern = sectionPattern;
-            this.typePattern = typePattern;
-            this.notesPattern = notesPattern;
-            coderId = Dna.sql.getConnectionProfile().getCoderId();
-            good = 0;
-            bad = 0;
-        }
-
-        @Override
-        protected void process(List<Document> chunks) {
-        	for (Document row : chunks) {
-                documents.add(row);
-                progressMonitor.setProgress(documents.size() - 1);
-    			if (progressMonitor.isCanceled()) {
-    				this.cancel(true);
-    			}
-            }
-        }
-
-        @Override
-        protected Void doInBackground() throws Exception {
-        	for (int i = 0; i < files.length; i++) {
-            	fn = this.files[i].getName();
-    			try {
-    				is = new FileInputStream(files[i]);
-    				isr = new InputStreamReader(is, "UTF-8");
-    				br = new BufferedReader(isr);
-    				document = "";
-    				while ((sCurrentLine = br.readLine()) != null) {
-    					document = document + sCurrentLine + "\n";
-    				}
-    				
-    				dateString = "";
-    				if (parseDate == true) {
-    					dateString = patternToString(fn, datePattern);
-    				} else {
-    					dateString = datePattern;
-    				}
-    				date = stringToDateTime(dateString, dateFormat);
-    				
-    				if (parseTitle == true) {
-    					title = patternToString(fn, titlePattern);
-    				} else {
-    					title = titlePattern;
-    				}
-    				
-    				if (parseAuthor == true) {
-    					author = patternToString(fn, authorPattern);
-    				} else {
-    					author = authorPattern;
-    				}
-
-    				if (parseSource == true) {
-    					source = patternToString(fn, sourcePattern);
-    				} else {
-    					source = sourcePattern;
-    				}
-
-    				if (parseSection == true) {
-    					section = patternToString(fn, sectionPattern);
-    				} else {
-    					section = sectionPattern;
-    				}
-
-    				if (parseType == true) {
-    					type = patternToString(fn, typePattern);
-    				} else {
-    					type = typePattern;
-    				}
-
-    				if (parseNotes == true) {
-    					notes = patternToString(fn, notesPattern);
-    				} else {
-    					notes = notesPattern;
-    				}
-    				
-    				article = new Document(
-    						-1, 
-    						coderId,
-    						title, 
-    						document, 
-    						author, 
-    						source, 
-    						section, 
-    						type, 
-    						notes, 
-    						date, 
-    						new ArrayList<Statement>()
-    				);
-    				publish(article);
-    				good++;
-    			} catch (Exception ex) {
-    				bad++;
-    			}
-        	}
-            return null;
-        }
-
-        @Override
-        protected void done() {
-			Dna.sql.addDocuments(documents);
+			this.importer = new DocumentFileImporter(
+					Dna.sql,
+					Dna.sql.getConnectionProfile().getCoderId(),
+					parseDate,
+					parseTitle,
+					parseAuthor,
+					parseSource,
+					parseSection,
+					parseType,
+					parseNotes,
+					datePattern,
+					dateFormat,
+					titlePattern,
+					authorPattern,
+					sourcePattern,
+					sectionPattern,
+					typePattern,
+					notesPattern);
+		}
+
+		@Override
+		protected void process(List<Integer> chunks) {
+			progressMonitor.setProgress(chunks.get(chunks.size() - 1));
+			if (progressMonitor.isCanceled()) {
+				cancelled = true; // stop after the current file, keeping the batches written so far
+			}
+		}
+
+		@Override
+		protected int[] doInBackground() throws Exception {
+			return importer.importFiles(files, processed -> publish(processed), () -> cancelled);
+		}
+
+		@Override
+		protected void done() {
+			progressMonitor.close();
+			int good = 0, bad = 0;
+			try {
+				int[] result = get();
+				good = result[0];
+				bad = result[1];
+			} catch (InterruptedException | ExecutionException e) {
+				LogEvent l = new LogEvent(Logger.ERROR,
+						"[GUI] Batch import failed.",
+						"The batch import of text files failed. Documents in batches that have already been written remain in the database.",
+						e);
+				Dna.logger.log(l);
+			}
 			int numDocumentsAfter = Dna.sql.countDocuments();
 			LogEvent l = new LogEvent(Logger.MESSAGE,
 					"[GUI] Batch import: " + good + " document(s) imported, " + bad + " skipped.",
@@ -895,6 +785,6 @@ public class DocumentBatchImporter extends JDialog {
 					"Closing import document thread: " + Thread.currentThread().getName() + " (" + Thread.currentThread().getId() + ").");
 			Dna.logger.log(l);
 			dialog.dispose();
-        }
-    }
-}
\ No newline at end of file
+		}
+	}
+}
@@ -635,7 +635,7 @@ public class DocumentEditor extends JDialog {
     				"UNION ALL " + 
     				"SELECT 'Type' AS Field, Type as Value FROM DOCUMENTS) AS RESULT " + 
     				"WHERE Field IS NOT NULL ORDER BY Field, Value;";
-        	try (Connection conn = Dna.sql.getDataSource().getConnection();
+        	try (Connection conn = Dna.sql.getReadDataSource().getConnection();
         			PreparedStatement s = conn.prepareStatement(sql);
         			ResultSet rs = s.executeQuery();) {
 				while (rs.next()) {
@@ -5,7 +5,10 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import javax.swing.table.AbstractTableModel;
 
@@ -26,6 +29,20 @@ import model.TableDocument;
 @SuppressWarnings("serial")
 class DocumentTableModel extends AbstractTableModel {
 	private ArrayList<TableDocument> rows;
+
+	/**
+	 * The maximal number of rows that are inserted or removed with separate
+	 * events by {@link #updateDocuments(int[], List)}. Row sorters update
+	 * their view after each event, so more rows are merged at once.
+	 */
+	private static final int MAX_EVENTS = 16;
+
+	/**
+	 * The model row of each document, by document ID. After rows have been
+	 * inserted, removed, or sorted, the index is rebuilt when it is used next.
+	 */
+	private final HashMap<Integer, Integer> rowIndex = new HashMap<Integer, Integer>();
+	private boolean rowIndexValid = true;
 	
 	/**
 	 * Create an instance of the document table model class.
@@ -169,12 +186,14 @@ class DocumentTableModel extends AbstractTableModel {
 	 * @see {@link #getIdByModelRow(int row)}
 	 */
 	public int getModelRowById(int documentId) {
-		for (int i = 0; i < rows.size(); i++) {
-			if (rows.get(i).getId() == documentId) {
-				return i;
+		if (!rowIndexValid) {
+			rowIndex.clear();
+			for (int i = 0; i < rows.size(); i++) {
+				rowIndex.put(rows.get(i).getId(), i);
 			}
+			rowIndexValid = true;
 		}
-		return -1;
+		return rowIndex.getOrDefault(documentId, -1);
 	}
 	
 	/**
@@ -219,15 +238,92 @@ class DocumentTableModel extends AbstractTableModel {
 		}
 	}
 
+	/**
+	 * Subtract one from the frequency column for each occurrence of a document
+	 * ID, for example after deleting statements, and notify the table once for
+	 * each range of consecutive updated rows.
+	 * 
+	 * @param documentIds  The document IDs, one for each removed statement.
+	 */
+	public void decreaseFrequencies(int[] documentIds) {
+		HashMap<Integer, Integer> counts = new HashMap<Integer, Integer>();
+		for (int documentId : documentIds) {
+			counts.merge(documentId, 1, Integer::sum);
+		}
+		ArrayList<Integer> updated = new ArrayList<Integer>();
+		for (int documentId : counts.keySet()) {
+			int row = getModelRowById(documentId);
+			if (row == -1) {
+				LogEvent l = new LogEvent(Logger.WARNING,
+						"Document row could not be identified in the document table model.",
+						"Document row for Document " + documentId + " could not be identified in the document table model.");
+				Dna.logger.log(l);
+			} else {
+				rows.get(row).setFrequency(Math.max(0, rows.get(row).getFrequency() - counts.get(documentId)));
+				updated.add(row);
+			}
+		}
+		Collections.sort(updated);
+		for (int i = 0; i < updated.size(); i++) {
+			int first = updated.get(i);
+			while (i + 1 < updated.size() && updated.get(i + 1) == updated.get(i) + 1) {
+				i++;
+			}
+			fireTableRowsUpdated(first, updated.get(i));
+		}
+	}
+
 	/**
 	 * Remove an array of document indices from the model and notify the table.
+	 * Consecutive rows are removed with a single event.
 	 * 
 	 * @param rows  The model rows of the documents.
 	 */
 	public void removeDocuments(int[] modelRowIndices) {
-		for (int i = modelRowIndices.length - 1; i >= 0; i--) {
-			rows.remove(modelRowIndices[i]);
-			fireTableRowsDeleted(modelRowIndices[i], modelRowIndices[i]);
+		int[] sorted = IntStream.of(modelRowIndices).filter(i -> i >= 0 && i < rows.size()).distinct().sorted().toArray();
+		rowIndexValid = false;
+		int last = sorted.length - 1;
+		while (last >= 0) { // from the end, so the remaining rows keep their positions
+			int first = last;
+			while (first > 0 && sorted[first - 1] == sorted[first] - 1) {
+				first--;
+			}
+			rows.subList(sorted[first], sorted[last] + 1).clear();
+			fireTableRowsDeleted(sorted[first], sorted[last]);
+			last = first - 1;
+		}
+	}
+
+	/**
+	 * Replace, add, or remove documents after they have been changed in the
+	 * database. Documents that are in the list replace the rows with the same
+	 * ID or are inserted at the right position. Rows of the other given IDs
+	 * are removed. If more than a few rows are affected, the rows are merged
+	 * and sorted at once, and the listeners are notified with a single event.
+	 * 
+	 * @param documentIds  The IDs of documents that were changed or deleted.
+	 * @param documents    The current versions of the changed documents.
+	 */
+	void updateDocuments(int[] documentIds, List<TableDocument> documents) {
+		HashSet<Integer> ids = new HashSet<Integer>();
+		for (int documentId : documentIds) {
+			ids.add(documentId);
+		}
+		for (TableDocument d : documents) {
+			ids.add(d.getId());
+		}
+		int[] existingRows = ids.stream().mapToInt(id -> getModelRowById(id)).filter(row -> row >= 0).toArray();
+		if (existingRows.length + documents.size() <= MAX_EVENTS) {
+			removeDocuments(existingRows);
+			for (TableDocument d : documents) {
+				addRow(d);
+			}
+		} else {
+			rows.removeIf(d -> ids.contains(d.getId()));
+			rows.addAll(documents);
+			Collections.sort(rows);
+			rowIndexValid = false;
+			fireTableDataChanged();
 		}
 	}
 
@@ -237,6 +333,8 @@ class DocumentTableModel extends AbstractTableModel {
 	 */
 	void clear() {
 		rows.clear();
+		rowIndex.clear();
+		rowIndexValid = true;
 		fireTableDataChanged();
 	}
 
@@ -248,21 +346,16 @@ class DocumentTableModel extends AbstractTableModel {
 	 * @return   Model index where the new document was inserted.
 	 */
 	int addRow(TableDocument d) {
-		int newRowIndex = -1;
-		if (rows.size() > 0) {
-			for (int i = 0; i < rows.size(); i++) {
-				if (d.compareTo(rows.get(i)) == -1) {
-					newRowIndex = i;
-					break;
-				}
-			}
-		} else {
-			newRowIndex = 0;
-		}
-		if (newRowIndex == -1) { // there were other documents, but the new document is more recent than all of them
-			newRowIndex = rows.size();
+		int newRowIndex = Collections.binarySearch(rows, d); // the rows are sorted
+		if (newRowIndex < 0) {
+			newRowIndex = -newRowIndex - 1;
 		}
 		rows.add(newRowIndex, d);
+		if (newRowIndex == rows.size() - 1) {
+			rowIndex.put(d.getId(), newRowIndex);
+		} else {
+			rowIndexValid = false;
+		}
 		fireTableRowsInserted(newRowIndex, newRowIndex);
 		return newRowIndex;
 	}
@@ -277,6 +370,7 @@ class DocumentTableModel extends AbstractTableModel {
     	int n = this.rows.size();
         for (TableDocument row : chunks) {
             rows.add(row);
+            rowIndex.put(row.getId(), rows.size() - 1);
         }
         fireTableRowsInserted(n, n + chunks.size() - 1); // subtract one because we don't need the cursor to be at the next position; it should refer to the last position
 	}
@@ -286,6 +380,7 @@ class DocumentTableModel extends AbstractTableModel {
 	 */
 	void sort() {
 		Collections.sort(rows);
+		rowIndexValid = false;
 		fireTableDataChanged();
 	}
 }
\ No newline at end of file
@@ -11,7 +11,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.IntStream;
@@ -25,7 +24,6 @@ import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
-import javax.swing.RowFilter;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableRowSorter;
@@ -42,7 +40,10 @@ class DocumentTablePanel extends JPanel {
 	private static final long serialVersionUID = 4543056929753553570L;
 	private JTable documentTable;
 	private DocumentTableModel documentTableModel;
-	private String documentFilterPattern = "";
+	private BackgroundRowFilter<DocumentTableModel, String[]> documentFilter;
+	private static final DateTimeFormatter FILTER_FORMATTER = DateTimeFormatter.ofPattern("dd MM yyyy HH:mm");
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MM yyyy");
+	private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 	private List<DocumentTableListener> listeners = new ArrayList<DocumentTableListener>();
 
 	DocumentTablePanel(DocumentTableModel documentTableModel,
@@ -79,59 +80,35 @@ class DocumentTablePanel extends JPanel {
 		documentTableScroller.setPreferredSize(new Dimension(1000, 140));
 		this.add(documentTableScroller, BorderLayout.CENTER);
 
-		// row filter
-		RowFilter<DocumentTableModel, Integer> documentFilter = new RowFilter<DocumentTableModel, Integer>() {
-			public boolean include(Entry<? extends DocumentTableModel, ? extends Integer> entry) {
-				if (Dna.sql.getActiveCoder() == null || Dna.sql.getConnectionProfile() == null) {
-					return false;
-				}
-				TableDocument d = documentTableModel.getRow(entry.getIdentifier());
-				if (d.getCoder().getId() != Dna.sql.getActiveCoder().getId()) {
-					if (Dna.sql.getActiveCoder().isPermissionViewOthersDocuments() == false) {
-						return false;
-					} else if (Dna.sql.getActiveCoder().isPermissionViewOthersDocuments(d.getCoder().getId()) == false) {
+		// row filter; the matched fields of each document are formatted once and cached
+		documentFilter = new BackgroundRowFilter<DocumentTableModel, String[]>(documentTableModel, sorter,
+				row -> documentTableModel.getIdByModelRow(row),
+				row -> {
+					TableDocument d = documentTableModel.getRow(row);
+					return new String[] {
+							d.getTitle(),
+							d.getAuthor(),
+							d.getSource(),
+							d.getSection(),
+							d.getType(),
+							d.getNotes(),
+							d.getDateTime().format(FILTER_FORMATTER),
+							d.getCoder().getName() };
+				},
+				row -> {
+					if (Dna.sql.getActiveCoder() == null || Dna.sql.getConnectionProfile() == null) {
 						return false;
 					}
-				}
-				try {
-					Pattern pattern = Pattern.compile(documentFilterPattern);
-					Matcher matcherTitle = pattern.matcher(d.getTitle());
-					Matcher matcherAuthor = pattern.matcher(d.getAuthor());
-					Matcher matcherSource = pattern.matcher(d.getSource());
-					Matcher matcherSection = pattern.matcher(d.getSection());
-					Matcher matcherType = pattern.matcher(d.getType());
-					Matcher matcherNotes = pattern.matcher(d.getTitle());
-					DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MM yyyy HH:mm");
-					Matcher matcherDateTime = pattern.matcher(d.getDateTime().format(formatter));
-					Matcher matcherCoderName = pattern.matcher(d.getCoder().getName());
-					if (documentFilterPattern.equals("")) {
-						return true;
-					} else if (matcherTitle.find()) {
-						return true;
-					} else if (matcherAuthor.find()) {
-						return true;
-					} else if (matcherSource.find()) {
-						return true;
-					} else if (matcherSection.find()) {
-						return true;
-					} else if (matcherType.find()) {
-						return true;
-					} else if (matcherNotes.find()) {
-						return true;
-					} else if (matcherDateTime.find()) {
-						return true;
-					} else if (matcherCoderName.find()) {
-						return true;
-					} else {
-						return false;
+					int coderId = documentTableModel.getRow(row).getCoder().getId();
+					if (coderId != Dna.sql.getActiveCoder().getId()) {
+						if (Dna.sql.getActiveCoder().isPermissionViewOthersDocuments() == false) {
+							return false;
+						} else if (Dna.sql.getActiveCoder().isPermissionViewOthersDocuments(coderId) == false) {
+							return false;
+						}
 					}
-				} catch(PatternSyntaxException pse) {
 					return true;
-				}
-				
-			}
-		};
-		sorter.setRowFilter(documentFilter);
+				});
 
 	    // right-click menu for document table
 		JPopupMenu popupMenu = new JPopupMenu();
@@ -362,12 +339,36 @@ class DocumentTablePanel extends JPanel {
 	}
 	
 	/**
-	 * Set the document filter pattern.
+	 * Set the document filter pattern. The pattern is compiled once and
+	 * applied in the background after the user stops typing (see
+	 * {@link BackgroundRowFilter}). Documents are shown if the pattern is
+	 * found in any of their fields. An empty or invalid pattern shows all
+	 * documents.
 	 * 
 	 * @param documentFilterPattern The document filter pattern.
 	 */
 	void setDocumentFilterPattern(String documentFilterPattern) {
-		this.documentFilterPattern = documentFilterPattern;
+		Pattern pattern = null;
+		if (!documentFilterPattern.equals("")) {
+			try {
+				pattern = Pattern.compile(documentFilterPattern);
+			} catch (PatternSyntaxException pse) {
+				// probably incomplete while typing; show all documents
+			}
+		}
+		if (pattern == null) {
+			documentFilter.setMatcher(null);
+		} else {
+			Pattern p = pattern;
+			documentFilter.setMatcher(fields -> {
+				for (String field : fields) {
+					if (field != null && p.matcher(field).find()) {
+						return true;
+					}
+				}
+				return false;
+			});
+		}
 	}
 
 
@@ -384,13 +385,10 @@ class DocumentTablePanel extends JPanel {
 				return new JLabel("");
 			} else {
 				LocalDateTime d = (LocalDateTime) value;
-				DateTimeFormatter formatter;
 				if (column == 3) {
-					formatter = DateTimeFormatter.ofPattern("dd MM yyyy");
-					setText(d.format(formatter));
+					setText(d.format(DATE_FORMATTER));
 				} else if (column == 4) {
-					formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-					setText(d.format(formatter));
+					setText(d.format(TIME_FORMATTER));
 				} else {
 					setText(d.toString());
 				}
@@ -58,6 +58,7 @@ import model.StatementType;
 import model.TableDocument;
 import model.Value;
 import sql.ConnectionProfile;
+import sql.DatabaseImporter;
 import sql.Sql;
 import sql.Sql.SQLCloseable;
 
@@ -78,7 +79,7 @@ class Importer extends JDialog {
 	private JTable documentTable;
 	private Sql sql;
 	private int version;
-	private JCheckBox importStatementsBox, statementTypeBox, skipFullBox, skipEmptyBox, coderDocumentBox, coderStatementBox, skipDuplicatesBox, fixDatesBox, mergeAttributesBox, overwriteAttributesBox, importEntitiesBox, importRegexBox;
+	private JCheckBox importStatementsBox, statementTypeBox, skipFullBox, skipEmptyBox, coderDocumentBox, coderStatementBox, skipDuplicatesBox, fixDatesBox, mergeAttributesBox, overwriteAttributesBox, importEntitiesBox, importRegexBox, resumeBox;
 
 	/**
 	 * Constructor of the Importer class. Creates a new instance of the dialog
@@ -272,6 +273,18 @@ class Importer extends JDialog {
 				+ "import. If unchecked, no regex terms are imported.</p></html>");
 		checkBoxPanel.add(importRegexBox, g);
 
+		g.gridy = 12;
+		resumeBox = new JCheckBox("Commit in chunks and resume interrupted imports");
+		resumeBox.setSelected(false);
+		resumeBox.setToolTipText("<html><p width=\"500\">If checked, the documents are committed to the "
+				+ "current/target database in chunks of " + DatabaseImporter.DOCUMENT_CHUNK_SIZE + " documents "
+				+ "while the import is running. If the import fails or is interrupted, the documents that have "
+				+ "already been committed remain in the database, and importing the same documents from the same "
+				+ "source database again continues where the import stopped. If unchecked, all data are imported "
+				+ "in a single transaction, which is rolled back completely if the import fails. This option is "
+				+ "only available for DNA 3 source databases.</p></html>");
+		checkBoxPanel.add(resumeBox, g);
+
 		CompoundBorder borderCheckBoxes;
 		borderCheckBoxes = BorderFactory.createCompoundBorder(new EmptyBorder(10, 10, 10, 10), new TitledBorder("Import options"));
 		checkBoxPanel.setBorder(borderCheckBoxes);
@@ -336,6 +349,7 @@ class Importer extends JDialog {
 					} else if (v.startsWith("2")) {
 						Importer.this.version = 2;
 					}
+					resumeBox.setEnabled(Importer.this.version == 3);
 					
 					ArrayList<Coder> foreignCoders = s.getCoders();
 					coderTableModel.clear();
@@ -787,8 +801,8 @@ class Importer extends JDialog {
 		
 		@Override
 		protected List<TableDocument> doInBackground() {
-			try (Connection conn = Importer.this.sql.getDataSource().getConnection();
-					PreparedStatement s = conn.prepareStatement("SELECT D.ID, Title, (SELECT COUNT(ID) FROM STATEMENTS WHERE DocumentId = D.ID) AS Frequency, C.ID AS CoderId, Name AS CoderName, Red, Green, Blue, Date, Author, Source, Section, Type, Notes FROM CODERS C INNER JOIN DOCUMENTS D ON D.Coder = C.ID;");
+			try (Connection conn = Importer.this.sql.getReadDataSource().getConnection();
+					PreparedStatement s = conn.prepareStatement("SELECT D.ID, Title, COALESCE(F.Frequency, 0) AS Frequency, C.ID AS CoderId, Name AS CoderName, Red, Green, Blue, Date, Author, Source, Section, Type, Notes FROM CODERS C INNER JOIN DOCUMENTS D ON D.Coder = C.ID LEFT JOIN (SELECT DocumentId, COUNT(ID) AS Frequency FROM STATEMENTS GROUP BY DocumentId) F ON F.DocumentId = D.ID;");
 					ResultSet rs = s.executeQuery();) {
 				LocalDateTime dateTime;
 				Date dateV2;
@@ -908,6 +922,35 @@ class Importer extends JDialog {
 				e.printStackTrace();
 			}
 			progressMonitor.setProgress(0);
+
+			if (Importer.this.version == 3) {
+				DatabaseImporter importer = new DatabaseImporter(Importer.this.sql, Dna.sql);
+				coderMap.forEach(importer::mapCoder);
+				importer.setImportStatements(importStatementsBox.isSelected());
+				importer.setImportStatementTypes(statementTypeBox.isSelected());
+				importer.setImportEntities(importEntitiesBox.isSelected());
+				importer.setMergeAttributes(mergeAttributesBox.isSelected());
+				importer.setOverwriteAttributes(overwriteAttributesBox.isSelected());
+				importer.setImportRegexes(importRegexBox.isSelected());
+				importer.setSkipDuplicates(skipDuplicatesBox.isSelected());
+				importer.setSkipEmpty(skipEmptyBox.isSelected());
+				importer.setSkipFull(skipFullBox.isSelected());
+				importer.setFixDates(fixDatesBox.isSelected());
+				importer.setActiveCoderStatementsOnly(coderStatementBox.isSelected());
+				importer.setResumable(resumeBox.isSelected());
+				importer.setProgressListener((step, note) -> {
+					progressMonitor.setProgress(step);
+					progressMonitor.setNote(note);
+				});
+				if (importer.importDocuments(docIds.stream().mapToInt(i -> i).toArray())) {
+					dispose(); // close the importer when done
+				}
+				dbButton.setEnabled(true);
+				filterButton.setEnabled(true);
+				selectAll.setEnabled(true);
+				importButton.setEnabled(true);
+				return;
+			}
 			
 			String documentSelectSql = "SELECT * FROM DOCUMENTS WHERE ID IN (";
 			for (int i = 0; i < docIds.size(); i++) {
@@ -1771,6 +1814,7 @@ class Importer extends JDialog {
 				}
 				
 				connDomestic.commit();
+				Dna.sql.clearEntityCache();
 				
 				// log the results
 				long elapsed = System.nanoTime(); // measure time again for calculating difference
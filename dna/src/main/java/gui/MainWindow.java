@@ -17,6 +17,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -91,6 +92,12 @@ public class MainWindow extends JFrame {
 	 * A document table swing worker thread.
 	 */
 	private DocumentTableRefreshWorker documentTableWorker;
+	/**
+	 * The sequence number of the last change in the change log of the
+	 * database that is reflected in the document table, or {@code -1} if it
+	 * is not known (see {@link sql.Sql#getChangeSequence()}).
+	 */
+	private int documentChangeSequence = -1;
 
 	/**
 	 * A statement table swing worker thread.
@@ -159,6 +166,7 @@ public class MainWindow extends JFrame {
 						"Exiting DNA from the GUI main window.",
 						"Exiting DNA from the GUI main window.");
 				Dna.logger.log(l);
+				Dna.sql.close();
 				System.exit(0);
 			}
 		});
@@ -616,7 +624,6 @@ public class MainWindow extends JFrame {
 			
 			private void processFilterDocumentChanges() {
 				documentTablePanel.setDocumentFilterPattern(documentFilterField.getText());
-				documentTableModel.fireTableDataChanged();
 			}
 		});
 		
@@ -930,6 +937,24 @@ public class MainWindow extends JFrame {
 		}
 	}
 
+	/**
+	 * Update the document table with the documents that were added, changed,
+	 * or deleted since the table was loaded or last updated, for example
+	 * after an import, without reloading all documents. The changed documents
+	 * are taken from the change log of the database. If the document table is
+	 * still being populated or the change log is not available, the document
+	 * table is reloaded instead.
+	 */
+	private void updateDocumentTable() {
+		if (Dna.sql.getConnectionProfile() == null) {
+			documentTableModel.clear();
+		} else if ((documentTableWorker != null && !documentTableWorker.isDone()) || documentChangeSequence < 0) {
+			refreshDocumentTable();
+		} else {
+			new DocumentTableUpdateWorker(documentChangeSequence).execute();
+		}
+	}
+
 	/**
 	 * Refresh the statement table using a Swing worker in the background and
 	 * select the previously selected statement again (if applicable and
@@ -983,6 +1008,12 @@ public class MainWindow extends JFrame {
 		 */
 		private String name;
 
+		/**
+		 * The sequence number of the last change in the change log before the
+		 * documents were loaded.
+		 */
+		private volatile int sequence = -1;
+
 		/**
 		 * Create a new document table swing worker.
 		 * 
@@ -1008,8 +1039,9 @@ public class MainWindow extends JFrame {
 		
 		@Override
 		protected List<TableDocument> doInBackground() {
-			try (Connection conn = Dna.sql.getDataSource().getConnection();
-					PreparedStatement s = conn.prepareStatement("SELECT D.ID, Title, (SELECT COUNT(ID) FROM STATEMENTS WHERE DocumentId = D.ID) AS Frequency, C.ID AS CoderId, Name AS CoderName, Red, Green, Blue, Date, Author, Source, Section, Type, Notes FROM CODERS C INNER JOIN DOCUMENTS D ON D.Coder = C.ID;");
+			this.sequence = Dna.sql.getChangeSequence(); // before loading, so later changes are not missed by updates
+			try (Connection conn = Dna.sql.getReadDataSource().getConnection();
+					PreparedStatement s = conn.prepareStatement("SELECT D.ID, Title, COALESCE(F.Frequency, 0) AS Frequency, C.ID AS CoderId, Name AS CoderName, Red, Green, Blue, Date, Author, Source, Section, Type, Notes FROM CODERS C INNER JOIN DOCUMENTS D ON D.Coder = C.ID LEFT JOIN (SELECT DocumentId, COUNT(ID) AS Frequency FROM STATEMENTS GROUP BY DocumentId) F ON F.DocumentId = D.ID;");
 					ResultSet rs = s.executeQuery();) {
 				while (!isCancelled() && rs.next()) {
 					if (isCancelled()) {
@@ -1055,6 +1087,7 @@ public class MainWindow extends JFrame {
 
 	    @Override
 	    protected void done() {
+	    	documentChangeSequence = isCancelled() ? -1 : this.sequence;
         	documentTableModel.sort();
         	documentTablePanel.setSelectedDocumentId(this.selectedId);
         	//textPanel.setVerticalScrollLocation(this.verticalScrollLocation);
@@ -1089,12 +1122,83 @@ public class MainWindow extends JFrame {
 	    }
 	}
 
+	/**
+	 * Swing worker class for loading the documents that were changed since a
+	 * given sequence number of the change log in a background thread and
+	 * merging them into the document table: new documents are inserted,
+	 * changed documents are replaced, and deleted documents are removed. The
+	 * statement frequencies are counted in a single grouped query. If the
+	 * changes are not available, the document table is reloaded.
+	 */
+	private class DocumentTableUpdateWorker extends SwingWorker<ArrayList<TableDocument>, Void> {
+		private final int after;
+		private final long time;
+		private volatile int upTo;
+		private volatile int[] documentIds;
+
+		/**
+		 * Create a new document table update worker.
+		 * 
+		 * @param after  The sequence number of the last change in the change
+		 *   log that is reflected in the document table.
+		 */
+		private DocumentTableUpdateWorker(int after) {
+			this.after = after;
+			this.time = System.nanoTime();
+		}
+
+		@Override
+		protected ArrayList<TableDocument> doInBackground() {
+			this.upTo = Dna.sql.getChangeSequence();
+			this.documentIds = Dna.sql.getChangedDocumentIds(this.after, this.upTo);
+			if (this.documentIds == null) {
+				return null;
+			}
+			if (this.documentIds.length == 0) {
+				return new ArrayList<TableDocument>();
+			}
+			return Dna.sql.getTableDocuments(this.documentIds);
+		}
+
+		@Override
+		protected void done() {
+			try {
+				ArrayList<TableDocument> documents = get();
+				if (documents == null) { // changes not available
+					refreshDocumentTable();
+					return;
+				}
+				if (documentChangeSequence != this.after) { // the table was reloaded or updated in the meantime
+					if (documentChangeSequence >= 0 && documentTableWorker != null && documentTableWorker.isDone()) {
+						new DocumentTableUpdateWorker(documentChangeSequence).execute(); // catch up from the current state
+					}
+					return;
+				}
+				int selectedId = documentTablePanel.getSelectedDocumentId();
+				documentTableModel.updateDocuments(this.documentIds, documents);
+				documentTablePanel.setSelectedDocumentId(selectedId);
+				documentChangeSequence = this.upTo;
+				LogEvent le = new LogEvent(Logger.MESSAGE,
+						"[GUI] Updated " + this.documentIds.length + " changed documents in the document table in " + (System.nanoTime() - time) / 1000000 + " milliseconds.",
+						"The document table was updated with the " + this.documentIds.length + " documents that were added, changed, or deleted in the database according to its change log, without reloading the other documents. " + (this.documentIds.length - documents.size()) + " of them were removed. This took " + (System.nanoTime() - time) / 1000000 + " milliseconds.");
+				Dna.logger.log(le);
+			} catch (InterruptedException | ExecutionException e) {
+				LogEvent le = new LogEvent(Logger.WARNING,
+						"[GUI] Could not update changed documents in the document table.",
+						"The changed documents could not be updated in the document table. Refresh the document table to display them.",
+						e);
+				Dna.logger.log(le);
+			}
+		}
+	}
+
 	/**
 	 * Swing worker class for loading statements from the database and adding
-	 * them to the statement table in a background thread. The class contains
-	 * SQL code right here instead of moving the SQL code to the {@link sql.Sql
-	 * Sql} class because it contains nested {@code publish} calls that need
-	 * to be in the SQL code but also need to remain in the Swing worker class. 
+	 * them to the statement table in a background thread. When all statements
+	 * are reloaded, only the fields needed for sorting and filtering are
+	 * loaded, and the statement table model loads the text and values of the
+	 * visible rows by page (see {@link StatementTableModel}). Statements that
+	 * are refreshed individually are loaded completely.
 	 */
 	private class StatementTableRefreshWorker extends SwingWorker<List<Statement>, Statement> {
 		/**
@@ -1166,151 +1270,20 @@ public class MainWindow extends JFrame {
 		
 		@Override
 		protected List<Statement> doInBackground() {
-			String subString = "SUBSTRING(DOCUMENTS.Text, Start + 1, Stop - Start) AS Text ";
-			if (Dna.sql.getConnectionProfile().getType().equals("postgresql")) {
-				subString = "SUBSTRING(DOCUMENTS.Text, CAST(Start + 1 AS INT4), CAST(Stop - Start AS INT4)) AS Text ";
-			}
-			String stid = "";
-			if (statementIds.length > 0) {
-				stid = "WHERE STATEMENTS.ID IN ("
-						+ IntStream.of(statementIds)
-						.mapToObj(i -> ((Integer) i).toString()) // i is an int, not an Integer
-						.collect(Collectors.joining(", "))
-						.toString()
-						+ ") ";
-			}
-			String q1 = "SELECT STATEMENTS.ID AS StatementId, "
-					+ "StatementTypeId, "
-					+ "STATEMENTTYPES.Label AS StatementTypeLabel, "
-					+ "STATEMENTTYPES.Red AS StatementTypeRed, "
-					+ "STATEMENTTYPES.Green AS StatementTypeGreen, "
-					+ "STATEMENTTYPES.Blue AS StatementTypeBlue, "
-					+ "Start, "
-					+ "Stop, "
-					+ "STATEMENTS.Coder AS CoderId, "
-					+ "CODERS.Name AS CoderName, "
-					+ "CODERS.Red AS CoderRed, "
-					+ "CODERS.Green AS CoderGreen, "
-					+ "CODERS.Blue AS CoderBlue, "
-					+ "DocumentId, "
-					+ "DOCUMENTS.Date AS Date, "
-					+ subString
-					+ "FROM STATEMENTS "
-					+ "INNER JOIN CODERS ON STATEMENTS.Coder = CODERS.ID "
-					+ "INNER JOIN STATEMENTTYPES ON STATEMENTS.StatementTypeId = STATEMENTTYPES.ID "
-					+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
-					+ stid
-					+ "ORDER BY DOCUMENTS.DATE ASC;";
-			
-			String q2 = "SELECT ID FROM STATEMENTTYPES;";
-			
-			String q3 = "SELECT ID, Variable, DataType FROM VARIABLES;";
-			
-			String q4castBoolean = "DATABOOLEAN.Value";
-			String q4castInteger = "DATAINTEGER.Value";
-			if (Dna.sql.getConnectionProfile().getType().equals("postgresql")) {
-				q4castBoolean = "CAST(DATABOOLEAN.Value AS TEXT)";
-				q4castInteger = "CAST(DATAINTEGER.Value AS TEXT)";
-			}
-			
-			String stidShort = "";
-			String stidLong = "";
-			String stidBool = "";
-			String stidInt = "";
-			if (statementIds.length > 0) {
-				stid = IntStream.of(statementIds)
-						.mapToObj(i -> ((Integer) i).toString()) // i is an int, not an Integer
-						.collect(Collectors.joining(", "))
-						.toString()
-						+ ") ";
-				stidShort = "AND DATASHORTTEXT.StatementId IN (" + stid;
-				stidLong = "AND DATALONGTEXT.StatementId IN (" + stid;
-				stidBool = "AND DATABOOLEAN.StatementId IN (" + stid;
-				stidInt = "AND DATAINTEGER.StatementId IN (" + stid;
-			}
-			String q4 = "SELECT DATASHORTTEXT.StatementId, VARIABLES.ID AS VariableId, ENTITIES.Value AS Value FROM DATASHORTTEXT "
-					+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATASHORTTEXT.VariableId "
-					+ "INNER JOIN ENTITIES ON ENTITIES.VariableId = VARIABLES.ID AND ENTITIES.ID = DATASHORTTEXT.Entity WHERE VARIABLES.StatementTypeId = ? "
-					+ stidShort
-					+ "UNION "
-					+ "SELECT DATALONGTEXT.StatementId, VARIABLES.ID AS VariableId, DATALONGTEXT.Value FROM DATALONGTEXT "
-					+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATALONGTEXT.VariableId WHERE VARIABLES.StatementTypeId = ? "
-					+ stidLong
-					+ "UNION "
-					+ "SELECT DATABOOLEAN.StatementId, VARIABLES.ID AS VariableId, " + q4castBoolean + " FROM DATABOOLEAN "
-					+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATABOOLEAN.VariableId WHERE VARIABLES.StatementTypeId = ? "
-					+ stidBool
-					+ "UNION "
-					+ "SELECT DATAINTEGER.StatementId, VARIABLES.ID AS VariableId, " + q4castInteger + " FROM DATAINTEGER "
-					+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATAINTEGER.VariableId WHERE VARIABLES.StatementTypeId = ? "
-					+ stidInt
-					+ "ORDER BY 1, 2 ASC;";
-			
-			int statementTypeId, statementId, variableId;
-			model.Color sColor, cColor;
-			HashMap<Integer, String> variableNameMap = new HashMap<Integer, String>(); // variable ID to variable name
-			HashMap<Integer, String> variableDataTypeMap = new HashMap<Integer, String>(); // variable ID to data type
-			HashMap<Integer, Statement> statementMap = new HashMap<Integer, Statement>(); // statement ID to Statement
-			ResultSet r3, r4;
-			try (Connection conn = Dna.sql.getDataSource().getConnection();
-					PreparedStatement s1 = conn.prepareStatement(q1);
-					PreparedStatement s2 = conn.prepareStatement(q2);
-					PreparedStatement s3 = conn.prepareStatement(q3);
-					PreparedStatement s4 = conn.prepareStatement(q4);) {
-				
-				// assemble statements without values for now and save them in a hash map
-				ResultSet r1 = s1.executeQuery();
-				while (r1.next()) {
-					statementId = r1.getInt("StatementId");
-				    statementTypeId = r1.getInt("StatementTypeId");
-				    sColor = new model.Color(r1.getInt("StatementTypeRed"), r1.getInt("StatementTypeGreen"), r1.getInt("StatementTypeBlue"));
-				    cColor = new model.Color(r1.getInt("CoderRed"), r1.getInt("CoderGreen"), r1.getInt("CoderBlue"));
-				    Statement statement = new Statement(statementId,
-				    		r1.getInt("Start"),
-				    		r1.getInt("Stop"),
-				    		statementTypeId,
-				    		r1.getString("StatementTypeLabel"),
-				    		sColor,
-				    		r1.getInt("CoderId"),
-				    		r1.getString("CoderName"),
-				    		cColor,
-				    		new ArrayList<Value>(),
-				    		r1.getInt("DocumentId"),
-				    		r1.getString("Text"),
-				    		LocalDateTime.ofEpochSecond(r1.getLong("Date"), 0, ZoneOffset.UTC));
-				    statementMap.put(statementId, statement);
-				}
-				
-				// get variables
-				r3 = s3.executeQuery();
-				while (r3.next()) {
-					variableNameMap.put(r3.getInt("ID"), r3.getString("Variable"));
-					variableDataTypeMap.put(r3.getInt("ID"), r3.getString("DataType"));
-				}
-				
-				// get statement types
-				ResultSet r2 = s2.executeQuery();
-				while (r2.next()) {
-					statementTypeId = r2.getInt("ID");
-					
-					// get values and put them into the statements
-					s4.setInt(1, statementTypeId);
-					s4.setInt(2, statementTypeId);
-					s4.setInt(3, statementTypeId);
-					s4.setInt(4, statementTypeId);
-					r4 = s4.executeQuery();
-					while (r4.next()) {
-						variableId = r4.getInt("VariableId");
-						statementMap.get(r4.getInt("StatementId")).getValues().add(new Value(variableId, variableNameMap.get(variableId), variableDataTypeMap.get(variableId), r4.getString("Value")));
+			try (Connection conn = Dna.sql.getReadDataSource().getConnection()) {
+				ArrayList<Statement> statements = StatementTableModel.loadRows(conn, statementIds);
+				if (statementIds.length > 0) { // a few updated statements: load their text and values right away instead of by page
+					HashMap<Integer, String> texts = StatementTableModel.loadTexts(conn, statementIds);
+					HashMap<Integer, ArrayList<Value>> values = StatementTableModel.loadValues(conn, statementIds);
+					for (Statement statement : statements) {
+						statement.setText(texts.getOrDefault(statement.getId(), ""));
+						statement.setValues(values.getOrDefault(statement.getId(), new ArrayList<Value>()));
 					}
 				}
 				
 				// publish all statements
-				Collection<Statement> s = statementMap.values();
-		        ArrayList<Statement> listOfStatements = new ArrayList<Statement>(s);
-				Collections.sort(listOfStatements);
-		        for (int i = 0; i < listOfStatements.size(); i++) {
-		        	publish(listOfStatements.get(i));
+		        for (int i = 0; i < statements.size(); i++) {
+		        	publish(statements.get(i));
 		        }
 			} catch (SQLException e) {
 				if (e.getMessage().matches(".*Interrupted during connection acquisition.*")) {
@@ -1433,14 +1406,19 @@ public class MainWindow extends JFrame {
 		if (rowCount == 0 || rowCount > 1) {
 			textPanel.setContents(-1, "");
 			getStatementPanel().setDocumentId(-1);
-			statementTableModel.fireTableDataChanged();
 		} else if (rowCount == 1) {
 			int selectedRow = documentTable.getSelectedRow();
 			int selectedModelIndex = documentTable.convertRowIndexToModel(selectedRow);
 			int id = documentTableModel.getIdByModelRow(selectedModelIndex);
-			textPanel.setContents(id, Dna.sql.getDocumentText(id));
+			textPanel.setContents(id);
 			getStatementPanel().setDocumentId(id);
-			statementTableModel.fireTableDataChanged();
+
+			// load the adjacent documents in the background, so they can be displayed without delay
+			int[] adjacentIds = IntStream.of(selectedRow - 1, selectedRow + 1)
+					.filter(r -> r >= 0 && r < documentTable.getRowCount())
+					.map(r -> documentTableModel.getIdByModelRow(documentTable.convertRowIndexToModel(r)))
+					.toArray();
+			textPanel.prefetch(adjacentIds);
 		} else {
 			LogEvent l = new LogEvent(Logger.WARNING,
 					"[GUI] Negative number of rows in the document table!",
@@ -1534,7 +1512,9 @@ public class MainWindow extends JFrame {
 		public void actionPerformed(ActionEvent e) {
 			NewDatabaseDialog n = new NewDatabaseDialog(MainWindow.this, true);
 			ConnectionProfile cp = n.getConnectionProfile();
-			String version = new Sql(cp, false).getVersion();
+			Sql sqlTemp = new Sql(cp, false);
+			String version = sqlTemp.getVersion();
+			sqlTemp.close();
 			if (!version.startsWith("3.0")) {
 				LogEvent le = new LogEvent(Logger.ERROR,
 						"[GUI] Tried to open an incompatible database version.",
@@ -1711,6 +1691,7 @@ public class MainWindow extends JFrame {
 											JOptionPane.ERROR_MESSAGE);
 								} else {
 									boolean authenticated = sqlTemp.authenticate(-1, key);
+									sqlTemp.close();
 									if (authenticated == true) {
 										validPasswordInput = true; // authenticated; quit the while-loop
 										Dna.sql.setConnectionProfile(cp, false); // use the connection profile, so no test
@@ -1833,7 +1814,7 @@ public class MainWindow extends JFrame {
 			Dna.logger.log(l);
 			RegexEditor re = new RegexEditor();
 			if (re.isChanged()) {
-				getTextPanel().paintStatements();
+				getTextPanel().refreshRegexes();
 			}
 			re.dispose();
 		}
@@ -1947,6 +1928,7 @@ public class MainWindow extends JFrame {
 					"[GUI] Action executed: quit DNA.",
 					"Quit DNA from the GUI.");
 			Dna.logger.log(l);
+			Dna.sql.close();
 			System.exit(0);
 		}
 	}
@@ -2072,43 +2054,42 @@ public class MainWindow extends JFrame {
 				ArrayList<TableDocument> updatedDocuments = Dna.sql.getTableDocuments(selectedDocumentIds);
 				for (int i = 0; i < updatedDocuments.size(); i++) {
 					int modelRow = documentTableModel.getModelRowById(updatedDocuments.get(i).getId());
-					int viewRow = t.convertRowIndexToView(modelRow);
 					if (!documentTableModel.getRow(modelRow).getTitle().equals(updatedDocuments.get(i).getTitle())) {
 						documentTableModel.getRow(modelRow).setTitle(updatedDocuments.get(i).getTitle());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(1));
+						documentTableModel.fireTableCellUpdated(modelRow, 1);
 					}
 					if (documentTableModel.getRow(modelRow).getFrequency() != updatedDocuments.get(i).getFrequency()) {
 						documentTableModel.getRow(modelRow).setFrequency(updatedDocuments.get(i).getFrequency());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(2));
+						documentTableModel.fireTableCellUpdated(modelRow, 2);
 					}
 					if (!documentTableModel.getRow(modelRow).getDateTime().equals(updatedDocuments.get(i).getDateTime())) {
 						documentTableModel.getRow(modelRow).setDateTime(updatedDocuments.get(i).getDateTime());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(3));
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(4));
+						documentTableModel.fireTableCellUpdated(modelRow, 3);
+						documentTableModel.fireTableCellUpdated(modelRow, 4);
 					}
 					if (documentTableModel.getRow(modelRow).getCoder().getId() != updatedDocuments.get(i).getCoder().getId()) {
 						documentTableModel.getRow(modelRow).setCoder(updatedDocuments.get(i).getCoder());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(5));
+						documentTableModel.fireTableCellUpdated(modelRow, 5);
 					}
 					if (!documentTableModel.getRow(modelRow).getAuthor().equals(updatedDocuments.get(i).getAuthor())) {
 						documentTableModel.getRow(modelRow).setAuthor(updatedDocuments.get(i).getAuthor());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(6));
+						documentTableModel.fireTableCellUpdated(modelRow, 6);
 					}
 					if (!documentTableModel.getRow(modelRow).getSource().equals(updatedDocuments.get(i).getSource())) {
 						documentTableModel.getRow(modelRow).setSource(updatedDocuments.get(i).getSource());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(7));
+						documentTableModel.fireTableCellUpdated(modelRow, 7);
 					}
 					if (!documentTableModel.getRow(modelRow).getSection().equals(updatedDocuments.get(i).getSection())) {
 						documentTableModel.getRow(modelRow).setSection(updatedDocuments.get(i).getSection());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(8));
+						documentTableModel.fireTableCellUpdated(modelRow, 8);
 					}
 					if (!documentTableModel.getRow(modelRow).getType().equals(updatedDocuments.get(i).getType())) {
 						documentTableModel.getRow(modelRow).setType(updatedDocuments.get(i).getType());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(9));
+						documentTableModel.fireTableCellUpdated(modelRow, 9);
 					}
 					if (!documentTableModel.getRow(modelRow).getNotes().equals(updatedDocuments.get(i).getNotes())) {
 						documentTableModel.getRow(modelRow).setNotes(updatedDocuments.get(i).getNotes());
-						documentTableModel.fireTableCellUpdated(viewRow, t.convertColumnIndexToView(10));
+						documentTableModel.fireTableCellUpdated(modelRow, 10);
 					}
 				}
 				
@@ -2134,7 +2115,7 @@ public class MainWindow extends JFrame {
 		
 		public void actionPerformed(ActionEvent e) {
 			new DocumentBatchImporter();
-	    	refreshDocumentTable();
+	    	updateDocumentTable();
 			LogEvent l = new LogEvent(Logger.MESSAGE,
 					"[GUI] Action executed: used document batch importer.",
 					"Batch-imported documents to the database.");
@@ -2156,7 +2137,7 @@ public class MainWindow extends JFrame {
 		
 		public void actionPerformed(ActionEvent e) {
 			new Importer(MainWindow.this);
-	    	refreshDocumentTable();
+	    	updateDocumentTable();
 			refreshStatementTable(new int[0]);
 			LogEvent l = new LogEvent(Logger.MESSAGE,
 					"[GUI] Action executed: used DNA database import dialog.",
@@ -2218,6 +2199,7 @@ public class MainWindow extends JFrame {
 		}
 		
 		public void actionPerformed(ActionEvent e) {
+			textPanel.clearCache();
 	    	refreshDocumentTable();
 			refreshStatementTable(new int[0]);
 		}
@@ -2315,9 +2297,7 @@ public class MainWindow extends JFrame {
 					getTextPanel().paintStatements();
 					statementTable.clearSelection();
 					statementTableModel.removeStatements(modelRows);
-					for (int i = 0; i < documentIds.length; i++) {
-						documentTableModel.decreaseFrequency(documentIds[i]);
-					}
+					documentTableModel.decreaseFrequencies(documentIds);
 					
 					// log deleted statements
 					LogEvent l = new LogEvent(Logger.MESSAGE,
@@ -18,6 +18,7 @@ import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -311,6 +312,7 @@ public class NewDatabaseDialog extends JDialog {
 							connectionDetailsPanel.getPort(),
 							connectionDetailsPanel.getLogin(),
 							connectionDetailsPanel.getPassword());
+					tempConnectionProfile.setInMemory(connectionDetailsPanel.getInMemory());
 					sql.Sql testConnection = new sql.Sql(tempConnectionProfile, true); // connection test, so true
 					
 					if (openExistingDatabase == true) { // existing database: select and authenticate user, then open connection as main database in DNA
@@ -517,8 +519,9 @@ public class NewDatabaseDialog extends JDialog {
 		private String connectionType;
 		
 		private JTextField urlField, databaseNameField, portField, loginField;
-		private JLabel urlLabel, databaseNameLabel, portLabel, loginLabel, passwordLabel;
+		private JLabel urlLabel, databaseNameLabel, portLabel, loginLabel, passwordLabel, memoryLabel;
 		private JPasswordField passwordField;
+		private JComboBox<String> memoryBox;
 		private JButton folderButton;
 		private String ttUrl;
 		
@@ -696,6 +699,32 @@ public class NewDatabaseDialog extends JDialog {
 			this.add(passwordLabel, g);
 			g.gridx = 3;
 			this.add(passwordField, g);
+
+			// in-memory mode for existing SQLite databases
+			memoryLabel = new JLabel("Load into memory", JLabel.RIGHT);
+			memoryBox = new JComboBox<String>(new String[] {
+					"No, read and write the file",
+					"Yes, read-only",
+					"Yes, write changes back periodically and on close" });
+			memoryLabel.setLabelFor(memoryBox);
+			String ttMemory = "<html><p width=\"500\">Copy the SQLite database into memory when it is "
+					+ "opened and answer all queries from memory. This makes exports and other analyses "
+					+ "faster, especially for large databases, but needs as much memory as the size of the "
+					+ "file. In read-only mode, no changes can be made. Otherwise, changes are written back "
+					+ "to the file every few minutes and when the database is closed or DNA is exited, so "
+					+ "the most recent changes are lost if DNA crashes, and changes made to the file by "
+					+ "other programs in the meantime are overwritten.</p></html>";
+			memoryBox.setToolTipText(ttMemory);
+			memoryLabel.setToolTipText(ttMemory);
+			if (openExistingDatabase) {
+				g.gridx = 0;
+				g.gridy = 3;
+				this.add(memoryLabel, g);
+				g.gridx = 1;
+				g.gridwidth = 3;
+				this.add(memoryBox, g);
+				g.gridwidth = 1;
+			}
 			
 			CompoundBorder border;
 			border = BorderFactory.createCompoundBorder(new EmptyBorder(10, 10, 10, 10), new TitledBorder("Database settings"));
@@ -730,6 +759,8 @@ public class NewDatabaseDialog extends JDialog {
 				this.loginField.setEnabled(false);
 				this.passwordLabel.setEnabled(false);
 				this.passwordField.setEnabled(false);
+				this.memoryLabel.setEnabled(true);
+				this.memoryBox.setEnabled(true);
 				this.urlLabel.setText("File name");
 			} else {
 				this.folderButton.setEnabled(false);
@@ -741,6 +772,9 @@ public class NewDatabaseDialog extends JDialog {
 				this.loginField.setEnabled(true);
 				this.passwordLabel.setEnabled(true);
 				this.passwordField.setEnabled(true);
+				this.memoryBox.setSelectedIndex(0);
+				this.memoryLabel.setEnabled(false);
+				this.memoryBox.setEnabled(false);
 				String tempDatabaseName = getDatabaseName();
 				String tempLogin = getLogin();
 				String tempPassword = getPassword();
@@ -851,6 +885,24 @@ public class NewDatabaseDialog extends JDialog {
 			}
 		}
 		
+		/**
+		 * Get the in-memory mode for SQLite databases from the combo box.
+		 * 
+		 * @return The in-memory mode as used in {@link
+		 *   sql.ConnectionProfile#getInMemory()}.
+		 */
+		String getInMemory() {
+			if (!this.connectionType.equals("sqlite") || !openExistingDatabase) {
+				return "off";
+			} else if (memoryBox.getSelectedIndex() == 1) {
+				return "read-only";
+			} else if (memoryBox.getSelectedIndex() == 2) {
+				return "write-back";
+			} else {
+				return "off";
+			}
+		}
+		
 		/**
 		 * Is the input provided by the user valid?
 		 * 
@@ -911,6 +963,7 @@ public class NewDatabaseDialog extends JDialog {
 		 */
 		void clear() {
 			this.setConnectionType("sqlite");
+			this.memoryBox.setSelectedIndex(0);
 			this.urlField.setText("");
 		}
 	}
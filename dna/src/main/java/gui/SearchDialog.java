@@ -353,7 +353,7 @@ public class SearchDialog extends JDialog implements DocumentTablePanel.Document
 					.collect(Collectors.joining(", "))
 					.toString();
 			
-			try (Connection conn = Dna.sql.getDataSource().getConnection();
+			try (Connection conn = Dna.sql.getReadDataSource().getConnection();
 					PreparedStatement s = conn.prepareStatement("SELECT ID, Date, Title, Text FROM DOCUMENTS WHERE Text LIKE '%" + regex + "%' AND CODER IN (" + ids + ");");
 					ResultSet rs = s.executeQuery();) {
 				String text, title, match;
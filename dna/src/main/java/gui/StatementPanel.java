@@ -15,7 +15,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
+import java.util.Arrays;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -36,14 +37,15 @@ import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListCellRenderer;
 import javax.swing.ListSelectionModel;
-import javax.swing.RowFilter;
 import javax.swing.UIDefaults;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableColumn;
+import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableStringConverter;
 
 import dna.Dna;
 import gui.MainWindow.ActionRecodeStatements;
@@ -69,6 +71,7 @@ class StatementPanel extends JPanel {
 	private JComboBox<StatementType> statementTypeBox;
 	private int documentId; // needed for the filter to check if a statement is in the current document; updated by listener
 	private TableRowSorter<StatementTableModel> sorter;
+	private BackgroundRowFilter<StatementTableModel, String[]> statementFilter;
 	private JMenuItem menuItemStatementsSelected, menuItemStatementTypesSelected, menuItemToggleSelection;
 
 	/**
@@ -87,7 +90,22 @@ class StatementPanel extends JPanel {
 		statementTable = new JTable(statementTableModel);
 
 		statementTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
-		sorter = new TableRowSorter<StatementTableModel>(statementTableModel);
+		sorter = new TableRowSorter<StatementTableModel>(statementTableModel) {
+			@Override
+			protected boolean useToString(int column) {
+				return column == 5 || super.useToString(column); // sort the text by its sort key, which does not load the text
+			}
+		};
+		sorter.setStringConverter(new TableStringConverter() {
+			@Override
+			public String toString(TableModel model, int row, int column) {
+				if (column == 5) {
+					return statementTableModel.getSortKey(row);
+				}
+				Object value = model.getValueAt(row, column);
+				return value == null ? "" : value.toString();
+			}
+		});
 		statementTable.setRowSorter(sorter);
 
 		// set column visibility
@@ -243,14 +261,28 @@ class StatementPanel extends JPanel {
 		menuItemCoder.addActionListener(al);
 		menuItemText.addActionListener(al);
 
-		// row filter
-		RowFilter<StatementTableModel, Integer> statementFilter = new RowFilter<StatementTableModel, Integer>() {
-			public boolean include(Entry<? extends StatementTableModel, ? extends Integer> entry) {
-				Statement s = statementTableModel.getRow(entry.getIdentifier());
-				return filter(s, documentId);
-			}
-		};
-		sorter.setRowFilter(statementFilter);
+		// row filter; the ID and values of each statement are converted to strings once and cached
+		statementFilter = new BackgroundRowFilter<StatementTableModel, String[]>(statementTableModel, sorter,
+				row -> statementTableModel.getRow(row).getId(),
+				row -> {
+					Statement s = statementTableModel.getRow(row);
+					ArrayList<Value> values = statementTableModel.getValues(s);
+					if (values == null) {
+						return null; // values are being loaded; the filter is applied again when they are available
+					}
+					String[] fields = new String[values.size() + 1];
+					fields[0] = String.valueOf(s.getId());
+					for (int i = 0; i < values.size(); i++) {
+						Object v = values.get(i).getValue();
+						if (v instanceof Entity) {
+							fields[i + 1] = ((Entity) v).getValue();
+						} else {
+							fields[i + 1] = String.valueOf(v);
+						}
+					}
+					return fields;
+				},
+				row -> isVisible(statementTableModel.getRow(row)));
 		
 		// statement filter panel at the bottom
 		StatementFilterPanel sfp = new StatementFilterPanel();
@@ -265,6 +297,7 @@ class StatementPanel extends JPanel {
 	 */
 	void setDocumentId(int documentId) {
 		this.documentId = documentId;
+		statementFilter.refilter();
 	}
 
 	/**
@@ -374,19 +407,16 @@ class StatementPanel extends JPanel {
 	}
 	
 	/**
-	 * Filter statements. Return {@code true} if the statement should be listed
-	 * in the table and {@code false} otherwise. This depends on the document
-	 * that is currently being displayed and on the settings of the filter
-	 * fields, which always keep the {@code variables} list up-to-date with the
-	 * current filter contents, using a document filter.
+	 * Check if a statement can be listed in the table, regardless of the
+	 * patterns in the filter fields. This depends on the permissions of the
+	 * active coder, the document that is currently being displayed, and the
+	 * statement type selected in the filter panel.
 	 * 
-	 * @param s           The statement that should be assessed on whether it
-	 *   should be displayed.
-	 * @param documentId  The ID of the document that is currently being
+	 * @param s  The statement that should be assessed on whether it should be
 	 *   displayed.
-	 * @return            Whether the statement should be shown or not.
+	 * @return   Whether the statement can be shown or not.
 	 */
-	private boolean filter(Statement s, int documentId) {
+	private boolean isVisible(Statement s) {
 		if (Dna.sql.getActiveCoder() == null || Dna.sql.getConnectionProfile() == null) {
 			return false;
 		}
@@ -400,52 +430,68 @@ class StatementPanel extends JPanel {
 		if (allButton.isSelected()) {
 			return true; // show all statements
 		} else if (docButton.isSelected()) {
-			if (s.getDocumentId() == documentId) {
-				return true; // show statement if it's in the right document
-			} else {
-				return false;
-			}
-		} else if (variables == null || variables.size() == 0) {
-			if (statementTypeBox.getSelectedItem() == null) {
-				return true; // no statement type -> something went wrong; show the statement
-			} else if (s.getStatementTypeId() == ((StatementType) statementTypeBox.getSelectedItem()).getId()) {
-				return true; // statement type matches, variables cannot be found; show the statement
-			} else {
-				return false; // statement type does not match and there are no variables; don't show the statement
-			}
+			return s.getDocumentId() == documentId; // show statement if it's in the right document
+		} else if (statementTypeBox.getSelectedItem() == null) {
+			return true; // no statement type -> something went wrong; show the statement
 		} else {
-			// check statement type from statement type box for a non-match
-			if (s.getStatementTypeId() != ((StatementType) statementTypeBox.getSelectedItem()).getId()) {
-				return false;
-			} else {
-				// check ID field for a non-match
-				Pattern pattern = Pattern.compile(idFieldPattern);
-				Matcher m = pattern.matcher(String.valueOf((int) s.getId()));
-				if (!m.find()) {
-					return false;
-				}
-				// check variables for a non-match 
-				for (int i = 0; i < variables.size(); i++) {
-					try {
-						pattern = Pattern.compile((String) variables.get(i).getValue());
-						if (s.getValues().get(i).getValue().getClass().toString().endsWith("Entity")) {
-							m = pattern.matcher(((Entity) s.getValues().get(i).getValue()).getValue());
-						} else if (s.getValues().get(i).getValue().getClass().toString().endsWith("Integer")) {
-							m = pattern.matcher(String.valueOf((int) s.getValues().get(i).getValue()));
-						} else {
-							m = pattern.matcher((String) s.getValues().get(i).getValue());
-						}
-						if (!m.find()) {
-							return false;
-						}
-					} catch (PatternSyntaxException pse) {
-						return true; // pattern could not be compiled, perhaps open parentheses or similar while typing in the regex, so do not filter out the entry
-					}
+			return s.getStatementTypeId() == ((StatementType) statementTypeBox.getSelectedItem()).getId();
+		}
+	}
 
-				}
+	/**
+	 * Compile the patterns of the statement ID and variable filter fields,
+	 * which always keep the {@code variables} list up-to-date with the current
+	 * filter contents, and pass them to the row filter. Empty patterns and
+	 * patterns that cannot be compiled, perhaps because an open parenthesis
+	 * has just been typed, are ignored.
+	 * 
+	 * @param delayed  Apply the patterns after the user stops typing rather
+	 *   than immediately?
+	 */
+	private void updateFilterPatterns(boolean delayed) {
+		Pattern[] patterns = null;
+		if (filterButton.isSelected() && variables != null && variables.size() > 0) {
+			patterns = new Pattern[variables.size() + 1];
+			patterns[0] = compile(idFieldPattern);
+			for (int i = 0; i < variables.size(); i++) {
+				patterns[i + 1] = compile((String) variables.get(i).getValue());
 			}
 		}
-		return true;
+		Predicate<String[]> matcher = null;
+		if (patterns != null && Arrays.stream(patterns).anyMatch(p -> p != null)) {
+			Pattern[] p = patterns;
+			matcher = fields -> {
+				for (int i = 0; i < p.length; i++) {
+					if (p[i] != null && !p[i].matcher(i < fields.length ? fields[i] : "").find()) {
+						return false;
+					}
+				}
+				return true;
+			};
+		}
+		if (delayed) {
+			statementFilter.setMatcher(matcher);
+		} else {
+			statementFilter.setMatcherNow(matcher);
+		}
+	}
+
+	/**
+	 * Compile a filter pattern.
+	 * 
+	 * @param pattern  The pattern.
+	 * @return         The compiled pattern, or {@code null} if the pattern is
+	 *   empty or invalid.
+	 */
+	private static Pattern compile(String pattern) {
+		if (pattern == null || pattern.equals("")) {
+			return null;
+		}
+		try {
+			return Pattern.compile(pattern);
+		} catch (PatternSyntaxException pse) {
+			return null;
+		}
 	}
 
 	/**
@@ -515,7 +561,7 @@ class StatementPanel extends JPanel {
 						}
 						private void updatePatterns() {
 							idFieldPattern = idFilterField.getText();
-							statementTableModel.fireTableDataChanged();
+							updateFilterPatterns(true);
 						}
 					});
 					gbc.gridx--;
@@ -547,14 +593,14 @@ class StatementPanel extends JPanel {
 							}
 							private void updatePatterns() {
 								variables.get(VARINDEX).setValue((String) filterField.getText());
-								statementTableModel.fireTableDataChanged();
+								updateFilterPatterns(true);
 							}
 						});
 					}
 					variablePanel = varPanel;
 					variablePanel.setVisible(true);
 					addVariablePanel();
-					statementTableModel.fireTableDataChanged();
+					updateFilterPatterns(false);
 				}
 			};
 			
@@ -592,7 +638,7 @@ class StatementPanel extends JPanel {
 						}
 						statementTypeBox.setVisible(true);
 					}
-					statementTableModel.fireTableDataChanged(); // update the filter even if no new statement type has been selected yet
+					updateFilterPatterns(false); // update the filter even if no new statement type has been selected yet
 				}
 			};
 			allButton.addActionListener(al);
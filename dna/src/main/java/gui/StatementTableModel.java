@@ -1,20 +1,115 @@
 package gui;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import javax.swing.SwingWorker;
 import javax.swing.table.AbstractTableModel;
 
+import dna.Dna;
+import logger.LogEvent;
+import logger.Logger;
 import model.Coder;
 import model.Statement;
+import model.Value;
+import sql.Query;
 
 /**
- * A table model for the statements shown in the statement panel.
+ * A table model for the statements shown in the statement panel. The model
+ * holds all statements, but only with the fields needed for sorting,
+ * filtering by document or coder, and coloring the rows, and with the first
+ * {@link #SORT_KEY_LENGTH} characters of the text for sorting by text. The text and the
+ * variable values of a statement are loaded in the background, in pages of
+ * {@link #PAGE_SIZE} rows, when a row is displayed for the first time. Only
+ * the {@link #MAX_PAGES} most recently used pages are kept in memory. The
+ * values of all statements of one statement type can be loaded separately for
+ * filtering the table by variable values.
  */
 class StatementTableModel extends AbstractTableModel {
 	private static final long serialVersionUID = 3231569380143470667L;
+
+	/**
+	 * The number of model rows whose text and values are loaded together.
+	 */
+	static final int PAGE_SIZE = 100;
+
+	/**
+	 * The maximum number of pages whose text and values are kept in memory.
+	 */
+	static final int MAX_PAGES = 50;
+
+	/**
+	 * The number of characters at the beginning of the text of a statement
+	 * that are loaded with every row for sorting the table by text.
+	 */
+	static final int SORT_KEY_LENGTH = 100;
+
+	/**
+	 * The maximum number of separate row ranges that are removed with one
+	 * deletion event each. If more ranges are removed at once, the table is
+	 * notified that all data have changed.
+	 */
+	private static final int MAX_DELETION_EVENTS = 16;
+
 	private ArrayList<Statement> rows;
+
+	/**
+	 * The model row of each statement, by statement ID. After rows have been
+	 * inserted, removed, or sorted, the index is rebuilt when it is used next.
+	 */
+	private final HashMap<Integer, Integer> rowIndex = new HashMap<Integer, Integer>();
+	private boolean rowIndexValid = true;
+
+	/**
+	 * The statements of the loaded pages, by page index, in the order of
+	 * their last use. The text and values of the statements of the least
+	 * recently used page are removed when there are too many pages.
+	 */
+	private final LinkedHashMap<Integer, ArrayList<Statement>> pages = new LinkedHashMap<Integer, ArrayList<Statement>>(16, 0.75f, true) {
+		private static final long serialVersionUID = -2286339011906924364L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, ArrayList<Statement>> eldest) {
+			if (size() > MAX_PAGES) {
+				for (Statement s : eldest.getValue()) {
+					if (s instanceof Row) { // other statements were added with their text and have no sort key without it
+						s.setText(null);
+						s.setValues(new ArrayList<Value>());
+					}
+				}
+				return true;
+			}
+			return false;
+		}
+	};
+	private final HashSet<Integer> pendingPages = new HashSet<Integer>();
+
+	/**
+	 * Values of all statements of one statement type for filtering, by
+	 * statement ID, or {@code null} if no values have been loaded.
+	 */
+	private HashMap<Integer, ArrayList<Value>> filterValues = null;
+	private int filterStatementTypeId = -1;
+
+	/**
+	 * Counts how often the rows have been replaced, so pages that were
+	 * requested before are not added to the cache.
+	 */
+	private int generation = 0;
 	
 	/**
 	 * Create a new statement table model.
@@ -44,11 +139,63 @@ class StatementTableModel extends AbstractTableModel {
 		case 2: return rows.get(rowIndex).getStart();
 		case 3: return rows.get(rowIndex).getStop();
 		case 4: return new Coder(rows.get(rowIndex).getCoderId(), rows.get(rowIndex).getCoderName(), rows.get(rowIndex).getCoderColor());
-		case 5: return rows.get(rowIndex).getText();
+		case 5: return getText(rowIndex);
 		default: return null;
 		}
 	}
 
+	/**
+	 * Get the text of a statement, or an empty string while the page of the
+	 * statement is being loaded.
+	 */
+	private String getText(int rowIndex) {
+		Statement s = rows.get(rowIndex);
+		if (s.getText() == null) {
+			loadPage(rowIndex / PAGE_SIZE);
+			return "";
+		}
+		pages.get(rowIndex / PAGE_SIZE); // mark the page as recently used
+		return s.getText();
+	}
+
+	/**
+	 * Get the key for sorting a statement by text without loading the text.
+	 * 
+	 * @param rowIndex  The model row.
+	 * @return          The first {@link #SORT_KEY_LENGTH} characters of the
+	 *   text of the statement.
+	 */
+	String getSortKey(int rowIndex) {
+		Statement s = rows.get(rowIndex);
+		if (s instanceof Row) {
+			return ((Row) s).sortKey;
+		}
+		String text = s.getText() == null ? "" : s.getText();
+		return text.substring(0, Math.min(text.length(), SORT_KEY_LENGTH));
+	}
+
+	/**
+	 * Get the values of a statement for filtering. If the values are not in
+	 * memory, the values of all statements of the same statement type are
+	 * loaded in the background, and the table is notified when they are
+	 * available.
+	 * 
+	 * @param s  A statement from the model.
+	 * @return   The values, or {@code null} if they are being loaded.
+	 */
+	ArrayList<Value> getValues(Statement s) {
+		if (s.getText() != null || s.getValues().size() > 0) {
+			return s.getValues();
+		}
+		if (filterStatementTypeId == s.getStatementTypeId() && filterValues != null) {
+			return filterValues.getOrDefault(s.getId(), new ArrayList<Value>());
+		}
+		if (filterStatementTypeId != s.getStatementTypeId()) {
+			loadFilterValues(s.getStatementTypeId());
+		}
+		return null;
+	}
+
 	/**
 	 * Return the name of a column.
 	 * 
@@ -118,12 +265,14 @@ class StatementTableModel extends AbstractTableModel {
 	 * @see {@link #getIdByModelRow(int row)}
 	 */
 	public int getModelRowById(int statementId) {
-		for (int i = 0; i < rows.size(); i++) {
-			if (rows.get(i).getId() == statementId) {
-				return i;
+		if (!rowIndexValid) {
+			rowIndex.clear();
+			for (int i = 0; i < rows.size(); i++) {
+				rowIndex.put(rows.get(i).getId(), i);
 			}
+			rowIndexValid = true;
 		}
-		return -1;
+		return rowIndex.getOrDefault(statementId, -1);
 	}
 
 	/**
@@ -153,9 +302,31 @@ class StatementTableModel extends AbstractTableModel {
 	 * @param rows  The model rows of the statements.
 	 */
 	public void removeStatements(int[] modelRowIndices) {
-		for (int i = modelRowIndices.length - 1; i >= 0; i--) {
-			rows.remove(modelRowIndices[i]);
-			fireTableRowsDeleted(modelRowIndices[i], modelRowIndices[i]);
+		int[] sorted = IntStream.of(modelRowIndices).filter(i -> i >= 0 && i < rows.size()).distinct().sorted().toArray();
+		if (sorted.length == 0) {
+			return;
+		}
+		ArrayList<int[]> ranges = toRanges(sorted);
+		rowIndexValid = false;
+		if (ranges.size() > MAX_DELETION_EVENTS) {
+			boolean[] removed = new boolean[rows.size()];
+			for (int i : sorted) {
+				removed[i] = true;
+			}
+			ArrayList<Statement> remaining = new ArrayList<Statement>(rows.size() - sorted.length);
+			for (int i = 0; i < rows.size(); i++) {
+				if (!removed[i]) {
+					remaining.add(rows.get(i));
+				}
+			}
+			rows.clear();
+			rows.addAll(remaining);
+			fireTableDataChanged();
+		} else {
+			for (int i = ranges.size() - 1; i >= 0; i--) { // from the end, so the remaining ranges keep their positions
+				rows.subList(ranges.get(i)[0], ranges.get(i)[1] + 1).clear();
+				fireTableRowsDeleted(ranges.get(i)[0], ranges.get(i)[1]);
+			}
 		}
 	}
 
@@ -166,12 +337,8 @@ class StatementTableModel extends AbstractTableModel {
 	 * @param documentIds  An array list of document IDs.
 	 */
 	public void removeStatementsByDocuments(ArrayList<Integer> documentIds) {
-		for (int i = rows.size() - 1; i >= 0; i--) {
-			if (documentIds.contains(rows.get(i).getDocumentId())) {
-				rows.remove(i);
-				fireTableRowsDeleted(i, i);
-			}
-		}
+		HashSet<Integer> ids = new HashSet<Integer>(documentIds);
+		removeStatements(IntStream.range(0, rows.size()).filter(i -> ids.contains(rows.get(i).getDocumentId())).toArray());
 	}
 	
 	/**
@@ -180,6 +347,13 @@ class StatementTableModel extends AbstractTableModel {
 	 */
 	void clear() {
 		rows.clear();
+		rowIndex.clear();
+		rowIndexValid = true;
+		pages.clear();
+		pendingPages.clear();
+		filterValues = null;
+		filterStatementTypeId = -1;
+		generation++;
 		fireTableDataChanged();
 	}
 	
@@ -191,21 +365,16 @@ class StatementTableModel extends AbstractTableModel {
 	 * @return   New row index of the added statement.
 	 */
 	int addRow(Statement s) {
-		int newRowIndex = -1;
-		if (rows.size() > 0) {
-			for (int i = 0; i < rows.size(); i++) {
-				if (s.compareTo(rows.get(i)) == -1) {
-					newRowIndex = i;
-					break;
-				}
-			}
-		} else {
-			newRowIndex = 0;
-		}
-		if (newRowIndex == -1) { // there were other statements, but the new statement is more recent than all of them
-			newRowIndex = rows.size();
+		int newRowIndex = Collections.binarySearch(rows, s); // the rows are sorted
+		if (newRowIndex < 0) {
+			newRowIndex = -newRowIndex - 1;
 		}
 		rows.add(newRowIndex, s);
+		if (newRowIndex == rows.size() - 1) {
+			rowIndex.put(s.getId(), newRowIndex);
+		} else {
+			rowIndexValid = false;
+		}
 		fireTableRowsInserted(newRowIndex, newRowIndex);
 		return newRowIndex;
 	}
@@ -221,30 +390,336 @@ class StatementTableModel extends AbstractTableModel {
     	int n = this.rows.size();
         for (Statement row : chunks) {
             rows.add(row);
+            rowIndex.put(row.getId(), rows.size() - 1);
         }
         fireTableRowsInserted(n, n + chunks.size() - 1); // subtract one because we don't need the cursor to be at the next position; it should refer to the last position
 	}
 	
 	/**
 	 * Take a list of statements and replace any existing statements with the
-	 * same IDs by these statements.
+	 * same IDs by these statements. The table is notified once for each range
+	 * of consecutive updated rows.
 	 * 
 	 * @param chunks
 	 */
 	void updateStatements(List<Statement> chunks) {
-		for (int i = 0; i < chunks.size(); i++) {
-			for (int j = 0; j < rows.size(); j++) {
-				if (rows.get(j).getId() == chunks.get(i).getId()) {
-					rows.set(j, chunks.get(i));
-					this.fireTableRowsUpdated(j, j);
-					break;
+		int[] updated = new int[chunks.size()];
+		int n = 0;
+		for (Statement s : chunks) {
+			int row = getModelRowById(s.getId());
+			if (row > -1) {
+				rows.set(row, s);
+				if (filterValues != null && filterStatementTypeId == s.getStatementTypeId()) {
+					filterValues.put(s.getId(), s.getValues());
 				}
+				updated[n] = row;
+				n++;
 			}
 		}
+		for (int[] range : toRanges(IntStream.of(updated).limit(n).distinct().sorted().toArray())) {
+			fireTableRowsUpdated(range[0], range[1]);
+		}
 	}
 	
 	void sort() {
 		Collections.sort(rows);
+		rowIndexValid = false;
 		fireTableDataChanged();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Group sorted row indices into ranges of consecutive rows.
+	 * 
+	 * @param sortedRows  Sorted, distinct row indices.
+	 * @return            The first and last row of each range.
+	 */
+	private static ArrayList<int[]> toRanges(int[] sortedRows) {
+		ArrayList<int[]> ranges = new ArrayList<int[]>();
+		for (int i = 0; i < sortedRows.length; i++) {
+			if (ranges.size() > 0 && ranges.get(ranges.size() - 1)[1] == sortedRows[i] - 1) {
+				ranges.get(ranges.size() - 1)[1] = sortedRows[i];
+			} else {
+				ranges.add(new int[] { sortedRows[i], sortedRows[i] });
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * Load the text and values of the statements in a page of model rows in
+	 * the background, unless the page is already being loaded.
+	 * 
+	 * @param page  The page index.
+	 */
+	private void loadPage(int page) {
+		if (!pendingPages.add(page)) {
+			return;
+		}
+		ArrayList<Statement> statements = new ArrayList<Statement>(rows.subList(page * PAGE_SIZE, Math.min(rows.size(), (page + 1) * PAGE_SIZE)));
+		int[] ids = statements.stream().mapToInt(s -> s.getId()).toArray();
+		int g = generation;
+		new SwingWorker<Object[], Void>() {
+			@Override
+			protected Object[] doInBackground() throws SQLException {
+				try (Connection conn = Dna.sql.getReadDataSource().getConnection()) {
+					return new Object[] { loadTexts(conn, ids), loadValues(conn, ids) };
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			protected void done() {
+				if (g != generation) {
+					return;
+				}
+				pendingPages.remove(page);
+				try {
+					HashMap<Integer, String> texts = (HashMap<Integer, String>) get()[0];
+					HashMap<Integer, ArrayList<Value>> values = (HashMap<Integer, ArrayList<Value>>) get()[1];
+					for (Statement s : statements) {
+						s.setText(texts.getOrDefault(s.getId(), ""));
+						s.setValues(values.getOrDefault(s.getId(), new ArrayList<Value>()));
+					}
+					pages.put(page, statements);
+				} catch (InterruptedException | ExecutionException e) {
+					LogEvent l = new LogEvent(Logger.WARNING,
+							"[SQL] Failed to load statements for the statement table.",
+							"Attempted to load the text and values of " + ids.length + " statements for display in the statement table, but something went wrong.",
+							e);
+					Dna.logger.log(l);
+					return;
+				}
+				int first = page * PAGE_SIZE;
+				int last = Math.min(rows.size(), first + PAGE_SIZE) - 1;
+				if (first <= last) {
+					fireTableRowsUpdated(first, last);
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Load the values of all statements of a statement type for filtering in
+	 * the background, replacing the values of the previous statement type.
+	 * 
+	 * @param statementTypeId  The statement type ID.
+	 */
+	private void loadFilterValues(int statementTypeId) {
+		filterStatementTypeId = statementTypeId;
+		filterValues = null;
+		int g = generation;
+		new SwingWorker<HashMap<Integer, ArrayList<Value>>, Void>() {
+			@Override
+			protected HashMap<Integer, ArrayList<Value>> doInBackground() throws SQLException {
+				try (Connection conn = Dna.sql.getReadDataSource().getConnection()) {
+					return loadValues(conn, table -> new Query(Dna.sql.getConnectionProfile().getType())
+							.append(table + ".StatementId IN (SELECT ID FROM STATEMENTS WHERE StatementTypeId = ?) ", statementTypeId));
+				}
+			}
+
+			@Override
+			protected void done() {
+				if (g != generation || filterStatementTypeId != statementTypeId) {
+					return;
+				}
+				try {
+					filterValues = get();
+				} catch (InterruptedException | ExecutionException e) {
+					filterStatementTypeId = -1;
+					LogEvent l = new LogEvent(Logger.WARNING,
+							"[SQL] Failed to load statement values for filtering.",
+							"Attempted to load the variable values of all statements of Statement Type " + statementTypeId + " to filter the statement table, but something went wrong.",
+							e);
+					Dna.logger.log(l);
+					return;
+				}
+				fireTableDataChanged(); // apply the filter again
+			}
+		}.execute();
+	}
+
+	/**
+	 * Load statements without their text and values, sorted as in the table.
+	 * The statements contain the beginning of their text as a sort key.
+	 * 
+	 * @param conn          A connection to the database.
+	 * @param statementIds  The IDs of the statements to load. Can be of length
+	 *   zero to load all statements.
+	 * @return              The statements.
+	 * @throws SQLException  If the statements could not be loaded.
+	 */
+	static ArrayList<Statement> loadRows(Connection conn, int[] statementIds) throws SQLException {
+		String type = Dna.sql.getConnectionProfile().getType();
+		String sortKey = "SUBSTRING(DOCUMENTS.Text, Start + 1, " + SORT_KEY_LENGTH + ") AS SortKey, ";
+		if (type.equals("postgresql")) {
+			sortKey = "SUBSTRING(DOCUMENTS.Text, CAST(Start + 1 AS INT4), " + SORT_KEY_LENGTH + ") AS SortKey, ";
+		}
+		Query q = new Query(type).append("SELECT STATEMENTS.ID AS StatementId, "
+				+ "StatementTypeId, "
+				+ "STATEMENTTYPES.Label AS StatementTypeLabel, "
+				+ "STATEMENTTYPES.Red AS StatementTypeRed, "
+				+ "STATEMENTTYPES.Green AS StatementTypeGreen, "
+				+ "STATEMENTTYPES.Blue AS StatementTypeBlue, "
+				+ "Start, "
+				+ "Stop, "
+				+ "STATEMENTS.Coder AS CoderId, "
+				+ "CODERS.Name AS CoderName, "
+				+ "CODERS.Red AS CoderRed, "
+				+ "CODERS.Green AS CoderGreen, "
+				+ "CODERS.Blue AS CoderBlue, "
+				+ "DocumentId, "
+				+ sortKey
+				+ "DOCUMENTS.Date AS Date "
+				+ "FROM STATEMENTS "
+				+ "INNER JOIN CODERS ON STATEMENTS.Coder = CODERS.ID "
+				+ "INNER JOIN STATEMENTTYPES ON STATEMENTS.StatementTypeId = STATEMENTTYPES.ID "
+				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId ");
+		if (statementIds.length > 0) {
+			q.append("WHERE ").appendIdFilter("STATEMENTS.ID", statementIds).append(" ");
+		}
+		q.append("ORDER BY DOCUMENTS.DATE ASC;");
+		ArrayList<Statement> statements = new ArrayList<Statement>();
+		try (PreparedStatement s = q.prepare(conn)) {
+			s.setFetchSize(sql.Sql.FETCH_SIZE);
+			ResultSet r = s.executeQuery();
+			while (r.next()) {
+				String text = r.getString("SortKey") == null ? "" : r.getString("SortKey");
+				statements.add(new Row(r.getInt("StatementId"),
+						r.getInt("Start"),
+						r.getInt("Stop"),
+						r.getInt("StatementTypeId"),
+						r.getString("StatementTypeLabel"),
+						new model.Color(r.getInt("StatementTypeRed"), r.getInt("StatementTypeGreen"), r.getInt("StatementTypeBlue")),
+						r.getInt("CoderId"),
+						r.getString("CoderName"),
+						new model.Color(r.getInt("CoderRed"), r.getInt("CoderGreen"), r.getInt("CoderBlue")),
+						new ArrayList<Value>(),
+						r.getInt("DocumentId"),
+						LocalDateTime.ofEpochSecond(r.getLong("Date"), 0, ZoneOffset.UTC),
+						text.substring(0, Math.min(text.length(), Math.max(0, r.getInt("Stop") - r.getInt("Start"))))));
+			}
+		}
+		Collections.sort(statements);
+		return statements;
+	}
+
+	/**
+	 * Load the text of statements.
+	 * 
+	 * @param conn          A connection to the database.
+	 * @param statementIds  The statement IDs.
+	 * @return              The text by statement ID.
+	 * @throws SQLException  If the text could not be loaded.
+	 */
+	static HashMap<Integer, String> loadTexts(Connection conn, int[] statementIds) throws SQLException {
+		String type = Dna.sql.getConnectionProfile().getType();
+		String subString = "SUBSTRING(DOCUMENTS.Text, Start + 1, Stop - Start) AS Text ";
+		if (type.equals("postgresql")) {
+			subString = "SUBSTRING(DOCUMENTS.Text, CAST(Start + 1 AS INT4), CAST(Stop - Start AS INT4)) AS Text ";
+		}
+		Query q = new Query(type).append("SELECT STATEMENTS.ID, " + subString
+				+ "FROM STATEMENTS INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId WHERE ")
+				.appendIdFilter("STATEMENTS.ID", statementIds)
+				.append(";");
+		HashMap<Integer, String> texts = new HashMap<Integer, String>();
+		try (PreparedStatement s = q.prepare(conn)) {
+			ResultSet r = s.executeQuery();
+			while (r.next()) {
+				texts.put(r.getInt("ID"), r.getString("Text"));
+			}
+		}
+		return texts;
+	}
+
+	/**
+	 * Load the values of statements, as strings.
+	 * 
+	 * @param conn          A connection to the database.
+	 * @param statementIds  The statement IDs.
+	 * @return              The values by statement ID, ordered by variable ID.
+	 * @throws SQLException  If the values could not be loaded.
+	 */
+	static HashMap<Integer, ArrayList<Value>> loadValues(Connection conn, int[] statementIds) throws SQLException {
+		return loadValues(conn, table -> new Query(Dna.sql.getConnectionProfile().getType())
+				.appendIdFilter(table + ".StatementId", statementIds).append(" "));
+	}
+
+	/**
+	 * Load the values of statements that match a condition, as strings.
+	 * 
+	 * @param conn       A connection to the database.
+	 * @param condition  Creates the condition for one of the data tables,
+	 *   given the name of the table.
+	 * @return           The values by statement ID, ordered by variable ID.
+	 * @throws SQLException  If the values could not be loaded.
+	 */
+	private static HashMap<Integer, ArrayList<Value>> loadValues(Connection conn, Function<String, Query> condition) throws SQLException {
+		String type = Dna.sql.getConnectionProfile().getType();
+		String castBoolean = "DATABOOLEAN.Value";
+		String castInteger = "DATAINTEGER.Value";
+		if (type.equals("postgresql")) {
+			castBoolean = "CAST(DATABOOLEAN.Value AS TEXT)";
+			castInteger = "CAST(DATAINTEGER.Value AS TEXT)";
+		}
+
+		// the values of all data types in one query; each branch gets its own condition because MySQL cannot use a temporary table twice in a query
+		String[] selects = new String[] {
+				"SELECT DATASHORTTEXT.StatementId, VARIABLES.ID AS VariableId, ENTITIES.Value AS Value FROM DATASHORTTEXT "
+						+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATASHORTTEXT.VariableId "
+						+ "INNER JOIN ENTITIES ON ENTITIES.VariableId = VARIABLES.ID AND ENTITIES.ID = DATASHORTTEXT.Entity ",
+				"SELECT DATALONGTEXT.StatementId, VARIABLES.ID AS VariableId, DATALONGTEXT.Value FROM DATALONGTEXT "
+						+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATALONGTEXT.VariableId ",
+				"SELECT DATABOOLEAN.StatementId, VARIABLES.ID AS VariableId, " + castBoolean + " FROM DATABOOLEAN "
+						+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATABOOLEAN.VariableId ",
+				"SELECT DATAINTEGER.StatementId, VARIABLES.ID AS VariableId, " + castInteger + " FROM DATAINTEGER "
+						+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATAINTEGER.VariableId "
+		};
+		String[] tables = new String[] { "DATASHORTTEXT", "DATALONGTEXT", "DATABOOLEAN", "DATAINTEGER" };
+		Query q = new Query(type);
+		for (int i = 0; i < selects.length; i++) {
+			q.append(i > 0 ? "UNION " : "").append(selects[i]).append("WHERE ").append(condition.apply(tables[i]));
+		}
+		q.append("ORDER BY 1, 2 ASC;");
+
+		HashMap<Integer, String> variableNames = new HashMap<Integer, String>();
+		HashMap<Integer, String> dataTypes = new HashMap<Integer, String>();
+		HashMap<Integer, ArrayList<Value>> values = new HashMap<Integer, ArrayList<Value>>();
+		try (PreparedStatement s1 = conn.prepareStatement("SELECT ID, Variable, DataType FROM VARIABLES;");
+				PreparedStatement s2 = q.prepare(conn)) {
+			ResultSet r = s1.executeQuery();
+			while (r.next()) {
+				variableNames.put(r.getInt("ID"), r.getString("Variable"));
+				dataTypes.put(r.getInt("ID"), r.getString("DataType"));
+			}
+			s2.setFetchSize(sql.Sql.FETCH_SIZE);
+			r = s2.executeQuery();
+			while (r.next()) {
+				int variableId = r.getInt("VariableId");
+				values.computeIfAbsent(r.getInt("StatementId"), k -> new ArrayList<Value>())
+						.add(new Value(variableId, variableNames.get(variableId), dataTypes.get(variableId), r.getString("Value")));
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * A statement loaded without its text, which keeps the beginning of its
+	 * text for sorting.
+	 */
+	static class Row extends Statement {
+		private final String sortKey;
+
+		/**
+		 * Create a statement without text and values.
+		 * 
+		 * @param sortKey  The first {@link StatementTableModel#SORT_KEY_LENGTH}
+		 *   characters of the text.
+		 */
+		Row(int id, int start, int stop, int statementTypeId, String statementTypeLabel, model.Color statementTypeColor,
+				int coderId, String coderName, model.Color coderColor, ArrayList<Value> values, int documentId,
+				LocalDateTime dateTime, String sortKey) {
+			super(id, start, stop, statementTypeId, statementTypeLabel, statementTypeColor, coderId, coderName, coderColor, values, documentId, null, dateTime);
+			this.sortKey = sortKey;
+		}
+	}
+}
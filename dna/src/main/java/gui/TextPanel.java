@@ -6,13 +6,21 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
 
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextPane;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.text.DefaultStyledDocument;
 import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
@@ -36,6 +44,29 @@ class TextPanel extends JPanel {
 	private DefaultStyledDocument doc;
 	private StyleContext sc;
 	private int documentId;
+
+	/**
+	 * The maximal number of documents whose text, statements, and regex
+	 * matches are kept in memory.
+	 */
+	private static final int CACHE_SIZE = 8;
+	private final LinkedHashMap<Integer, CachedDocument> cache = new LinkedHashMap<Integer, CachedDocument>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, CachedDocument> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+	private Object cacheProfile = null;
+	private volatile LinkedHashMap<Pattern, Color> regexPatterns = null;
+	private volatile int regexVersion = 0;
+
+	/**
+	 * The statement highlights that are currently painted in the text, by
+	 * statement ID.
+	 */
+	private final LinkedHashMap<Integer, Span> painted = new LinkedHashMap<Integer, Span>();
 	
 	/**
 	 * Create a new text panel.
@@ -112,62 +143,396 @@ class TextPanel extends JPanel {
 	/**
 	 * Set the contents of the text panel, including the document ID and text,
 	 * and paint the statements in the text, then scroll to the top of the text.
+	 * If the document is in the cache, its cached statements are painted, and
+	 * the statements are checked for changes in the background.
 	 * 
 	 * @param documentId  ID of the document to display.
 	 * @param text        Text of the document to display.
 	 */
 	void setContents(int documentId, String text) {
+		checkConnection();
+		CachedDocument d = null;
+		boolean cached = false;
+		if (documentId > -1) {
+			d = cache.get(documentId);
+			cached = d != null && d.text.equals(text);
+			if (!cached) {
+				d = new CachedDocument(text, Dna.sql.getShallowStatements(documentId));
+				cache.put(documentId, d);
+			}
+		}
 		this.textWindow.setText(text);
 		this.documentId = documentId;
-		paintStatements();
+		this.painted.clear();
+		if (d != null) {
+			paintAll(d);
+			if (cached) {
+				refreshStatements(documentId, d);
+			}
+		}
 		textWindow.setCaretPosition(0);
 	}
 
 	/**
-	 * Highlight statements and regex in the text by adding color.
+	 * Set the contents of the text panel to a document, using the cached text
+	 * if the document has been displayed or prefetched before, and paint the
+	 * statements in the text, then scroll to the top of the text.
+	 * 
+	 * @param documentId  ID of the document to display.
 	 */
-	void paintStatements() {
-		if (documentId > -1) {
-			//remove all initial foreground color styles
-			int initialStart = 0;
-			int initialEnd = textWindow.getText().length();
+	void setContents(int documentId) {
+		checkConnection();
+		CachedDocument d = cache.get(documentId);
+		setContents(documentId, d != null ? d.text : Dna.sql.getDocumentText(documentId));
+	}
+
+	/**
+	 * Load documents into the cache in the background, for example the
+	 * documents adjacent to the selected document in the document table, so
+	 * they can be displayed without waiting for the database.
+	 * 
+	 * @param documentIds  IDs of the documents to prefetch. Documents that are
+	 *   already in the cache are skipped.
+	 */
+	void prefetch(int[] documentIds) {
+		checkConnection();
+		int[] ids = IntStream.of(documentIds).filter(id -> id > -1 && !cache.containsKey(id)).distinct().toArray();
+		if (ids.length == 0) {
+			return;
+		}
+		Object profile = cacheProfile;
+		new SwingWorker<HashMap<Integer, CachedDocument>, Void>() {
+			@Override
+			protected HashMap<Integer, CachedDocument> doInBackground() {
+				HashMap<Integer, CachedDocument> documents = new HashMap<Integer, CachedDocument>();
+				for (int id : ids) {
+					CachedDocument d = new CachedDocument(Dna.sql.getDocumentText(id), Dna.sql.getShallowStatements(id));
+					getRegexSpans(d); // match the regular expressions in the background, too
+					documents.put(id, d);
+				}
+				return documents;
+			}
+
+			@Override
+			protected void done() {
+				if (profile != cacheProfile) {
+					return; // the database has been changed in the meantime
+				}
+				try {
+					for (Map.Entry<Integer, CachedDocument> e : get().entrySet()) {
+						cache.putIfAbsent(e.getKey(), e.getValue());
+					}
+				} catch (InterruptedException | ExecutionException e) {
+					LogEvent l = new LogEvent(Logger.WARNING,
+							"[GUI] Documents could not be prefetched.",
+							"Attempted to load " + ids.length + " documents adjacent to the selected document in the background, but this failed. The documents are loaded when they are selected.",
+							e);
+					Dna.logger.log(l);
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Discard all cached documents and regular expressions, so they are loaded
+	 * from the database again when they are displayed next time.
+	 */
+	void clearCache() {
+		cache.clear();
+		regexPatterns = null;
+		regexVersion++;
+	}
+
+	/**
+	 * Repaint the regular expressions in the text after they have been changed,
+	 * for example in the regex editor.
+	 */
+	void refreshRegexes() {
+		regexPatterns = null;
+		regexVersion++;
+		CachedDocument d = documentId > -1 ? cache.get(documentId) : null;
+		if (d != null) {
 			Style blackStyle = sc.addStyle("ConstantWidth", null);
 			StyleConstants.setForeground(blackStyle, Color.black);
-			StyleConstants.setBackground(blackStyle, Color.white);
-			doc.setCharacterAttributes(initialStart, initialEnd - initialStart, blackStyle, false);
-
-			// color statements
-			ArrayList<Statement> statements = Dna.sql.getShallowStatements(documentId);
-			int i, start;
-			for (i = 0; i < statements.size(); i++) {
-				start = statements.get(i).getStart();
-				Style bgStyle = sc.addStyle("ConstantWidth", null);
-				if (Dna.sql.getActiveCoder() != null &&
-						(statements.get(i).getCoderId() == Dna.sql.getActiveCoder().getId() || Dna.sql.getActiveCoder().isPermissionViewOthersStatements()) &&
-						(statements.get(i).getCoderId() == Dna.sql.getActiveCoder().getId() || Dna.sql.getActiveCoder().getCoderRelations().get(statements.get(i).getCoderId()).isViewStatements())) {
-					if (Dna.sql.getActiveCoder().isColorByCoder() == true) {
-						StyleConstants.setBackground(bgStyle, statements.get(i).getCoderColor().toAWTColor());
-					} else {
-						StyleConstants.setBackground(bgStyle, statements.get(i).getStatementTypeColor().toAWTColor());
-					}
+			doc.setCharacterAttributes(0, doc.getLength(), blackStyle, false);
+			paintRegexes(d);
+		}
+	}
+
+	/**
+	 * Highlight statements and regex in the text by adding color. The
+	 * statements of the current document are loaded from the database again,
+	 * and only the parts of the text whose statements have changed are
+	 * painted again.
+	 */
+	void paintStatements() {
+		if (documentId > -1) {
+			CachedDocument d = cache.get(documentId);
+			if (d == null) {
+				setContents(documentId, textWindow.getText());
+			} else {
+				d.statements = Dna.sql.getShallowStatements(documentId);
+				updateStatements(d);
+			}
+		}
+	}
+
+	/**
+	 * Reload the statements of a cached document in the background and
+	 * repaint the changed statements if the document is still displayed.
+	 * 
+	 * @param documentId  The document ID.
+	 * @param d           The cached document.
+	 */
+	private void refreshStatements(int documentId, CachedDocument d) {
+		new SwingWorker<ArrayList<Statement>, Void>() {
+			@Override
+			protected ArrayList<Statement> doInBackground() {
+				return Dna.sql.getShallowStatements(documentId);
+			}
+
+			@Override
+			protected void done() {
+				try {
+					d.statements = get();
+				} catch (InterruptedException | ExecutionException e) {
+					return; // the cached statements remain visible
 				}
-				doc.setCharacterAttributes(start, statements.get(i).getStop() - start, bgStyle, false);
-			}
-			
-			// color regex
-			ArrayList<Regex> regex = Dna.sql.getRegexes();
-			for (i = 0; i < regex.size(); i++) {
-				String label = regex.get(i).getLabel();
-				model.Color color = regex.get(i).getColor();
-				Pattern p = Pattern.compile(label, Pattern.CASE_INSENSITIVE);
-				Matcher m = p.matcher(textWindow.getText());
-				while(m.find()) {
-					start = m.start();
-					Style fgStyle = sc.addStyle("ConstantWidth", null);
-					StyleConstants.setForeground(fgStyle, color.toAWTColor());
-					doc.setCharacterAttributes(start, m.end() - start, fgStyle, false);
+				if (TextPanel.this.documentId == documentId && cache.get(documentId) == d) {
+					updateStatements(d);
 				}
 			}
+		}.execute();
+	}
+
+	/**
+	 * Paint the whole text of the current document, after it has been set.
+	 * 
+	 * @param d  The current document.
+	 */
+	private void paintAll(CachedDocument d) {
+		// remove all initial foreground color styles
+		Style blackStyle = sc.addStyle("ConstantWidth", null);
+		StyleConstants.setForeground(blackStyle, Color.black);
+		StyleConstants.setBackground(blackStyle, Color.white);
+		doc.setCharacterAttributes(0, doc.getLength(), blackStyle, false);
+
+		// color statements
+		for (Span span : getStatementSpans(d).values()) {
+			Style bgStyle = sc.addStyle("ConstantWidth", null);
+			StyleConstants.setBackground(bgStyle, span.color);
+			doc.setCharacterAttributes(span.start, span.stop - span.start, bgStyle, false);
+			painted.put(span.id, span);
+		}
+
+		// color regex
+		paintRegexes(d);
+	}
+
+	/**
+	 * Paint the regular expression matches in the current document.
+	 * 
+	 * @param d  The current document.
+	 */
+	private void paintRegexes(CachedDocument d) {
+		for (Span span : getRegexSpans(d)) {
+			Style fgStyle = sc.addStyle("ConstantWidth", null);
+			StyleConstants.setForeground(fgStyle, span.color);
+			doc.setCharacterAttributes(span.start, span.stop - span.start, fgStyle, false);
+		}
+	}
+
+	/**
+	 * Repaint only the parts of the text where statements have been added,
+	 * removed, moved, or recolored since they were painted. In these ranges,
+	 * the background is cleared, and all statements that overlap with them
+	 * are painted again in their original order, so overlapping statements
+	 * look the same as if the whole text had been painted. Foreground colors
+	 * of regex matches are not affected.
+	 * 
+	 * @param d  The current document.
+	 */
+	private void updateStatements(CachedDocument d) {
+		LinkedHashMap<Integer, Span> spans = getStatementSpans(d);
+		ArrayList<int[]> dirty = new ArrayList<int[]>();
+		for (Span span : painted.values()) {
+			if (!span.equals(spans.get(span.id))) {
+				dirty.add(new int[] { span.start, span.stop });
+			}
+		}
+		for (Span span : spans.values()) {
+			if (!span.equals(painted.get(span.id))) {
+				dirty.add(new int[] { span.start, span.stop });
+			}
+		}
+		if (dirty.size() == 0) {
+			return;
+		}
+
+		// merge overlapping ranges
+		dirty.sort((a, b) -> Integer.compare(a[0], b[0]));
+		ArrayList<int[]> ranges = new ArrayList<int[]>();
+		for (int[] range : dirty) {
+			if (ranges.size() > 0 && range[0] <= ranges.get(ranges.size() - 1)[1]) {
+				ranges.get(ranges.size() - 1)[1] = Math.max(ranges.get(ranges.size() - 1)[1], range[1]);
+			} else {
+				ranges.add(range.clone());
+			}
+		}
+
+		Style whiteStyle = sc.addStyle("ConstantWidth", null);
+		StyleConstants.setBackground(whiteStyle, Color.white);
+		for (int[] range : ranges) {
+			int start = Math.max(0, range[0]);
+			int stop = Math.min(doc.getLength(), range[1]);
+			if (start >= stop) {
+				continue;
+			}
+			doc.setCharacterAttributes(start, stop - start, whiteStyle, false);
+			for (Span span : spans.values()) {
+				if (span.start < stop && span.stop > start) {
+					Style bgStyle = sc.addStyle("ConstantWidth", null);
+					StyleConstants.setBackground(bgStyle, span.color);
+					int s = Math.max(start, span.start);
+					doc.setCharacterAttributes(s, Math.min(stop, span.stop) - s, bgStyle, false);
+				}
+			}
+		}
+		painted.clear();
+		painted.putAll(spans);
+	}
+
+	/**
+	 * Compute the background color of each statement in a document that the
+	 * active coder is permitted to see, depending on the coder settings.
+	 * 
+	 * @param d  The document.
+	 * @return   The statement spans by statement ID, in painting order.
+	 */
+	private LinkedHashMap<Integer, Span> getStatementSpans(CachedDocument d) {
+		LinkedHashMap<Integer, Span> spans = new LinkedHashMap<Integer, Span>();
+		if (Dna.sql.getActiveCoder() == null) {
+			return spans;
+		}
+		for (Statement s : d.statements) {
+			if ((s.getCoderId() == Dna.sql.getActiveCoder().getId() || Dna.sql.getActiveCoder().isPermissionViewOthersStatements()) &&
+					(s.getCoderId() == Dna.sql.getActiveCoder().getId() || Dna.sql.getActiveCoder().getCoderRelations().get(s.getCoderId()).isViewStatements())) {
+				Color color;
+				if (Dna.sql.getActiveCoder().isColorByCoder() == true) {
+					color = s.getCoderColor().toAWTColor();
+				} else {
+					color = s.getStatementTypeColor().toAWTColor();
+				}
+				spans.put(s.getId(), new Span(s.getId(), s.getStart(), s.getStop(), color));
+			}
+		}
+		return spans;
+	}
+
+	/**
+	 * Get the regex matches in a document, computing them if the document has
+	 * not been matched against the current regular expressions yet.
+	 * 
+	 * @param d  The document.
+	 * @return   The spans of the regex matches.
+	 */
+	private ArrayList<Span> getRegexSpans(CachedDocument d) {
+		int version = regexVersion;
+		ArrayList<Span> spans = d.regexSpans;
+		if (spans == null || d.regexVersion != version) {
+			spans = new ArrayList<Span>();
+			for (Map.Entry<Pattern, Color> regex : getRegexPatterns().entrySet()) {
+				Matcher m = regex.getKey().matcher(d.text);
+				while (m.find()) {
+					spans.add(new Span(-1, m.start(), m.end(), regex.getValue()));
+				}
+			}
+			d.regexSpans = spans;
+			d.regexVersion = version;
+		}
+		return spans;
+	}
+
+	/**
+	 * Get the compiled regular expressions and their colors, loading them
+	 * from the database if they have changed.
+	 * 
+	 * @return The compiled patterns and their colors.
+	 */
+	private LinkedHashMap<Pattern, Color> getRegexPatterns() {
+		LinkedHashMap<Pattern, Color> patterns = regexPatterns;
+		if (patterns == null) {
+			patterns = new LinkedHashMap<Pattern, Color>();
+			for (Regex regex : Dna.sql.getRegexes()) {
+				try {
+					patterns.put(Pattern.compile(regex.getLabel(), Pattern.CASE_INSENSITIVE), regex.getColor().toAWTColor());
+				} catch (PatternSyntaxException e) {
+					LogEvent l = new LogEvent(Logger.WARNING,
+							"Regular expression could not be compiled.",
+							"The regular expression \"" + regex.getLabel() + "\" could not be compiled and is not highlighted in the text.",
+							e);
+					Dna.logger.log(l);
+				}
+			}
+			regexPatterns = patterns;
+		}
+		return patterns;
+	}
+
+	/**
+	 * Discard the cache if another database has been opened, as document IDs
+	 * are not unique across databases.
+	 */
+	private void checkConnection() {
+		if (Dna.sql.getConnectionProfile() != cacheProfile) {
+			clearCache();
+			cacheProfile = Dna.sql.getConnectionProfile();
+		}
+	}
+
+	/**
+	 * A document in the cache, with its text, its statements without
+	 * contents, and its regex matches.
+	 */
+	private static class CachedDocument {
+		final String text;
+		volatile ArrayList<Statement> statements;
+		volatile ArrayList<Span> regexSpans = null;
+		volatile int regexVersion = -1;
+
+		CachedDocument(String text, ArrayList<Statement> statements) {
+			this.text = text;
+			this.statements = statements;
+		}
+	}
+
+	/**
+	 * A colored range of the text, with the ID of its statement, or
+	 * {@code -1} for regex matches.
+	 */
+	private static class Span {
+		final int id, start, stop;
+		final Color color;
+
+		Span(int id, int start, int stop, Color color) {
+			this.id = id;
+			this.start = start;
+			this.stop = stop;
+			this.color = color;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Span)) {
+				return false;
+			}
+			Span s = (Span) o;
+			return s.id == id && s.start == start && s.stop == stop && s.color.equals(color);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, start, stop, color);
 		}
 	}
 	
@@ -183,7 +548,10 @@ class TextPanel extends JPanel {
 			try {
 				Font font = new Font("Monospaced", Font.PLAIN, Dna.sql.getActiveCoder().getFontSize());
 		        textWindow.setFont(font);
-		        paintStatements();
+		        CachedDocument d = documentId > -1 ? cache.get(documentId) : null;
+		        if (d != null) {
+		        	updateStatements(d); // permissions and colors may have changed; the statements have not
+		        }
 			} catch (NullPointerException e) {
 				LogEvent l = new LogEvent(Logger.ERROR,
 						"Statements could not be painted in text.",
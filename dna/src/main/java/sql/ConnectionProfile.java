@@ -50,6 +50,16 @@ public class ConnectionProfile {
 	 */
 	int coderId;
 
+	/**
+	 * Whether an SQLite database is loaded into memory when it is opened.
+	 * Valid values are {@code "off"} (read and write the file directly, also
+	 * used if the value is {@code null}), {@code "read-only"} (serve all
+	 * queries from memory and refuse changes), and {@code "write-back"} (serve
+	 * all queries from memory and write the database back to the file when it
+	 * is closed).
+	 */
+	String inMemory;
+
 	public ConnectionProfile(String type, String url, String databaseName, int port, String user, String password) {
 		this.type = type;
 		this.url = url;
@@ -58,6 +68,7 @@ public class ConnectionProfile {
 		this.databaseName = databaseName;
 		this.port = port;
 		this.coderId = 1; // default value; not part of the constructor
+		this.inMemory = "off";
 	}
 	
 	public ConnectionProfile(int coderId, String type, String url, String databaseName, int port, String user, String password) {
@@ -67,6 +78,7 @@ public class ConnectionProfile {
 		this.password = password;
 		this.databaseName = databaseName;
 		this.port = port;
+		this.inMemory = "off";
 	}
 
 	public ConnectionProfile(String file, String key) {
@@ -78,6 +90,7 @@ public class ConnectionProfile {
 		this.databaseName = p.getDatabaseName();
 		this.port = p.getPort();
 		this.coderId = p.getCoderId();
+		this.inMemory = p.getInMemory();
 	}
 
 	/**
@@ -93,6 +106,7 @@ public class ConnectionProfile {
 		this.databaseName = cp.getDatabaseName();
 		this.port = cp.getPort();
 		this.coderId = cp.getCoderId();
+		this.inMemory = cp.getInMemory();
 	}
 	
 	public int getCoderId() {
@@ -153,6 +167,28 @@ public class ConnectionProfile {
 		return this.databaseName;
 	}
 
+	/**
+	 * Return the in-memory mode for SQLite databases.
+	 * 
+	 * @return The in-memory mode: {@code "off"}, {@code "read-only"}, or
+	 *   {@code "write-back"}. Profiles saved by earlier versions return
+	 *   {@code "off"}.
+	 */
+	public String getInMemory() {
+		return this.inMemory == null ? "off" : this.inMemory;
+	}
+
+	/**
+	 * Set the in-memory mode for SQLite databases. It has no effect on MySQL
+	 * and PostgreSQL databases.
+	 * 
+	 * @param inMemory  The in-memory mode: {@code "off"}, {@code "read-only"},
+	 *   or {@code "write-back"}.
+	 */
+	public void setInMemory(String inMemory) {
+		this.inMemory = inMemory;
+	}
+
 	/**
 	 * Read in a saved connection profile from a JSON file, decrypt the
 	 * credentials, and return the connection profile.
@@ -31,7 +31,7 @@ public class DataExchange {
     static public DataFrame getAttributes(int variableId) {
         Object[][] data = null;
         ArrayList<String> attributeVariableNames = new ArrayList<String>();
-        try (Connection conn = Dna.sql.getDataSource().getConnection();
+        try (Connection conn = Dna.sql.getReadDataSource().getConnection();
              PreparedStatement s1 = conn.prepareStatement("SELECT AttributeVariable FROM ATTRIBUTEVARIABLES WHERE VariableId = ? ORDER BY ATTRIBUTEVARIABLES.ID ASC;");
              PreparedStatement s2 = conn.prepareStatement("SELECT COUNT(ID) FROM ENTITIES WHERE VariableId = ?;");
              PreparedStatement s3 = conn.prepareStatement("SELECT ID, Value, Red, Green, Blue FROM ENTITIES WHERE VariableId = ?;");
@@ -111,7 +111,7 @@ public class DataExchange {
      */
     static public DataFrame getAttributes(int statementTypeId, String variable) {
         int variableId = -1;
-        try (Connection conn = Dna.sql.getDataSource().getConnection();
+        try (Connection conn = Dna.sql.getReadDataSource().getConnection();
              PreparedStatement s = conn.prepareStatement("SELECT ID FROM VARIABLES WHERE Variable = ? AND StatementTypeId = ?;")) {
             s.setString(1, variable);
             s.setInt(2, statementTypeId);
@@ -139,7 +139,7 @@ public class DataExchange {
      */
     static public DataFrame getAttributes(String statementType, String variable) {
         int variableId = -1;
-        try (Connection conn = Dna.sql.getDataSource().getConnection();
+        try (Connection conn = Dna.sql.getReadDataSource().getConnection();
              PreparedStatement s = conn.prepareStatement("SELECT ID FROM VARIABLES WHERE Variable = ? AND StatementTypeId = (SELECT ID FROM STATEMENTTYPES WHERE Label = ?);")) {
             s.setString(1, variable);
             s.setString(2, statementType);
@@ -570,6 +570,7 @@ public class DataExchange {
                 } else {
                     pb.setExtraMessage("Committing simulated changes...");
                     conn.commit();
+                    Dna.sql.clearEntityCache();
                 }
 
                 // print console report
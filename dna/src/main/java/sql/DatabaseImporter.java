@@ -0,0 +1,946 @@
+package sql;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+import dna.Dna;
+import logger.LogEvent;
+import logger.Logger;
+import model.Color;
+import model.Entity;
+import model.StatementType;
+import model.Value;
+import sql.Sql.SQLCloseable;
+
+/**
+ * Imports documents and statements from another DNA 3 database (the foreign
+ * database) into the current database (the domestic database), without a
+ * user interface. Statement types, variables, attribute variables, and
+ * entities are matched by their labels and values, and the correspondence
+ * between foreign and domestic IDs is computed in bulk before any documents
+ * are copied. Documents, statements, and their values are then read in
+ * chunks of {@link #DOCUMENT_CHUNK_SIZE} documents and written as JDBC
+ * batches.
+ *
+ * By default, the whole import is a single transaction, which is rolled back
+ * if anything fails. In resumable mode, the statement types, entities, and
+ * attribute values are committed first, and every chunk of documents is
+ * committed together with a record of the foreign documents it contains in
+ * the {@code IMPORTPROGRESS} table. If the import is interrupted, running it
+ * again with the same foreign database skips the documents that have already
+ * been imported. The records are removed when the import is complete.
+ */
+public class DatabaseImporter {
+
+	/**
+	 * The number of foreign documents that are read, written, and, in
+	 * resumable mode, committed together.
+	 */
+	public static final int DOCUMENT_CHUNK_SIZE = 100;
+
+	private final Sql foreign, domestic;
+	private final HashMap<Integer, Integer> coderMap = new HashMap<Integer, Integer>();
+	private boolean importStatements = true;
+	private boolean importStatementTypes = true;
+	private boolean importEntities = false;
+	private boolean mergeAttributes = true;
+	private boolean overwriteAttributes = false;
+	private boolean importRegexes = true;
+	private boolean skipDuplicates = false;
+	private boolean skipEmpty = false;
+	private boolean skipFull = false;
+	private boolean fixDates = false;
+	private boolean activeCoderStatementsOnly = false;
+	private boolean resumable = false;
+	private BiConsumer<Integer, String> progressListener = (step, note) -> {};
+
+	// correspondence of foreign and domestic IDs
+	private final HashMap<Integer, Integer> statementTypeMap = new HashMap<Integer, Integer>();
+	private final HashMap<Integer, Integer> variableMap = new HashMap<Integer, Integer>();
+	private final HashMap<Integer, Integer> attributeVariableMap = new HashMap<Integer, Integer>();
+	private final HashMap<Integer, Integer> entityMap = new HashMap<Integer, Integer>();
+	private final HashSet<Integer> newEntityIds = new HashSet<Integer>(); // domestic IDs of the entities added by the import
+
+	private int regexCount, statementTypeCount, entityCount, attributeCount, documentCount, statementCount, ignoredStatementCount, dateFixCount, resumedDocumentCount;
+
+	/**
+	 * Create a new importer.
+	 *
+	 * @param foreign   The database from which the data are imported.
+	 * @param domestic  The database into which the data are imported. Its
+	 *   active coder is used for documents and statements of foreign coders
+	 *   that are not in the coder map.
+	 */
+	public DatabaseImporter(Sql foreign, Sql domestic) {
+		this.foreign = foreign;
+		this.domestic = domestic;
+	}
+
+	/**
+	 * Map a foreign coder to a domestic coder. Documents and statements of the
+	 * foreign coder are assigned to the domestic coder.
+	 *
+	 * @param foreignCoderId   The coder ID in the foreign database.
+	 * @param domesticCoderId  The coder ID in the domestic database.
+	 */
+	public void mapCoder(int foreignCoderId, int domesticCoderId) {
+		this.coderMap.put(foreignCoderId, domesticCoderId);
+	}
+
+	/**
+	 * Import the statements contained in the documents? Default: {@code true}.
+	 */
+	public void setImportStatements(boolean importStatements) {
+		this.importStatements = importStatements;
+	}
+
+	/**
+	 * Add statement types that do not exist in the domestic database, with
+	 * their variables and variable links? Statements of unknown types are
+	 * skipped otherwise. Default: {@code true}.
+	 */
+	public void setImportStatementTypes(boolean importStatementTypes) {
+		this.importStatementTypes = importStatementTypes;
+	}
+
+	/**
+	 * Import entities that are not used in any of the imported documents?
+	 * Default: {@code false}.
+	 */
+	public void setImportEntities(boolean importEntities) {
+		this.importEntities = importEntities;
+	}
+
+	/**
+	 * Add attribute variables that do not exist in the domestic database, and
+	 * fill in empty domestic attribute values? Default: {@code true}.
+	 */
+	public void setMergeAttributes(boolean mergeAttributes) {
+		this.mergeAttributes = mergeAttributes;
+	}
+
+	/**
+	 * Overwrite domestic attribute values with different foreign values?
+	 * Default: {@code false}.
+	 */
+	public void setOverwriteAttributes(boolean overwriteAttributes) {
+		this.overwriteAttributes = overwriteAttributes;
+	}
+
+	/**
+	 * Import regex keywords whose labels do not exist in the domestic
+	 * database? Default: {@code true}.
+	 */
+	public void setImportRegexes(boolean importRegexes) {
+		this.importRegexes = importRegexes;
+	}
+
+	/**
+	 * Skip documents whose title and text already exist in the domestic
+	 * database? Default: {@code false}.
+	 */
+	public void setSkipDuplicates(boolean skipDuplicates) {
+		this.skipDuplicates = skipDuplicates;
+	}
+
+	/**
+	 * Skip documents without statements? Default: {@code false}.
+	 */
+	public void setSkipEmpty(boolean skipEmpty) {
+		this.skipEmpty = skipEmpty;
+	}
+
+	/**
+	 * Skip documents with statements? Default: {@code false}.
+	 */
+	public void setSkipFull(boolean skipFull) {
+		this.skipFull = skipFull;
+	}
+
+	/**
+	 * Round the time of the documents to the nearest date at 00:00? Default:
+	 * {@code false}.
+	 */
+	public void setFixDates(boolean fixDates) {
+		this.fixDates = fixDates;
+	}
+
+	/**
+	 * Skip statements whose coder is not mapped to the active coder of the
+	 * domestic database? Default: {@code false}.
+	 */
+	public void setActiveCoderStatementsOnly(boolean activeCoderStatementsOnly) {
+		this.activeCoderStatementsOnly = activeCoderStatementsOnly;
+	}
+
+	/**
+	 * Commit in chunks and record the progress, so an interrupted import can
+	 * be resumed by running it again? Default: {@code false}.
+	 */
+	public void setResumable(boolean resumable) {
+		this.resumable = resumable;
+	}
+
+	/**
+	 * Set a listener that is notified when the import proceeds to the next
+	 * of its five steps. It receives the number of completed steps and a
+	 * description of the next step.
+	 */
+	public void setProgressListener(BiConsumer<Integer, String> progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Import documents from the foreign database, including the statements,
+	 * statement types, entities, attribute values, and regex keywords they
+	 * need, depending on the options.
+	 *
+	 * @param documentIds  The IDs of the foreign documents to import.
+	 * @return             Was the import successful?
+	 */
+	public boolean importDocuments(int[] documentIds) {
+		long time = System.nanoTime();
+		this.statementTypeMap.clear();
+		this.variableMap.clear();
+		this.attributeVariableMap.clear();
+		this.entityMap.clear();
+		this.newEntityIds.clear();
+		this.regexCount = 0;
+		this.statementTypeCount = 0;
+		this.entityCount = 0;
+		this.attributeCount = 0;
+		this.documentCount = 0;
+		this.statementCount = 0;
+		this.ignoredStatementCount = 0;
+		this.dateFixCount = 0;
+		this.resumedDocumentCount = 0;
+		int[] ids = IntStream.of(documentIds).distinct().sorted().toArray();
+		try (Connection connForeign = this.foreign.getReadDataSource().getConnection();
+				Connection connDomestic = this.domestic.getDataSource().getConnection();
+				SQLCloseable finish = connDomestic::rollback) {
+			connDomestic.setAutoCommit(false);
+			LogEvent l1 = new LogEvent(Logger.MESSAGE,
+					"[SQL] Started importing " + ids.length + " documents from another database.",
+					"Started importing " + ids.length + " documents from another database" + (this.resumable ? " in resumable mode, committing every " + DOCUMENT_CHUNK_SIZE + " documents." : " in a single transaction."));
+			Dna.logger.log(l1);
+
+			this.progressListener.accept(0, "(1/5) Processing regex keywords...");
+			if (this.importRegexes) {
+				importRegexes(connForeign, connDomestic);
+			}
+			this.progressListener.accept(1, "(2/5) Entities, attributes, statement types...");
+			importStatementTypes(connForeign, connDomestic, ids);
+			this.progressListener.accept(2, "(3/5) Variable links...");
+			if (this.importStatementTypes) {
+				importVariableLinks(connForeign, connDomestic);
+			}
+			this.progressListener.accept(3, "(4/5) Attribute values...");
+			importAttributeValues(connForeign, connDomestic);
+			LogEvent l2 = new LogEvent(Logger.MESSAGE,
+					"[SQL]  ├─ Added " + this.regexCount + " regex keywords, " + this.statementTypeCount + " statement types, " + this.entityCount + " entities, and " + this.attributeCount + " attribute values.",
+					"Added " + this.regexCount + " regex keywords, " + this.statementTypeCount + " statement types, " + this.entityCount
+					+ " entities, and " + this.attributeCount + " attribute values, and mapped the IDs of " + this.variableMap.size()
+					+ " variables and " + this.entityMap.size() + " entities from the other database to the current database.");
+			Dna.logger.log(l2);
+			if (this.resumable) {
+				connDomestic.commit();
+			}
+
+			this.progressListener.accept(4, "(5/5) Documents and statements...");
+			importDocuments(connForeign, connDomestic, ids);
+			if (this.resumable) {
+				try (PreparedStatement s = connDomestic.prepareStatement("DELETE FROM IMPORTPROGRESS WHERE Source = ?;")) {
+					s.setString(1, getSource());
+					s.executeUpdate();
+				}
+			}
+			connDomestic.commit();
+			this.domestic.clearEntityCache();
+
+			LogEvent l3 = new LogEvent(Logger.MESSAGE,
+					"[SQL]  └─ Successfully imported all data and committed to database.",
+					"Imported " + this.documentCount + " documents, " + this.statementCount + " statements, " + this.statementTypeCount
+					+ " statement types, " + this.entityCount + " entities, " + this.attributeCount + " attribute values, and " + this.regexCount
+					+ " regex keywords from another database and rounded " + this.dateFixCount + " date/time stamps and ignored "
+					+ this.ignoredStatementCount + " statements because they had an unknown statement type or wrong coder. "
+					+ this.resumedDocumentCount + " documents had been imported by an earlier, interrupted import. It took "
+					+ (System.nanoTime() - time) / 1000000 + " milliseconds.");
+			Dna.logger.log(l3);
+			return true;
+		} catch (SQLException e) {
+			this.domestic.clearEntityCache();
+			LogEvent l = new LogEvent(Logger.ERROR,
+					"[SQL] Failed to import data from other database.",
+					this.resumable
+					? "Attempted importing data from another database in resumable mode, but the import failed. The documents committed so far remain in the database. Run the import again with the same documents to resume it."
+					: "Attempted importing data from another database, but the import failed. The transaction has been rolled back, and no changes have been written to the currently open database. Check the exception message stack for details.",
+					e);
+			Dna.logger.log(l);
+			return false;
+		} finally {
+			this.progressListener.accept(5, "Done.");
+		}
+	}
+
+	/**
+	 * Add the foreign regex keywords whose labels do not exist yet.
+	 */
+	private void importRegexes(Connection connForeign, Connection connDomestic) throws SQLException {
+		HashSet<String> labels = new HashSet<String>();
+		ArrayList<Object[]> regexes = new ArrayList<Object[]>(); // label and color
+		try (PreparedStatement s1 = connDomestic.prepareStatement("SELECT Label FROM REGEXES;");
+				PreparedStatement s2 = connForeign.prepareStatement("SELECT Label, Red, Green, Blue FROM REGEXES;")) {
+			ResultSet r = s1.executeQuery();
+			while (r.next()) {
+				labels.add(truncate(r.getString("Label")));
+			}
+			r = s2.executeQuery();
+			while (r.next()) {
+				if (labels.add(truncate(r.getString("Label")))) {
+					regexes.add(new Object[] { truncate(r.getString("Label")), new Color(r.getInt("Red"), r.getInt("Green"), r.getInt("Blue")) });
+				}
+			}
+		}
+		try (PreparedStatement s = connDomestic.prepareStatement("INSERT INTO REGEXES (Label, Red, Green, Blue) VALUES (?, ?, ?, ?);")) {
+			this.domestic.writeBatch(s, 0, regexes.size(), (ps, i) -> {
+				ps.setString(1, (String) regexes.get(i)[0]);
+				ps.setInt(2, ((Color) regexes.get(i)[1]).getRed());
+				ps.setInt(3, ((Color) regexes.get(i)[1]).getGreen());
+				ps.setInt(4, ((Color) regexes.get(i)[1]).getBlue());
+			}, null);
+		}
+		this.regexCount = regexes.size();
+	}
+
+	/**
+	 * Match the foreign statement types, variables, attribute variables, and
+	 * entities to domestic ones, and add those that do not exist yet,
+	 * depending on the options.
+	 */
+	private void importStatementTypes(Connection connForeign, Connection connDomestic, int[] documentIds) throws SQLException {
+		ArrayList<StatementType> foreignTypes = selectStatementTypes(connForeign);
+		ArrayList<StatementType> domesticTypes = selectStatementTypes(connDomestic);
+		HashMap<Integer, LinkedHashMap<String, Integer>> foreignAttributeVariables = selectAttributeVariables(connForeign);
+		HashMap<Integer, LinkedHashMap<String, Integer>> domesticAttributeVariables = selectAttributeVariables(connDomestic);
+
+		// foreign entities by variable, and the entities that are used in any statement and in the imported documents
+		HashMap<Integer, ArrayList<Entity>> foreignEntities = new HashMap<Integer, ArrayList<Entity>>();
+		HashSet<Integer> used = new HashSet<Integer>();
+		HashSet<Integer> usedInDocuments = new HashSet<Integer>();
+		Query q = new Query(this.foreign.getConnectionProfile().getType())
+				.append("SELECT DISTINCT Entity FROM DATASHORTTEXT INNER JOIN STATEMENTS ON STATEMENTS.ID = DATASHORTTEXT.StatementId WHERE ")
+				.appendIdFilter("STATEMENTS.DocumentId", documentIds)
+				.append(";");
+		try (PreparedStatement s1 = connForeign.prepareStatement("SELECT ID, VariableId, Value, Red, Green, Blue FROM ENTITIES;");
+				PreparedStatement s2 = connForeign.prepareStatement("SELECT DISTINCT Entity FROM DATASHORTTEXT;");
+				PreparedStatement s3 = q.prepare(connForeign)) {
+			ResultSet r = s1.executeQuery();
+			while (r.next()) {
+				foreignEntities.computeIfAbsent(r.getInt("VariableId"), k -> new ArrayList<Entity>()).add(new Entity(r.getInt("ID"), r.getInt("VariableId"), r.getString("Value"), new Color(r.getInt("Red"), r.getInt("Green"), r.getInt("Blue"))));
+			}
+			r = s2.executeQuery();
+			while (r.next()) {
+				used.add(r.getInt("Entity"));
+			}
+			r = s3.executeQuery();
+			while (r.next()) {
+				usedInDocuments.add(r.getInt("Entity"));
+			}
+		}
+
+		// domestic entities by variable and value
+		HashMap<Integer, HashMap<String, Integer>> domesticEntities = new HashMap<Integer, HashMap<String, Integer>>();
+		try (PreparedStatement s = connDomestic.prepareStatement("SELECT ID, VariableId, Value FROM ENTITIES;")) {
+			ResultSet r = s.executeQuery();
+			while (r.next()) {
+				domesticEntities.computeIfAbsent(r.getInt("VariableId"), k -> new HashMap<String, Integer>()).put(r.getString("Value"), r.getInt("ID"));
+			}
+		}
+
+		ArrayList<Object[]> newEntities = new ArrayList<Object[]>(); // domestic variable ID and foreign entity
+		try (PreparedStatement s1 = connDomestic.prepareStatement("INSERT INTO STATEMENTTYPES (Label, Red, Green, Blue) VALUES (?, ?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS);
+				PreparedStatement s2 = connDomestic.prepareStatement("INSERT INTO VARIABLES (Variable, DataType, StatementTypeId) VALUES (?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS);
+				PreparedStatement s3 = connDomestic.prepareStatement("INSERT INTO ATTRIBUTEVARIABLES (VariableId, AttributeVariable) VALUES (?, ?);", PreparedStatement.RETURN_GENERATED_KEYS)) {
+			for (StatementType foreignType : foreignTypes) {
+				StatementType domesticType = domesticTypes.stream()
+						.filter(t -> matches(foreignType, t, foreignAttributeVariables, domesticAttributeVariables))
+						.findFirst()
+						.orElse(null);
+				if (domesticType != null) { // map the statement type, its variables, attribute variables, and entities
+					this.statementTypeMap.put(foreignType.getId(), domesticType.getId());
+					for (Value foreignVariable : foreignType.getVariables()) {
+						Value domesticVariable = findVariable(domesticType, foreignVariable, foreignAttributeVariables, domesticAttributeVariables);
+						this.variableMap.put(foreignVariable.getVariableId(), domesticVariable.getVariableId());
+						if (foreignVariable.getDataType().equals("short text")) {
+							LinkedHashMap<String, Integer> domesticAttributes = domesticAttributeVariables.getOrDefault(domesticVariable.getVariableId(), new LinkedHashMap<String, Integer>());
+							ArrayList<String> missingAttributes = new ArrayList<String>();
+							foreignAttributeVariables.getOrDefault(foreignVariable.getVariableId(), new LinkedHashMap<String, Integer>()).forEach((name, id) -> {
+								if (domesticAttributes.containsKey(name)) {
+									this.attributeVariableMap.put(id, domesticAttributes.get(name));
+								} else if (this.mergeAttributes) {
+									missingAttributes.add(name);
+								}
+							});
+							addAttributeVariables(s3, domesticVariable.getVariableId(), missingAttributes, foreignAttributeVariables.get(foreignVariable.getVariableId()));
+							HashMap<String, Integer> existing = domesticEntities.getOrDefault(domesticVariable.getVariableId(), new HashMap<String, Integer>());
+							for (Entity e : foreignEntities.getOrDefault(foreignVariable.getVariableId(), new ArrayList<Entity>())) {
+								if (existing.containsKey(e.getValue())) {
+									this.entityMap.put(e.getId(), existing.get(e.getValue()));
+								} else if (this.importEntities || usedInDocuments.contains(e.getId())) {
+									newEntities.add(new Object[] { domesticVariable.getVariableId(), e });
+								}
+							}
+						}
+					}
+				} else if (this.importStatementTypes) { // add the statement type with all variables, attribute variables, and used entities
+					s1.setString(1, foreignType.getLabel());
+					s1.setInt(2, foreignType.getColor().getRed());
+					s1.setInt(3, foreignType.getColor().getGreen());
+					s1.setInt(4, foreignType.getColor().getBlue());
+					s1.executeUpdate();
+					int statementTypeId = -1;
+					ResultSet r = s1.getGeneratedKeys();
+					while (r.next()) {
+						statementTypeId = r.getInt(1);
+					}
+					int typeId = statementTypeId;
+					ArrayList<Value> variables = foreignType.getVariables();
+					int[] variableIds = new int[variables.size()];
+					this.domestic.writeBatch(s2, 0, variables.size(), (ps, i) -> {
+						ps.setString(1, variables.get(i).getKey());
+						ps.setString(2, variables.get(i).getDataType());
+						ps.setInt(3, typeId);
+					}, variableIds);
+					for (int i = 0; i < variables.size(); i++) {
+						this.variableMap.put(variables.get(i).getVariableId(), variableIds[i]);
+						LinkedHashMap<String, Integer> attributes = foreignAttributeVariables.getOrDefault(variables.get(i).getVariableId(), new LinkedHashMap<String, Integer>());
+						addAttributeVariables(s3, variableIds[i], new ArrayList<String>(attributes.keySet()), attributes);
+						for (Entity e : foreignEntities.getOrDefault(variables.get(i).getVariableId(), new ArrayList<Entity>())) {
+							if (this.importEntities || used.contains(e.getId())) {
+								newEntities.add(new Object[] { variableIds[i], e });
+							}
+						}
+					}
+					this.statementTypeMap.put(foreignType.getId(), statementTypeId);
+					this.statementTypeCount++;
+				}
+			}
+		}
+		addEntities(connDomestic, newEntities);
+	}
+
+	/**
+	 * Check if a domestic statement type can hold the statements of a foreign
+	 * statement type: it must have the same label and a matching variable for
+	 * every foreign variable (see {@link #findVariable}).
+	 */
+	private static boolean matches(StatementType foreignType, StatementType domesticType, HashMap<Integer, LinkedHashMap<String, Integer>> foreignAttributeVariables, HashMap<Integer, LinkedHashMap<String, Integer>> domesticAttributeVariables) {
+		if (!foreignType.getLabel().equals(domesticType.getLabel())) {
+			return false;
+		}
+		for (Value foreignVariable : foreignType.getVariables()) {
+			if (findVariable(domesticType, foreignVariable, foreignAttributeVariables, domesticAttributeVariables) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find the first variable of a domestic statement type with the same name
+	 * and data type as a foreign variable. For short text variables, the
+	 * domestic variable must also have all attribute variables of the foreign
+	 * variable.
+	 *
+	 * @return The domestic variable, or {@code null} if there is none.
+	 */
+	private static Value findVariable(StatementType domesticType, Value foreignVariable, HashMap<Integer, LinkedHashMap<String, Integer>> foreignAttributeVariables, HashMap<Integer, LinkedHashMap<String, Integer>> domesticAttributeVariables) {
+		for (Value v : domesticType.getVariables()) {
+			if (v.getKey().equals(foreignVariable.getKey()) && v.getDataType().equals(foreignVariable.getDataType())
+					&& (!v.getDataType().equals("short text")
+							|| domesticAttributeVariables.getOrDefault(v.getVariableId(), new LinkedHashMap<String, Integer>()).keySet()
+									.containsAll(foreignAttributeVariables.getOrDefault(foreignVariable.getVariableId(), new LinkedHashMap<String, Integer>()).keySet()))) {
+				return v;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Add attribute variables to a domestic variable and map the foreign
+	 * attribute variable IDs to the new IDs.
+	 *
+	 * @param s           The prepared insert statement.
+	 * @param variableId  The domestic variable ID.
+	 * @param names       The names of the attribute variables to add.
+	 * @param foreignIds  The foreign attribute variable IDs by name.
+	 */
+	private void addAttributeVariables(PreparedStatement s, int variableId, List<String> names, HashMap<String, Integer> foreignIds) throws SQLException {
+		int[] ids = new int[names.size()];
+		this.domestic.writeBatch(s, 0, names.size(), (ps, i) -> {
+			ps.setInt(1, variableId);
+			ps.setString(2, names.get(i));
+		}, ids);
+		for (int i = 0; i < names.size(); i++) {
+			this.attributeVariableMap.put(foreignIds.get(names.get(i)), ids[i]);
+		}
+	}
+
+	/**
+	 * Add foreign entities to the domestic database and map their IDs.
+	 * Entities that exist under a value that the collation of the domestic
+	 * database considers equal are mapped to the existing entity.
+	 *
+	 * @param conn         The domestic connection.
+	 * @param newEntities  The domestic variable IDs and foreign entities.
+	 */
+	private void addEntities(Connection conn, ArrayList<Object[]> newEntities) throws SQLException {
+		if (newEntities.size() == 0) {
+			return;
+		}
+		try (PreparedStatement s1 = conn.prepareStatement(this.domestic.createInsertIgnoreStatement("ENTITIES", "VariableId, Value, Red, Green, Blue", "VALUES (?, ?, ?, ?, ?)"));
+				PreparedStatement s2 = conn.prepareStatement("SELECT ID FROM ENTITIES WHERE VariableId = ? AND Value = ?;")) {
+			for (int from = 0; from < newEntities.size(); from = from + Sql.BATCH_SIZE) {
+				int to = Math.min(from + Sql.BATCH_SIZE, newEntities.size());
+				this.domestic.writeBatch(s1, from, to, (ps, i) -> {
+					Entity e = (Entity) newEntities.get(i)[1];
+					ps.setInt(1, (int) newEntities.get(i)[0]);
+					ps.setString(2, e.getValue());
+					ps.setInt(3, e.getColor().getRed());
+					ps.setInt(4, e.getColor().getGreen());
+					ps.setInt(5, e.getColor().getBlue());
+				}, null);
+			}
+
+			// look up the IDs of the new entities per variable
+			LinkedHashMap<Integer, ArrayList<String>> values = new LinkedHashMap<Integer, ArrayList<String>>();
+			for (Object[] n : newEntities) {
+				values.computeIfAbsent((int) n[0], k -> new ArrayList<String>()).add(((Entity) n[1]).getValue());
+			}
+			HashMap<Integer, HashMap<String, Integer>> ids = new HashMap<Integer, HashMap<String, Integer>>();
+			for (int variableId : values.keySet()) {
+				ids.put(variableId, Sql.selectEntityIds(conn, variableId, values.get(variableId)));
+			}
+			for (Object[] n : newEntities) {
+				Entity e = (Entity) n[1];
+				Integer id = ids.get((int) n[0]).get(e.getValue());
+				if (id == null) {
+					// the collation of the database may match a stored value that differs in case or trailing spaces
+					s2.setInt(1, (int) n[0]);
+					s2.setString(2, e.getValue());
+					ResultSet r = s2.executeQuery();
+					while (r.next()) {
+						id = r.getInt("ID");
+					}
+					if (id == null) {
+						throw new SQLException("Entity \"" + e.getValue() + "\" for Variable " + n[0] + " could not be added to the ENTITIES table.");
+					}
+				}
+				if (this.newEntityIds.add(id)) {
+					this.entityCount++;
+				}
+				this.entityMap.put(e.getId(), id);
+			}
+		}
+	}
+
+	/**
+	 * Add the foreign variable links between imported variables that do not
+	 * exist yet.
+	 */
+	private void importVariableLinks(Connection connForeign, Connection connDomestic) throws SQLException {
+		HashSet<List<Integer>> links = new HashSet<List<Integer>>();
+		ArrayList<int[]> newLinks = new ArrayList<int[]>();
+		try (PreparedStatement s1 = connDomestic.prepareStatement("SELECT SourceVariableId, TargetVariableId FROM VARIABLELINKS;");
+				PreparedStatement s2 = connForeign.prepareStatement("SELECT SourceVariableId, TargetVariableId FROM VARIABLELINKS;")) {
+			ResultSet r = s1.executeQuery();
+			while (r.next()) {
+				links.add(Arrays.asList(r.getInt("SourceVariableId"), r.getInt("TargetVariableId")));
+			}
+			r = s2.executeQuery();
+			while (r.next()) {
+				Integer source = this.variableMap.get(r.getInt("SourceVariableId"));
+				Integer target = this.variableMap.get(r.getInt("TargetVariableId"));
+				if (source != null && target != null && links.add(Arrays.asList(source, target))) {
+					newLinks.add(new int[] { source, target });
+				}
+			}
+		}
+		try (PreparedStatement s = connDomestic.prepareStatement("INSERT INTO VARIABLELINKS (SourceVariableId, TargetVariableId) VALUES (?, ?);")) {
+			this.domestic.writeBatch(s, 0, newLinks.size(), (ps, i) -> {
+				ps.setInt(1, newLinks.get(i)[0]);
+				ps.setInt(2, newLinks.get(i)[1]);
+			}, null);
+		}
+	}
+
+	/**
+	 * Import the attribute values of the mapped entities. Values are added if
+	 * they do not exist in the domestic database, and existing values are
+	 * updated if they are overwritten or merged, depending on the options.
+	 * New entities get empty values for the remaining attribute variables.
+	 */
+	private void importAttributeValues(Connection connForeign, Connection connDomestic) throws SQLException {
+		HashSet<Integer> domesticEntityIds = new HashSet<Integer>(this.entityMap.values());
+		HashMap<Long, String> existing = new HashMap<Long, String>(); // entity ID and attribute variable ID to value
+		ArrayList<Object[]> inserts = new ArrayList<Object[]>(); // entity ID, attribute variable ID, value
+		ArrayList<Object[]> updates = new ArrayList<Object[]>();
+		try (PreparedStatement s1 = connDomestic.prepareStatement("SELECT EntityId, AttributeVariableId, AttributeValue FROM ATTRIBUTEVALUES;");
+				PreparedStatement s2 = connForeign.prepareStatement("SELECT EntityId, AttributeVariableId, AttributeValue FROM ATTRIBUTEVALUES;")) {
+			ResultSet r = s1.executeQuery();
+			while (r.next()) {
+				if (domesticEntityIds.contains(r.getInt("EntityId"))) {
+					existing.put(((long) r.getInt("EntityId") << 32) | r.getInt("AttributeVariableId"), r.getString("AttributeValue"));
+				}
+			}
+			r = s2.executeQuery();
+			while (r.next()) {
+				Integer entityId = this.entityMap.get(r.getInt("EntityId"));
+				Integer attributeVariableId = this.attributeVariableMap.get(r.getInt("AttributeVariableId"));
+				String value = r.getString("AttributeValue") == null ? "" : r.getString("AttributeValue");
+				if (entityId == null || attributeVariableId == null) {
+					continue;
+				}
+				long key = ((long) entityId << 32) | attributeVariableId;
+				if (!existing.containsKey(key)) {
+					inserts.add(new Object[] { entityId, attributeVariableId, value });
+					existing.put(key, value);
+				} else if (!Objects.equals(value, existing.get(key))
+						&& (this.overwriteAttributes || (this.mergeAttributes && (existing.get(key) == null || existing.get(key).equals(""))))) {
+					updates.add(new Object[] { entityId, attributeVariableId, value });
+					existing.put(key, value);
+				}
+			}
+		}
+		int[] newIds = this.newEntityIds.stream().mapToInt(i -> i).toArray();
+		try (PreparedStatement s1 = connDomestic.prepareStatement(this.domestic.createInsertIgnoreStatement("ATTRIBUTEVALUES", "EntityId, AttributeVariableId, AttributeValue", "VALUES (?, ?, ?)"));
+				PreparedStatement s2 = connDomestic.prepareStatement("UPDATE ATTRIBUTEVALUES SET AttributeValue = ? WHERE EntityId = ? AND AttributeVariableId = ?;");
+				PreparedStatement s3 = connDomestic.prepareStatement(this.domestic.createInsertIgnoreStatement("ATTRIBUTEVALUES", "EntityId, AttributeVariableId, AttributeValue",
+						"SELECT E.ID, A.ID, '' FROM ENTITIES E, ATTRIBUTEVARIABLES A WHERE A.VariableId = E.VariableId AND E.ID = ?"))) {
+			for (int from = 0; from < inserts.size(); from = from + Sql.BATCH_SIZE) {
+				this.domestic.writeBatch(s1, from, Math.min(from + Sql.BATCH_SIZE, inserts.size()), (ps, i) -> {
+					ps.setInt(1, (int) inserts.get(i)[0]);
+					ps.setInt(2, (int) inserts.get(i)[1]);
+					ps.setString(3, (String) inserts.get(i)[2]);
+				}, null);
+			}
+			for (int from = 0; from < updates.size(); from = from + Sql.BATCH_SIZE) {
+				this.domestic.writeBatch(s2, from, Math.min(from + Sql.BATCH_SIZE, updates.size()), (ps, i) -> {
+					ps.setString(1, (String) updates.get(i)[2]);
+					ps.setInt(2, (int) updates.get(i)[0]);
+					ps.setInt(3, (int) updates.get(i)[1]);
+				}, null);
+			}
+			for (int from = 0; from < newIds.length; from = from + Sql.BATCH_SIZE) {
+				this.domestic.writeBatch(s3, from, Math.min(from + Sql.BATCH_SIZE, newIds.length), (ps, i) -> ps.setInt(1, newIds[i]), null);
+			}
+		}
+		this.attributeCount = inserts.size() + updates.size();
+	}
+
+	/**
+	 * Import the documents and, depending on the options, their statements
+	 * and values, in chunks of {@link #DOCUMENT_CHUNK_SIZE} documents.
+	 */
+	private void importDocuments(Connection connForeign, Connection connDomestic, int[] documentIds) throws SQLException {
+		String foreignType = this.foreign.getConnectionProfile().getType();
+
+		// statement counts of the foreign documents, for skipping empty or full documents
+		HashMap<Integer, Integer> frequencies = new HashMap<Integer, Integer>();
+		if (this.skipEmpty || this.skipFull) {
+			Query q = new Query(foreignType)
+					.append("SELECT DocumentId, COUNT(ID) AS Frequency FROM STATEMENTS WHERE ")
+					.appendIdFilter("DocumentId", documentIds)
+					.append(" GROUP BY DocumentId;");
+			try (PreparedStatement s = q.prepare(connForeign)) {
+				ResultSet r = s.executeQuery();
+				while (r.next()) {
+					frequencies.put(r.getInt("DocumentId"), r.getInt("Frequency"));
+				}
+			}
+		}
+
+		// documents imported by an earlier, interrupted import
+		HashSet<Integer> done = new HashSet<Integer>();
+		String source = getSource();
+		if (this.resumable) {
+			try (PreparedStatement s1 = connDomestic.prepareStatement("SELECT ForeignDocumentId FROM IMPORTPROGRESS WHERE Source = ?;")) { // table created by Sql.migrate()
+				s1.setString(1, source);
+				ResultSet r = s1.executeQuery();
+				while (r.next()) {
+					done.add(r.getInt("ForeignDocumentId"));
+				}
+			}
+		}
+		int[] ids = IntStream.of(documentIds)
+				.filter(id -> !done.contains(id))
+				.filter(id -> !(this.skipEmpty && frequencies.getOrDefault(id, 0) == 0) && !(this.skipFull && frequencies.getOrDefault(id, 0) > 0))
+				.toArray();
+		this.resumedDocumentCount = (int) IntStream.of(documentIds).filter(done::contains).count();
+
+		// titles and texts of domestic documents with the same titles as foreign documents, for skipping duplicates
+		HashSet<String> existing = new HashSet<String>();
+		if (this.skipDuplicates && ids.length > 0) {
+			HashSet<String> titles = new HashSet<String>();
+			Query q = new Query(foreignType).append("SELECT Title FROM DOCUMENTS WHERE ").appendIdFilter("ID", ids).append(";");
+			try (PreparedStatement s1 = q.prepare(connForeign);
+					PreparedStatement s2 = connDomestic.prepareStatement("SELECT Title, Text FROM DOCUMENTS;")) {
+				ResultSet r = s1.executeQuery();
+				while (r.next()) {
+					titles.add(truncate(r.getString("Title")));
+				}
+				s2.setFetchSize(Sql.FETCH_SIZE);
+				r = s2.executeQuery();
+				while (r.next()) {
+					if (titles.contains(r.getString("Title"))) {
+						existing.add(r.getString("Title") + "\u0000" + r.getString("Text"));
+					}
+				}
+			}
+		}
+
+		try (PreparedStatement s1 = connDomestic.prepareStatement("INSERT INTO DOCUMENTS (Title, Text, Coder, Author, Source, Section, Notes, Type, Date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS)) {
+			for (int from = 0; from < ids.length; from = from + DOCUMENT_CHUNK_SIZE) {
+				int[] chunk = Arrays.copyOfRange(ids, from, Math.min(from + DOCUMENT_CHUNK_SIZE, ids.length));
+
+				// read and filter the documents of the chunk
+				ArrayList<Object[]> documents = new ArrayList<Object[]>(); // foreign ID, title, text, coder, author, source, section, notes, type, date
+				Query q = new Query(foreignType).append("SELECT ID, Title, Text, Coder, Author, Source, Section, Notes, Type, Date FROM DOCUMENTS WHERE ").appendIdFilter("ID", chunk).append(" ORDER BY ID;");
+				try (PreparedStatement s = q.prepare(connForeign)) {
+					ResultSet r = s.executeQuery();
+					while (r.next()) {
+						String title = truncate(r.getString("Title"));
+						if (this.skipDuplicates && !existing.add(title + "\u0000" + r.getString("Text"))) {
+							continue;
+						}
+						LocalDateTime date = LocalDateTime.ofEpochSecond(r.getLong("Date"), 0, ZoneOffset.UTC);
+						if (this.fixDates && (date.getHour() != 0 || date.getMinute() != 0 || date.getSecond() != 0)) {
+							if (date.truncatedTo(ChronoUnit.DAYS).isBefore(date.plusHours(12).truncatedTo(ChronoUnit.DAYS))) {
+								date = date.plusHours(12).truncatedTo(ChronoUnit.DAYS);
+							} else {
+								date = date.truncatedTo(ChronoUnit.DAYS);
+							}
+							this.dateFixCount++;
+						}
+						documents.add(new Object[] {
+								r.getInt("ID"),
+								title,
+								r.getString("Text"),
+								mapCoder(r.getInt("Coder")),
+								truncate(r.getString("Author")),
+								truncate(r.getString("Source")),
+								truncate(r.getString("Section")),
+								r.getString("Notes"),
+								truncate(r.getString("Type")),
+								date.toEpochSecond(ZoneOffset.UTC) });
+					}
+				}
+
+				// write the documents and their statements
+				int[] documentKeys = new int[documents.size()];
+				this.domestic.writeBatch(s1, 0, documents.size(), (ps, i) -> {
+					Object[] d = documents.get(i);
+					ps.setString(1, (String) d[1]);
+					ps.setString(2, (String) d[2]);
+					ps.setInt(3, (int) d[3]);
+					ps.setString(4, (String) d[4]);
+					ps.setString(5, (String) d[5]);
+					ps.setString(6, (String) d[6]);
+					ps.setString(7, (String) d[7]);
+					ps.setString(8, (String) d[8]);
+					ps.setLong(9, (long) d[9]);
+				}, documentKeys);
+				HashMap<Integer, Integer> documentMap = new HashMap<Integer, Integer>();
+				for (int i = 0; i < documents.size(); i++) {
+					documentMap.put((int) documents.get(i)[0], documentKeys[i]);
+				}
+				this.documentCount = this.documentCount + documents.size();
+				if (this.importStatements && documents.size() > 0) {
+					importStatements(connForeign, connDomestic, documentMap);
+				}
+
+				// record and commit the chunk
+				if (this.resumable) {
+					try (PreparedStatement s2 = connDomestic.prepareStatement("INSERT INTO IMPORTPROGRESS (Source, ForeignDocumentId, DocumentId) VALUES (?, ?, ?);")) {
+						this.domestic.writeBatch(s2, 0, chunk.length, (ps, i) -> {
+							ps.setString(1, source);
+							ps.setInt(2, chunk[i]);
+							if (documentMap.containsKey(chunk[i])) {
+								ps.setInt(3, documentMap.get(chunk[i]));
+							} else {
+								ps.setNull(3, Types.INTEGER); // skipped as a duplicate
+							}
+						}, null);
+					}
+					connDomestic.commit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Import the statements of a chunk of documents, along with their values.
+	 *
+	 * @param documentMap  The foreign document IDs and the corresponding new
+	 *   domestic document IDs.
+	 */
+	private void importStatements(Connection connForeign, Connection connDomestic, HashMap<Integer, Integer> documentMap) throws SQLException {
+		String foreignType = this.foreign.getConnectionProfile().getType();
+		int[] documentIds = documentMap.keySet().stream().mapToInt(i -> i).toArray();
+		int activeCoderId = this.domestic.getActiveCoder().getId();
+
+		// read and filter the statements
+		ArrayList<int[]> statements = new ArrayList<int[]>(); // foreign ID, statement type ID, document ID, start, stop, coder
+		Query q = new Query(foreignType).append("SELECT ID, StatementTypeId, DocumentId, Start, Stop, Coder FROM STATEMENTS WHERE ").appendIdFilter("DocumentId", documentIds).append(" ORDER BY ID;");
+		try (PreparedStatement s = q.prepare(connForeign)) {
+			ResultSet r = s.executeQuery();
+			while (r.next()) {
+				Integer statementTypeId = this.statementTypeMap.get(r.getInt("StatementTypeId"));
+				int coder = mapCoder(r.getInt("Coder"));
+				if (statementTypeId == null || (this.activeCoderStatementsOnly && coder != activeCoderId)) {
+					this.ignoredStatementCount++;
+				} else {
+					statements.add(new int[] { r.getInt("ID"), statementTypeId, documentMap.get(r.getInt("DocumentId")), r.getInt("Start"), r.getInt("Stop"), coder });
+				}
+			}
+		}
+		if (statements.size() == 0) {
+			return;
+		}
+
+		// write the statements
+		int[] statementKeys = new int[statements.size()];
+		try (PreparedStatement s = connDomestic.prepareStatement("INSERT INTO STATEMENTS (StatementTypeId, DocumentId, Start, Stop, Coder) VALUES (?, ?, ?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS)) {
+			for (int from = 0; from < statements.size(); from = from + Sql.BATCH_SIZE) {
+				this.domestic.writeBatch(s, from, Math.min(from + Sql.BATCH_SIZE, statements.size()), (ps, i) -> {
+					for (int j = 1; j < 6; j++) {
+						ps.setInt(j, statements.get(i)[j]);
+					}
+				}, statementKeys);
+			}
+		}
+		HashMap<Integer, Integer> statementMap = new HashMap<Integer, Integer>();
+		for (int i = 0; i < statements.size(); i++) {
+			statementMap.put(statements.get(i)[0], statementKeys[i]);
+		}
+		int[] statementIds = statements.stream().mapToInt(st -> st[0]).toArray();
+		this.statementCount = this.statementCount + statements.size();
+
+		// copy the values of the statements, one table at a time
+		String[] tables = new String[] { "DATASHORTTEXT", "DATALONGTEXT", "DATAINTEGER", "DATABOOLEAN" };
+		for (String table : tables) {
+			String column = table.equals("DATASHORTTEXT") ? "Entity" : "Value";
+			ArrayList<Object[]> values = new ArrayList<Object[]>(); // statement ID, variable ID, value
+			Query vq = new Query(foreignType).append("SELECT StatementId, VariableId, " + column + " FROM " + table + " WHERE ").appendIdFilter("StatementId", statementIds).append(";");
+			try (PreparedStatement s = vq.prepare(connForeign)) {
+				ResultSet r = s.executeQuery();
+				while (r.next()) {
+					Integer variableId = this.variableMap.get(r.getInt("VariableId"));
+					Object value;
+					if (table.equals("DATASHORTTEXT")) {
+						value = this.entityMap.get(r.getInt("Entity"));
+						if (value == null) {
+							throw new SQLException("Entity " + r.getInt("Entity") + " of Statement " + r.getInt("StatementId") + " in the other database was not imported.");
+						}
+					} else if (table.equals("DATALONGTEXT")) {
+						value = r.getString("Value");
+					} else {
+						value = r.getInt("Value");
+					}
+					if (variableId != null) {
+						values.add(new Object[] { statementMap.get(r.getInt("StatementId")), variableId, value });
+					}
+				}
+			}
+			try (PreparedStatement s = connDomestic.prepareStatement("INSERT INTO " + table + " (StatementId, VariableId, " + column + ") VALUES (?, ?, ?);")) {
+				for (int from = 0; from < values.size(); from = from + Sql.BATCH_SIZE) {
+					this.domestic.writeBatch(s, from, Math.min(from + Sql.BATCH_SIZE, values.size()), (ps, i) -> {
+						ps.setInt(1, (int) values.get(i)[0]);
+						ps.setInt(2, (int) values.get(i)[1]);
+						ps.setObject(3, values.get(i)[2]);
+					}, null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read all statement types with their variables.
+	 */
+	private static ArrayList<StatementType> selectStatementTypes(Connection conn) throws SQLException {
+		ArrayList<StatementType> statementTypes = new ArrayList<StatementType>();
+		HashMap<Integer, ArrayList<Value>> variables = new HashMap<Integer, ArrayList<Value>>();
+		try (PreparedStatement s1 = conn.prepareStatement("SELECT ID, Variable, DataType, StatementTypeId FROM VARIABLES ORDER BY ID;");
+				PreparedStatement s2 = conn.prepareStatement("SELECT ID, Label, Red, Green, Blue FROM STATEMENTTYPES ORDER BY ID;")) {
+			ResultSet r = s1.executeQuery();
+			while (r.next()) {
+				variables.computeIfAbsent(r.getInt("StatementTypeId"), k -> new ArrayList<Value>()).add(new Value(r.getInt("ID"), r.getString("Variable"), r.getString("DataType"), ""));
+			}
+			r = s2.executeQuery();
+			while (r.next()) {
+				statementTypes.add(new StatementType(r.getInt("ID"), r.getString("Label"), new Color(r.getInt("Red"), r.getInt("Green"), r.getInt("Blue")), variables.getOrDefault(r.getInt("ID"), new ArrayList<Value>())));
+			}
+		}
+		return statementTypes;
+	}
+
+	/**
+	 * Read all attribute variables.
+	 *
+	 * @return A map from variable IDs to maps from attribute variable names
+	 *   to attribute variable IDs.
+	 */
+	private static HashMap<Integer, LinkedHashMap<String, Integer>> selectAttributeVariables(Connection conn) throws SQLException {
+		HashMap<Integer, LinkedHashMap<String, Integer>> attributeVariables = new HashMap<Integer, LinkedHashMap<String, Integer>>();
+		try (PreparedStatement s = conn.prepareStatement("SELECT ID, VariableId, AttributeVariable FROM ATTRIBUTEVARIABLES ORDER BY ID;")) {
+			ResultSet r = s.executeQuery();
+			while (r.next()) {
+				attributeVariables.computeIfAbsent(r.getInt("VariableId"), k -> new LinkedHashMap<String, Integer>()).put(r.getString("AttributeVariable"), r.getInt("ID"));
+			}
+		}
+		return attributeVariables;
+	}
+
+	/**
+	 * Get the domestic coder ID for a foreign coder ID, or the active coder
+	 * of the domestic database if the foreign coder is not mapped.
+	 */
+	private int mapCoder(int foreignCoderId) {
+		Integer coderId = this.coderMap.get(foreignCoderId);
+		return coderId == null ? this.domestic.getActiveCoder().getId() : coderId;
+	}
+
+	/**
+	 * Identify the foreign database in the {@code IMPORTPROGRESS} table.
+	 */
+	private String getSource() {
+		ConnectionProfile cp = this.foreign.getConnectionProfile();
+		String source = cp.getType().equals("sqlite")
+				? "sqlite:" + new File(cp.getUrl()).getAbsolutePath()
+				: cp.getType() + ":" + cp.getUrl() + ":" + cp.getPort() + "/" + cp.getDatabaseName();
+		return truncate(source);
+	}
+
+	/**
+	 * Truncate a string to the maximum length of the indexed text columns.
+	 */
+	private static String truncate(String s) {
+		return s == null ? "" : s.substring(0, Math.min(190, s.length()));
+	}
+}
@@ -0,0 +1,335 @@
+package sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeMap;
+
+import dna.Dna;
+import logger.LogEvent;
+import logger.Logger;
+import model.Entity;
+import model.Statement;
+import model.TableDocument;
+import model.Value;
+
+/**
+ * An in-memory snapshot of the statements and documents in a database. The
+ * snapshot is loaded once and then kept up to date by applying only the
+ * changes that were recorded in the {@code CHANGELOG} table since the last
+ * update, so repeated exports do not need to read all statements from the
+ * database again. The statements of a statement type are loaded when they
+ * are requested for the first time. Changes of statement types, variables,
+ * attribute variables, or coders cause the snapshot to be loaded again.
+ *
+ * Sequence numbers of changes are assigned when a change is made, not when
+ * its transaction is committed. On MySQL and PostgreSQL, a change with a
+ * lower number can therefore become visible after a change with a higher
+ * number. Missing numbers are checked again at every update until they
+ * appear or until {@link #GAP_TIMEOUT} has passed since they were first
+ * noticed. Numbers of transactions that were rolled back never appear, and
+ * transactions in DNA are committed in chunks of at most {@link
+ * Sql#BATCH_SIZE} rows, so a change that becomes visible only after the
+ * timeout is not expected.
+ *
+ * The snapshot is only available if the change log exists, i.e., after the
+ * schema migration to version 2 (see {@link Sql#migrate()}), and if it has
+ * been enabled (see {@link Sql#setSnapshotEnabled(boolean)}).
+ */
+public class DatabaseSnapshot {
+
+	/**
+	 * The maximum number of missing sequence numbers that are checked again.
+	 * If there are more, for example after a large transaction was rolled
+	 * back, the snapshot is loaded again from scratch.
+	 */
+	private static final int MAX_GAPS = 10000;
+
+	/**
+	 * The number of milliseconds after which a missing sequence number is no
+	 * longer checked.
+	 */
+	private static final long GAP_TIMEOUT = 10 * 60 * 1000;
+
+	private final Sql sql;
+	private boolean available = false;
+
+	/**
+	 * The sequence number of the last change that was applied, or {@code -1}
+	 * if the snapshot has not been loaded.
+	 */
+	private int sequence = -1;
+	private final TreeMap<Integer, Long> gaps = new TreeMap<Integer, Long>(); // missing sequence number to time when it was first noticed
+	private final HashMap<Integer, TableDocument> documents = new HashMap<Integer, TableDocument>();
+	private final HashMap<Integer, HashMap<Integer, Statement>> statements = new HashMap<Integer, HashMap<Integer, Statement>>(); // statement type ID to statement ID to statement
+	private final HashMap<Integer, ArrayList<Statement>> sortedStatements = new HashMap<Integer, ArrayList<Statement>>(); // statement type ID to sorted statements
+
+	/**
+	 * Create an empty snapshot. It is loaded when it is used for the first
+	 * time.
+	 *
+	 * @param sql  The {@link Sql} object of the database.
+	 */
+	DatabaseSnapshot(Sql sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * Update the snapshot and get all statements of a statement type, sorted
+	 * by date, document, and position, as in {@link
+	 * Sql#getStatements(int[], int, java.time.LocalDateTime,
+	 * java.time.LocalDateTime, ArrayList, boolean, ArrayList, boolean,
+	 * ArrayList, boolean, ArrayList, boolean, HashMap, boolean)}. The
+	 * statements are shared with the snapshot and must not be modified.
+	 *
+	 * @param statementTypeId  The statement type ID.
+	 * @return                 The statements, or {@code null} if the snapshot
+	 *   is not available or could not be updated.
+	 */
+	public synchronized ArrayList<Statement> getStatements(int statementTypeId) {
+		if (!update()) {
+			return null;
+		}
+		HashMap<Integer, Statement> map = this.statements.get(statementTypeId);
+		if (map == null) {
+			HashMap<Integer, Statement> newMap = new HashMap<Integer, Statement>();
+			if (!this.sql.streamStatements(new int[0], statementTypeId, null, null, null, false, null, false, null, false, null, false, null, false, s -> newMap.put(s.getId(), s))) {
+				return null;
+			}
+			map = newMap;
+			this.statements.put(statementTypeId, map);
+		}
+		ArrayList<Statement> sorted = this.sortedStatements.get(statementTypeId);
+		if (sorted == null) {
+			sorted = new ArrayList<Statement>(map.values());
+			Collections.sort(sorted);
+			this.sortedStatements.put(statementTypeId, sorted);
+		}
+		return new ArrayList<Statement>(sorted);
+	}
+
+	/**
+	 * Get documents from the snapshot as of its last update, without
+	 * updating it. The statement frequencies of the documents are not kept up
+	 * to date.
+	 *
+	 * @param documentIds  The document IDs.
+	 * @return             The documents. Documents that are not in the
+	 *   snapshot are omitted.
+	 */
+	public synchronized ArrayList<TableDocument> getDocuments(int[] documentIds) {
+		ArrayList<TableDocument> result = new ArrayList<TableDocument>();
+		for (int documentId : documentIds) {
+			TableDocument d = this.documents.get(documentId);
+			if (d != null) {
+				result.add(d);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Apply the changes since the last update, or load the snapshot from
+	 * scratch if it has not been loaded or cannot be updated incrementally.
+	 *
+	 * @return Is the snapshot available and up to date?
+	 */
+	private boolean update() {
+		try (Connection conn = this.sql.getReadDataSource().getConnection();
+				PreparedStatement s1 = conn.prepareStatement("SELECT Value FROM SETTINGS WHERE Property = 'migration';");
+				PreparedStatement s2 = conn.prepareStatement("SELECT MIN(ID), MAX(ID) FROM CHANGELOG;")) {
+			if (!this.available) {
+				ResultSet r1 = s1.executeQuery();
+				this.available = r1.next() && Integer.parseInt(r1.getString("Value")) >= 2;
+				if (!this.available) {
+					return false;
+				}
+			}
+			long now = System.currentTimeMillis();
+			this.gaps.values().removeIf(time -> now - time > GAP_TIMEOUT);
+			ResultSet r2 = s2.executeQuery();
+			r2.next();
+			int min = r2.getInt(1);
+			int max = r2.wasNull() ? 0 : r2.getInt(2);
+			if (this.sequence < 0 || min > this.sequence + 1) { // not loaded yet, or changes were pruned from the log
+				load(conn, max, now);
+				return true;
+			}
+
+			Query q = new Query(this.sql.getConnectionProfile().getType()).append("SELECT ID, TableName, RowId, Operation FROM CHANGELOG WHERE ID > ?", this.sequence);
+			if (this.gaps.size() > 0) {
+				q.append(" OR ").appendIdFilter("ID", this.gaps.keySet().stream().mapToInt(i -> i).toArray());
+			}
+			q.append(" ORDER BY ID;");
+			HashSet<Integer> statementIds = new HashSet<Integer>();
+			HashSet<Integer> documentIds = new HashSet<Integer>();
+			HashSet<Integer> deletedDocumentIds = new HashSet<Integer>();
+			HashSet<Integer> entityIds = new HashSet<Integer>();
+			HashSet<Integer> seen = new HashSet<Integer>();
+			int last = this.sequence;
+			boolean reload = false;
+			try (PreparedStatement s3 = q.prepare(conn)) {
+				ResultSet r3 = s3.executeQuery();
+				while (r3.next()) {
+					int id = r3.getInt("ID");
+					int rowId = r3.getInt("RowId");
+					String table = r3.getString("TableName");
+					seen.add(id);
+					this.gaps.remove(id);
+					last = Math.max(last, id);
+					if (table.equals("STATEMENTS")) {
+						statementIds.add(rowId);
+					} else if (table.equals("DOCUMENTS")) {
+						(r3.getString("Operation").equals("D") ? deletedDocumentIds : documentIds).add(rowId);
+					} else if (table.equals("ENTITIES")) {
+						entityIds.add(rowId);
+					} else {
+						reload = true; // statement types, variables, attribute variables, or coders
+					}
+				}
+			}
+			for (int id = this.sequence + 1; id < last; id++) {
+				if (!seen.contains(id)) {
+					this.gaps.put(id, now);
+				}
+			}
+			if (reload || this.gaps.size() > MAX_GAPS) {
+				load(conn, max, now);
+				return true;
+			}
+			this.sequence = last;
+			return apply(statementIds, documentIds, deletedDocumentIds, entityIds);
+		} catch (SQLException | NumberFormatException e) {
+			clear();
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to update database snapshot.",
+					"Tried to apply the latest changes in the database to the snapshot of statements and documents in memory, but this failed. The data are read from the database instead.",
+					e);
+			Dna.logger.log(l);
+			return false;
+		}
+	}
+
+	/**
+	 * Discard the statements and load all documents. Recent missing sequence
+	 * numbers are remembered, as their changes may not have been committed
+	 * yet. Like other missing numbers, they are no longer checked after
+	 * {@link #GAP_TIMEOUT}, so numbers of rolled back transactions are not
+	 * checked forever.
+	 *
+	 * @param conn  A connection to the database.
+	 * @param max   The highest sequence number in the change log.
+	 * @param now   The current time in milliseconds.
+	 * @throws SQLException  If the change log could not be read.
+	 */
+	private void load(Connection conn, int max, long now) throws SQLException {
+		clear();
+		this.sql.clearEntityCache(); // entities may have been changed by other clients
+		try (PreparedStatement s = conn.prepareStatement("SELECT ID FROM CHANGELOG WHERE ID > ?;")) {
+			s.setInt(1, max - MAX_GAPS);
+			ResultSet r = s.executeQuery();
+			HashSet<Integer> seen = new HashSet<Integer>();
+			while (r.next()) {
+				seen.add(r.getInt("ID"));
+			}
+			for (int id = Math.max(1, max - MAX_GAPS + 1); id < max; id++) {
+				if (!seen.contains(id)) {
+					this.gaps.put(id, now);
+				}
+			}
+		}
+		for (TableDocument d : this.sql.getTableDocuments(new int[0])) {
+			this.documents.put(d.getId(), d);
+		}
+		this.sequence = max;
+	}
+
+	/**
+	 * Apply changes to the snapshot by reloading the changed documents and
+	 * statements.
+	 *
+	 * @return Were the changes applied successfully?
+	 */
+	private boolean apply(HashSet<Integer> statementIds, HashSet<Integer> documentIds, HashSet<Integer> deletedDocumentIds, HashSet<Integer> entityIds) {
+		if (entityIds.size() > 0) {
+			this.sql.invalidateEntities(entityIds);
+		}
+
+		// documents
+		for (int documentId : deletedDocumentIds) {
+			this.documents.remove(documentId);
+		}
+		if (documentIds.size() > 0) {
+			int[] ids = documentIds.stream().mapToInt(i -> i).toArray();
+			for (int documentId : ids) {
+				this.documents.remove(documentId); // also removes documents that were deleted in between
+			}
+			for (TableDocument d : this.sql.getTableDocuments(ids)) {
+				this.documents.put(d.getId(), d);
+			}
+		}
+
+		// statements of deleted documents, and statements whose document or entities changed
+		for (int statementTypeId : this.statements.keySet()) {
+			HashMap<Integer, Statement> map = this.statements.get(statementTypeId);
+			boolean changed = map.values().removeIf(s -> deletedDocumentIds.contains(s.getDocumentId()));
+			if (changed) {
+				this.sortedStatements.remove(statementTypeId);
+			}
+			if (documentIds.size() > 0 || entityIds.size() > 0) {
+				for (Statement s : map.values()) {
+					if (documentIds.contains(s.getDocumentId()) || containsEntity(s, entityIds)) {
+						statementIds.add(s.getId());
+					}
+				}
+			}
+		}
+		if (statementIds.size() == 0) {
+			return true;
+		}
+
+		// reload changed statements
+		int[] ids = statementIds.stream().mapToInt(i -> i).toArray();
+		for (int statementTypeId : this.statements.keySet()) {
+			HashMap<Integer, Statement> map = this.statements.get(statementTypeId);
+			map.keySet().removeAll(statementIds);
+			if (!this.sql.streamStatements(ids, statementTypeId, null, null, null, false, null, false, null, false, null, false, null, false, s -> map.put(s.getId(), s))) {
+				clear();
+				return false;
+			}
+			this.sortedStatements.remove(statementTypeId);
+		}
+		return true;
+	}
+
+	/**
+	 * Check if a statement has one of the given entities as a value.
+	 */
+	private static boolean containsEntity(Statement statement, HashSet<Integer> entityIds) {
+		if (entityIds.size() == 0) {
+			return false;
+		}
+		for (Value v : statement.getValues()) {
+			if (v.getValue() instanceof Entity && entityIds.contains(((Entity) v.getValue()).getId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Discard the snapshot, so it is loaded again at the next update.
+	 */
+	public synchronized void clear() {
+		this.sequence = -1;
+		this.gaps.clear();
+		this.documents.clear();
+		this.statements.clear();
+		this.sortedStatements.clear();
+	}
+}
@@ -0,0 +1,168 @@
+package sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.Color;
+import model.Entity;
+
+/**
+ * A cache of the entities in a database, including their attribute values,
+ * keyed by entity ID. Statements that are read from the database share one
+ * {@link model.Entity Entity} object per entity ID instead of creating a new
+ * object with its own attribute map for every short text value. The shared
+ * objects must therefore not be modified; changes to entities are written to
+ * the database by the {@link Sql} class, which removes the affected entities
+ * from the cache.
+ */
+class EntityCache {
+	private final ConcurrentHashMap<Integer, Entity> entities = new ConcurrentHashMap<Integer, Entity>();
+
+	/**
+	 * Variables whose entities have all been loaded into the cache.
+	 */
+	private final Set<Integer> completeVariables = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Get an entity, loading it from the database if it is not in the cache.
+	 *
+	 * @param conn      A connection to the database.
+	 * @param entityId  The entity ID.
+	 * @return          The entity, or {@code null} if there is no entity with
+	 *   this ID.
+	 * @throws SQLException  If the entity could not be loaded.
+	 */
+	Entity get(Connection conn, int entityId) throws SQLException {
+		Entity entity = this.entities.get(entityId);
+		if (entity != null) {
+			return entity;
+		}
+		try (PreparedStatement s1 = conn.prepareStatement("SELECT ID, VariableId, Value, Red, Green, Blue, ChildOf FROM ENTITIES WHERE ID = ?;");
+				PreparedStatement s2 = conn.prepareStatement("SELECT AttributeVariable, AttributeValue FROM ATTRIBUTEVALUES INNER JOIN ATTRIBUTEVARIABLES ON ATTRIBUTEVARIABLES.ID = AttributeVariableId WHERE EntityId = ?;")) {
+			HashMap<String, String> attributeValues = new HashMap<String, String>();
+			s2.setInt(1, entityId);
+			ResultSet r = s2.executeQuery();
+			while (r.next()) {
+				attributeValues.put(r.getString("AttributeVariable"), r.getString("AttributeValue"));
+			}
+			s1.setInt(1, entityId);
+			r = s1.executeQuery();
+			while (r.next()) {
+				entity = createEntity(r, r.getInt("VariableId"), attributeValues);
+			}
+		}
+		if (entity != null) {
+			this.entities.put(entityId, entity);
+		}
+		return entity;
+	}
+
+	/**
+	 * Load all entities of the short text variables of a statement type into
+	 * the cache, unless they have been loaded before. This needs two queries
+	 * per variable, which is much faster than loading the entities one by one
+	 * while statements are read.
+	 *
+	 * @param conn             A connection to the database.
+	 * @param statementTypeId  The statement type ID.
+	 * @throws SQLException  If the entities could not be loaded.
+	 */
+	void loadStatementType(Connection conn, int statementTypeId) throws SQLException {
+		try (PreparedStatement s1 = conn.prepareStatement("SELECT ID FROM VARIABLES WHERE StatementTypeId = ? AND DataType = 'short text';");
+				PreparedStatement s2 = conn.prepareStatement("SELECT ID, Value, Red, Green, Blue, ChildOf FROM ENTITIES WHERE VariableId = ?;");
+				PreparedStatement s3 = conn.prepareStatement("SELECT EntityId, AttributeVariable, AttributeValue FROM ATTRIBUTEVALUES INNER JOIN ATTRIBUTEVARIABLES ON ATTRIBUTEVARIABLES.ID = AttributeVariableId WHERE ATTRIBUTEVARIABLES.VariableId = ?;")) {
+			s1.setInt(1, statementTypeId);
+			ResultSet r1 = s1.executeQuery();
+			while (r1.next()) {
+				int variableId = r1.getInt("ID");
+				if (this.completeVariables.contains(variableId)) {
+					continue;
+				}
+				HashMap<Integer, HashMap<String, String>> attributeValues = new HashMap<Integer, HashMap<String, String>>();
+				s3.setInt(1, variableId);
+				ResultSet r = s3.executeQuery();
+				while (r.next()) {
+					attributeValues.computeIfAbsent(r.getInt("EntityId"), k -> new HashMap<String, String>()).put(r.getString("AttributeVariable"), r.getString("AttributeValue"));
+				}
+				s2.setInt(1, variableId);
+				r = s2.executeQuery();
+				while (r.next()) {
+					int entityId = r.getInt("ID");
+					this.entities.putIfAbsent(entityId, createEntity(r, variableId, attributeValues.getOrDefault(entityId, new HashMap<String, String>())));
+				}
+				this.completeVariables.add(variableId);
+			}
+		}
+	}
+
+	/**
+	 * Create an entity from the current row of a result set.
+	 */
+	private static Entity createEntity(ResultSet r, int variableId, HashMap<String, String> attributeValues) throws SQLException {
+		return new Entity(r.getInt("ID"),
+				variableId,
+				r.getString("Value"),
+				new Color(r.getInt("Red"), r.getInt("Green"), r.getInt("Blue")),
+				r.getInt("ChildOf"),
+				true,
+				attributeValues);
+	}
+
+	/**
+	 * Get the cached entity with the same ID, value, and color as an entity
+	 * read from the database without attributes, so the cached object can be
+	 * used instead. Removes the cached entity if it is outdated.
+	 *
+	 * @param entity  The entity read from the database.
+	 * @return        The cached entity, or the entity itself if it is not in
+	 *   the cache.
+	 */
+	Entity intern(Entity entity) {
+		Entity cached = this.entities.get(entity.getId());
+		if (cached == null) {
+			return entity;
+		}
+		if (Objects.equals(cached.getValue(), entity.getValue())
+				&& cached.getColor().getRed() == entity.getColor().getRed()
+				&& cached.getColor().getGreen() == entity.getColor().getGreen()
+				&& cached.getColor().getBlue() == entity.getColor().getBlue()) {
+			return cached;
+		}
+		invalidate(entity.getId());
+		return entity;
+	}
+
+	/**
+	 * Remove an entity from the cache after it was changed or deleted.
+	 *
+	 * @param entityId  The entity ID.
+	 */
+	void invalidate(int entityId) {
+		this.entities.remove(entityId);
+	}
+
+	/**
+	 * Remove all entities of a variable from the cache, for example after its
+	 * attribute variables were changed.
+	 *
+	 * @param variableId  The variable ID.
+	 */
+	void invalidateVariable(int variableId) {
+		this.completeVariables.remove(variableId);
+		this.entities.values().removeIf(e -> e.getVariableId() == variableId);
+	}
+
+	/**
+	 * Remove all entities from the cache.
+	 */
+	void clear() {
+		this.completeVariables.clear();
+		this.entities.clear();
+	}
+}
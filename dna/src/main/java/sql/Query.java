@@ -0,0 +1,235 @@
+package sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * An SQL query with parameters, which is assembled from parts. Values are
+ * passed as parameters instead of being written into the query text, so the
+ * same kind of query always has the same text, and the database and the JDBC
+ * driver can reuse the prepared statement and its query plan.
+ *
+ * Sets of IDs are bound as a single array parameter on PostgreSQL. On SQLite
+ * and MySQL, they are bound as a list of placeholders whose length is
+ * rounded up to a power of two, so that sets of similar size share the same
+ * query text, or through a temporary table if the set has more than
+ * {@link #MAX_PLACEHOLDERS} elements.
+ */
+public class Query {
+
+	/**
+	 * The maximum number of placeholders for a set of IDs. Larger sets are
+	 * written into a temporary table on SQLite and MySQL.
+	 */
+	public static final int MAX_PLACEHOLDERS = 1024;
+
+	/**
+	 * The ID sets that were last written into the temporary tables of each
+	 * connection, by table name. Connections are removed when they are no
+	 * longer used.
+	 */
+	private static final Map<Connection, HashMap<String, int[]>> idTables = Collections.synchronizedMap(new WeakHashMap<Connection, HashMap<String, int[]>>());
+
+	private final String type;
+	private final StringBuilder text = new StringBuilder();
+	private final ArrayList<Object> parameters = new ArrayList<Object>();
+	private final LinkedHashMap<String, int[]> tables = new LinkedHashMap<String, int[]>();
+
+	/**
+	 * Create an empty query.
+	 *
+	 * @param type  The database type, as in {@link
+	 *   sql.ConnectionProfile#getType()}: {@code "sqlite"}, {@code "mysql"}, or
+	 *   {@code "postgresql"}.
+	 */
+	public Query(String type) {
+		this.type = type;
+	}
+
+	/**
+	 * Append a part of the query text and the values of its parameters.
+	 *
+	 * @param text        The query text, with {@code ?} placeholders.
+	 * @param parameters  The parameter values, in the order of the
+	 *   placeholders.
+	 * @return            This query.
+	 */
+	public Query append(String text, Object... parameters) {
+		this.text.append(text);
+		Collections.addAll(this.parameters, parameters);
+		return this;
+	}
+
+	/**
+	 * Append a part of the query text and a list of parameter values.
+	 *
+	 * @param text        The query text, with {@code ?} placeholders.
+	 * @param parameters  The parameter values, in the order of the
+	 *   placeholders.
+	 * @return            This query.
+	 */
+	public Query append(String text, List<?> parameters) {
+		this.text.append(text);
+		this.parameters.addAll(parameters);
+		return this;
+	}
+
+	/**
+	 * Append another query, for example a filter condition that is shared by
+	 * several queries.
+	 *
+	 * @param query  The query to append.
+	 * @return       This query.
+	 */
+	public Query append(Query query) {
+		HashMap<String, String> names = new HashMap<String, String>(); // rename temporary tables that already exist in this query
+		for (Map.Entry<String, int[]> table : query.tables.entrySet()) {
+			String name = table.getKey();
+			for (int i = this.tables.size(); this.tables.containsKey(name); i++) {
+				name = "DNA_IDS_" + i;
+			}
+			names.put(table.getKey(), name);
+			this.tables.put(name, table.getValue());
+		}
+		Matcher m = Pattern.compile("DNA_IDS_\\d+").matcher(query.text);
+		StringBuffer sb = new StringBuffer();
+		while (m.find()) {
+			m.appendReplacement(sb, names.get(m.group()));
+		}
+		m.appendTail(sb);
+		this.text.append(sb);
+		this.parameters.addAll(query.parameters);
+		return this;
+	}
+
+	/**
+	 * Append a condition that a column is in a set of IDs, without a leading
+	 * {@code AND} or {@code WHERE}.
+	 *
+	 * @param column  The column, for example {@code "STATEMENTS.ID"}.
+	 * @param ids     The IDs. Duplicates are ignored. If the array is empty,
+	 *   the condition is never true.
+	 * @return        This query.
+	 */
+	public Query appendIdFilter(String column, int[] ids) {
+		if (ids.length == 0) {
+			this.text.append(column + " IN (NULL)");
+		} else if (this.type.equals("postgresql")) {
+			this.text.append(column + " = ANY(?)");
+			this.parameters.add(ids);
+		} else if (ids.length > MAX_PLACEHOLDERS) {
+			String name = "DNA_IDS_" + this.tables.size();
+			for (int i = this.tables.size() + 1; this.tables.containsKey(name); i++) {
+				name = "DNA_IDS_" + i;
+			}
+			this.tables.put(name, ids);
+			this.text.append(column + " IN (SELECT ID FROM " + name + ")");
+		} else {
+			int[] distinct = IntStream.of(ids).distinct().sorted().toArray();
+			int n = Integer.highestOneBit(distinct.length);
+			if (n < distinct.length) {
+				n = n * 2;
+			}
+			this.text.append(column + " IN (" + String.join(", ", Collections.nCopies(n, "?")) + ")");
+			for (int i = 0; i < n; i++) {
+				this.parameters.add(distinct[Math.min(i, distinct.length - 1)]); // repeat the last ID in the padding
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Get the query text.
+	 *
+	 * @return The query text.
+	 */
+	public String getText() {
+		return this.text.toString();
+	}
+
+	/**
+	 * Prepare the query on a connection and bind its parameters. Sets of IDs
+	 * that are bound through temporary tables are written into the tables
+	 * first, unless the same set was already written on this connection.
+	 *
+	 * @param conn  The connection.
+	 * @return      The prepared statement, which must be closed by the caller.
+	 * @throws SQLException  If the statement could not be prepared.
+	 */
+	public PreparedStatement prepare(Connection conn) throws SQLException {
+		for (Map.Entry<String, int[]> table : this.tables.entrySet()) {
+			writeIdTable(conn, table.getKey(), table.getValue());
+		}
+		PreparedStatement s = conn.prepareStatement(getText());
+		try {
+			for (int i = 0; i < this.parameters.size(); i++) {
+				Object p = this.parameters.get(i);
+				if (p instanceof int[]) {
+					s.setArray(i + 1, conn.createArrayOf("integer", IntStream.of((int[]) p).boxed().toArray()));
+				} else {
+					s.setObject(i + 1, p);
+				}
+			}
+		} catch (SQLException e) {
+			s.close();
+			throw e;
+		}
+		return s;
+	}
+
+	/**
+	 * Write a set of IDs into a temporary table of a connection.
+	 */
+	private void writeIdTable(Connection conn, String name, int[] ids) throws SQLException {
+		HashMap<String, int[]> written = idTables.computeIfAbsent(conn, k -> new HashMap<String, int[]>());
+		if (written.get(name) == ids) {
+			return;
+		}
+		written.remove(name);
+		String create = this.type.equals("mysql")
+				? "CREATE TEMPORARY TABLE IF NOT EXISTS " + name + " (ID INT PRIMARY KEY);"
+				: "CREATE TEMP TABLE IF NOT EXISTS " + name + " (ID INTEGER PRIMARY KEY);";
+		int[] distinct = IntStream.of(ids).distinct().sorted().toArray();
+		try (PreparedStatement s1 = conn.prepareStatement(create)) {
+			s1.executeUpdate(); // before preparing the other statements, which need the table
+		}
+		boolean autoCommit = conn.getAutoCommit();
+		try (PreparedStatement s2 = conn.prepareStatement("DELETE FROM " + name + ";");
+				PreparedStatement s3 = conn.prepareStatement("INSERT INTO " + name + " (ID) VALUES (?);")) {
+			conn.setAutoCommit(false);
+			s2.executeUpdate();
+			for (int i = 0; i < distinct.length; i++) {
+				s3.setInt(1, distinct[i]);
+				s3.addBatch();
+				if ((i + 1) % Sql.BATCH_SIZE == 0 || i == distinct.length - 1) {
+					s3.executeBatch();
+				}
+			}
+			if (autoCommit) {
+				conn.commit();
+			}
+		} finally {
+			if (autoCommit) {
+				conn.setAutoCommit(true);
+			}
+		}
+		written.put(name, ids);
+	}
+
+	@Override
+	public String toString() {
+		return getText() + " " + Arrays.deepToString(this.parameters.toArray());
+	}
+}
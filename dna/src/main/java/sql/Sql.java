@@ -1,5 +1,11 @@
 package sql;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -10,16 +16,31 @@ import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
 import gui.DocumentEditor;
 import org.jasypt.util.password.StrongPasswordEncryptor;
+import org.sqlite.SQLiteConfig;
 import org.sqlite.SQLiteDataSource;
 
 import com.zaxxer.hikari.HikariConfig;
@@ -56,11 +77,232 @@ public class Sql {
 	 * The {@link javax.sql.DataSource DataSource} to be used for connections.
 	 */
 	private DataSource ds;
+
+	/**
+	 * The {@link javax.sql.DataSource DataSource} to be used for read-only
+	 * connections. For SQLite, this is a separate pool of connections that
+	 * cannot write to the database, so that readers do not have to wait for
+	 * the single writer connection in {@link #ds}. For MySQL and PostgreSQL,
+	 * this is the same connection pool as {@link #ds}, but without tracking
+	 * changes, so that temporary tables of {@link sql.Query Query} objects do
+	 * not change the {@link #getDataVersion() data version}.
+	 */
+	private DataSource readDs;
+
+	/**
+	 * The connection pools behind {@link #ds} and {@link #readDs}, which are
+	 * closed when a different connection profile is set.
+	 */
+	private HikariDataSource pool, readPool;
+
+	/**
+	 * A connection that keeps an in-memory copy of an SQLite database alive
+	 * while the connection pools are open, and that copies the database from
+	 * and back to its file, or {@code null} if the database is not held in
+	 * memory. See {@link sql.ConnectionProfile#getInMemory()}.
+	 */
+	private Connection memoryConnection;
+
+	/**
+	 * The file to which the in-memory copy of an SQLite database is written
+	 * back when it is closed, or {@code null} if changes are not written back.
+	 */
+	private String writeBackFile;
+
+	/**
+	 * The URI of the in-memory copy of an SQLite database, or {@code null} if
+	 * the database is not held in memory.
+	 */
+	private String memoryDatabaseUrl;
+
+	/**
+	 * Serializes the readers of an in-memory database against its writer. An
+	 * in-memory database cannot use write-ahead logging, so a reader
+	 * connection holds the read lock and the writer connection holds the
+	 * write lock while they are in use. Readers therefore never see changes
+	 * of a transaction that has not been committed yet.
+	 */
+	private final ReentrantReadWriteLock memoryLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Synchronizes writing back the in-memory copy of an SQLite database with
+	 * closing it.
+	 */
+	private final Object writeBackMonitor = new Object();
+
+	/**
+	 * The {@link #changeCount} when the in-memory copy of an SQLite database
+	 * was last written back to its file or loaded from it.
+	 */
+	private volatile long writtenBackChangeCount = 0;
+
+	/**
+	 * Writes the in-memory copy of an SQLite database back to its file every
+	 * {@link #WRITE_BACK_INTERVAL} minutes if it has changed, or {@code null}
+	 * if changes are not written back.
+	 */
+	private ScheduledExecutorService writeBackExecutor;
+
+	/**
+	 * Writes unsaved changes of the in-memory copy of an SQLite database back
+	 * to its file when the program exits without closing the database, or
+	 * {@code null} if it has not been registered yet.
+	 */
+	private Thread writeBackShutdownHook;
+
+	/**
+	 * The number of minutes between periodic write-backs of an in-memory
+	 * database.
+	 */
+	private static final int WRITE_BACK_INTERVAL = 5;
+
+	/**
+	 * The number of in-memory databases created so far, for naming them.
+	 */
+	private static final AtomicInteger memoryDatabaseCount = new AtomicInteger(0);
 	
 	/**
 	 * The active {@link model.Coder Coder} including permissions.
 	 */
 	private Coder activeCoder;
+
+	/**
+	 * The number of write operations executed through the data source. Used
+	 * for detecting changes to the database, for example to invalidate cached
+	 * results.
+	 */
+	private final AtomicLong changeCount = new AtomicLong(0);
+
+	/**
+	 * Entities of the current database, shared by the statements that are read
+	 * from it.
+	 */
+	private final EntityCache entityCache = new EntityCache();
+
+	/**
+	 * The current version of the schema migrations in {@link #migrate()}. The
+	 * version applied to a database is stored under the property {@code
+	 * migration} in the {@code SETTINGS} table. Databases without this
+	 * property have version 0.
+	 */
+	private static final int MIGRATION_VERSION = 3;
+
+	/**
+	 * The SQL statement for the {@code IMPORTPROGRESS} table, which records
+	 * the documents that were already imported from another database, so an
+	 * interrupted import can be resumed (see {@link
+	 * sql.DatabaseImporter#setResumable(boolean)}).
+	 */
+	private static final String IMPORT_PROGRESS_TABLE = "CREATE TABLE IF NOT EXISTS IMPORTPROGRESS("
+			+ "Source VARCHAR(190) NOT NULL, "
+			+ "ForeignDocumentId INT NOT NULL, "
+			+ "DocumentId INT, "
+			+ "PRIMARY KEY (Source, ForeignDocumentId));";
+
+	/**
+	 * Tables whose changes are recorded in the {@code CHANGELOG} table, each
+	 * with the table, the table under which changes are recorded, and the
+	 * column with the ID of the changed row in that table. Changes of
+	 * statement values and attribute values are recorded as updates of the
+	 * statement or entity they belong to.
+	 */
+	private static final String[][] LOGGED_TABLES = new String[][] {
+		{ "DOCUMENTS", "DOCUMENTS", "ID" },
+		{ "STATEMENTS", "STATEMENTS", "ID" },
+		{ "DATASHORTTEXT", "STATEMENTS", "StatementId" },
+		{ "DATALONGTEXT", "STATEMENTS", "StatementId" },
+		{ "DATABOOLEAN", "STATEMENTS", "StatementId" },
+		{ "DATAINTEGER", "STATEMENTS", "StatementId" },
+		{ "ENTITIES", "ENTITIES", "ID" },
+		{ "ATTRIBUTEVALUES", "ENTITIES", "EntityId" },
+		{ "ATTRIBUTEVARIABLES", "ATTRIBUTEVARIABLES", "ID" },
+		{ "VARIABLES", "VARIABLES", "ID" },
+		{ "STATEMENTTYPES", "STATEMENTTYPES", "ID" },
+		{ "CODERS", "CODERS", "ID" }
+	};
+
+	/**
+	 * The number of the most recent changes that are kept in the {@code
+	 * CHANGELOG} table when a database is opened.
+	 */
+	private static final int CHANGELOG_RETENTION = 100000;
+
+	/**
+	 * The snapshot of the statements and documents in the database, or {@code
+	 * null} if it has not been used yet.
+	 */
+	private DatabaseSnapshot snapshot;
+
+	/**
+	 * Is the snapshot used for exports? It keeps all documents and the
+	 * statements of the exported statement types in memory, so it is off by
+	 * default, and exports read only the filtered statements and their
+	 * documents from the database.
+	 */
+	private boolean snapshotEnabled = false;
+
+	/**
+	 * The number of rows per JDBC batch and transaction when documents or
+	 * statements are added or updated in bulk.
+	 */
+	public static final int BATCH_SIZE = 1000;
+
+	/**
+	 * The number of rows fetched per round trip when statements are streamed
+	 * from the database.
+	 */
+	public static final int FETCH_SIZE = 1000;
+
+	/**
+	 * The maximum number of read-only connections to an SQLite database.
+	 */
+	public static final int SQLITE_READ_POOL_SIZE = 4;
+
+	/**
+	 * The number of milliseconds an SQLite connection waits for a lock held
+	 * by another connection or program before failing with
+	 * {@code SQLITE_BUSY}.
+	 */
+	private static final int SQLITE_BUSY_TIMEOUT = 10000;
+
+	/**
+	 * Secondary indexes, each with name, table, and columns. Foreign keys
+	 * that are already the first column of a primary key or {@code UNIQUE}
+	 * constraint, such as {@code ATTRIBUTEVALUES(EntityId)} or {@code
+	 * ATTRIBUTEVARIABLES(VariableId)}, are not indexed again.
+	 */
+	private static final String[][] INDEXES = new String[][] {
+		{ "IDX_STATEMENTS_DOCUMENT", "STATEMENTS", "DocumentId, Start" }, // statements in a document, ordered by position
+		{ "IDX_STATEMENTS_TYPE", "STATEMENTS", "StatementTypeId" },
+		{ "IDX_STATEMENTS_CODER", "STATEMENTS", "Coder" },
+		{ "IDX_DOCUMENTS_DATE", "DOCUMENTS", "Date" },
+		{ "IDX_DOCUMENTS_CODER", "DOCUMENTS", "Coder" },
+		{ "IDX_VARIABLES_TYPE", "VARIABLES", "StatementTypeId" },
+		{ "IDX_ENTITIES_PARENT", "ENTITIES", "ChildOf" },
+		{ "IDX_DATASHORTTEXT_ENTITY", "DATASHORTTEXT", "Entity, StatementId" }, // covers entity value filters
+		{ "IDX_DATASHORTTEXT_VARIABLE", "DATASHORTTEXT", "VariableId" },
+		{ "IDX_DATALONGTEXT_VARIABLE", "DATALONGTEXT", "VariableId" },
+		{ "IDX_DATABOOLEAN_VARIABLE", "DATABOOLEAN", "VariableId" },
+		{ "IDX_DATAINTEGER_VARIABLE", "DATAINTEGER", "VariableId" },
+		{ "IDX_ATTRIBUTEVALUES_VARIABLE", "ATTRIBUTEVALUES", "AttributeVariableId" }
+	};
+
+	/**
+	 * The minimum number of rows of a table for which {@link
+	 * #checkQueryPlans()} reports full table scans. SQLite scans smaller
+	 * tables instead of using an index, which is just as fast.
+	 */
+	private static final int QUERY_PLAN_CHECK_ROWS = 10000;
+
+	/**
+	 * The tables that contain the variable values of statements.
+	 */
+	private static final String[] VALUE_TABLES = new String[] { "DATASHORTTEXT", "DATALONGTEXT", "DATABOOLEAN", "DATAINTEGER" };
+
+	/**
+	 * The order of the statements and values in {@link #streamStatements}.
+	 */
+	private static final String STATEMENT_ORDER = "ORDER BY DOCUMENTS.Date, STATEMENTS.DocumentId, STATEMENTS.Start, STATEMENTS.Stop, STATEMENTS.ID";
 	
 	
 	/* =========================================================================
@@ -109,21 +351,59 @@ public class Sql {
 	 */
 	public boolean setConnectionProfile(ConnectionProfile cp, boolean test) {
 		boolean success = false;
+		closePools();
+		ds = null;
+		readDs = null;
 		this.cp = cp;
+		this.entityCache.clear();
+		this.snapshot = null;
 		if (cp == null) { // null connection
-			ds = null;
 			this.cp = null;
 			this.activeCoder = null;
+		} else if (cp.getType().equals("sqlite") && !test && !cp.getInMemory().equals("off")) { // load the file into memory
+			try {
+				memoryDatabaseUrl = openMemoryDatabase(cp.getUrl());
+				pool = createSqlitePool(memoryDatabaseUrl, false, true, false);
+				readPool = createSqlitePool(memoryDatabaseUrl, true, true, false);
+				ds = trackChanges(serialize(pool, true));
+				readDs = serialize(readPool, false);
+				if (cp.getInMemory().equals("write-back")) {
+					writeBackFile = cp.getUrl();
+					startWriteBack();
+				}
+				success = true;
+				LogEvent l = new LogEvent(Logger.MESSAGE,
+						"[SQL] An SQLite DNA database has been loaded into memory as a data source.",
+						"The SQLite DNA database at " + cp.getUrl() + " has been loaded into memory as a data source. "
+						+ (writeBackFile == null ? "Changes are not permitted." : "Changes are written back to the file every " + WRITE_BACK_INTERVAL + " minutes and when the database is closed."));
+				Dna.logger.log(l);
+			} catch (SQLException | IOException | PoolInitializationException e) {
+				closePools();
+				LogEvent l = new LogEvent(Logger.ERROR,
+						"[SQL] Failed to load SQLite database into memory.",
+						"Failed to load the SQLite database at " + cp.getUrl() + " into memory. Check if the file exists, is a DNA database, and fits into the available memory.",
+						e);
+				Dna.logger.log(l);
+			}
 		} else if (cp.getType().equals("sqlite")) { // no user name and password needed for file-based database
-			SQLiteDataSource sqds = new SQLiteDataSource();
-			sqds.setUrl("jdbc:sqlite:" + cp.getUrl());
-			sqds.setEnforceForeignKeys(true); // if this is not set, ON DELETE CASCADE won't work
-			ds = sqds;
-			success = true;
-			LogEvent l = new LogEvent(Logger.MESSAGE,
-					"[SQL] An SQLite DNA database has been opened as a data source.",
-					"An SQLite DNA database has been opened as a data source.");
-			Dna.logger.log(l);
+			try {
+				pool = createSqlitePool(cp.getUrl(), false, false, false);
+				readPool = createSqlitePool(cp.getUrl(), true, false, false); // after the writer, which switches the database to WAL mode
+				ds = trackChanges(pool);
+				readDs = readPool;
+				success = true;
+				LogEvent l = new LogEvent(Logger.MESSAGE,
+						"[SQL] An SQLite DNA database has been opened as a data source.",
+						"An SQLite DNA database has been opened as a data source.");
+				Dna.logger.log(l);
+			} catch (PoolInitializationException e) {
+				closePools();
+				LogEvent l = new LogEvent(Logger.ERROR,
+						"[SQL] Failed to open SQLite database.",
+						"Failed to open the SQLite database at " + cp.getUrl() + ". Check if the file exists, is not locked by another program, and is not on a network drive, which does not support write-ahead logging.",
+						e);
+				Dna.logger.log(l);
+			}
 		} else if (cp.getType().equals("mysql") || cp.getType().equals("postgresql")) {
 			HikariConfig config = new HikariConfig();
 			config.setMaximumPoolSize(30);
@@ -133,12 +413,18 @@ public class Sql {
 			config.setJdbcUrl("jdbc:" + cp.getType() + "://" + cp.getUrl() + ":" + cp.getPort() + "/" + cp.getDatabaseName());
 			if (cp.getType().equals("mysql")) {
 				config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+				config.addDataSourceProperty("useCursorFetch", "true"); // fetch rows in chunks if a fetch size is set
+				config.addDataSourceProperty("useServerPrepStmts", "true"); // keep prepared statements and their plans on the server
+				config.addDataSourceProperty("cachePrepStmts", "true"); // reuse prepared statements per connection
+				config.addDataSourceProperty("prepStmtCacheSize", "250");
+				config.addDataSourceProperty("prepStmtCacheSqlLimit", "8192"); // also cache the long statement queries
 			} else {
 				config.setDriverClassName("org.postgresql.Driver");
 			}
 			try {
-				HikariDataSource dsTest = new HikariDataSource(config);
-				ds = dsTest;
+				pool = new HikariDataSource(config);
+				ds = trackChanges(pool);
+				readDs = pool;
 				success = true;
 				LogEvent l = new LogEvent(Logger.MESSAGE,
 						"[SQL] A " + cp.getType() + " DNA database has been opened as a data source.",
@@ -159,6 +445,15 @@ public class Sql {
 	        Dna.logger.log(l);
 		}
 		if (test == false && cp != null) {
+			if (success && migrate()) {
+				pruneChangeLog();
+				if (cp.getType().equals("sqlite")) {
+					checkQueryPlans();
+				}
+			}
+			if (success && memoryConnection != null && writeBackFile == null) {
+				refuseWrites(); // after the migrations, which are applied to the in-memory copy only
+			}
 			selectCoder(cp.getCoderId());
 		}
 		return success;
@@ -174,6 +469,85 @@ public class Sql {
 		return this.ds != null;
 	}
 
+	/**
+	 * Close the data source and its connections. Use this for temporary
+	 * instances, for example for testing a connection or authenticating a
+	 * coder, before the connection profile is opened in the main instance.
+	 */
+	public void close() {
+		closePools();
+		ds = null;
+		readDs = null;
+	}
+
+	/**
+	 * Remove all entities from the entity cache. Call this after changing
+	 * entities or attribute values in the database without using the methods
+	 * of this class, which update the cache themselves.
+	 */
+	public void clearEntityCache() {
+		this.entityCache.clear();
+	}
+
+	/**
+	 * Remove entities from the entity cache after they were changed by
+	 * another client.
+	 * 
+	 * @param entityIds  The IDs of the changed entities.
+	 */
+	void invalidateEntities(Iterable<Integer> entityIds) {
+		for (int entityId : entityIds) {
+			this.entityCache.invalidate(entityId);
+		}
+	}
+
+	/**
+	 * Get the snapshot of the statements and documents in the database, which
+	 * is kept up to date using the change log. The snapshot is created when
+	 * it is used for the first time and discarded when a different
+	 * connection profile is set or the snapshot is disabled.
+	 * 
+	 * @return The {@link sql.DatabaseSnapshot DatabaseSnapshot}, or {@code
+	 *   null} if the snapshot is disabled (see {@link
+	 *   #setSnapshotEnabled(boolean)}).
+	 */
+	public synchronized DatabaseSnapshot getSnapshot() {
+		if (!this.snapshotEnabled) {
+			return null;
+		}
+		if (this.snapshot == null) {
+			this.snapshot = new DatabaseSnapshot(this);
+		}
+		return this.snapshot;
+	}
+
+	/**
+	 * Enable or disable the snapshot of the statements and documents for
+	 * exports. With the snapshot, repeated exports only read the changes
+	 * since the last export, but all documents and the statements of the
+	 * exported statement types are kept in memory. Without the snapshot, each
+	 * export reads only the statements that pass the filters and their
+	 * documents from the database. Disabling the snapshot releases its
+	 * memory.
+	 * 
+	 * @param enabled  Should exports use the snapshot?
+	 */
+	public synchronized void setSnapshotEnabled(boolean enabled) {
+		this.snapshotEnabled = enabled;
+		if (!enabled) {
+			this.snapshot = null;
+		}
+	}
+
+	/**
+	 * Is the snapshot of the statements and documents used for exports?
+	 * 
+	 * @return Is the snapshot enabled?
+	 */
+	public synchronized boolean isSnapshotEnabled() {
+		return this.snapshotEnabled;
+	}
+
 	/**
 	 * Get the active coder.
 	 * 
@@ -193,40 +567,711 @@ public class Sql {
 	}
 
 	/**
-	 * Retrieve a coder from the database and set it as the active coder.
+	 * Get a data source for connections that only read from the database,
+	 * such as table refreshes, searches, and exports. Statements that modify
+	 * the database fail on these connections for SQLite databases, but
+	 * temporary tables can be created.
+	 * 
+	 * @return A {@link javax.sql.DataSource DataSource} object.
+	 */
+	public DataSource getReadDataSource() {
+		return readDs;
+	}
+
+	/**
+	 * Create a connection pool for an SQLite database. The database uses
+	 * write-ahead logging (WAL), so readers and the writer do not block each
+	 * other. Only one connection writes to the database, which avoids
+	 * {@code SQLITE_BUSY} errors between writers of this program; write
+	 * transactions acquire the write lock immediately and wait for other
+	 * programs for up to {@link #SQLITE_BUSY_TIMEOUT} milliseconds. With
+	 * {@code synchronous = NORMAL}, the last transactions may be lost after a
+	 * power failure, but the database cannot become corrupt.
+	 * 
+	 * An in-memory database cannot use write-ahead logging. Its connections
+	 * share one page cache, and readers use {@code read_uncommitted}, so they
+	 * do not fail on the table locks of the shared cache. To prevent them
+	 * from seeing changes of a transaction that has not been committed yet,
+	 * the pools are wrapped by {@link #serialize(DataSource, boolean)}.
+	 * 
+	 * @param file       The path of the database file, or the URI of an
+	 *   in-memory database created by {@link #openMemoryDatabase(String)}.
+	 * @param readOnly   Create a pool of {@link #SQLITE_READ_POOL_SIZE}
+	 *   read-only connections instead of a single writer connection? Read-only
+	 *   connections can still write to temporary tables.
+	 * @param inMemory   Is the database an in-memory database?
+	 * @param queryOnly  Should every connection refuse all changes with
+	 *   {@code PRAGMA query_only}?
+	 * @return           The connection pool.
+	 */
+	private static HikariDataSource createSqlitePool(String file, boolean readOnly, boolean inMemory, boolean queryOnly) {
+		SQLiteConfig sqliteConfig = new SQLiteConfig();
+		sqliteConfig.setBusyTimeout(SQLITE_BUSY_TIMEOUT);
+		HikariConfig config = new HikariConfig();
+		if (queryOnly) {
+			config.setConnectionInitSql("PRAGMA query_only = true;"); // executed on every new connection of the pool
+		}
+		if (inMemory) {
+			config.setMaxLifetime(0); // keep the connections, which is cheap
+		} else {
+			sqliteConfig.setCacheSize(-16384); // page cache of 16 MB per connection
+			sqliteConfig.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, "268435456"); // read up to 256 MB of the file through memory mapping
+		}
+		if (readOnly && inMemory) {
+			sqliteConfig.setPragma(SQLiteConfig.Pragma.READ_UNCOMMITTED, "true"); // no table locks in the shared cache
+			config.setMaximumPoolSize(SQLITE_READ_POOL_SIZE);
+			config.setMinimumIdle(1);
+		} else if (readOnly) {
+			sqliteConfig.setReadOnly(true);
+			config.setReadOnly(true); // the pool sets the flag on every connection, which the driver only accepts if it does not change
+			config.setMaximumPoolSize(SQLITE_READ_POOL_SIZE);
+			config.setMinimumIdle(1);
+		} else {
+			sqliteConfig.enforceForeignKeys(true); // if this is not set, ON DELETE CASCADE won't work
+			if (!inMemory) {
+				sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+				sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+			}
+			sqliteConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+			config.setMaximumPoolSize(1);
+		}
+		SQLiteDataSource sqds = new SQLiteDataSource(sqliteConfig);
+		sqds.setUrl("jdbc:sqlite:" + file);
+		config.setDataSource(sqds);
+		config.setPoolName("DNA SQLite " + (inMemory ? "in-memory " : "") + (readOnly ? "readers" : "writer"));
+		return new HikariDataSource(config);
+	}
+
+	/**
+	 * Create an in-memory SQLite database and copy a database file into it
+	 * with the SQLite backup API. The in-memory database exists as long as
+	 * {@link #memoryConnection} is open.
+	 * 
+	 * @param file  The path of the database file.
+	 * @return      The URI of the in-memory database, for connecting to it
+	 *   with the shared cache.
+	 * @throws SQLException  If the database could not be copied.
+	 * @throws IOException   If the database file could not be read.
+	 */
+	private String openMemoryDatabase(String file) throws SQLException, IOException {
+		if (!new File(file).isFile()) {
+			throw new IOException("File not found: " + file);
+		}
+		int pageSize;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { // the page size is stored in bytes 16 and 17 of the header
+			raf.seek(16);
+			pageSize = raf.readUnsignedShort();
+			pageSize = pageSize == 1 ? 65536 : pageSize;
+		}
+		String url = "file:dna-memory-" + memoryDatabaseCount.incrementAndGet() + "?mode=memory&cache=shared";
+		SQLiteDataSource sqds = new SQLiteDataSource();
+		sqds.setUrl("jdbc:sqlite:" + url);
+		memoryConnection = sqds.getConnection();
+		try (java.sql.Statement s = memoryConnection.createStatement()) {
+			s.executeUpdate("PRAGMA page_size = " + pageSize + ";"); // the backup fails if the page sizes differ
+			s.executeUpdate("restore from " + quoteFileName(file));
+		}
+		return url;
+	}
+
+	/**
+	 * Quote a file name for the {@code backup} and {@code restore} commands of
+	 * the SQLite JDBC driver.
+	 */
+	private static String quoteFileName(String file) {
+		return file.contains("'") ? "\"" + file + "\"" : "'" + file + "'";
+	}
+
+	/**
+	 * Make the writer of an in-memory database refuse all changes by
+	 * replacing its pool with a pool whose connections are configured with
+	 * {@code PRAGMA query_only}. The in-memory database is kept alive by
+	 * {@link #memoryConnection} in the meantime.
+	 */
+	private void refuseWrites() {
+		try {
+			HikariDataSource queryOnlyPool = createSqlitePool(memoryDatabaseUrl, false, true, true);
+			pool.close();
+			pool = queryOnlyPool;
+			ds = trackChanges(serialize(pool, true));
+		} catch (PoolInitializationException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to make in-memory database read-only.",
+					"Tried to make the in-memory copy of the SQLite database read-only, but this failed. Changes are possible but will not be written back to the file.",
+					e);
+			Dna.logger.log(l);
+		}
+	}
+
+	/**
+	 * Close the connection pools of the current data source, if any. Closing
+	 * the last connection to an SQLite database merges the write-ahead log
+	 * into the database file and removes it. An in-memory database is written
+	 * back to its file if this was requested and it has unsaved changes, and
+	 * then discarded.
+	 */
+	private void closePools() {
+		if (writeBackExecutor != null) {
+			writeBackExecutor.shutdownNow();
+			writeBackExecutor = null;
+		}
+		if (readPool != null) {
+			readPool.close();
+			readPool = null;
+		}
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+		synchronized (writeBackMonitor) {
+			if (memoryConnection != null) {
+				try {
+					if (hasUnsavedChanges()) {
+						writeBack();
+					}
+				} finally {
+					try {
+						memoryConnection.close();
+					} catch (SQLException e) {
+						// the in-memory database is discarded anyway
+					}
+					memoryConnection = null;
+					memoryDatabaseUrl = null;
+					writeBackFile = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Start writing the in-memory copy of an SQLite database back to its file
+	 * every {@link #WRITE_BACK_INTERVAL} minutes if it has changed, and when
+	 * the program exits without closing the database.
+	 */
+	private void startWriteBack() {
+		writtenBackChangeCount = changeCount.get();
+		writeBackExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "DNA in-memory database write-back");
+			t.setDaemon(true);
+			return t;
+		});
+		writeBackExecutor.scheduleWithFixedDelay(() -> {
+			if (hasUnsavedChanges()) {
+				writeBack();
+			}
+		}, WRITE_BACK_INTERVAL, WRITE_BACK_INTERVAL, TimeUnit.MINUTES);
+		if (writeBackShutdownHook == null) {
+			writeBackShutdownHook = new Thread(() -> {
+				if (hasUnsavedChanges()) {
+					System.err.println("Writing unsaved changes of the in-memory database back to its file before exiting.");
+					if (!writeBack()) {
+						System.err.println("The in-memory database could not be written back to its file. Unsaved changes are lost.");
+					}
+				}
+			}, "DNA in-memory database shutdown write-back");
+			Runtime.getRuntime().addShutdownHook(writeBackShutdownHook);
+		}
+	}
+
+	/**
+	 * Check if the in-memory copy of an SQLite database has changes that have
+	 * not been written back to its file yet.
+	 * 
+	 * @return Are there unsaved changes? Always {@code false} if the database
+	 *   is not held in memory or changes are not written back.
+	 */
+	public boolean hasUnsavedChanges() {
+		return memoryConnection != null && writeBackFile != null && changeCount.get() != writtenBackChangeCount;
+	}
+
+	/**
+	 * Write the in-memory copy of an SQLite database back to its file. Waits
+	 * for up to {@link #SQLITE_BUSY_TIMEOUT} milliseconds until the writer
+	 * connection is no longer in use, so only committed changes are written.
+	 * This is done periodically and when the database is closed, but it can
+	 * also be requested explicitly.
+	 * 
+	 * @return Was the database written back? {@code false} if the database is
+	 *   not held in memory, changes are not written back, or writing failed.
+	 */
+	public boolean writeBack() {
+		synchronized (writeBackMonitor) {
+			if (memoryConnection == null || writeBackFile == null) {
+				return false;
+			}
+			boolean locked = false;
+			try (java.sql.Statement s = memoryConnection.createStatement()) {
+				locked = memoryLock.getReadHoldCount() == 0 && memoryLock.writeLock().tryLock(SQLITE_BUSY_TIMEOUT, TimeUnit.MILLISECONDS);
+				if (!locked) {
+					throw new SQLException("The database is in use by a write operation.");
+				}
+				long count = changeCount.get();
+				s.executeUpdate("backup to " + quoteFileName(writeBackFile));
+				writtenBackChangeCount = count;
+				LogEvent l = new LogEvent(Logger.MESSAGE,
+						"[SQL] In-memory database written back to file.",
+						"The in-memory copy of the SQLite database was written back to " + writeBackFile + ".");
+				Dna.logger.log(l);
+				return true;
+			} catch (SQLException | InterruptedException e) {
+				LogEvent l = new LogEvent(Logger.ERROR,
+						"[SQL] Failed to write in-memory database back to file.",
+						"Tried to write the in-memory copy of the SQLite database back to " + writeBackFile + ", but this failed. The changes made since the last write-back are not saved in the file yet.",
+						e);
+				Dna.logger.log(l);
+				return false;
+			} finally {
+				if (locked) {
+					memoryLock.writeLock().unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wrap a data source of an in-memory database such that each connection
+	 * holds the read or write lock of {@link #memoryLock} from when it is
+	 * taken from the pool until it is closed. Readers thus wait for the
+	 * writer and vice versa. The writer connection cannot be taken by a
+	 * thread that holds a reader connection, as this would never finish.
+	 * 
+	 * @param dataSource  The data source to wrap.
+	 * @param exclusive   Is this the writer data source?
+	 * @return            The wrapped data source.
+	 */
+	private DataSource serialize(DataSource dataSource, boolean exclusive) {
+		Lock lock = exclusive ? memoryLock.writeLock() : memoryLock.readLock();
+		return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+				(proxy, method, args) -> {
+					if (!method.getName().equals("getConnection")) {
+						return invokeUnwrapped(dataSource, method, args);
+					}
+					if (exclusive && memoryLock.getReadHoldCount() > 0) {
+						throw new SQLException("Cannot write to the in-memory database while reading from it in the same thread.");
+					}
+					lock.lock();
+					Connection connection;
+					try {
+						connection = (Connection) invokeUnwrapped(dataSource, method, args);
+					} catch (Throwable t) {
+						lock.unlock();
+						throw t;
+					}
+					AtomicBoolean open = new AtomicBoolean(true);
+					return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+							(proxy2, method2, args2) -> {
+								if (method2.getName().equals("close") && open.compareAndSet(true, false)) {
+									try {
+										return invokeUnwrapped(connection, method2, args2);
+									} finally {
+										lock.unlock();
+									}
+								}
+								return invokeUnwrapped(connection, method2, args2);
+							});
+				});
+	}
+
+	/**
+	 * Wrap a data source such that every statement executed on its connections
+	 * that may modify the database increments the {@link #changeCount}. This
+	 * covers all write operations, including those of the importer and other
+	 * classes that use the data source directly.
+	 * 
+	 * @param dataSource The data source to wrap.
+	 * @return The wrapped data source.
+	 */
+	private DataSource trackChanges(DataSource dataSource) {
+		return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+				(proxy, method, args) -> {
+					Object result = invokeUnwrapped(dataSource, method, args);
+					if (result instanceof Connection) {
+						Connection connection = (Connection) result;
+						return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+								(proxy2, method2, args2) -> {
+									Object result2 = invokeUnwrapped(connection, method2, args2);
+									if (result2 instanceof java.sql.Statement) {
+										return trackChanges((java.sql.Statement) result2);
+									}
+									return result2;
+								});
+					}
+					return result;
+				});
+	}
+
+	/**
+	 * Wrap a JDBC statement such that executing updates or batches increments
+	 * the {@link #changeCount}. Calls of {@code execute} are counted as well
+	 * because they can contain any kind of SQL statement.
+	 * 
+	 * @param statement The statement or prepared statement to wrap.
+	 * @return The wrapped statement, implementing the same JDBC interfaces.
+	 */
+	private java.sql.Statement trackChanges(java.sql.Statement statement) {
+		Class<?>[] interfaces = statement instanceof PreparedStatement
+				? new Class<?>[] { PreparedStatement.class }
+				: new Class<?>[] { java.sql.Statement.class };
+		return (java.sql.Statement) Proxy.newProxyInstance(java.sql.Statement.class.getClassLoader(), interfaces,
+				(proxy, method, args) -> {
+					Object result = invokeUnwrapped(statement, method, args);
+					if (method.getName().startsWith("executeUpdate")
+							|| method.getName().startsWith("executeLargeUpdate")
+							|| method.getName().startsWith("executeBatch")
+							|| method.getName().startsWith("executeLargeBatch")
+							|| method.getName().equals("execute")) {
+						changeCount.incrementAndGet();
+					}
+					return result;
+				});
+	}
+
+	/**
+	 * Invoke a method on a wrapped JDBC object and pass on the original
+	 * exception if the method fails.
+	 */
+	private static Object invokeUnwrapped(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Get a version string of the data in the database. The version changes
+	 * with every write operation through this object and, for SQLite
+	 * databases, whenever the database file or its write-ahead log is
+	 * modified, for example by another program. Changes made to MySQL or
+	 * PostgreSQL databases by other clients are not detected.
+	 * 
+	 * @return The version string.
+	 */
+	public String getDataVersion() {
+		String version = String.valueOf(this.changeCount.get());
+		if (this.cp != null && this.cp.getType().equals("sqlite")) {
+			File file = new File(this.cp.getUrl());
+			File wal = new File(this.cp.getUrl() + "-wal");
+			version = version + ":" + file.lastModified() + ":" + file.length() + ":" + wal.lastModified() + ":" + wal.length();
+		}
+		return version;
+	}
+
+	/**
+	 * Retrieve a coder from the database and set it as the active coder.
+	 * 
+	 * @param coderId  The ID of the coder to be selected.
+	 */
+	public void selectCoder(int coderId) {
+		if (coderId < 1) {
+			setConnectionProfile(null, false); // not a connection test, so false
+			this.activeCoder = null;
+		} else {
+			getConnectionProfile().setCoder(coderId);
+			this.activeCoder = getCoder(coderId);
+		}
+	}
+
+	/**
+	 * Select a specified coder as the active coder.
+	 * 
+	 * @param coder  The coder to be selected.
+	 */
+	public void selectCoder(Coder coder) {
+		getConnectionProfile().setCoder(coder.getId());
+		this.activeCoder = coder;
+	}
+
+	/**
+	 * An interface that rolls back failed execution attempts of SQL connections
+	 * in {@literal try}-with-resources headers. Use this as the last code line
+	 * in any {@literal try}-with-resources header that uses SQL transactions.
+	 */
+	public interface SQLCloseable extends AutoCloseable {
+	    /**
+	     * Close the object, which rolls back any initiated transactions.
+	     */
+	    @Override public void close() throws SQLException;
+	}
+
+	/**
+	 * An interface for setting the parameters of the row with a given index in
+	 * a JDBC batch. Used by {@link #writeBatch(PreparedStatement, int, int,
+	 * RowBinder, int[])}.
+	 */
+	interface RowBinder {
+		/**
+		 * Set the parameters of a row.
+		 * 
+		 * @param s    The prepared statement.
+		 * @param row  The index of the row.
+		 */
+		void bind(PreparedStatement s, int row) throws SQLException;
+	}
+
+	/**
+	 * Execute a prepared statement for a range of rows as a JDBC batch. If an
+	 * array for the generated keys is provided, the keys are stored in the
+	 * array at the row indices. The SQLite driver does not return the keys of a
+	 * batch, so rows with keys are executed one by one on SQLite, which is
+	 * cheap because the database is local.
+	 * 
+	 * @param s       The prepared statement.
+	 * @param from    The index of the first row (inclusive).
+	 * @param to      The index of the last row (exclusive).
+	 * @param binder  Sets the parameters of a row.
+	 * @param keys    An array for the generated keys, or {@code null}.
+	 * @throws SQLException  If the batch fails or the number of generated keys
+	 *   does not match the number of rows.
+	 */
+	void writeBatch(PreparedStatement s, int from, int to, RowBinder binder, int[] keys) throws SQLException {
+		if (from >= to) {
+			return;
+		}
+		if (keys != null && cp.getType().equals("sqlite")) {
+			for (int i = from; i < to; i++) {
+				binder.bind(s, i);
+				s.executeUpdate();
+				ResultSet r = s.getGeneratedKeys();
+				while (r.next()) {
+					keys[i] = r.getInt(1);
+				}
+			}
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			binder.bind(s, i);
+			s.addBatch();
+		}
+		s.executeBatch();
+		if (keys != null) {
+			ResultSet r = s.getGeneratedKeys();
+			int i = from;
+			while (i < to && r.next()) {
+				keys[i] = r.getInt(1);
+				i++;
+			}
+			if (i < to) {
+				throw new SQLException("Expected " + (to - from) + " generated keys from the batch, but the database returned " + (i - from) + ".");
+			}
+		}
+	}
+
+	/**
+	 * Create an SQL statement that inserts rows and skips rows that violate a
+	 * {@code UNIQUE} constraint, for example entities that already exist.
+	 * MySQL uses {@code INSERT IGNORE}, and SQLite and PostgreSQL use
+	 * {@code ON CONFLICT DO NOTHING}.
+	 * 
+	 * @param table    The table.
+	 * @param columns  Comma-separated column names.
+	 * @param source   A {@code VALUES} or {@code SELECT} clause.
+	 * @return         The SQL statement.
+	 */
+	String createInsertIgnoreStatement(String table, String columns, String source) {
+		if (cp.getType().equals("mysql")) {
+			return "INSERT IGNORE INTO " + table + " (" + columns + ") " + source + ";";
+		}
+		return "INSERT INTO " + table + " (" + columns + ") " + source + " ON CONFLICT DO NOTHING;";
+	}
+
+	/**
+	 * Get the value of a short text variable as a string. The value is usually
+	 * an {@link model.Entity Entity}, but it can be {@code null} in new
+	 * statements.
+	 * 
+	 * @param value  The value.
+	 * @return       The entity value or an empty string.
+	 */
+	private static String getEntityValue(Object value) {
+		if (value == null) {
+			return "";
+		} else if (value instanceof Entity) {
+			return ((Entity) value).getValue() == null ? "" : ((Entity) value).getValue();
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Look up the IDs of all short text values in a batch of statements and add
+	 * the entities that do not exist yet, along with empty attribute values for
+	 * them. Existing entities are looked up with one query per variable and
+	 * chunk of values, and new entities are inserted as a single JDBC batch.
+	 * Runs within the transaction of the connection.
+	 * 
+	 * @param conn    The connection.
+	 * @param values  The values of the statements in the batch.
+	 * @return        A map from variable IDs to maps from entity values to
+	 *   entity IDs.
+	 * @throws SQLException  If an entity can neither be found nor added.
+	 */
+	private HashMap<Integer, HashMap<String, Integer>> addEntities(Connection conn, List<? extends List<Value>> values) throws SQLException {
+		// collect distinct entities per variable, keeping the first color
+		LinkedHashMap<Integer, LinkedHashMap<String, Color>> entities = new LinkedHashMap<Integer, LinkedHashMap<String, Color>>();
+		for (List<Value> statementValues : values) {
+			for (Value value : statementValues) {
+				if (value.getDataType().equals("short text")) {
+					Color color = value.getValue() instanceof Entity && ((Entity) value.getValue()).getColor() != null
+							? ((Entity) value.getValue()).getColor() : new Color(0, 0, 0);
+					entities.computeIfAbsent(value.getVariableId(), k -> new LinkedHashMap<String, Color>()).putIfAbsent(getEntityValue(value.getValue()), color);
+				}
+			}
+		}
+
+		// look up existing entities
+		HashMap<Integer, HashMap<String, Integer>> entityIds = new HashMap<Integer, HashMap<String, Integer>>();
+		ArrayList<Object[]> missing = new ArrayList<Object[]>(); // variable ID, value, color
+		for (Integer variableId : entities.keySet()) {
+			HashMap<String, Integer> ids = selectEntityIds(conn, variableId, new ArrayList<String>(entities.get(variableId).keySet()));
+			entityIds.put(variableId, ids);
+			entities.get(variableId).forEach((value, color) -> {
+				if (!ids.containsKey(value)) {
+					missing.add(new Object[] { variableId, value, color });
+				}
+			});
+		}
+		if (missing.size() == 0) {
+			return entityIds;
+		}
+
+		// add missing entities, skipping entities that were added concurrently
+		try (PreparedStatement s1 = conn.prepareStatement(createInsertIgnoreStatement("ENTITIES", "VariableId, Value, Red, Green, Blue", "VALUES (?, ?, ?, ?, ?)"));
+				PreparedStatement s2 = conn.prepareStatement("SELECT ID FROM ENTITIES WHERE VariableId = ? AND Value = ?;");
+				PreparedStatement s3 = conn.prepareStatement(createInsertIgnoreStatement("ATTRIBUTEVALUES", "EntityId, AttributeVariableId, AttributeValue",
+						"SELECT E.ID, A.ID, '' FROM ENTITIES E, ATTRIBUTEVARIABLES A WHERE A.VariableId = E.VariableId AND E.ID = ?"))) {
+			writeBatch(s1, 0, missing.size(), (s, i) -> {
+				s.setInt(1, (int) missing.get(i)[0]);
+				s.setString(2, (String) missing.get(i)[1]);
+				s.setInt(3, ((Color) missing.get(i)[2]).getRed());
+				s.setInt(4, ((Color) missing.get(i)[2]).getGreen());
+				s.setInt(5, ((Color) missing.get(i)[2]).getBlue());
+			}, null);
+			LinkedHashMap<Integer, ArrayList<String>> missingValues = new LinkedHashMap<Integer, ArrayList<String>>();
+			for (Object[] m : missing) {
+				missingValues.computeIfAbsent((int) m[0], k -> new ArrayList<String>()).add((String) m[1]);
+			}
+			int[] newIds = new int[missing.size()];
+			for (int i = 0; i < missing.size(); i++) {
+				int variableId = (int) missing.get(i)[0];
+				String value = (String) missing.get(i)[1];
+				if (missingValues.containsKey(variableId)) {
+					entityIds.get(variableId).putAll(selectEntityIds(conn, variableId, missingValues.remove(variableId)));
+				}
+				Integer id = entityIds.get(variableId).get(value);
+				if (id == null) {
+					// the collation of the database may match a stored value that differs in case or trailing spaces
+					s2.setInt(1, variableId);
+					s2.setString(2, value);
+					ResultSet r = s2.executeQuery();
+					while (r.next()) {
+						id = r.getInt("ID");
+					}
+					if (id == null) {
+						throw new SQLException("Entity \"" + value + "\" for Variable " + variableId + " could not be added to the ENTITIES table.");
+					}
+					entityIds.get(variableId).put(value, id);
+				}
+				newIds[i] = id;
+			}
+			writeBatch(s3, 0, newIds.length, (s, i) -> s.setInt(1, newIds[i]), null);
+		}
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				"[SQL]  ├─ Transaction: Added " + missing.size() + " entities to the ENTITIES table.",
+				"Added " + missing.size() + " new entities and their attribute values to the ENTITIES and ATTRIBUTEVALUES tables during the transaction.");
+		Dna.logger.log(l);
+		return entityIds;
+	}
+
+	/**
+	 * Look up the IDs of entities with given values for a variable. The values
+	 * are queried in chunks to keep the number of parameters per query small.
 	 * 
-	 * @param coderId  The ID of the coder to be selected.
+	 * @param conn        The connection.
+	 * @param variableId  The variable ID.
+	 * @param values      The entity values.
+	 * @return            A map from entity values, as stored in the database,
+	 *   to entity IDs.
 	 */
-	public void selectCoder(int coderId) {
-		if (coderId < 1) {
-			setConnectionProfile(null, false); // not a connection test, so false
-			this.activeCoder = null;
-		} else {
-			getConnectionProfile().setCoder(coderId);
-			this.activeCoder = getCoder(coderId);
+	static HashMap<String, Integer> selectEntityIds(Connection conn, int variableId, List<String> values) throws SQLException {
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		for (int from = 0; from < values.size(); from = from + 500) {
+			List<String> chunk = values.subList(from, Math.min(from + 500, values.size()));
+			try (PreparedStatement s = conn.prepareStatement("SELECT ID, Value FROM ENTITIES WHERE VariableId = ? AND Value IN (" + createPlaceholders(chunk.size()) + ");")) {
+				s.setInt(1, variableId);
+				for (int i = 0; i < chunk.size(); i++) {
+					s.setString(i + 2, chunk.get(i));
+				}
+				ResultSet r = s.executeQuery();
+				while (r.next()) {
+					ids.put(r.getString("Value"), r.getInt("ID"));
+				}
+			}
 		}
+		return ids;
 	}
 
 	/**
-	 * Select a specified coder as the active coder.
+	 * Insert or update the variable values of a batch of statements in the
+	 * data tables, using one JDBC batch per table.
 	 * 
-	 * @param coder  The coder to be selected.
+	 * @param conn          The connection.
+	 * @param statementIds  The statement IDs.
+	 * @param values        The values of each statement.
+	 * @param entityIds     The entity IDs from {@link #addEntities(Connection,
+	 *   List)}.
+	 * @param update        Update existing rows instead of inserting new rows?
+	 * @return              The number of rows written.
 	 */
-	public void selectCoder(Coder coder) {
-		getConnectionProfile().setCoder(coder.getId());
-		this.activeCoder = coder;
+	private int writeValues(Connection conn, int[] statementIds, List<? extends List<Value>> values, HashMap<Integer, HashMap<String, Integer>> entityIds, boolean update) throws SQLException {
+		String[] dataTypes = new String[] { "short text", "long text", "integer", "boolean" };
+		String[] tables = new String[] { "DATASHORTTEXT", "DATALONGTEXT", "DATAINTEGER", "DATABOOLEAN" };
+		String[] columns = new String[] { "Entity", "Value", "Value", "Value" };
+		int rows = 0;
+		for (int t = 0; t < tables.length; t++) {
+			ArrayList<Object[]> data = new ArrayList<Object[]>(); // statement ID, variable ID, value
+			for (int i = 0; i < values.size(); i++) {
+				for (Value value : values.get(i)) {
+					if (value.getDataType().equals(dataTypes[t])) {
+						Object v = value.getValue();
+						if (t == 0) {
+							v = entityIds.get(value.getVariableId()).get(getEntityValue(v));
+						}
+						data.add(new Object[] { statementIds[i], value.getVariableId(), v });
+					}
+				}
+			}
+			String sql = update
+					? "UPDATE " + tables[t] + " SET " + columns[t] + " = ? WHERE StatementId = ? AND VariableId = ?;"
+					: "INSERT INTO " + tables[t] + " (StatementId, VariableId, " + columns[t] + ") VALUES (?, ?, ?);";
+			final boolean text = t == 1;
+			try (PreparedStatement s = conn.prepareStatement(sql)) {
+				writeBatch(s, 0, data.size(), (ps, i) -> {
+					Object[] row = data.get(i);
+					int valueIndex = update ? 1 : 3;
+					ps.setInt(update ? 2 : 1, (int) row[0]);
+					ps.setInt(update ? 3 : 2, (int) row[1]);
+					if (text) {
+						ps.setString(valueIndex, (String) row[2]);
+					} else {
+						ps.setInt(valueIndex, (int) row[2]);
+					}
+				}, null);
+			}
+			rows = rows + data.size();
+		}
+		return rows;
 	}
 
 	/**
-	 * An interface that rolls back failed execution attempts of SQL connections
-	 * in {@literal try}-with-resources headers. Use this as the last code line
-	 * in any {@literal try}-with-resources header that uses SQL transactions.
+	 * Format the throughput of a bulk write operation for log messages.
+	 * 
+	 * @param rows       The number of rows written.
+	 * @param startTime  The start time from {@link System#nanoTime()}.
+	 * @return           The number of rows and rows per second.
 	 */
-	public interface SQLCloseable extends AutoCloseable {
-	    /**
-	     * Close the object, which rolls back any initiated transactions.
-	     */
-	    @Override public void close() throws SQLException;
+	private static String formatThroughput(long rows, long startTime) {
+		double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+		return rows + " rows at " + Math.round(rows / seconds) + " rows/s";
 	}
 
 	/**
@@ -690,6 +1735,12 @@ public class Sql {
 		s.add("INSERT INTO CODERS (ID, Name, Red, Green, Blue, Password, PermissionEditStatementTypes, PermissionEditCoders, PermissionEditOthersDocuments, PermissionEditOthersStatements) VALUES (1, 'Admin', 255, 255, 0, '" + encryptedAdminPassword + "', 1, 1, 1, 1);");
 		s.add("INSERT INTO SETTINGS (Property, Value) VALUES ('version', '" + Dna.version + "');");
 		s.add("INSERT INTO SETTINGS (Property, Value) VALUES ('date', '" + Dna.date + "');");
+		s.add("INSERT INTO SETTINGS (Property, Value) VALUES ('migration', '" + MIGRATION_VERSION + "');");
+		for (String[] index : INDEXES) {
+			s.add(createIndexStatement(index));
+		}
+		s.addAll(createChangeLogStatements());
+		s.add(IMPORT_PROGRESS_TABLE);
 		// DNA Statement
 		s.add("INSERT INTO STATEMENTTYPES (ID, Label, Red, Green, Blue) VALUES (1, 'DNA Statement', 239, 208, 51);");
 		s.add("INSERT INTO VARIABLES (ID, Variable, DataType, StatementTypeId) VALUES(1, 'person', 'short text', 1);");
@@ -740,6 +1791,311 @@ public class Sql {
 		return success;
 	}
 
+
+	/**
+	 * Create the SQL statement for a secondary index. SQLite and PostgreSQL
+	 * skip existing indexes. MySQL does not support {@code IF NOT EXISTS} for
+	 * indexes, so {@link #migrate()} checks if the index exists first.
+	 * 
+	 * @param index Name, table, and columns of the index (see {@link
+	 *   #INDEXES}).
+	 * @return The {@code CREATE INDEX} statement.
+	 */
+	private String createIndexStatement(String[] index) {
+		if (cp.getType().equals("mysql")) {
+			return "CREATE INDEX " + index[0] + " ON " + index[1] + " (" + index[2] + ");";
+		}
+		return "CREATE INDEX IF NOT EXISTS " + index[0] + " ON " + index[1] + " (" + index[2] + ");";
+	}
+
+	/**
+	 * Create the SQL statements for the {@code CHANGELOG} table and the
+	 * triggers that record inserts, updates, and deletes of the {@link
+	 * #LOGGED_TABLES} in it. Each change is a row with a sequence number
+	 * ({@code ID}), the table, the row ID, and the operation ({@code 'I'},
+	 * {@code 'U'}, or {@code 'D'}). Existing triggers are replaced.
+	 * 
+	 * @return The SQL statements, in the order in which they are executed.
+	 */
+	private ArrayList<String> createChangeLogStatements() {
+		ArrayList<String> s = new ArrayList<String>();
+		if (cp.getType().equals("sqlite")) {
+			s.add("CREATE TABLE IF NOT EXISTS CHANGELOG("
+					+ "ID INTEGER PRIMARY KEY AUTOINCREMENT, " // sequence numbers are never reused, even after pruning
+					+ "TableName TEXT NOT NULL, "
+					+ "RowId INTEGER NOT NULL, "
+					+ "Operation TEXT NOT NULL);");
+		} else if (cp.getType().equals("mysql")) {
+			s.add("CREATE TABLE IF NOT EXISTS CHANGELOG("
+					+ "ID INT UNSIGNED NOT NULL AUTO_INCREMENT, "
+					+ "TableName VARCHAR(30) NOT NULL, "
+					+ "RowId INT NOT NULL, "
+					+ "Operation CHAR(1) NOT NULL, "
+					+ "PRIMARY KEY(ID));");
+		} else if (cp.getType().equals("postgresql")) {
+			s.add("CREATE TABLE IF NOT EXISTS CHANGELOG("
+					+ "ID SERIAL NOT NULL PRIMARY KEY, "
+					+ "TableName VARCHAR(30) NOT NULL, "
+					+ "RowId INT NOT NULL, "
+					+ "Operation CHAR(1) NOT NULL);");
+			// trigger arguments: logged table name, lower-case name of the ID column, and optionally a fixed operation
+			s.add("CREATE OR REPLACE FUNCTION DNA_LOG_CHANGE() RETURNS TRIGGER AS $$ "
+					+ "DECLARE op CHAR(1); row_id INT; "
+					+ "BEGIN "
+					+ "IF TG_OP = 'DELETE' THEN "
+					+ "row_id := CAST(to_jsonb(OLD) ->> TG_ARGV[1] AS INT); op := 'D'; "
+					+ "ELSE "
+					+ "row_id := CAST(to_jsonb(NEW) ->> TG_ARGV[1] AS INT); op := CASE WHEN TG_OP = 'INSERT' THEN 'I' ELSE 'U' END; "
+					+ "END IF; "
+					+ "IF TG_NARGS > 2 THEN op := TG_ARGV[2]; END IF; "
+					+ "INSERT INTO CHANGELOG (TableName, RowId, Operation) VALUES (TG_ARGV[0], row_id, op); "
+					+ "RETURN NULL; "
+					+ "END; "
+					+ "$$ LANGUAGE plpgsql;");
+		}
+		for (String[] table : LOGGED_TABLES) {
+			boolean value = !table[0].equals(table[1]); // values are logged as updates of their statement or entity
+			if (cp.getType().equals("postgresql")) {
+				s.add("DROP TRIGGER IF EXISTS LOG_" + table[0] + " ON " + table[0] + ";");
+				s.add("CREATE TRIGGER LOG_" + table[0] + " AFTER INSERT OR UPDATE OR DELETE ON " + table[0] + " "
+						+ "FOR EACH ROW EXECUTE PROCEDURE DNA_LOG_CHANGE('" + table[1] + "', '" + table[2].toLowerCase() + "'" + (value ? ", 'U'" : "") + ");");
+				continue;
+			}
+			String[][] events = new String[][] { { "INSERT", "NEW", "I" }, { "UPDATE", "NEW", "U" }, { "DELETE", "OLD", "D" } };
+			for (String[] event : events) {
+				String name = "LOG_" + table[0] + "_" + event[0];
+				String insert = "INSERT INTO CHANGELOG (TableName, RowId, Operation) VALUES ('" + table[1] + "', " + event[1] + "." + table[2] + ", '" + (value ? "U" : event[2]) + "');";
+				s.add("DROP TRIGGER IF EXISTS " + name + ";");
+				if (cp.getType().equals("sqlite")) {
+					s.add("CREATE TRIGGER " + name + " AFTER " + event[0] + " ON " + table[0] + " BEGIN " + insert + " END;");
+				} else {
+					s.add("CREATE TRIGGER " + name + " AFTER " + event[0] + " ON " + table[0] + " FOR EACH ROW " + insert);
+				}
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Bring the schema of an existing DNA 3 database up to date by applying
+	 * all migrations that are newer than the version stored in the {@code
+	 * SETTINGS} table. Called when a database is opened.
+	 * 
+	 * <ol>
+	 *   <li>Version 1: Add the secondary {@link #INDEXES} and update the table
+	 *   statistics used by the query planner.</li>
+	 *   <li>Version 2: Add the {@code CHANGELOG} table and its triggers, see
+	 *   {@link #createChangeLogStatements()}.</li>
+	 *   <li>Version 3: Add the {@code IMPORTPROGRESS} table, see {@link
+	 *   #IMPORT_PROGRESS_TABLE}.</li>
+	 * </ol>
+	 * 
+	 * Each version is committed separately, so a failed migration is retried
+	 * from the first version that was not applied.
+	 * 
+	 * @return Is the schema up to date?
+	 */
+	public boolean migrate() {
+		int version = 0;
+		boolean exists = false;
+		try (Connection conn = ds.getConnection();
+				PreparedStatement s1 = conn.prepareStatement("SELECT Value FROM SETTINGS WHERE Property = 'migration';")) {
+			ResultSet r = s1.executeQuery();
+			if (r.next()) {
+				exists = true;
+				version = Integer.parseInt(r.getString("Value"));
+			}
+		} catch (SQLException | NumberFormatException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Could not read schema migration version.",
+					"Tried to read the schema migration version from the SETTINGS table to check if the database needs to be updated, but the version could not be read. The database is used without updating it. Queries on large databases may be slow.",
+					e);
+			Dna.logger.log(l);
+			return false;
+		}
+		if (version >= MIGRATION_VERSION) {
+			return true;
+		}
+
+		int oldVersion = version;
+		try (Connection conn = ds.getConnection();
+				PreparedStatement s2 = cp.getType().equals("mysql") ? conn.prepareStatement("SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?;") : null; // MySQL only
+				PreparedStatement s3 = conn.prepareStatement("UPDATE SETTINGS SET Value = ? WHERE Property = 'migration';");
+				PreparedStatement s3a = conn.prepareStatement("INSERT INTO SETTINGS (Property, Value) VALUES ('migration', ?);");
+				SQLCloseable finish = conn::rollback) {
+			conn.setAutoCommit(false);
+			if (version < 1) {
+				for (String[] index : INDEXES) {
+					if (cp.getType().equals("mysql")) {
+						s2.setString(1, index[1]);
+						s2.setString(2, index[0]);
+						ResultSet r = s2.executeQuery();
+						if (r.next() && r.getInt(1) > 0) {
+							continue;
+						}
+					}
+					try (PreparedStatement s4 = conn.prepareStatement(createIndexStatement(index))) {
+						s4.executeUpdate();
+					}
+				}
+				version = 1;
+				PreparedStatement s = exists ? s3 : s3a;
+				s.setString(1, String.valueOf(version));
+				s.executeUpdate();
+				exists = true;
+				conn.commit();
+			}
+			if (version < 2) {
+				for (String sql : createChangeLogStatements()) {
+					try (PreparedStatement s4 = conn.prepareStatement(sql)) {
+						s4.executeUpdate();
+					}
+				}
+				version = 2;
+				s3.setString(1, String.valueOf(version));
+				s3.executeUpdate();
+				conn.commit();
+			}
+			if (version < 3) {
+				try (PreparedStatement s4 = conn.prepareStatement(IMPORT_PROGRESS_TABLE)) {
+					s4.executeUpdate();
+				}
+				version = 3;
+				s3.setString(1, String.valueOf(version));
+				s3.executeUpdate();
+				conn.commit();
+			}
+		} catch (SQLException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to update database schema.",
+					"Tried to update the database schema from migration version " + version + " to version " + MIGRATION_VERSION + ", but the update failed. The database can still be used, but queries on large databases may be slow, and exports cannot reuse previously loaded data. Check the SQL user rights, as creating indexes requires permission to alter tables and creating triggers on MySQL may require the TRIGGER or SUPER privilege.",
+					e);
+			Dna.logger.log(l);
+			return false;
+		}
+		if (oldVersion >= 1) {
+			LogEvent l = new LogEvent(Logger.MESSAGE,
+					"[SQL] Database schema updated to migration version " + MIGRATION_VERSION + ".",
+					"The database schema was updated from migration version " + oldVersion + " to version " + MIGRATION_VERSION + "."
+					+ (oldVersion < 2 ? " A change log was added." : "") + " A table for resuming interrupted imports was added.");
+			Dna.logger.log(l);
+			return true;
+		}
+
+		// update table statistics for the query planner (outside the transaction because MySQL and PostgreSQL require this)
+		try (Connection conn = ds.getConnection()) {
+			if (cp.getType().equals("mysql")) {
+				try (PreparedStatement s5 = conn.prepareStatement("ANALYZE TABLE STATEMENTS, DOCUMENTS, VARIABLES, ENTITIES, DATASHORTTEXT, DATALONGTEXT, DATABOOLEAN, DATAINTEGER, ATTRIBUTEVALUES;")) {
+					s5.execute();
+				}
+			} else {
+				try (PreparedStatement s5 = conn.prepareStatement("ANALYZE;")) {
+					s5.execute();
+				}
+			}
+		} catch (SQLException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to update table statistics.",
+					"Tried to update the table statistics after adding indexes to the database, but this failed. This has no consequences other than possibly slower queries.",
+					e);
+			Dna.logger.log(l);
+		}
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				"[SQL] Database schema updated to migration version " + MIGRATION_VERSION + ".",
+				"The database schema was updated from migration version " + oldVersion + " to version " + MIGRATION_VERSION + ". Secondary indexes were added to speed up queries, and a change log and a table for resuming interrupted imports were added.");
+		Dna.logger.log(l);
+		return true;
+	}
+	
+	/**
+	 * Remove all but the most recent {@link #CHANGELOG_RETENTION} changes from
+	 * the {@code CHANGELOG} table. Snapshots that have not seen the removed
+	 * changes yet are loaded again from scratch.
+	 */
+	private void pruneChangeLog() {
+		try (Connection conn = ds.getConnection();
+				PreparedStatement s1 = conn.prepareStatement("SELECT MAX(ID) FROM CHANGELOG;");
+				PreparedStatement s2 = conn.prepareStatement("DELETE FROM CHANGELOG WHERE ID <= ?;")) {
+			ResultSet r = s1.executeQuery();
+			if (r.next() && r.getLong(1) > CHANGELOG_RETENTION) {
+				s2.setLong(1, r.getLong(1) - CHANGELOG_RETENTION);
+				s2.executeUpdate();
+			}
+		} catch (SQLException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to prune change log.",
+					"Tried to remove old entries from the CHANGELOG table, but this failed. This has no consequences other than a larger database file.",
+					e);
+			Dna.logger.log(l);
+		}
+	}
+	
+	/**
+	 * Check on SQLite that the statement and value queries of {@link
+	 * #streamStatements} read the statements, documents, and values through
+	 * an index instead of scanning these tables, for example because the
+	 * secondary {@link #INDEXES} are missing, and log the query plans. Only
+	 * tables with at least {@link #QUERY_PLAN_CHECK_ROWS} rows are checked,
+	 * and nothing is logged if the statement table is smaller.
+	 */
+	private void checkQueryPlans() {
+		String[] names = new String[VALUE_TABLES.length + 1];
+		Query[] queries = new Query[VALUE_TABLES.length + 1];
+		Query filter = new Query(cp.getType());
+		names[0] = "statements";
+		queries[0] = createStatementQuery(1, filter); // the plan does not depend on the statement type
+		for (int t = 0; t < VALUE_TABLES.length; t++) {
+			names[t + 1] = VALUE_TABLES[t] + " values";
+			queries[t + 1] = createValueQuery(VALUE_TABLES[t], 1, filter);
+		}
+		ArrayList<String> candidates = new ArrayList<String>(Arrays.asList(VALUE_TABLES));
+		candidates.add(0, "STATEMENTS");
+		candidates.add("DOCUMENTS");
+		HashSet<String> tables = new HashSet<String>(); // the large tables
+		Pattern scan = Pattern.compile("SCAN (?:TABLE )?(\\w+)(?: AS \\w+)?"); // a full table scan, without "USING INDEX"
+		ArrayList<String> scans = new ArrayList<String>();
+		String plans = "";
+		try (Connection conn = readDs.getConnection()) {
+			for (String table : candidates) {
+				try (PreparedStatement s1 = conn.prepareStatement("SELECT COUNT(*) FROM " + table + ";")) {
+					ResultSet r1 = s1.executeQuery();
+					if (r1.next() && r1.getInt(1) >= QUERY_PLAN_CHECK_ROWS) {
+						tables.add(table);
+					} else if (table.equals("STATEMENTS")) {
+						return;
+					}
+				}
+			}
+			for (int i = 0; i < queries.length; i++) {
+				try (PreparedStatement s = new Query(cp.getType()).append("EXPLAIN QUERY PLAN ").append(queries[i]).prepare(conn)) {
+					ResultSet r = s.executeQuery();
+					while (r.next()) {
+						String detail = r.getString("detail");
+						plans = plans + "\n" + names[i] + ": " + detail;
+						Matcher m = scan.matcher(detail);
+						if (m.matches() && tables.contains(m.group(1).toUpperCase())) {
+							scans.add(names[i] + ": " + detail);
+						}
+					}
+				}
+			}
+		} catch (SQLException e) {
+			LogEvent l = new LogEvent(Logger.MESSAGE,
+					"[SQL] Could not check query plans.",
+					"Tried to check with EXPLAIN QUERY PLAN if the statement and value queries use the indexes of the database, but the query plans could not be read. This has no consequences for the database.",
+					e);
+			Dna.logger.log(l);
+			return;
+		}
+		LogEvent l = new LogEvent(Logger.MESSAGE,
+				scans.size() > 0 ? "[SQL] Statement queries scan " + scans.size() + " tables." : "[SQL] Statement queries use indexes.",
+				"The query plans of the statement and value queries were checked for full scans of the tables with at least " + QUERY_PLAN_CHECK_ROWS + " rows: " + String.join(", ", tables) + ". "
+				+ (scans.size() > 0 ? "SQLite scans a table instead of using an index if a statement type contains a large share of the statements, which is faster. "
+						+ "If the statement types are small and loading statements is slow, check if the indexes " + Arrays.stream(INDEXES).map(index -> index[0]).collect(Collectors.joining(", ")) + " exist. "
+						+ "Table scans:\n" + String.join("\n", scans) + "\n\n" : "")
+				+ "Query plans:" + plans);
+		Dna.logger.log(l);
+	}
 	
 	/* =========================================================================
 	 * Coders
@@ -754,7 +2110,7 @@ public class Sql {
 	 */
 	public Coder getCoder(int coderId) {
 		Coder c = null;
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT * FROM CODERS WHERE ID = ?;");
 				PreparedStatement s2 = conn.prepareStatement("SELECT * FROM CODERRELATIONS WHERE Coder = ?;");
 				PreparedStatement s3 = conn.prepareStatement("SELECT Name, Red, Green, Blue FROM CODERS WHERE ID = ?;");
@@ -994,7 +2350,7 @@ public class Sql {
 	 */
 	public ArrayList<Coder> getCoders() {
 		ArrayList<Coder> coders = new ArrayList<Coder>();
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT * FROM CODERS;");
 				PreparedStatement s2 = conn.prepareStatement("SELECT * FROM CODERRELATIONS WHERE Coder = ?;");
 				PreparedStatement s3 = conn.prepareStatement("SELECT Name, Red, Green, Blue FROM CODERS WHERE ID = ?;");
@@ -1237,7 +2593,7 @@ public class Sql {
 	 */
 	public ArrayList<Coder> queryCoders() {
 		ArrayList<Coder> coders = new ArrayList<Coder>();
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT ID, Name, Red, Green, Blue FROM CODERS;")) {
 			ResultSet r = s.executeQuery();
         	while (r.next()) {
@@ -1626,7 +2982,7 @@ public class Sql {
 	 */
 	public int[] countCoderItems(int coderId) {
 		int[] results = new int[2];
-		try (Connection conn = getDataSource().getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT COUNT(ID) FROM DOCUMENTS WHERE Coder = ?;");
 				PreparedStatement s2 = conn.prepareStatement("SELECT COUNT(ID) FROM STATEMENTS WHERE Coder = ?;")) {
 			s1.setInt(1, coderId);
@@ -1662,7 +3018,7 @@ public class Sql {
 	 */
 	public boolean authenticate(int coderId, String clearPassword) {
 		String encryptedHash = null;
-		try (Connection conn = getDataSource().getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT Password FROM CODERS WHERE ID = ?;")) {
 			if (coderId > 0) {
 				s.setInt(1, coderId);
@@ -1717,38 +3073,37 @@ public class Sql {
 	 */
 	public int[] addDocuments(ArrayList<Document> documents) {
 		int[] documentIds = new int[documents.size()];
+		long startTime = System.nanoTime();
+		int committed = 0;
 		try (Connection conn = ds.getConnection();
 				PreparedStatement stmt = conn.prepareStatement("INSERT INTO DOCUMENTS (Title, Text, Coder, Author, Source, Section, Notes, Type, Date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS);
 				SQLCloseable finish = conn::rollback) {
 			conn.setAutoCommit(false);
-			ResultSet generatedKeysResultSet;
-			for (int i = 0; i < documents.size(); i++) {
-				stmt.setString(1, documents.get(i).getTitle());
-				stmt.setString(2, documents.get(i).getText());
-				stmt.setInt(3, documents.get(i).getCoder());
-				stmt.setString(4, documents.get(i).getAuthor());
-				stmt.setString(5, documents.get(i).getSource());
-				stmt.setString(6, documents.get(i).getSection());
-				stmt.setString(7, documents.get(i).getNotes());
-				stmt.setString(8, documents.get(i).getType());
-				stmt.setLong(9, documents.get(i).getDateTime().toEpochSecond(ZoneOffset.UTC)); // convert date-time to seconds since 01/01/1970 at 00:00:00 in UTC time zone
-				stmt.executeUpdate();
-				
-				// get generated document ID and save in array
-				generatedKeysResultSet = stmt.getGeneratedKeys();
-				while (generatedKeysResultSet.next()) {
-					documentIds[i] = generatedKeysResultSet.getInt(1);
-				}
+			for (int from = 0; from < documents.size(); from = from + BATCH_SIZE) {
+				int to = Math.min(from + BATCH_SIZE, documents.size());
+				writeBatch(stmt, from, to, (s, i) -> {
+					s.setString(1, documents.get(i).getTitle());
+					s.setString(2, documents.get(i).getText());
+					s.setInt(3, documents.get(i).getCoder());
+					s.setString(4, documents.get(i).getAuthor());
+					s.setString(5, documents.get(i).getSource());
+					s.setString(6, documents.get(i).getSection());
+					s.setString(7, documents.get(i).getNotes());
+					s.setString(8, documents.get(i).getType());
+					s.setLong(9, documents.get(i).getDateTime().toEpochSecond(ZoneOffset.UTC)); // convert date-time to seconds since 01/01/1970 at 00:00:00 in UTC time zone
+				}, documentIds);
+				conn.commit();
+				committed = to;
 			}
-			conn.commit();
 			LogEvent l = new LogEvent(Logger.MESSAGE,
-					"[SQL] Added " + documents.size() + " documents to the DOCUMENTS table in the database.",
-					"Successfully added " + documents.size() + " new documents to the DOCUMENTS table in the database. The transaction is complete and has been committed to the database.");
+					"[SQL] Added " + documents.size() + " documents to the DOCUMENTS table in the database (" + formatThroughput(documents.size(), startTime) + ").",
+					"Successfully added " + documents.size() + " new documents to the DOCUMENTS table in the database in batches of up to " + BATCH_SIZE + " documents. All transactions are complete and have been committed to the database.");
 			Dna.logger.log(l);
 		} catch (SQLException e) {
+			Arrays.fill(documentIds, committed, documentIds.length, 0);
 			LogEvent l = new LogEvent(Logger.ERROR,
 					"[SQL] Failed to add documents to the database.",
-					"Attempted to add " + documents.size() + " new documents to the DOCUMENTS table in the database, but something went wrong. The transaction has been rolled back; nothing has been committed to the database. Check your connection.",
+					"Attempted to add " + documents.size() + " new documents to the DOCUMENTS table in the database, but something went wrong. The first " + committed + " documents have been committed to the database in batches of up to " + BATCH_SIZE + " documents. The transaction for the remaining documents has been rolled back. Check your connection.",
 					e);
 			Dna.logger.log(l);
 		}
@@ -1763,7 +3118,7 @@ public class Sql {
 	 */
 	public int countDocuments() {
 		int count = 0;
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT COUNT(*) FROM DOCUMENTS;")) {
 			ResultSet r = s.executeQuery();
 			while (r.next()) {
@@ -1789,16 +3144,12 @@ public class Sql {
 	 */
 	public boolean documentsContainStatements(int[] documentIds) {
 		boolean contains = true;
-		String s = "SELECT COUNT(*) FROM STATEMENTS WHERE DocumentId IN (";
-		for (int i = 0; i < documentIds.length; i++) {
-			s = s + documentIds[i];
-			if (i < documentIds.length - 1) {
-				s = s + ", ";
-			}
-		}
-		s = s + ");";
-		try (Connection conn = getDataSource().getConnection();
-				PreparedStatement ps = conn.prepareStatement(s)) {
+		Query q = new Query(this.cp.getType())
+				.append("SELECT COUNT(*) FROM STATEMENTS WHERE ")
+				.appendIdFilter("DocumentId", documentIds)
+				.append(";");
+		try (Connection conn = readDs.getConnection();
+				PreparedStatement ps = q.prepare(conn)) {
 			ResultSet rs = ps.executeQuery();
 			while (rs.next()) {
 				if (rs.getInt(1) == 0) {
@@ -1829,26 +3180,129 @@ public class Sql {
 	 *   document meta-data.
 	 */
 	public ArrayList<TableDocument> getTableDocuments(int[] documentIds) {
+		if (documentIds.length == 0) {
+			return getTableDocuments(column -> null);
+		}
+		return getTableDocuments(column -> new Query(this.cp.getType()).appendIdFilter(column, documentIds));
+	}
+
+	/**
+	 * Get the sequence number of the most recent change recorded in the
+	 * {@code CHANGELOG} table, for passing it to {@link
+	 * #getChangedDocumentIds(int, int)} later.
+	 * 
+	 * @return The highest sequence number, {@code 0} if no changes have been
+	 *   recorded, or {@code -1} if the database has no change log or it could
+	 *   not be read.
+	 */
+	public int getChangeSequence() {
+		try (Connection conn = readDs.getConnection();
+				PreparedStatement s1 = conn.prepareStatement("SELECT Value FROM SETTINGS WHERE Property = 'migration';");
+				PreparedStatement s2 = conn.prepareStatement("SELECT MAX(ID) FROM CHANGELOG;")) {
+			ResultSet r1 = s1.executeQuery();
+			if (!r1.next() || Integer.parseInt(r1.getString("Value")) < 2) {
+				return -1;
+			}
+			ResultSet r2 = s2.executeQuery();
+			return r2.next() ? r2.getInt(1) : 0;
+		} catch (SQLException | NumberFormatException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to read change log.",
+					"Tried to read the sequence number of the most recent change from the CHANGELOG table, but this failed. Tables are reloaded completely instead of updating only the changed rows.",
+					e);
+			Dna.logger.log(l);
+			return -1;
+		}
+	}
+
+	/**
+	 * Get the IDs of the documents that were changed between two sequence
+	 * numbers of the {@code CHANGELOG} table: documents that were added,
+	 * updated, or deleted, and documents in which statements were added or
+	 * updated, as their statement frequencies changed. This is used to update
+	 * the document table after an import without reloading all documents.
+	 * 
+	 * @param after  The sequence number of the last change that is already
+	 *   known, as returned by {@link #getChangeSequence()}.
+	 * @param upTo   The sequence number of the last change to include.
+	 * @return       The IDs of the changed documents, including deleted
+	 *   documents, or {@code null} if the changes are no longer in the change
+	 *   log or could not be read.
+	 */
+	public int[] getChangedDocumentIds(int after, int upTo) {
+		if (after < 0 || upTo < after) {
+			return null;
+		}
+		HashSet<Integer> documentIds = new HashSet<Integer>();
+		ArrayList<Integer> statementIds = new ArrayList<Integer>();
+		try (Connection conn = readDs.getConnection();
+				PreparedStatement s1 = conn.prepareStatement("SELECT MIN(ID) FROM CHANGELOG;");
+				PreparedStatement s2 = conn.prepareStatement("SELECT TableName, RowId FROM CHANGELOG WHERE ID > ? AND ID <= ?;")) {
+			ResultSet r1 = s1.executeQuery();
+			if (upTo > after && r1.next() && r1.getInt(1) > after + 1) {
+				return null; // changes were pruned from the log
+			}
+			s2.setInt(1, after);
+			s2.setInt(2, upTo);
+			ResultSet r2 = s2.executeQuery();
+			while (r2.next()) {
+				if (r2.getString("TableName").equals("DOCUMENTS")) {
+					documentIds.add(r2.getInt("RowId"));
+				} else if (r2.getString("TableName").equals("STATEMENTS")) {
+					statementIds.add(r2.getInt("RowId"));
+				}
+			}
+			if (statementIds.size() > 0) {
+				Query q = new Query(this.cp.getType()).append("SELECT DISTINCT DocumentId FROM STATEMENTS WHERE ")
+						.appendIdFilter("ID", statementIds.stream().mapToInt(i -> i).toArray()).append(";");
+				try (PreparedStatement s3 = q.prepare(conn)) {
+					ResultSet r3 = s3.executeQuery();
+					while (r3.next()) {
+						documentIds.add(r3.getInt("DocumentId"));
+					}
+				}
+			}
+		} catch (SQLException e) {
+			LogEvent l = new LogEvent(Logger.WARNING,
+					"[SQL] Failed to read changed documents from change log.",
+					"Tried to read the IDs of the changed documents from the CHANGELOG table, but this failed. The document table is reloaded completely instead.",
+					e);
+			Dna.logger.log(l);
+			return null;
+		}
+		return documentIds.stream().mapToInt(i -> i).toArray();
+	}
+
+	/**
+	 * Get documents as {@link model.TableDocument TableDocument} objects. The
+	 * statement frequencies are counted in a single grouped query, which is
+	 * restricted to the selected documents, rather than in a subquery for
+	 * each document.
+	 * 
+	 * @param condition  A function that creates the condition for a given
+	 *   document ID column, or returns {@code null} to select all documents.
+	 * @return           The documents.
+	 */
+	private ArrayList<TableDocument> getTableDocuments(Function<String, Query> condition) {
 		ArrayList<TableDocument> documents = new ArrayList<TableDocument>();
-		String sql = "SELECT DOCUMENTS.ID, Title, Author, Source, Section, Type, Notes, Date, "
+		Query q = new Query(this.cp.getType()).append("SELECT DOCUMENTS.ID, Title, Author, Source, Section, Type, Notes, Date, "
 				+ "CODERS.ID AS CoderId, Name AS CoderName, Red, Green, Blue, "
 				+ "COALESCE(Frequency, 0) AS Frequency "
 				+ "FROM DOCUMENTS LEFT JOIN "
-				+ "(SELECT DocumentId, COUNT(DocumentId) AS Frequency FROM STATEMENTS GROUP BY DocumentId) AS C ON C.DocumentId = DOCUMENTS.ID "
-				+ "LEFT JOIN CODERS ON CODERS.ID = DOCUMENTS.Coder";
-		if (documentIds.length > 0) {
-			sql = sql + " WHERE DOCUMENTS.ID IN(";
-			for (int i = 0; i < documentIds.length; i++) {
-				sql = sql + documentIds[i];
-				if (i < documentIds.length - 1) {
-					sql = sql + ", ";
-				}
-			}
-			sql = sql + ")";
+				+ "(SELECT DocumentId, COUNT(DocumentId) AS Frequency FROM STATEMENTS");
+		Query inner = condition.apply("DocumentId");
+		if (inner != null) {
+			q.append(" WHERE ").append(inner);
 		}
-		sql = sql + ";";
-		try (Connection conn = getDataSource().getConnection();
-				PreparedStatement s = conn.prepareStatement(sql)) {
+		q.append(" GROUP BY DocumentId) AS C ON C.DocumentId = DOCUMENTS.ID "
+				+ "LEFT JOIN CODERS ON CODERS.ID = DOCUMENTS.Coder");
+		Query outer = condition.apply("DOCUMENTS.ID");
+		if (outer != null) {
+			q.append(" WHERE ").append(outer);
+		}
+		q.append(";");
+		try (Connection conn = readDs.getConnection();
+				PreparedStatement s = q.prepare(conn)) {
 			ResultSet rs = s.executeQuery();
 			while (rs.next()) {
 				TableDocument d = new TableDocument(
@@ -1869,7 +3323,7 @@ public class Sql {
 		} catch (SQLException e) {
 			LogEvent l = new LogEvent(Logger.WARNING,
 					"[SQL] Failed to retrieve document meta-data from the database.",
-					"Attempted to retrieve document data (other than the document text) for " + documentIds.length + " documents, but this failed. Check if all documents are being displayed in the user interface.",
+					"Attempted to retrieve document data (other than the document text), but this failed. Check if all documents are being displayed in the user interface.",
 					e);
 			Dna.logger.log(l);
 		}
@@ -1889,16 +3343,12 @@ public class Sql {
 	 */
 	public ArrayList<Document> getDocuments(int[] documentIds) {
 		ArrayList<Document> documents = new ArrayList<Document>();
-		String sql = "SELECT * FROM DOCUMENTS WHERE ID IN (";
-		for (int i = 0; i < documentIds.length; i++) {
-			sql = sql + documentIds[i];
-			if (i < documentIds.length - 1) {
-				sql = sql + ", ";
-			}
-		}
-		sql = sql + ");";
-		try (Connection conn = getDataSource().getConnection();
-				PreparedStatement s = conn.prepareStatement(sql)) {
+		Query q = new Query(this.cp.getType())
+				.append("SELECT * FROM DOCUMENTS WHERE ")
+				.appendIdFilter("ID", documentIds)
+				.append(";");
+		try (Connection conn = readDs.getConnection();
+				PreparedStatement s = q.prepare(conn)) {
 			ResultSet rs = s.executeQuery();
 			while (rs.next()) {
 				Document d = new Document(
@@ -1933,7 +3383,7 @@ public class Sql {
 	 */
 	public String getDocumentText(int documentId) {
 		String text = null;
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT Text FROM DOCUMENTS WHERE ID = ?;")) {
 			s.setInt(1, documentId);
 			ResultSet result = s.executeQuery();
@@ -1957,7 +3407,7 @@ public class Sql {
 	 */
 	public LocalDateTime[] getDateTimeRange() {
 		LocalDateTime[] range = new LocalDateTime[2];
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT MIN(DATE) FROM DOCUMENTS;");
 				PreparedStatement s2 = conn.prepareStatement("SELECT MAX(DATE) FROM DOCUMENTS;")) {
 			ResultSet r = s1.executeQuery();
@@ -2239,183 +3689,71 @@ public class Sql {
 	 * Add a statement (with variable values) to the database.
 	 * 
 	 * @param statement   A {@link model.Statement Statement} object, including
-	 *   the values for the different variables.
-	 * @param documentId  The ID of the document in which the statement is
-	 *   nested.
-	 * @return            The generated statement ID of the new statement.
-	 */
-	public int addStatement(Statement statement, int documentId) {
-		long statementId = -1, entityId = -1, attributeVariableId = -1;
-		try (Connection conn = ds.getConnection();
-				PreparedStatement s1 = conn.prepareStatement("INSERT INTO STATEMENTS (StatementTypeId, DocumentId, Start, Stop, Coder) VALUES (?, ?, ?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS);
-				PreparedStatement s2 = conn.prepareStatement("INSERT INTO DATASHORTTEXT (StatementId, VariableId, Entity) VALUES (?, ?, ?);");
-				PreparedStatement s3 = conn.prepareStatement("INSERT INTO DATALONGTEXT (StatementId, VariableId, Value) VALUES (?, ?, ?);");
-				PreparedStatement s4 = conn.prepareStatement("INSERT INTO DATAINTEGER (StatementId, VariableId, Value) VALUES (?, ?, ?);");
-				PreparedStatement s5 = conn.prepareStatement("INSERT INTO DATABOOLEAN (StatementId, VariableId, Value) VALUES (?, ?, ?);");
-				PreparedStatement s6 = conn.prepareStatement("INSERT INTO ENTITIES (VariableId, Value, Red, Green, Blue) VALUES (?, ?, ?, ?, ?);");
-				PreparedStatement s7 = conn.prepareStatement("SELECT ID FROM ENTITIES WHERE VariableId = ? AND Value = ?;");
-				PreparedStatement s8 = conn.prepareStatement("SELECT ID, AttributeVariable FROM ATTRIBUTEVARIABLES WHERE VariableId = ?;");
-				PreparedStatement s9 = conn.prepareStatement("INSERT INTO ATTRIBUTEVALUES (EntityId, AttributeVariableId, AttributeValue) VALUES (?, ?, ?);");
-				PreparedStatement s10 = conn.prepareStatement("SELECT COUNT(ID) FROM ENTITIES WHERE VariableId = ? AND Value = ?;");
-				PreparedStatement s11 = conn.prepareStatement("SELECT COUNT(ID) FROM ATTRIBUTEVALUES WHERE EntityId = ? AND AttributeVariableId = ?;");
-				SQLCloseable finish = conn::rollback) {
-			conn.setAutoCommit(false);
-			LogEvent l = new LogEvent(Logger.MESSAGE,
-					"[SQL] Started SQL transaction to add statement to Document " + documentId + ".",
-					"Started a new SQL transaction to add a new statement to the document with ID " + documentId + ". The contents will not be written into the database until the transaction is committed.");
-			Dna.logger.log(l);
-			ResultSet r, r2;
-			s1.setInt(1, statement.getStatementTypeId());
-			s1.setInt(2, documentId);
-			s1.setInt(3, statement.getStart());
-			s1.setInt(4, statement.getStop());
-			s1.setInt(5, statement.getCoderId());
-			s1.executeUpdate();
-			ResultSet generatedKeysResultSet = s1.getGeneratedKeys();
-			while (generatedKeysResultSet.next()) {
-				statementId = generatedKeysResultSet.getInt(1);
-			}
-			l = new LogEvent(Logger.MESSAGE,
-					"[SQL]  ├─ Transaction: Row with ID " + statementId + " added to the STATEMENTS table.",
-					"Added a row to the STATEMENTS table during the transaction. The new statement has ID " + statementId + ".");
-			Dna.logger.log(l);
-			for (int i = 0; i < statement.getValues().size(); i++) {
-				if (statement.getValues().get(i).getDataType().equals("short text")) {
-					
-					// first, try to create an entity if it does not exist yet
-					int variableId = statement.getValues().get(i).getVariableId();
-					String value = "";
-					if (statement.getValues().get(i).getValue() == null) {
-						value = "";
-					} else {
-						value = ((Entity) statement.getValues().get(i).getValue()).getValue(); // not sure if this case ever occurs
-					}
-
-					s10.setInt(1, variableId);
-					s10.setString(2, value);
-					r = s10.executeQuery();
-					while (r.next()) {
-						if (r.getInt(1) > 0) {
-							// entity exists already; do nothing
-						} else {
-							// entity does not exist; add it to ENTITIES table
-							s6.setInt(1, variableId);
-							s6.setString(2, value);
-							s6.setInt(3, 0);
-							s6.setInt(4, 0);
-							s6.setInt(5, 0);
-							try {
-								s6.executeUpdate();
-								l = new LogEvent(Logger.MESSAGE,
-										"[SQL]  ├─ Transaction: Added \"" + value + "\" to the ENTITIES table.",
-										"Added a row with value \"" + value + "\" to the ENTITIES table during the transaction.");
-								Dna.logger.log(l);
-							} catch (SQLException e2) {
-								l = new LogEvent(Logger.WARNING,
-										"[SQL]  ├─ Failed to add value \"" + value + "\" to the ENTITIES table.",
-										"Failed to add value \"" + value + "\" to the ENTITIES table. The next step will check if the attribute is already there. If so, no problem. If not, there will be another log event with an error message.",
-										e2);
-								Dna.logger.log(l);
-							}
-						}
-					}
-					
-					// find the attribute ID for the attribute that was just added (or that may have already existed)
-					entityId = -1;
-					s7.setInt(1, variableId);
-					s7.setString(2, value);
-					r = s7.executeQuery();
-					while (r.next()) {
-						entityId = r.getInt("ID");
-					}
-					l = new LogEvent(Logger.MESSAGE,
-							"[SQL]  ├─ Transaction: Entity ID identified as " + entityId + ".",
-							"The entity \"" + value + "\", which was added to, or identified in, the ENTITIES table during the transaction, has ID " + entityId + ".");
-					Dna.logger.log(l);
-					
-					// find attribute variable IDs for the entity and insert new values to the ATTRIBUTEVALUES table (catch errors if they already exist)
-					s8.setInt(1, variableId); // set variable ID to find all attribute variables by ID corresponding to the entity
-					r = s8.executeQuery();
-					while (r.next()) {
-						try {
-							attributeVariableId = r.getInt("ID");
-							s11.setLong(1, entityId);
-							s11.setLong(2, attributeVariableId);
-							r2 = s11.executeQuery();
-							while (r2.next()) {
-								if (r2.getInt(1) > 0) {
-									// attribute value already exists in the ATTRIBUTEVALUES table; don't do anything
-								} else {
-									s9.setLong(1, entityId); // entity ID
-									s9.setLong(2, attributeVariableId); // attribute variable ID
-									s9.setString(3, ""); // put an empty value into the attribute value field initially
-									s9.executeUpdate();
-									l = new LogEvent(Logger.MESSAGE,
-											"[SQL]  ├─ Transaction: Added attribute \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table.",
-											"Added attribute \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table during the transaction.");
-									Dna.logger.log(l);
-								}
-							}
-						} catch (Exception e2) {
-							l = new LogEvent(Logger.WARNING,
-									"[SQL]  ├─ Failed to add a new value for attribute variable \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table.",
-									"Failed to add a new value for attribute variable \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table. The next step will check if the attribute is already there. If so, no problem. If not, there will be another log event with an error message.",
-									e2);
-							Dna.logger.log(l);
-						}
-					}
-					
-					// finally, write into the DATASHORTTEXT table
-					s2.setLong(1, statementId);
-					s2.setInt(2, statement.getValues().get(i).getVariableId());
-					s2.setLong(3, entityId);
-					s2.executeUpdate();
-					l = new LogEvent(Logger.MESSAGE,
-							"[SQL]  ├─ Transaction: Added an entity to the DATASHORTTEXT table for Variable " + statement.getValues().get(i).getVariableId() + ".",
-							"Added a row with entity ID " + entityId + " for Variable " + statement.getValues().get(i).getVariableId() + " to the DATASHORTTEXT table during the transaction.");
-					Dna.logger.log(l);
-				} else if (statement.getValues().get(i).getDataType().equals("long text")) {
-					s3.setLong(1, statementId);
-					s3.setInt(2, statement.getValues().get(i).getVariableId());
-					s3.setString(3, (String) statement.getValues().get(i).getValue());
-					s3.executeUpdate();
-					l = new LogEvent(Logger.MESSAGE,
-							"[SQL]  ├─ Transaction: Added a value to the DATALONGTEXT table for Variable " + statement.getValues().get(i).getVariableId() + ".",
-							"Added a row for Variable " + statement.getValues().get(i).getVariableId() + " to the DATALONGTEXT table during the transaction.");
-					Dna.logger.log(l);
-				} else if (statement.getValues().get(i).getDataType().equals("integer")) {
-					s4.setLong(1, statementId);
-					s4.setInt(2, statement.getValues().get(i).getVariableId());
-					s4.setInt(3, (int) statement.getValues().get(i).getValue());
-					s4.executeUpdate();
-					l = new LogEvent(Logger.MESSAGE,
-							"[SQL]  ├─ Transaction: Added a value to the DATAINTEGER table for Variable " + statement.getValues().get(i).getVariableId() + ".",
-							"Added a row with Value " + (int) statement.getValues().get(i).getValue() + " for Variable " + statement.getValues().get(i).getVariableId() + " to the DATAINTEGER table during the transaction.");
-					Dna.logger.log(l);
-				} else if (statement.getValues().get(i).getDataType().equals("boolean")) {
-					s5.setLong(1, statementId);
-					s5.setInt(2, statement.getValues().get(i).getVariableId());
-					s5.setInt(3, (int) statement.getValues().get(i).getValue());
-					s5.executeUpdate();
-					l = new LogEvent(Logger.MESSAGE,
-							"[SQL]  ├─ Transaction: Added a value to the DATABOOLEAN table for Variable " + statement.getValues().get(i).getVariableId() + ".",
-							"Added a row with Value " + (int) statement.getValues().get(i).getValue() + " for Variable " + statement.getValues().get(i).getVariableId() + " to the DATABOOLEAN table during the transaction.");
-					Dna.logger.log(l);
-				}
+	 *   the values for the different variables.
+	 * @param documentId  The ID of the document in which the statement is
+	 *   nested.
+	 * @return            The generated statement ID of the new statement, or
+	 *   {@code -1} if the statement could not be added.
+	 */
+	public int addStatement(Statement statement, int documentId) {
+		Statement s = new Statement(statement);
+		s.setDocumentId(documentId);
+		ArrayList<Statement> statements = new ArrayList<Statement>();
+		statements.add(s);
+		return addStatements(statements)[0];
+	}
+
+	/**
+	 * Add a batch of statements (with variable values) to the database. The
+	 * rows are written using JDBC batches and committed in chunks of
+	 * {@link #BATCH_SIZE} statements, so a large import only needs a few round
+	 * trips per chunk. New entities and their empty attribute values are added
+	 * as required, skipping any that exist already.
+	 * 
+	 * @param statements  An {@link java.util.ArrayList ArrayList} of
+	 *   {@link model.Statement Statement} objects, including the values for the
+	 *   different variables and the ID of the document in which each statement
+	 *   is nested.
+	 * @return            Array of generated statement IDs. The IDs of
+	 *   statements that could not be added are {@code -1}.
+	 */
+	public int[] addStatements(ArrayList<Statement> statements) {
+		int[] statementIds = new int[statements.size()];
+		long startTime = System.nanoTime();
+		long rows = 0;
+		int committed = 0;
+		try (Connection conn = ds.getConnection();
+				PreparedStatement s1 = conn.prepareStatement("INSERT INTO STATEMENTS (StatementTypeId, DocumentId, Start, Stop, Coder) VALUES (?, ?, ?, ?, ?);", PreparedStatement.RETURN_GENERATED_KEYS);
+				SQLCloseable finish = conn::rollback) {
+			conn.setAutoCommit(false);
+			for (int from = 0; from < statements.size(); from = from + BATCH_SIZE) {
+				int to = Math.min(from + BATCH_SIZE, statements.size());
+				List<ArrayList<Value>> values = statements.subList(from, to).stream().map(s -> s.getValues()).collect(Collectors.toList());
+				HashMap<Integer, HashMap<String, Integer>> entityIds = addEntities(conn, values);
+				writeBatch(s1, from, to, (s, i) -> {
+					s.setInt(1, statements.get(i).getStatementTypeId());
+					s.setInt(2, statements.get(i).getDocumentId());
+					s.setInt(3, statements.get(i).getStart());
+					s.setInt(4, statements.get(i).getStop());
+					s.setInt(5, statements.get(i).getCoderId());
+				}, statementIds);
+				rows = rows + (to - from) + writeValues(conn, Arrays.copyOfRange(statementIds, from, to), values, entityIds, false);
+				conn.commit();
+				committed = to;
 			}
-			conn.commit();
-			l = new LogEvent(Logger.MESSAGE,
-					"[SQL]  └─ Completed SQL transaction to add Statement " + statementId + ".",
-					"Completed SQL transaction to add a new statement with ID " + statementId + " to Document " + documentId + ". The contents have been written into the database.");
+			LogEvent l = new LogEvent(Logger.MESSAGE,
+					"[SQL] Added " + statements.size() + " statements to the database (" + formatThroughput(rows, startTime) + ").",
+					"Successfully added " + statements.size() + " new statements with " + rows + " rows in the STATEMENTS and data tables to the database in batches of up to " + BATCH_SIZE + " statements. All transactions are complete and have been committed to the database.");
 			Dna.logger.log(l);
 		} catch (SQLException e) {
+			Arrays.fill(statementIds, committed, statementIds.length, -1);
 			LogEvent l = new LogEvent(Logger.ERROR,
-					"[SQL]  └─ Failed to add statement to Document " + documentId + ".",
-					"Failed to add statement to Document " + documentId + ". Check the connection and database availability.",
+					"[SQL] Failed to add statements to the database.",
+					"Attempted to add " + statements.size() + " new statements to the database, but something went wrong. The first " + committed + " statements have been committed to the database in batches of up to " + BATCH_SIZE + " statements. The transaction for the remaining statements has been rolled back. Check the connection and database availability.",
 					e);
 			Dna.logger.log(l);
 		}
-		return (int) statementId;
+		return statementIds;
 	}
 
 	/**
@@ -2580,146 +3918,34 @@ public class Sql {
 	 * @param coderIds      An ArrayList of new coder IDs for the statements.
 	 */
 	public void updateStatements(ArrayList<Integer> statementIds, ArrayList<ArrayList<Value>> values, ArrayList<Integer> coderIds) {
+		long startTime = System.nanoTime();
+		long rows = 0;
+		int committed = 0;
 		try (Connection conn = ds.getConnection();
-				PreparedStatement s1 = conn.prepareStatement("UPDATE DATABOOLEAN SET Value = ? WHERE StatementId = ? AND VariableId = ?;");
-				PreparedStatement s2 = conn.prepareStatement("UPDATE DATAINTEGER SET Value = ? WHERE StatementId = ? AND VariableId = ?;");
-				PreparedStatement s3 = conn.prepareStatement("UPDATE DATALONGTEXT SET Value = ? WHERE StatementId = ? AND VariableId = ?;");
-				PreparedStatement s4 = conn.prepareStatement("UPDATE DATASHORTTEXT SET Entity = ? WHERE StatementId = ? AND VariableId = ?;");
-				PreparedStatement s5 = conn.prepareStatement("INSERT INTO ENTITIES (VariableId, Value, Red, Green, Blue) VALUES (?, ?, ?, ?, ?);");
-				PreparedStatement s6 = conn.prepareStatement("SELECT ID FROM ENTITIES WHERE VariableId = ? AND Value = ?;");
-				PreparedStatement s7 = conn.prepareStatement("SELECT ID, AttributeVariable FROM ATTRIBUTEVARIABLES WHERE VariableId = ?;");
-				PreparedStatement s8 = conn.prepareStatement("INSERT INTO ATTRIBUTEVALUES (EntityId, AttributeVariableId, AttributeValue) VALUES (?, ?, ?);");
-				PreparedStatement s9 = conn.prepareStatement("SELECT COUNT(ID) FROM ATTRIBUTEVALUES WHERE EntityId = ? AND AttributeVariableId = ?;");
-				PreparedStatement s10 = conn.prepareStatement("UPDATE STATEMENTS SET Coder = ? WHERE ID = ?;");
+				PreparedStatement s1 = conn.prepareStatement("UPDATE STATEMENTS SET Coder = ? WHERE ID = ?;");
 				SQLCloseable finish = conn::rollback) {
 			conn.setAutoCommit(false);
-			LogEvent e1 = new LogEvent(Logger.MESSAGE,
-					"[SQL] Started SQL transaction to update " + statementIds.size() + " statements.",
-					"Started a new SQL transaction to update the variables in a set of " + statementIds.size() + " statements. The contents will not be written into the database until the transaction is committed.");
-			Dna.logger.log(e1);
-			Entity entity;
-			int entityId, variableId, attributeVariableId;
-			ResultSet r, r2;
-			for (int i = 0; i < values.size(); i++) {
-				for (int j = 0; j < values.get(i).size(); j++) {
-					variableId = values.get(i).get(j).getVariableId();
-					if (values.get(i).get(j).getDataType().equals("boolean")) {
-						s1.setInt(1, (int) values.get(i).get(j).getValue());
-						s1.setInt(2, statementIds.get(i));
-						s1.setInt(3, variableId);
-						s1.executeUpdate();
-						LogEvent e2 = new LogEvent(Logger.MESSAGE,
-								"[SQL]  ├─ Variable " + variableId + " in Statement " + statementIds.get(i) + " was updated in the transaction.",
-								"Variable " + variableId + " (boolean) in Statement " + statementIds.get(i) + " was updated in the SQL transaction with value: " + (int) values.get(i).get(j).getValue() + ".");
-						Dna.logger.log(e2);
-					} else if (values.get(i).get(j).getDataType().equals("integer")) {
-						s2.setInt(1, (int) values.get(i).get(j).getValue());
-						s2.setInt(2, statementIds.get(i));
-						s2.setInt(3, variableId);
-						s2.executeUpdate();
-						LogEvent e2 = new LogEvent(Logger.MESSAGE,
-								"[SQL]  ├─ Variable " + variableId + " in Statement " + statementIds.get(i) + " was updated in the transaction.",
-								"Variable " + variableId + " (integer) in Statement " + statementIds.get(i) + " was updated in the SQL transaction with value: " + (int) values.get(i).get(j).getValue() + ".");
-						Dna.logger.log(e2);
-					} else if (values.get(i).get(j).getDataType().equals("long text")) {
-						s3.setString(1, (String) values.get(i).get(j).getValue());
-						s3.setInt(2, statementIds.get(i));
-						s3.setInt(3, variableId);
-						s3.executeUpdate();
-						LogEvent e2 = new LogEvent(Logger.MESSAGE,
-								"[SQL]  ├─ Variable " + variableId + " in Statement " + statementIds.get(i) + " was updated in the transaction.",
-								"Variable " + variableId + " (long text) in Statement " + statementIds.get(i) + " was updated in the SQL transaction.");
-						Dna.logger.log(e2);
-					} else if (values.get(i).get(j).getDataType().equals("short text")) {
-						// try to recognise entity ID from database; should be more reliable (e.g., with empty Strings)
-						entity = (Entity) values.get(i).get(j).getValue();
-						entityId = -1;
-						s6.setInt(1, variableId);
-						s6.setString(2, entity.getValue());
-						r = s6.executeQuery();
-						while (r.next()) {
-							entityId = r.getInt("ID");
-						}
-						
-						if (entityId == -1) {
-							// if the attribute does not exist, insert new attribute with given String value
-							s5.setInt(1, variableId);
-							s5.setString(2, entity.getValue());
-							s5.setInt(3, entity.getColor().getRed());
-							s5.setInt(4, entity.getColor().getGreen());
-							s5.setInt(5, entity.getColor().getBlue());
-							s5.executeUpdate();
-							
-							// new attribute has been created; now we have to get its ID
-							s6.setInt(1, variableId);
-							s6.setString(2, entity.getValue());
-							r = s6.executeQuery();
-							while (r.next()) {
-								entityId = r.getInt(1);
-							}
-							LogEvent e2 = new LogEvent(Logger.MESSAGE,
-									"[SQL]  ├─ Entity with ID " + entityId + " added to the transaction.",
-									"An entity with ID " + entityId + " and value \"" + entity.getValue() + "\" was created for variable ID " + variableId + " and added to the SQL transaction.");
-							Dna.logger.log(e2);
-							
-							// since the attribute did not exist, we also need to add attributes;
-							// first get the IDs of the attribute variables, then add the attribute values
-							s7.setInt(1, variableId); // set variable ID to find all attribute variables by ID corresponding to the variable
-							r = s7.executeQuery();
-							while (r.next()) {
-								try {
-									attributeVariableId = r.getInt("ID");
-									s9.setInt(1, entityId);
-									s9.setInt(2, attributeVariableId);
-									r2 = s9.executeQuery();
-									while (r2.next()) {
-										if (r2.getInt(1) > 0) {
-											// attribute value already exists in the ATTRIBUTEVALUES table; don't do anything
-										} else {
-											s8.setInt(1, entityId); // entity ID
-											s8.setInt(2, attributeVariableId); // attribute variable ID
-											s8.setString(3, ""); // put an empty value into the attribute variable field initially
-											s8.executeUpdate();
-											LogEvent l = new LogEvent(Logger.MESSAGE,
-													"[SQL]  ├─ Transaction: Added value for attribute \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table.",
-													"Added attribute \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table during the transaction.");
-											Dna.logger.log(l);
-										}
-									}
-								} catch (Exception e3) {
-									LogEvent l = new LogEvent(Logger.WARNING,
-											"[SQL]  ├─ Failed to add a new value for attribute \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table.",
-											"Failed to add a new value for attribute \"" + r.getString("AttributeVariable") + "\" for Entity " + entityId + " to the ATTRIBUTEVALUES table. The next step will check if the attribute is already there. If so, no problem. If not, there will be another log event with an error message.",
-											e3);
-									Dna.logger.log(l);
-								}
-							}
-						}
-
-						// write the attribute ID as the value in the DATASHORTTEXT table
-						s4.setInt(1, entityId);
-						s4.setInt(2, statementIds.get(i));
-						s4.setInt(3, variableId);
-						s4.executeUpdate();
-						LogEvent e2 = new LogEvent(Logger.MESSAGE,
-								"[SQL]  ├─ Variable " + variableId + " in Statement " + statementIds.get(i) + " was updated in the transaction.",
-								"Variable " + variableId + " (short text) in Statement " + statementIds.get(i) + " was updated in the SQL transaction with Entity " + entityId + ".");
-						Dna.logger.log(e2);
-					}
-				}
-				s10.setInt(1, coderIds.get(i));
-				s10.setInt(2, statementIds.get(i));
-				s10.executeUpdate();
+			for (int from = 0; from < statementIds.size(); from = from + BATCH_SIZE) {
+				int to = Math.min(from + BATCH_SIZE, statementIds.size());
+				HashMap<Integer, HashMap<String, Integer>> entityIds = addEntities(conn, values.subList(from, to));
+				int[] ids = statementIds.subList(from, to).stream().mapToInt(i -> i).toArray();
+				rows = rows + writeValues(conn, ids, values.subList(from, to), entityIds, true);
+				writeBatch(s1, from, to, (s, i) -> {
+					s.setInt(1, coderIds.get(i));
+					s.setInt(2, statementIds.get(i));
+				}, null);
+				rows = rows + (to - from);
+				conn.commit();
+				committed = to;
 			}
-			conn.commit();
 			LogEvent e2 = new LogEvent(Logger.MESSAGE,
-					"[SQL]  └─ Completed SQL transaction to update " + statementIds.size() + " statements.",
-					"Completed SQL transaction to update the variables in " + statementIds.size() + " statements. The contents have been written into the database.");
+					"[SQL] Updated " + statementIds.size() + " statements (" + formatThroughput(rows, startTime) + ").",
+					"Completed SQL transactions to update the variables in " + statementIds.size() + " statements in batches of up to " + BATCH_SIZE + " statements. The contents have been written into the database.");
 			Dna.logger.log(e2);
 		} catch (SQLException e) {
 			LogEvent e2 = new LogEvent(Logger.ERROR,
-					"[SQL]  └─ Statements could not be updated in the database.",
-					"When the statement recoder tried to update statement details in the database, something went wrong. Maybe another coder concurrently removed the statements you were working on, or maybe there was a connection issue. See exception below.",
+					"[SQL] Statements could not be updated in the database.",
+					"When the statement recoder tried to update statement details in the database, something went wrong. The first " + committed + " of " + statementIds.size() + " statements have been updated; the transaction for the remaining statements has been rolled back. Maybe another coder concurrently removed the statements you were working on, or maybe there was a connection issue. See exception below.",
 					e);
 			Dna.logger.log(e2);
 		}
@@ -2827,10 +4053,9 @@ public class Sql {
 	public Statement getStatement(int statementId) {
 		Statement statement = null;
 		ArrayList<Value> values;
-		int statementTypeId, variableId, entityId;
+		int statementTypeId, variableId;
 		String variable, dataType;
-		Color aColor, sColor, cColor;
-		HashMap<String, String> map;
+		Color sColor, cColor;
 		String subString = "SUBSTRING(DOCUMENTS.Text, Start + 1, Stop - Start) AS Text ";
 		if (getConnectionProfile().getType().equals("postgresql")) {
 			subString = "SUBSTRING(DOCUMENTS.Text, CAST(Start + 1 AS INT4), CAST(Stop - Start AS INT4)) AS Text ";
@@ -2856,15 +4081,14 @@ public class Sql {
 				+ "INNER JOIN STATEMENTTYPES ON STATEMENTS.StatementTypeId = STATEMENTTYPES.ID "
 				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
 				+ "WHERE STATEMENTS.ID = ?;";
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement(s1Query);
 				PreparedStatement s2 = conn.prepareStatement("SELECT ID, Variable, DataType FROM VARIABLES WHERE StatementTypeId = ?;");
-				PreparedStatement s3 = conn.prepareStatement("SELECT E.ID AS EntityId, StatementId, E.VariableId, DST.ID AS DataId, E.Value, Red, Green, Blue, ChildOf FROM DATASHORTTEXT AS DST LEFT JOIN ENTITIES AS E ON E.ID = DST.Entity AND E.VariableId = DST.VariableId WHERE DST.StatementId = ? AND DST.VariableId = ?;");
+				PreparedStatement s3 = conn.prepareStatement("SELECT Entity FROM DATASHORTTEXT WHERE StatementId = ? AND VariableId = ?;");
 				PreparedStatement s4 = conn.prepareStatement("SELECT Value FROM DATALONGTEXT WHERE VariableId = ? AND StatementId = ?;");
 				PreparedStatement s5 = conn.prepareStatement("SELECT Value FROM DATAINTEGER WHERE VariableId = ? AND StatementId = ?;");
-				PreparedStatement s6 = conn.prepareStatement("SELECT Value FROM DATABOOLEAN WHERE VariableId = ? AND StatementId = ?;");
-				PreparedStatement s7 = conn.prepareStatement("SELECT AttributeVariable, AttributeValue FROM ATTRIBUTEVALUES AS AVAL INNER JOIN ATTRIBUTEVARIABLES AS AVAR ON AVAL.AttributeVariableId = AVAR.ID WHERE EntityId = ?;")) {
-			ResultSet r1, r2, r3, r4;
+				PreparedStatement s6 = conn.prepareStatement("SELECT Value FROM DATABOOLEAN WHERE VariableId = ? AND StatementId = ?;")) {
+			ResultSet r1, r2, r3;
 			
 			// first, get the statement information, including coder and statement type info
 			s1.setInt(1, statementId);
@@ -2889,18 +4113,8 @@ public class Sql {
 			    		s3.setInt(2, variableId);
 				    	r3 = s3.executeQuery();
 				    	while (r3.next()) {
-				    		entityId = r3.getInt("EntityId");
-			            	aColor = new Color(r3.getInt("Red"), r3.getInt("Green"), r3.getInt("Blue"));
-			            	
-			            	// fourth, in the case of short text, also look up information in ENTITIES table
-			            	s7.setInt(1, entityId);
-			            	r4 = s7.executeQuery();
-			            	map = new HashMap<String, String>();
-			            	while (r4.next()) {
-			            		map.put(r4.getString("AttributeVariable"), r4.getString("AttributeValue"));
-			            	}
-			            	Entity entity = new Entity(entityId, variableId, r3.getString("Value"), aColor, r3.getInt("ChildOf"), true, map);
-				    		values.add(new Value(variableId, variable, dataType, entity));
+			            	// fourth, in the case of short text, also look up the entity with its attributes in the entity cache
+				    		values.add(new Value(variableId, variable, dataType, this.entityCache.get(conn, r3.getInt("Entity"))));
 				    	}
 			    	} else if (dataType.equals("long text")) {
 				    	s4.setInt(1, variableId);
@@ -2993,112 +4207,84 @@ public class Sql {
 			boolean sectionInclude,
 			ArrayList<String> types,
 			boolean typeInclude) {
-		String whereStatements = "";
-		String whereShortText = "";
-		String whereLongText = "";
-		String whereBoolean = "";
-		String whereInteger = "";
-		if (statementIds != null && statementIds.length > 0) {
-			String ids = "";
-			for (int i = 0; i < statementIds.length; i++) {
-				ids = ids + statementIds[i];
-				if (i < statementIds.length - 1) {
-					ids = ids + ", ";
-				}
-			}
-			whereStatements = "WHERE STATEMENTS.ID IN (" + ids + ") ";
-			whereShortText = "AND DATASHORTTEXT.StatementId IN (" + ids + ") ";
-			whereLongText = "AND DATALONGTEXT.StatementId IN (" + ids + ") ";
-			whereBoolean = "AND DATABOOLEAN.StatementId IN (" + ids + ") ";
-			whereInteger = "AND DATAINTEGER.StatementId IN (" + ids + ") ";
-		}
-		if (startDateTime != null) {
-			whereStatements = whereStatements + "AND Date >= " + startDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereShortText = whereShortText + "AND Date >= " + startDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereLongText = whereLongText + "AND Date >= " + startDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereBoolean = whereBoolean + "AND Date >= " + startDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereInteger = whereInteger + "AND Date >= " + startDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-		}
-		if (stopDateTime != null) {
-			whereStatements = whereStatements + "AND Date <= " + stopDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereShortText = whereShortText + "AND Date <= " + stopDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereLongText = whereLongText + "AND Date <= " + stopDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereBoolean = whereBoolean + "AND Date <= " + stopDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-			whereInteger = whereInteger + "AND Date <= " + stopDateTime.toEpochSecond(ZoneOffset.UTC) + " ";
-		}
-		if (authors != null && authors.size() > 0) {
-			String authorNot = "";
-			if (!authorInclude) {
-				authorNot = "NOT ";
-			}
-			String authorWhere = "AND DOCUMENTS.Author "
-					+ authorNot
-					+ "IN ('"
-					+ authors.stream().collect(Collectors.joining("', '"))
-					+ "') ";
-			whereStatements = whereStatements + authorWhere;
-			whereShortText = whereShortText + authorWhere;
-			whereLongText = whereLongText + authorWhere;
-			whereBoolean = whereBoolean + authorWhere;
-			whereInteger = whereInteger + authorWhere;
-		}
-		if (sources != null && sources.size() > 0) {
-			String sourceNot = "";
-			if (!sourceInclude) {
-				sourceNot = "NOT ";
-			}
-			String sourceWhere = "AND DOCUMENTS.Source "
-					+ sourceNot
-					+ "IN ('"
-					+ sources.stream().collect(Collectors.joining("', '"))
-					+ "') ";
-			whereStatements = whereStatements + sourceWhere;
-			whereShortText = whereShortText + sourceWhere;
-			whereLongText = whereLongText + sourceWhere;
-			whereBoolean = whereBoolean + sourceWhere;
-			whereInteger = whereInteger + sourceWhere;
-		}
-		if (sections != null && sections.size() > 0) {
-			String sectionNot = "";
-			if (!sectionInclude) {
-				sectionNot = "NOT ";
-			}
-			String sectionWhere = "AND DOCUMENTS.Section "
-					+ sectionNot
-					+ "IN ('"
-					+ sections.stream().collect(Collectors.joining("', '"))
-					+ "') ";
-			whereStatements = whereStatements + sectionWhere;
-			whereShortText = whereShortText + sectionWhere;
-			whereLongText = whereLongText + sectionWhere;
-			whereBoolean = whereBoolean + sectionWhere;
-			whereInteger = whereInteger + sectionWhere;
-		}
-		if (types != null && types.size() > 0) {
-			String typeNot = "";
-			if (!typeInclude) {
-				typeNot = "NOT ";
-			}
-			String typeWhere = "AND DOCUMENTS.Type "
-					+ typeNot
-					+ "IN ('"
-					+ types.stream().collect(Collectors.joining("', '"))
-					+ "') ";
-			whereStatements = whereStatements + typeWhere;
-			whereShortText = whereShortText + typeWhere;
-			whereLongText = whereLongText + typeWhere;
-			whereBoolean = whereBoolean + typeWhere;
-			whereInteger = whereInteger + typeWhere;
-		}
-		if (whereStatements.startsWith("AND")) { // ensure correct form if no statement ID filtering
-			whereStatements = whereStatements.replaceFirst("AND", "WHERE");
-		}
-		
+		return getStatements(statementIds, statementTypeId, startDateTime, stopDateTime, authors, authorInclude, sources,
+				sourceInclude, sections, sectionInclude, types, typeInclude, null, false);
+	}
+
+	/**
+	 * Get statements, potentially filtered by statement IDs, statement type
+	 * IDs, document meta-data, date/time range, and values of statement-level
+	 * variables. All filters are evaluated by the database, with the filter
+	 * values passed as parameters of prepared statements.
+	 * 
+	 * The value filter is conservative: it removes only statements that would
+	 * also be excluded by comparing the values in memory, as done in {@link
+	 * dna.export.Exporter#filterStatements()}. Values of integer and boolean
+	 * variables are compared as numbers. Missing values cannot be matched in
+	 * the database. Therefore, variables whose values are included (rather
+	 * than excluded) are not filtered if the list contains an empty value or
+	 * is empty.
+	 * 
+	 * @param statementIds Array of statement IDs to retrieve. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param statementTypeId Array list of statement type IDs to include. Can
+	 *   be empty or {@code null}, in which case all statement types are
+	 *   selected.
+	 * @param startDateTime Date/time before which statements are discarded.
+	 * @param stopDateTime Date/time after which statements are discarded.
+	 * @param authors Array list of document authors to exclude. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param authorInclude Include authors instead of excluding them?
+	 * @param sources Array list of document sources to exclude. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param sourceInclude Include sources instead of excluding them?
+	 * @param sections Array list of document sections to exclude. Can be empty
+	 *   or {@code null}, in which case all statements are selected.
+	 * @param sectionInclude Include sections instead of excluding them?
+	 * @param types Array list of document types to exclude. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param typeInclude Include types instead of excluding them?
+	 * @param values Hash map of variable names and array lists of their values
+	 *   to exclude. Can be empty or {@code null}, in which case all statements
+	 *   are selected.
+	 * @param valueInclude Include values instead of excluding them?
+	 * @return Array list of statements with all details.
+	 */
+	public ArrayList<Statement> getStatements(
+			int[] statementIds,
+			int statementTypeId,
+			LocalDateTime startDateTime,
+			LocalDateTime stopDateTime,
+			ArrayList<String> authors,
+			boolean authorInclude,
+			ArrayList<String> sources,
+			boolean sourceInclude,
+			ArrayList<String> sections,
+			boolean sectionInclude,
+			ArrayList<String> types,
+			boolean typeInclude,
+			HashMap<String, ArrayList<String>> values,
+			boolean valueInclude) {
+		ArrayList<Statement> listOfStatements = new ArrayList<Statement>();
+		boolean success = streamStatements(statementIds, statementTypeId, startDateTime, stopDateTime, authors, authorInclude,
+				sources, sourceInclude, sections, sectionInclude, types, typeInclude, values, valueInclude, listOfStatements::add);
+		return success ? listOfStatements : null;
+	}
+
+	/**
+	 * Create the query for the statements of a statement type that is read by
+	 * {@link #streamStatements}, sorted like the value queries.
+	 * 
+	 * @param statementTypeId The statement type ID.
+	 * @param filter The filter conditions, each starting with {@code AND}.
+	 * @return The query.
+	 */
+	private Query createStatementQuery(int statementTypeId, Query filter) {
 		String subString = "SUBSTRING(DOCUMENTS.Text, Start + 1, Stop - Start) AS Text ";
-		if (Dna.sql.getConnectionProfile().getType().equals("postgresql")) {
+		if (this.cp.getType().equals("postgresql")) {
 			subString = "SUBSTRING(DOCUMENTS.Text, CAST(Start + 1 AS INT4), CAST(Stop - Start AS INT4)) AS Text ";
 		}
-		String q1 = "SELECT STATEMENTS.ID AS StatementId, "
+		return new Query(this.cp.getType()).append("SELECT STATEMENTS.ID AS StatementId, "
 				+ "StatementTypeId, "
 				+ "STATEMENTTYPES.Label AS StatementTypeLabel, "
 				+ "STATEMENTTYPES.Red AS StatementTypeRed, "
@@ -3118,76 +4304,146 @@ public class Sql {
 				+ "INNER JOIN CODERS ON STATEMENTS.Coder = CODERS.ID "
 				+ "INNER JOIN STATEMENTTYPES ON STATEMENTS.StatementTypeId = STATEMENTTYPES.ID "
 				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
-				+ whereStatements
-				+ "AND STATEMENTTYPES.ID = " + statementTypeId + " "
-				+ "ORDER BY DOCUMENTS.DATE ASC;";
+				+ "WHERE STATEMENTTYPES.ID = ? ", statementTypeId)
+				.append(filter)
+				.append(STATEMENT_ORDER + ";");
+	}
 
-		String q3 = "SELECT ID, Variable, DataType FROM VARIABLES WHERE StatementTypeId = " + statementTypeId + ";";
-		
-		String q4a = "SELECT DATASHORTTEXT.StatementId, VARIABLES.ID AS VariableId, ENTITIES.ID AS EntityId, ENTITIES.Value AS Value, ENTITIES.Red AS Red, ENTITIES.Green AS Green, ENTITIES.Blue AS Blue, ENTITIES.ChildOf AS ChildOf FROM DATASHORTTEXT "
-				+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATASHORTTEXT.VariableId "
-				+ "INNER JOIN ENTITIES ON ENTITIES.VariableId = VARIABLES.ID AND ENTITIES.ID = DATASHORTTEXT.Entity "
-				+ "INNER JOIN STATEMENTS ON STATEMENTS.ID = DATASHORTTEXT.StatementId "
-				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
-				+ "WHERE VARIABLES.StatementTypeId = " + statementTypeId + " " + whereShortText + "ORDER BY 1, 2 ASC;";
-		String q4b = "SELECT DATALONGTEXT.StatementId, VARIABLES.ID AS VariableId, DATALONGTEXT.Value FROM DATALONGTEXT "
-				+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATALONGTEXT.VariableId "
-				+ "INNER JOIN STATEMENTS ON STATEMENTS.ID = DATALONGTEXT.StatementId "
-				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
-				+ "WHERE VARIABLES.StatementTypeId = " + statementTypeId + " " + whereLongText + "ORDER BY 1, 2 ASC;";
-		String q4c = "SELECT DATABOOLEAN.StatementId, VARIABLES.ID AS VariableId, DATABOOLEAN.Value FROM DATABOOLEAN "
-				+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATABOOLEAN.VariableId "
-				+ "INNER JOIN STATEMENTS ON STATEMENTS.ID = DATABOOLEAN.StatementId "
-				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
-				+ "WHERE VARIABLES.StatementTypeId = " + statementTypeId + " " + whereBoolean + "ORDER BY 1, 2 ASC;";
-		String q4d = "SELECT DATAINTEGER.StatementId, VARIABLES.ID AS VariableId, DATAINTEGER.Value FROM DATAINTEGER "
-				+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATAINTEGER.VariableId "
-				+ "INNER JOIN STATEMENTS ON STATEMENTS.ID = DATAINTEGER.StatementId "
+	/**
+	 * Create the query for the values in one of the {@link #VALUE_TABLES} of
+	 * the statements of a statement type that is read by {@link
+	 * #streamStatements}. The values are sorted like the statements, so they
+	 * can be merged with the statements as they are read.
+	 * 
+	 * @param table The data table.
+	 * @param statementTypeId The statement type ID.
+	 * @param filter The filter conditions, each starting with {@code AND}.
+	 * @return The query.
+	 */
+	private Query createValueQuery(String table, int statementTypeId, Query filter) {
+		return new Query(this.cp.getType()).append("SELECT " + table + ".StatementId, "
+				+ "DOCUMENTS.Date AS Date, STATEMENTS.DocumentId AS DocumentId, STATEMENTS.Start AS Start, STATEMENTS.Stop AS Stop, "
+				+ "VARIABLES.ID AS VariableId, "
+				+ (table.equals("DATASHORTTEXT") ? "DATASHORTTEXT.Entity AS EntityId" : table + ".Value") + " FROM " + table + " "
+				+ "INNER JOIN VARIABLES ON VARIABLES.ID = " + table + ".VariableId "
+				+ "INNER JOIN STATEMENTS ON STATEMENTS.ID = " + table + ".StatementId "
 				+ "INNER JOIN DOCUMENTS ON DOCUMENTS.ID = STATEMENTS.DocumentId "
-				+ "WHERE VARIABLES.StatementTypeId = " + statementTypeId + " " + whereInteger + "ORDER BY 1, 2 ASC;";
+				+ "WHERE VARIABLES.StatementTypeId = ? ", statementTypeId)
+				.append(filter)
+				.append(STATEMENT_ORDER + ", VARIABLES.ID;");
+	}
 
-		String q5 = "SELECT ATTRIBUTEVALUES.EntityId, AttributeVariable, AttributeValue FROM ATTRIBUTEVALUES "
-				+ "INNER JOIN ATTRIBUTEVARIABLES ON ATTRIBUTEVARIABLES.ID = AttributeVariableId "
-				+ "INNER JOIN VARIABLES ON VARIABLES.ID = ATTRIBUTEVARIABLES.VariableId "
-				+ "WHERE VARIABLES.StatementTypeId = " + statementTypeId + ";";
+	/**
+	 * Read statements one by one and pass them to a consumer in the order of
+	 * {@link model.Statement#compareTo(Statement)}, potentially filtered by
+	 * statement IDs, statement type IDs, document meta-data, date/time range,
+	 * and values of statement-level variables. All filters are evaluated by
+	 * the database, with the filter values passed as parameters of prepared
+	 * statements.
+	 * 
+	 * The statements and the values in the four data tables are read from
+	 * cursors sorted in the same order and merged as they are read, so only
+	 * the current statement and the variables are held in memory. Entities
+	 * are taken from the entity cache, so all statements share one entity
+	 * object per entity ID. The rows are fetched in chunks of {@link
+	 * #FETCH_SIZE} rows, using server-side cursors on PostgreSQL and cursor
+	 * fetching on MySQL.
+	 * 
+	 * The value filter is conservative: it removes only statements that would
+	 * also be excluded by comparing the values in memory, as done in {@link
+	 * dna.export.Exporter#filterStatements()}. Values of integer and boolean
+	 * variables are compared as numbers. Missing values cannot be matched in
+	 * the database. Therefore, variables whose values are included (rather
+	 * than excluded) are not filtered if the list contains an empty value or
+	 * is empty.
+	 * 
+	 * @param statementIds Array of statement IDs to retrieve. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param statementTypeId Array list of statement type IDs to include. Can
+	 *   be empty or {@code null}, in which case all statement types are
+	 *   selected.
+	 * @param startDateTime Date/time before which statements are discarded.
+	 * @param stopDateTime Date/time after which statements are discarded.
+	 * @param authors Array list of document authors to exclude. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param authorInclude Include authors instead of excluding them?
+	 * @param sources Array list of document sources to exclude. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param sourceInclude Include sources instead of excluding them?
+	 * @param sections Array list of document sections to exclude. Can be empty
+	 *   or {@code null}, in which case all statements are selected.
+	 * @param sectionInclude Include sections instead of excluding them?
+	 * @param types Array list of document types to exclude. Can be empty or
+	 *   {@code null}, in which case all statements are selected.
+	 * @param typeInclude Include types instead of excluding them?
+	 * @param values Hash map of variable names and array lists of their values
+	 *   to exclude. Can be empty or {@code null}, in which case all statements
+	 *   are selected.
+	 * @param valueInclude Include values instead of excluding them?
+	 * @param consumer Receives each statement with all details.
+	 * @return Were all statements read successfully?
+	 */
+	public boolean streamStatements(
+			int[] statementIds,
+			int statementTypeId,
+			LocalDateTime startDateTime,
+			LocalDateTime stopDateTime,
+			ArrayList<String> authors,
+			boolean authorInclude,
+			ArrayList<String> sources,
+			boolean sourceInclude,
+			ArrayList<String> sections,
+			boolean sectionInclude,
+			ArrayList<String> types,
+			boolean typeInclude,
+			HashMap<String, ArrayList<String>> values,
+			boolean valueInclude,
+			Consumer<Statement> consumer) {
+		// the filters are identical for all queries
+		Query filter = new Query(this.cp.getType());
+		if (statementIds != null && statementIds.length > 0) {
+			filter.append("AND ").appendIdFilter("STATEMENTS.ID", statementIds).append(" ");
+		}
+		if (startDateTime != null) {
+			filter.append("AND Date >= ? ", startDateTime.toEpochSecond(ZoneOffset.UTC));
+		}
+		if (stopDateTime != null) {
+			filter.append("AND Date <= ? ", stopDateTime.toEpochSecond(ZoneOffset.UTC));
+		}
+		appendDocumentFilter(filter, "Author", authors, authorInclude);
+		appendDocumentFilter(filter, "Source", sources, sourceInclude);
+		appendDocumentFilter(filter, "Section", sections, sectionInclude);
+		appendDocumentFilter(filter, "Type", types, typeInclude);
+		if (values != null) {
+			for (String variable : values.keySet()) {
+				appendValueFilter(filter, statementTypeId, variable, values.get(variable), valueInclude);
+			}
+		}
+		
+		Query q1 = createStatementQuery(statementTypeId, filter);
+		Query q3 = new Query(this.cp.getType()).append("SELECT ID, Variable, DataType FROM VARIABLES WHERE StatementTypeId = ?;", statementTypeId);
+		Query[] q4 = new Query[VALUE_TABLES.length];
+		for (int t = 0; t < VALUE_TABLES.length; t++) {
+			q4[t] = createValueQuery(VALUE_TABLES[t], statementTypeId, filter);
+		}
 		
-		ArrayList<Statement> listOfStatements = null;
-		int statementId, variableId, entityId;
+		boolean success = false;
+		int statementId, variableId;
 		Color sColor, cColor;
 		HashMap<Integer, String> variableNameMap = new HashMap<Integer, String>(); // variable ID to variable name
 		HashMap<Integer, String> variableDataTypeMap = new HashMap<Integer, String>(); // variable ID to data type
-		HashMap<Integer, Statement> statementMap = new HashMap<Integer, Statement>(); // statement ID to Statement
-		ResultSet r3, r4, r5;
-		try (Connection conn = Dna.sql.getDataSource().getConnection();
-				PreparedStatement s1 = conn.prepareStatement(q1);
-				PreparedStatement s3 = conn.prepareStatement(q3);
-				PreparedStatement s4a = conn.prepareStatement(q4a);
-				PreparedStatement s4b = conn.prepareStatement(q4b);
-				PreparedStatement s4c = conn.prepareStatement(q4c);
-				PreparedStatement s4d = conn.prepareStatement(q4d);
-				PreparedStatement s5 = conn.prepareStatement(q5);) {
-			
-			// assemble statements without values for now and save them in a hash map
-			ResultSet r1 = s1.executeQuery();
-			while (r1.next()) {
-				statementId = r1.getInt("StatementId");
-			    statementTypeId = r1.getInt("StatementTypeId");
-			    sColor = new Color(r1.getInt("StatementTypeRed"), r1.getInt("StatementTypeGreen"), r1.getInt("StatementTypeBlue"));
-			    cColor = new Color(r1.getInt("CoderRed"), r1.getInt("CoderGreen"), r1.getInt("CoderBlue"));
-			    Statement statement = new Statement(statementId,
-			    		r1.getInt("Start"),
-			    		r1.getInt("Stop"),
-			    		statementTypeId,
-			    		r1.getString("StatementTypeLabel"),
-			    		sColor,
-			    		r1.getInt("CoderId"),
-			    		r1.getString("CoderName"),
-			    		cColor,
-			    		new ArrayList<Value>(),
-			    		r1.getInt("DocumentId"),
-			    		r1.getString("Text"),
-			    		LocalDateTime.ofEpochSecond(r1.getLong("Date"), 0, ZoneOffset.UTC));
-			    statementMap.put(statementId, statement);
+		ResultSet r3;
+		try (Connection conn = readDs.getConnection();
+				PreparedStatement s1 = q1.prepare(conn);
+				PreparedStatement s3 = q3.prepare(conn);
+				PreparedStatement s4a = q4[0].prepare(conn);
+				PreparedStatement s4b = q4[1].prepare(conn);
+				PreparedStatement s4c = q4[2].prepare(conn);
+				PreparedStatement s4d = q4[3].prepare(conn);
+				SQLCloseable finish = conn::rollback) {
+			conn.setAutoCommit(false); // PostgreSQL only fetches rows in chunks within a transaction
+			for (PreparedStatement ps : new PreparedStatement[] { s1, s4a, s4b, s4c, s4d }) {
+				ps.setFetchSize(FETCH_SIZE);
 			}
 			
 			// get variables
@@ -3197,68 +4453,191 @@ public class Sql {
 				variableDataTypeMap.put(r3.getInt("ID"), r3.getString("DataType"));
 			}
 
-			// attributes
-			r5 = s5.executeQuery();
-			HashMap<Integer, HashMap<String, String>> attributeMap = new HashMap<Integer, HashMap<String, String>>();
-			String attributeKey;
-			String attributeValue;
-			while (r5.next()) {
-				entityId = r5.getInt("EntityId");
-				attributeKey = r5.getString("AttributeVariable");
-				attributeValue = r5.getString("AttributeValue");
-				if (!attributeMap.containsKey(entityId)) {
-					attributeMap.put(entityId, new HashMap<String, String>());
-				}
-				attributeMap.get(entityId).put(attributeKey, attributeValue);
-			}
+			// entities and their attributes
+			this.entityCache.loadStatementType(conn, statementTypeId);
 			
-			// get values and put them into the statements
-			r4 = s4a.executeQuery();
-			while (r4.next()) {
-				variableId = r4.getInt("VariableId");
-				entityId = r4.getInt("EntityId");
-				Entity e = new Entity(entityId,
-						variableId,
-						r4.getString("Value"),
-						new Color(r4.getInt("Red"), r4.getInt("Green"), r4.getInt("Blue")),
-						r4.getInt("ChildOf"),
-						true,
-						attributeMap.get(entityId));
-				statementMap.get(r4.getInt("StatementId")).getValues().add(new Value(variableId, variableNameMap.get(variableId), variableDataTypeMap.get(variableId), e));
-			}
-			r4 = s4b.executeQuery();
-			while (r4.next()) {
-				variableId = r4.getInt("VariableId");
-				String value = r4.getString("Value");
-				statementMap.get(r4.getInt("StatementId")).getValues().add(new Value(variableId, variableNameMap.get(variableId), variableDataTypeMap.get(variableId), value));
-			}
-			r4 = s4c.executeQuery();
-			while (r4.next()) {
-				variableId = r4.getInt("VariableId");
-				int value = r4.getInt("Value");
-				statementMap.get(r4.getInt("StatementId")).getValues().add(new Value(variableId, variableNameMap.get(variableId), variableDataTypeMap.get(variableId), value));
+			// read the statements and merge the values of each statement from the four sorted value result sets
+			ResultSet r1 = s1.executeQuery();
+			ResultSet[] r4 = new ResultSet[] { s4a.executeQuery(), s4b.executeQuery(), s4c.executeQuery(), s4d.executeQuery() };
+			boolean[] more = new boolean[r4.length];
+			for (int t = 0; t < r4.length; t++) {
+				more[t] = r4[t].next();
 			}
-			r4 = s4d.executeQuery();
-			while (r4.next()) {
-				variableId = r4.getInt("VariableId");
-				int value = r4.getInt("Value");
-				statementMap.get(r4.getInt("StatementId")).getValues().add(new Value(variableId, variableNameMap.get(variableId), variableDataTypeMap.get(variableId), value));
+			while (r1.next()) {
+				statementId = r1.getInt("StatementId");
+				statementTypeId = r1.getInt("StatementTypeId");
+				sColor = new Color(r1.getInt("StatementTypeRed"), r1.getInt("StatementTypeGreen"), r1.getInt("StatementTypeBlue"));
+				cColor = new Color(r1.getInt("CoderRed"), r1.getInt("CoderGreen"), r1.getInt("CoderBlue"));
+				long date = r1.getLong("Date");
+				Statement statement = new Statement(statementId,
+						r1.getInt("Start"),
+						r1.getInt("Stop"),
+						statementTypeId,
+						r1.getString("StatementTypeLabel"),
+						sColor,
+						r1.getInt("CoderId"),
+						r1.getString("CoderName"),
+						cColor,
+						new ArrayList<Value>(),
+						r1.getInt("DocumentId"),
+						r1.getString("Text"),
+						LocalDateTime.ofEpochSecond(date, 0, ZoneOffset.UTC));
+				for (int t = 0; t < r4.length; t++) {
+					// skip values of statements that are not in the statement result set, for example if they were added in between
+					int c;
+					while (more[t] && (c = compareStatementOrder(r4[t], date, statement)) <= 0) {
+						if (c == 0) {
+							variableId = r4[t].getInt("VariableId");
+							Object value;
+							if (t == 0) {
+								value = this.entityCache.get(conn, r4[t].getInt("EntityId")); // null if the entity was deleted in between
+							} else if (t == 1) {
+								value = r4[t].getString("Value");
+							} else {
+								value = r4[t].getInt("Value");
+							}
+							if (t > 0 || value != null) {
+								statement.getValues().add(new Value(variableId, variableNameMap.get(variableId), variableDataTypeMap.get(variableId), value));
+							}
+						}
+						more[t] = r4[t].next();
+					}
+				}
+				consumer.accept(statement);
 			}
-			
-			// assemble and sort all statements
-			Collection<Statement> s = statementMap.values();
-	        listOfStatements = new ArrayList<Statement>(s);
-			Collections.sort(listOfStatements);
+			success = true;
 		} catch (SQLException e) {
 			LogEvent l = new LogEvent(Logger.WARNING,
 					"[SQL] Failed to retrieve statements.",
-					"Attempted to retrieve a set of " + statementIds.length + " statements from the database, but something went wrong.",
+					"Attempted to retrieve a set of " + (statementIds == null ? 0 : statementIds.length) + " statements from the database, but something went wrong.",
 					e);
 			Dna.logger.log(l);
 		}
-		return listOfStatements;
+		return success;
+	}
+
+	/**
+	 * Compare the statement of the current row in a value result set from
+	 * {@link #streamStatements(int[], int, LocalDateTime, LocalDateTime,
+	 * ArrayList, boolean, ArrayList, boolean, ArrayList, boolean, ArrayList,
+	 * boolean, HashMap, boolean, Consumer)} with a statement, in the order of
+	 * {@link model.Statement#compareTo(Statement)}.
+	 * 
+	 * @param r          The value result set.
+	 * @param date       The date of the statement in seconds since 1970.
+	 * @param statement  The statement.
+	 * @return           A negative number, zero, or a positive number if the
+	 *   row belongs to a statement before, the same as, or after the
+	 *   statement.
+	 */
+	private static int compareStatementOrder(ResultSet r, long date, Statement statement) throws SQLException {
+		int c = Long.compare(r.getLong("Date"), date);
+		if (c == 0) {
+			c = Integer.compare(r.getInt("DocumentId"), statement.getDocumentId());
+		}
+		if (c == 0) {
+			c = Integer.compare(r.getInt("Start"), statement.getStart());
+		}
+		if (c == 0) {
+			c = Integer.compare(r.getInt("Stop"), statement.getStop());
+		}
+		if (c == 0) {
+			c = Integer.compare(r.getInt("StatementId"), statement.getId());
+		}
+		return c;
 	}
-	
+
+	/**
+	 * Append a filter condition on a document field for {@link #getStatements(int[], int, LocalDateTime,
+	 * LocalDateTime, ArrayList, boolean, ArrayList, boolean, ArrayList, boolean, ArrayList, boolean, HashMap,
+	 * boolean)} to a query.
+	 * 
+	 * @param query The query, to which the condition, starting with {@code "AND"}, and its parameters are appended.
+	 * @param field The column name in the DOCUMENTS table, for example {@code "Author"}.
+	 * @param labels The field values to exclude or include. Can be empty or {@code null}.
+	 * @param include Include the values instead of excluding them?
+	 */
+	private static void appendDocumentFilter(Query query, String field, ArrayList<String> labels, boolean include) {
+		if (labels == null || labels.size() == 0) {
+			return;
+		}
+		query.append("AND DOCUMENTS." + field + (include ? " " : " NOT ") + "IN (" + createPlaceholders(labels.size()) + ") ", labels);
+	}
+
+	/**
+	 * Append a filter condition on the values of a statement-level variable for {@link #getStatements(int[], int,
+	 * LocalDateTime, LocalDateTime, ArrayList, boolean, ArrayList, boolean, ArrayList, boolean, ArrayList, boolean,
+	 * HashMap, boolean)} to a query. The variable is looked up by name in all four data tables because its data type is not known
+	 * here; only the table of the actual data type contains matching rows.
+	 * 
+	 * @param query The query, to which the condition, starting with {@code "AND"}, and its parameters are appended.
+	 *   Nothing is appended if the variable cannot be filtered safely.
+	 * @param statementTypeId The statement type ID.
+	 * @param variable The variable name.
+	 * @param labels The values to exclude or include, as they are displayed (i.e., entity values, text, or numbers).
+	 * @param include Include the values instead of excluding them?
+	 */
+	private static void appendValueFilter(Query query, int statementTypeId, String variable, ArrayList<String> labels, boolean include) {
+		if (labels == null || (include && (labels.size() == 0 || labels.contains("")))) { // missing values cannot be matched
+			return;
+		}
+		ArrayList<Integer> numbers = new ArrayList<Integer>();
+		for (String label : labels) {
+			try {
+				int number = Integer.parseInt(label);
+				if (String.valueOf(number).equals(label)) { // only the canonical representation matches the displayed value
+					numbers.add(number);
+				}
+			} catch (NumberFormatException e) {
+				// not a valid integer or boolean value
+			}
+		}
+		ArrayList<String> selects = new ArrayList<String>();
+		ArrayList<Object> selectParameters = new ArrayList<Object>();
+		if (labels.size() > 0) {
+			selects.add("SELECT DATASHORTTEXT.StatementId FROM DATASHORTTEXT "
+					+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATASHORTTEXT.VariableId "
+					+ "INNER JOIN ENTITIES ON ENTITIES.ID = DATASHORTTEXT.Entity "
+					+ "WHERE VARIABLES.StatementTypeId = ? AND VARIABLES.Variable = ? "
+					+ "AND ENTITIES.Value IN (" + createPlaceholders(labels.size()) + ")");
+			selectParameters.add(statementTypeId);
+			selectParameters.add(variable);
+			selectParameters.addAll(labels);
+			selects.add("SELECT DATALONGTEXT.StatementId FROM DATALONGTEXT "
+					+ "INNER JOIN VARIABLES ON VARIABLES.ID = DATALONGTEXT.VariableId "
+					+ "WHERE VARIABLES.StatementTypeId = ? AND VARIABLES.Variable = ? "
+					+ "AND DATALONGTEXT.Value IN (" + createPlaceholders(labels.size()) + ")");
+			selectParameters.add(statementTypeId);
+			selectParameters.add(variable);
+			selectParameters.addAll(labels);
+		}
+		if (numbers.size() > 0) {
+			for (String table : new String[] { "DATABOOLEAN", "DATAINTEGER" }) {
+				selects.add("SELECT " + table + ".StatementId FROM " + table + " "
+						+ "INNER JOIN VARIABLES ON VARIABLES.ID = " + table + ".VariableId "
+						+ "WHERE VARIABLES.StatementTypeId = ? AND VARIABLES.Variable = ? "
+						+ "AND " + table + ".Value IN (" + createPlaceholders(numbers.size()) + ")");
+				selectParameters.add(statementTypeId);
+				selectParameters.add(variable);
+				selectParameters.addAll(numbers);
+			}
+		}
+		if (selects.size() == 0) { // nothing to exclude
+			return;
+		}
+		query.append("AND STATEMENTS.ID" + (include ? " " : " NOT ") + "IN (" + String.join(" UNION ", selects) + ") ", selectParameters);
+	}
+
+	/**
+	 * Create a comma-separated list of query parameter placeholders.
+	 * 
+	 * @param n The number of placeholders.
+	 * @return A string like {@code "?, ?, ?"}.
+	 */
+	private static String createPlaceholders(int n) {
+		return String.join(", ", Collections.nCopies(n, "?"));
+	}
+
 	/**
 	 * Get a shallow representation of all statements in a specific document for
 	 * the purpose of painting the statements in the text. For this purpose,
@@ -3277,7 +4656,7 @@ public class Sql {
 				+ "LEFT JOIN STATEMENTTYPES T ON T.ID = S.StatementTypeId "
 				+ "WHERE S.DocumentId = ? ORDER BY Start ASC;";
 		ArrayList<Statement> statements = new ArrayList<Statement>();
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement(query)) {
 			ResultSet r;
 			s.setInt(1, documentId);
@@ -3357,7 +4736,7 @@ public class Sql {
 		if (statementTypeId != -1) {
 			where = " WHERE StatementTypeId = " + statementTypeId;
 		}
-		try (Connection conn = getDataSource().getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT COUNT(ID) FROM STATEMENTS" + where + ";")) {
 			ResultSet r = s.executeQuery();
 			while (r.next()) {
@@ -3451,7 +4830,7 @@ public class Sql {
 		if (withAttributes) {
 			sqlString = "SELECT ID, Value, Red, Green, Blue, ChildOf, (SELECT COUNT(ID) FROM DATASHORTTEXT WHERE DATASHORTTEXT.VariableId = ENTITIES.VariableId AND Entity = ENTITIES.ID) AS Count FROM ENTITIES WHERE VariableId = ?;";
 		}
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement(sqlString);
 				PreparedStatement s2 = conn.prepareStatement("SELECT AttributeVariable, AttributeValue FROM ATTRIBUTEVALUES AS AVAL INNER JOIN ATTRIBUTEVARIABLES AS AVAR ON AVAL.AttributeVariableId = AVAR.ID WHERE EntityId = ?;")) {
 			ResultSet r1, r2;
@@ -3478,11 +4857,11 @@ public class Sql {
 		            					r1.getInt("Count") > 0,
 		            					map));
 	        		} else {
-	        			entitiesList.add(
+	        			entitiesList.add(this.entityCache.intern(
 		            			new Entity(r1.getInt("ID"),
 		            					variableIds.get(i),
 		            					r1.getString("Value"),
-		            					new Color(r1.getInt("Red"), r1.getInt("Green"), r1.getInt("Blue"))));
+		            					new Color(r1.getInt("Red"), r1.getInt("Green"), r1.getInt("Blue")))));
 	        		}
 	        	}
             	entities.add(entitiesList);
@@ -3531,6 +4910,7 @@ public class Sql {
 			} else {
 				conn.setAutoCommit(false);
 				for (i = 0; i < entityIds.length; i++) {
+					this.entityCache.invalidate(entityIds[i]);
 					s1.setInt(1, entityIds[i]);
 					s1.executeUpdate();
 				}
@@ -3557,6 +4937,7 @@ public class Sql {
 	 * @throws SQLException
 	 */
 	public void setEntityValue(int entityId, String newValue) throws SQLException {
+		this.entityCache.invalidate(entityId);
 		try (Connection conn = getDataSource().getConnection();
 				PreparedStatement s = conn.prepareStatement("UPDATE ENTITIES SET Value = ? WHERE ID = ?;")) {
         	s.setString(1, newValue);
@@ -3575,6 +4956,7 @@ public class Sql {
 	 * @throws SQLException
 	 */
 	public void setEntityColor(int entityId, Color newColor) throws SQLException {
+		this.entityCache.invalidate(entityId);
 		try (Connection conn = getDataSource().getConnection();
 				PreparedStatement s = conn.prepareStatement("UPDATE ENTITIES SET Red = ?, Green = ?, Blue = ? WHERE ID = ?;")) {
         	s.setInt(1, newColor.getRed());
@@ -3596,7 +4978,7 @@ public class Sql {
 	 */
 	public ArrayList<String> getUniqueValues(int statementTypeId, String variable) {
 		ArrayList<String> values = new ArrayList<String>();
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT DISTINCT Value FROM DATAINTEGER INNER JOIN VARIABLES ON VARIABLES.ID = DATAINTEGER.VariableId WHERE VARIABLES.Variable = ? AND VARIABLES.StatementTypeId = ?;");
 				PreparedStatement s2 = conn.prepareStatement("SELECT DISTINCT Value FROM DATABOOLEAN INNER JOIN VARIABLES ON VARIABLES.ID = DATABOOLEAN.VariableId WHERE VARIABLES.Variable = ? AND VARIABLES.StatementTypeId = ?;");
 				PreparedStatement s3 = conn.prepareStatement("SELECT DISTINCT Value FROM DATALONGTEXT INNER JOIN VARIABLES ON VARIABLES.ID = DATALONGTEXT.VariableId WHERE VARIABLES.Variable = ? AND VARIABLES.StatementTypeId = ?;");
@@ -3659,6 +5041,7 @@ public class Sql {
 	 * @throws SQLException
 	 */
 	public void setAttributeValue(int entityId, int variableId, String attributeVariable, String newValue) throws SQLException {
+		this.entityCache.invalidate(entityId);
 		try (Connection conn = getDataSource().getConnection();
 				PreparedStatement s = conn.prepareStatement("UPDATE ATTRIBUTEVALUES SET AttributeValue = ? WHERE (EntityId = ? AND AttributeVariableId = (SELECT ID FROM ATTRIBUTEVARIABLES WHERE VariableId = ? AND AttributeVariable = ?));")) {
         	s.setString(1, newValue);
@@ -3680,7 +5063,7 @@ public class Sql {
 	 */
 	public ArrayList<String> getAttributeVariables(int variableId) {
 		ArrayList<String> attributeVariables = new ArrayList<String>();
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT AttributeVariable FROM ATTRIBUTEVARIABLES WHERE VariableId = ?;")) {
 			s1.setInt(1, variableId);
 			ResultSet r1 = s1.executeQuery();
@@ -3704,6 +5087,7 @@ public class Sql {
 	 * @param attributeVariable  The attribute variable name.
 	 */
 	public void addAttributeVariable(int variableId, String attributeVariable) {
+		this.entityCache.invalidateVariable(variableId);
 		try (Connection conn = ds.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("INSERT INTO ATTRIBUTEVARIABLES (VariableId, AttributeVariable) VALUES (?, ?);", PreparedStatement.RETURN_GENERATED_KEYS);
 				PreparedStatement s2 = conn.prepareStatement("INSERT INTO ATTRIBUTEVALUES (EntityId, AttributeVariableId, AttributeValue) VALUES (?, ?, '');");
@@ -3743,6 +5127,7 @@ public class Sql {
 	 * @param attributeVariable  The attribute variable name.
 	 */
 	public void deleteAttributeVariable(int variableId, String attributeVariable) {
+		this.entityCache.invalidateVariable(variableId);
 		try (Connection conn = ds.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("DELETE FROM ATTRIBUTEVARIABLES WHERE (VariableId = ? AND AttributeVariable = ?);")) {
 			s1.setInt(1, variableId);
@@ -3765,6 +5150,7 @@ public class Sql {
 	 * @param newAttributeVariableName  The new attribute variable name.
 	 */
 	public boolean updateAttributeVariableName(int variableId, String oldAttributeVariableName, String newAttributeVariableName) {
+		this.entityCache.invalidateVariable(variableId);
 		boolean success = false;
 		try (Connection conn = ds.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("UPDATE ATTRIBUTEVARIABLES SET AttributeVariable = ? WHERE VariableId = ? AND AttributeVariable = ?;")) {
@@ -3796,7 +5182,7 @@ public class Sql {
 	public StatementType getStatementType(int statementTypeId) {
 		StatementType st = null;
 		String statementTypeLabel = "";
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 			 PreparedStatement s1 = conn.prepareStatement("SELECT * FROM STATEMENTTYPES WHERE ID = ?;");
 			 PreparedStatement s2 = conn.prepareStatement("SELECT * FROM VARIABLES WHERE StatementTypeId = ?;")) {
 			ArrayList<Value> variables;
@@ -3837,7 +5223,7 @@ public class Sql {
 	 */
 	public StatementType getStatementType(String statementTypeLabel) {
 		StatementType st = null;
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 			 PreparedStatement s1 = conn.prepareStatement("SELECT * FROM STATEMENTTYPES WHERE Label = ?;");
 			 PreparedStatement s2 = conn.prepareStatement("SELECT * FROM VARIABLES WHERE StatementTypeId = ?;")) {
 			ArrayList<Value> variables;
@@ -3880,7 +5266,7 @@ public class Sql {
 	 */
 	public ArrayList<StatementType> getStatementTypes() {
 		ArrayList<StatementType> statementTypes = new ArrayList<StatementType>();
-		try (Connection conn = ds.getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s1 = conn.prepareStatement("SELECT * FROM STATEMENTTYPES;");
 				PreparedStatement s2 = conn.prepareStatement("SELECT * FROM VARIABLES WHERE StatementTypeId = ?;")) {
         	ArrayList<Value> variables;
@@ -4191,7 +5577,7 @@ public class Sql {
 	 */
 	public ArrayList<Regex> getRegexes() {
 		ArrayList<Regex> regexList = new ArrayList<Regex>();
-		try (Connection conn = getDataSource().getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT * FROM REGEXES;")) {
 			ResultSet r = s.executeQuery();
 			while (r.next()) {
@@ -4238,7 +5624,7 @@ public class Sql {
 	 */
 	public String getVersion() {
 		String version = "";
-		try (Connection conn = getDataSource().getConnection();
+		try (Connection conn = readDs.getConnection();
 				PreparedStatement s = conn.prepareStatement("SELECT Value FROM SETTINGS WHERE Property = 'version';")) {
 			ResultSet r = s.executeQuery();
 			while (r.next()) {